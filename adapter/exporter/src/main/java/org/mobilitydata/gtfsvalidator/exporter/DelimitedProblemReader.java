@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.exporter;
+
+import org.mobilitydata.gtfsvalidator.adapter.protos.GtfsValidationOutputProto;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads back, one at a time, the problems written to a single file by
+ * {@link ProtobufNoticeExporter.DelimitedOutputStreamGenerator}. Problems are not held in memory: tools processing
+ * the results of a validation can read them whatever their number.
+ * <p>
+ * When notices are aggregated, each aggregate is written as a summary followed by its samples. A summary is a problem
+ * with no type nor severity, which is not a problem itself:
+ * <ul>
+ * <li>{@code csv_key_name} is {@link ProtobufNoticeExporter#AGGREGATE_SUMMARY_KEY_NAME};</li>
+ * <li>{@code csv_file_name} is the file of the aggregated notices;</li>
+ * <li>{@code entity_name} is their notice id;</li>
+ * <li>{@code csv_column_name} is their field name, if any;</li>
+ * <li>{@code value} is their number;</li>
+ * <li>{@code alt_value} is the number of samples written right after the summary, as ordinary problems.</li>
+ * </ul>
+ */
+public class DelimitedProblemReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream inputStream;
+
+    /**
+     * @param inputStream the stream to read problems from, each preceded by its size
+     */
+    public DelimitedProblemReader(final InputStream inputStream) {
+        this.inputStream = inputStream;
+    }
+
+    /**
+     * Opens a file written by {@link ProtobufNoticeExporter.DelimitedOutputStreamGenerator}. The file is decompressed
+     * if its name ends with {@link ProtobufNoticeExporter.DelimitedOutputStreamGenerator#GZIP_EXTENSION}.
+     *
+     * @param file the file to read problems from
+     * @return a reader of the problems written to {@code file}
+     * @throws IOException if the file could not be opened
+     */
+    public static DelimitedProblemReader open(final Path file) throws IOException {
+        final InputStream fileStream = Files.newInputStream(file);
+        try {
+            return new DelimitedProblemReader(
+                    file.toString().endsWith(ProtobufNoticeExporter.DelimitedOutputStreamGenerator.GZIP_EXTENSION)
+                            ? new BufferedInputStream(new GZIPInputStream(fileStream, BUFFER_SIZE), BUFFER_SIZE)
+                            : new BufferedInputStream(fileStream, BUFFER_SIZE));
+        } catch (IOException e) {
+            fileStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next problem
+     *
+     * @return the next problem, null if all problems were read
+     * @throws IOException if the problem could not be read
+     */
+    public GtfsValidationOutputProto.GtfsProblem read() throws IOException {
+        return GtfsValidationOutputProto.GtfsProblem.parseDelimitedFrom(inputStream);
+    }
+
+    /**
+     * Reads all problems left, passing them one at a time to a consumer
+     *
+     * @param consumer the consumer of problems
+     * @throws IOException if a problem could not be read
+     */
+    public void forEach(final Consumer<GtfsValidationOutputProto.GtfsProblem> consumer) throws IOException {
+        GtfsValidationOutputProto.GtfsProblem problem;
+        while ((problem = read()) != null) {
+            consumer.accept(problem);
+        }
+    }
+
+    /**
+     * Returns true if a problem is the summary of an aggregate of notices, followed by its samples, rather than a
+     * problem itself
+     *
+     * @param problem the problem read
+     * @return true if the problem is the summary of an aggregate of notices
+     */
+    public static boolean isAggregateSummary(final GtfsValidationOutputProto.GtfsProblem problem) {
+        return ProtobufNoticeExporter.AGGREGATE_SUMMARY_KEY_NAME.equals(problem.getCsvKeyName());
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+    }
+}
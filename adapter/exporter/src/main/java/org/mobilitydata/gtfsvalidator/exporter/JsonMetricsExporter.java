@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.exporter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.MetricsExporter;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.StageMetrics;
+
+import java.io.IOException;
+
+/**
+ * Exports the metrics of the stages of the validation process as a json object holding an array of stages. Times are
+ * written in seconds; CPU time and allocated memory are left out when they are unknown.
+ */
+public class JsonMetricsExporter implements MetricsExporter {
+    public static final String FILENAME = "metrics.json";
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final JsonGenerator jsonGenerator;
+
+    public JsonMetricsExporter(final JsonGenerator generator) {
+        this.jsonGenerator = generator;
+    }
+
+    @Override
+    public void exportBegin() throws IOException {
+        jsonGenerator.writeStartObject();
+        jsonGenerator.writeFieldName("stages");
+        jsonGenerator.writeStartArray();
+    }
+
+    @Override
+    public void export(final StageMetrics toExport) throws IOException {
+        jsonGenerator.writeStartObject();
+        jsonGenerator.writeStringField("stage", toExport.getStage());
+        if (toExport.getFilename() != null) {
+            jsonGenerator.writeStringField("filename", toExport.getFilename());
+        }
+        jsonGenerator.writeNumberField("wallTimeSeconds", toExport.getWallTimeNanos() / NANOS_PER_SECOND);
+        if (toExport.getCpuTimeNanos() >= 0) {
+            jsonGenerator.writeNumberField("cpuTimeSeconds", toExport.getCpuTimeNanos() / NANOS_PER_SECOND);
+        }
+        if (toExport.getAllocatedBytes() >= 0) {
+            jsonGenerator.writeNumberField("allocatedBytes", toExport.getAllocatedBytes());
+        }
+        jsonGenerator.writeNumberField("rowCount", toExport.getRowCount());
+        jsonGenerator.writeNumberField("byteCount", toExport.getByteCount());
+        jsonGenerator.writeNumberField("rowsPerSecond", toExport.getRowsPerSecond());
+        jsonGenerator.writeNumberField("bytesPerSecond", toExport.getBytesPerSecond());
+        jsonGenerator.writeEndObject();
+    }
+
+    @Override
+    public void exportEnd() throws IOException {
+        jsonGenerator.writeEndArray();
+        jsonGenerator.writeEndObject();
+        jsonGenerator.close();
+    }
+}
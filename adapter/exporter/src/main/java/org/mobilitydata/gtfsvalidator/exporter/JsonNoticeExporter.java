@@ -17,11 +17,14 @@
 package org.mobilitydata.gtfsvalidator.exporter;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeAggregate;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeExporter;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.*;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.ExtraFileFoundNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.InputZipContainsFolderNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonAsciiOrNonPrintableCharNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonContiguousKeyNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonStandardHeaderNotice;
 
 import java.io.IOException;
@@ -174,4 +177,46 @@ public class JsonNoticeExporter implements NoticeExporter {
     public void export(DuplicatedEntityNotice toExport) throws IOException {
         jsonGenerator.writeObject(toExport);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void export(MissingForeignKeyValueNotice toExport) throws IOException {
+        jsonGenerator.writeObject(toExport);
+    }
+
+    @Override
+    public void export(UnsortedKeyNotice toExport) throws IOException {
+        jsonGenerator.writeObject(toExport);
+    }
+
+    @Override
+    public void export(NonContiguousKeyNotice toExport) throws IOException {
+        jsonGenerator.writeObject(toExport);
+    }
+
+    /**
+     * Writes an aggregate as an object holding its notice id, filename, field name and count, and its samples as
+     * arrays of notices written as any other notice.
+     *
+     * @param toExport the aggregate to write
+     * @throws IOException if the aggregate could not be written
+     */
+    @Override
+    public void export(final NoticeAggregate toExport) throws IOException {
+        jsonGenerator.writeStartObject();
+        jsonGenerator.writeStringField("noticeId", toExport.getNoticeId());
+        jsonGenerator.writeStringField("filename", toExport.getFilename());
+        jsonGenerator.writeStringField("fieldName", toExport.getFieldName());
+        jsonGenerator.writeNumberField("count", toExport.getCount());
+        jsonGenerator.writeArrayFieldStart("firstSamples");
+        for (Notice sample : toExport.getFirstSamples()) {
+            sample.export(this);
+        }
+        jsonGenerator.writeEndArray();
+        jsonGenerator.writeArrayFieldStart("reservoirSamples");
+        for (Notice sample : toExport.getReservoirSamples()) {
+            sample.export(this);
+        }
+        jsonGenerator.writeEndArray();
+        jsonGenerator.writeEndObject();
+    }
+}
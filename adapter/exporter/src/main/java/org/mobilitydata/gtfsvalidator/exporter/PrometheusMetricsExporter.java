@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.exporter;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.MetricsExporter;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.StageMetrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exports the metrics of the stages of the validation process in the Prometheus text format, as gauges labelled by
+ * stage and by file, so that the file can be collected by the textfile collector of the node exporter. The format
+ * requires the samples of a metric to be written together: stages are held until {@link #exportEnd()}.
+ */
+public class PrometheusMetricsExporter implements MetricsExporter {
+    public static final String FILENAME = "metrics.prom";
+    private static final String PREFIX = "gtfs_validator_stage_";
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final Writer writer;
+    private final List<StageMetrics> stageMetricsList = new ArrayList<>();
+
+    public PrometheusMetricsExporter(final Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void exportBegin() {
+    }
+
+    @Override
+    public void export(final StageMetrics toExport) {
+        stageMetricsList.add(toExport);
+    }
+
+    @Override
+    public void exportEnd() throws IOException {
+        writeGauge("wall_seconds", "Elapsed time of a stage of the validation",
+                stageMetrics -> stageMetrics.getWallTimeNanos() / NANOS_PER_SECOND);
+        writeGauge("cpu_seconds", "CPU time used by the threads of a stage of the validation",
+                stageMetrics -> stageMetrics.getCpuTimeNanos() < 0
+                        ? Double.NaN
+                        : stageMetrics.getCpuTimeNanos() / NANOS_PER_SECOND);
+        writeGauge("allocated_bytes", "Memory allocated by the threads of a stage of the validation",
+                stageMetrics -> stageMetrics.getAllocatedBytes() < 0
+                        ? Double.NaN
+                        : stageMetrics.getAllocatedBytes());
+        writeGauge("rows", "Number of rows processed by a stage of the validation",
+                StageMetrics::getRowCount);
+        writeGauge("bytes", "Number of bytes processed by a stage of the validation",
+                StageMetrics::getByteCount);
+        writeGauge("rows_per_second", "Rows processed per second of elapsed time by a stage of the validation",
+                StageMetrics::getRowsPerSecond);
+        writeGauge("bytes_per_second", "Bytes processed per second of elapsed time by a stage of the validation",
+                StageMetrics::getBytesPerSecond);
+        writer.close();
+    }
+
+    // unknown values are left out rather than written as NaN
+    private void writeGauge(final String name,
+                            final String help,
+                            final ToDoubleFunction<StageMetrics> valueFunction) throws IOException {
+        writer.write("# HELP " + PREFIX + name + " " + help + "\n");
+        writer.write("# TYPE " + PREFIX + name + " gauge\n");
+        for (StageMetrics stageMetrics : stageMetricsList) {
+            final double value = valueFunction.applyAsDouble(stageMetrics);
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            writer.write(PREFIX + name + "{stage=\"" + escapeLabelValue(stageMetrics.getStage()) + "\"");
+            if (stageMetrics.getFilename() != null) {
+                writer.write(",file=\"" + escapeLabelValue(stageMetrics.getFilename()) + "\"");
+            }
+            writer.write("} " + formatValue(value) + "\n");
+        }
+    }
+
+    /**
+     * Escapes a label value as the text format requires: backslashes, double quotes and line feeds
+     *
+     * @param value the label value to escape
+     * @return the escaped label value
+     */
+    static String escapeLabelValue(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String formatValue(final double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+                ? Long.toString((long) value)
+                : Double.toString(value);
+    }
+}
@@ -17,20 +17,24 @@
 package org.mobilitydata.gtfsvalidator.exporter;
 
 import org.mobilitydata.gtfsvalidator.adapter.protos.GtfsValidationOutputProto;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeAggregate;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeExporter;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.*;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.ExtraFileFoundNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.InputZipContainsFolderNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonAsciiOrNonPrintableCharNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonContiguousKeyNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonStandardHeaderNotice;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 public class ProtobufNoticeExporter implements NoticeExporter {
 
@@ -44,6 +48,8 @@ public class ProtobufNoticeExporter implements NoticeExporter {
     }
 
     public static final String FILE_EXTENSION = ".pb";
+    // csv key name of the problems summarizing an aggregate, never set on other problems
+    public static final String AGGREGATE_SUMMARY_KEY_NAME = "notice_aggregate";
 
     @Override
     public String getExtension() {
@@ -62,56 +68,51 @@ public class ProtobufNoticeExporter implements NoticeExporter {
 
     @Override
     public void export(final NonStandardHeaderNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_UNKNOWN_COLUMN)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.SUSPICIOUS_WARNING)
                 .setAltEntityValue(toExport.getExtraHeader())
                 .clearAltEntityId()
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
     public void export(final InputZipContainsFolderNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_ARCHIVE_CORRUPTED)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
     public void export(final NonAsciiOrNonPrintableCharNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_ARCHIVE_CORRUPTED)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.SUSPICIOUS_WARNING)
                 .setAltEntityValue(toExport.getFieldName())
                 .setAltEntityId(toExport.getEntityId())
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
     public void export(final CannotConstructDataProviderNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_UNKNOWN_ERROR)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
     public void export(CannotDownloadArchiveFromNetworkNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_FILE_CORRUPTED)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
@@ -121,14 +122,14 @@ public class ProtobufNoticeExporter implements NoticeExporter {
     }
 
     private void parsingNoticeToProto(String filename, int lineNumber, String fieldName, String rawValue) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(filename)
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_VALUE_ERROR)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
-                .setCsvColumnName(lineNumber, fieldName)
+                .addCsvColumnName(fieldName)
+                .setEntityRow(lineNumber)
                 .setEntityValue(rawValue)
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
@@ -139,12 +140,11 @@ public class ProtobufNoticeExporter implements NoticeExporter {
 
     @Override
     public void export(CannotUnzipInputArchiveNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_ARCHIVE_CORRUPTED)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
@@ -167,7 +167,7 @@ public class ProtobufNoticeExporter implements NoticeExporter {
     private void outOfRangeNoticeToProto(String filename, String entityId, String fieldName, String rangeMinAsString,
                                          String rangeMaxAsString, String actualValueAsString)
             throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(filename)
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_OUT_OF_RANGE)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
@@ -176,112 +176,102 @@ public class ProtobufNoticeExporter implements NoticeExporter {
                 .setValue(rangeMinAsString)
                 .setAltValue(rangeMaxAsString)
                 .setAltEntityValue(actualValueAsString)
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
     public void export(InvalidRowLengthNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_BAD_NUMBER_OF_VALUES)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
                 .setAltEntityRow(toExport.getRowIndex())
                 .setAltEntityValue(String.valueOf(toExport.getExpectedLength()))
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
     public void export(InvalidTimezoneNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_INVALID_TIMEZONE)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
                 .setAltEntityId(toExport.getFieldName())
                 .setAltEntityValue(toExport.getTimezoneValue())
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
     public void export(InvalidUrlNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_INVALID_URL)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
                 .setAltEntityId(toExport.getFieldName())
                 .setAltEntityValue(toExport.getUrlValue())
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
     public void export(MissingHeaderNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_MISSING_COLUMN)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
                 .setAltEntityId(toExport.getMissingHeaderName())
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
     public void export(MissingRequiredFileNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_MISSING_TABLE)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
                 .setAltEntityId(toExport.getFilename())
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
     public void export(MissingRequiredValueNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_MISSING_VALUE)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
                 .setAltEntityId(toExport.getFieldName())
                 .setAltEntityValue(toExport.getEntityId())
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
     public void export(InvalidColorNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_VALUE_ERROR)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
                 .setAltEntityId(toExport.getFieldName())
                 .setAltEntityValue(toExport.getColorValue())
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
     public void export(ExtraFileFoundNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_UNKNOWN_FILE)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.WARNING)
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
     public void export(InvalidTimeNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_VALUE_ERROR)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
                 .setAltEntityId(toExport.getFieldName())
                 .setAltEntityValue(toExport.getTimeValue())
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
@@ -292,57 +282,127 @@ public class ProtobufNoticeExporter implements NoticeExporter {
 
     @Override
     public void export(InvalidCurrencyCodeNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_VALUE_ERROR)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
                 .setAltEntityId(toExport.getFieldName())
                 .setEntityId(toExport.getEntityId())
                 .setAltEntityValue(toExport.getCurrencyCode())
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
     public void export(UnexpectedEnumValueNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_VALUE_ERROR)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
                 .setEntityId(toExport.getFieldName())
                 .setEntityValue(toExport.getEnumValue())
                 .setAltEntityId(toExport.getEntityId())
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
     public void export(IllegalFieldValueCombination toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_VALUE_ERROR)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
                 .setEntityId(toExport.getFieldName())
                 .setAltEntityId(toExport.getConflictingFieldName())
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
     }
 
     @Override
     public void export(DuplicatedEntityNotice toExport) throws IOException {
-        protoBuilder.clear()
+        streamGenerator.write(protoBuilder.clear()
                 .setCsvFileName(toExport.getFilename())
                 .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_VALUE_ERROR)
                 .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
                 .setEntityId(toExport.getFieldName())
                 .setAltEntityId(toExport.getEntityId())
-                .build()
-                .writeTo(streamGenerator.getStream());
+                .build());
+    }
+
+    @Override
+    public void export(MissingForeignKeyValueNotice toExport) throws IOException {
+        streamGenerator.write(protoBuilder.clear()
+                .setCsvFileName(toExport.getFilename())
+                .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_MISSING_FOREIGN_KEY_VALUE)
+                .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
+                .addCsvColumnName(toExport.getFieldName())
+                .setEntityRow(toExport.getLineNumber())
+                .setEntityValue(toExport.getRawValue())
+                .setOtherCsvFileName(toExport.getReferencedFilename())
+                .addOtherCsvColumnName(toExport.getReferencedFieldName())
+                .build());
+    }
+
+    @Override
+    public void export(UnsortedKeyNotice toExport) throws IOException {
+        streamGenerator.write(protoBuilder.clear()
+                .setCsvFileName(toExport.getFilename())
+                .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_UNSORTED)
+                .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR)
+                .addCsvColumnName(toExport.getFieldName())
+                .setEntityRow(toExport.getLineNumber())
+                .setEntityValue(toExport.getRawValue())
+                .setAltEntityValue(toExport.getPreviousValue())
+                .setEntityId(toExport.getGroupValue())
+                .build());
+    }
+
+    @Override
+    public void export(NonContiguousKeyNotice toExport) throws IOException {
+        streamGenerator.write(protoBuilder.clear()
+                .setCsvFileName(toExport.getFilename())
+                .setType(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_NON_CONTIGUOUS)
+                .setSeverity(GtfsValidationOutputProto.GtfsProblem.Severity.WARNING)
+                .addCsvColumnName(toExport.getFieldName())
+                .setEntityRow(toExport.getLineNumber())
+                .setEntityValue(toExport.getRawValue())
+                .build());
+    }
+
+    /**
+     * Writes an aggregate as a problem summarizing it, followed by its samples written as any other notice. The
+     * summary has no type nor severity and its csv key name is {@link #AGGREGATE_SUMMARY_KEY_NAME}: its entity name is
+     * the notice id of the aggregated notices, its csv column name their field name if any, its value their number and
+     * its alternative value the number of samples following it.
+     *
+     * @param toExport the aggregate to write
+     * @throws IOException if the aggregate could not be written
+     */
+    @Override
+    public void export(final NoticeAggregate toExport) throws IOException {
+        protoBuilder.clear()
+                .setCsvFileName(toExport.getFilename())
+                .setCsvKeyName(AGGREGATE_SUMMARY_KEY_NAME)
+                .setEntityName(toExport.getNoticeId())
+                .setValue(String.valueOf(toExport.getCount()))
+                .setAltValue(String.valueOf(
+                        toExport.getFirstSamples().size() + toExport.getReservoirSamples().size()));
+        if (toExport.getFieldName() != null) {
+            protoBuilder.addCsvColumnName(toExport.getFieldName());
+        }
+        streamGenerator.write(protoBuilder.build());
+        for (Notice sample : toExport.getFirstSamples()) {
+            sample.export(this);
+        }
+        for (Notice sample : toExport.getReservoirSamples()) {
+            sample.export(this);
+        }
     }
 
+    /**
+     * Opens one file per notice in a given directory. A file is closed as soon as the next one is requested, since each
+     * notice is written at once: the number of open files does not grow with the number of notices.
+     */
     public static class ProtobufOutputStreamGenerator {
         private final String targetPath;
-        private final List<OutputStream> openedStreamCollection = new ArrayList<>();
+        private OutputStream currentStream;
         private int streamCounter;
 
         public ProtobufOutputStreamGenerator(final String outputPath) {
@@ -350,19 +410,98 @@ public class ProtobufNoticeExporter implements NoticeExporter {
         }
 
         public OutputStream getStream() throws IOException {
-            OutputStream newStream = Files.newOutputStream(Paths.get(
+            closeAll();
+            currentStream = Files.newOutputStream(Paths.get(
                     targetPath + File.separator + streamCounter +
                             ProtobufNoticeExporter.FILE_EXTENSION
             ));
             ++streamCounter;
-            openedStreamCollection.add(newStream);
-            return newStream;
+            return currentStream;
         }
 
         public void closeAll() throws IOException {
-            for (OutputStream outputStream : openedStreamCollection) {
-                outputStream.close();
+            if (currentStream != null) {
+                currentStream.close();
+                currentStream = null;
             }
         }
+
+        /**
+         * Writes a problem to a file of its own
+         *
+         * @param problem the problem to write
+         * @throws IOException if the problem could not be written
+         */
+        public void write(final GtfsValidationOutputProto.GtfsProblem problem) throws IOException {
+            problem.writeTo(getStream());
+        }
+    }
+
+    /**
+     * Writes all notices to a single buffered file in a given directory, optionally gzip compressed. Each problem is
+     * preceded by its size, as written by {@link GtfsValidationOutputProto.GtfsProblem#writeDelimitedTo(OutputStream)}:
+     * the file is read back by {@link DelimitedProblemReader}. The file is created when the first problem is written,
+     * or when streams are closed if no problem was written.
+     */
+    public static class DelimitedOutputStreamGenerator extends ProtobufOutputStreamGenerator {
+        public static final String FILENAME = "results" + FILE_EXTENSION;
+        public static final String GZIP_EXTENSION = ".gz";
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        private final Path targetFile;
+        private final boolean gzip;
+        private OutputStream stream;
+        private boolean closed;
+
+        /**
+         * @param outputPath the path of the directory to write the file in
+         * @param gzip       true to gzip compress the file, whose name then ends with {@link #GZIP_EXTENSION}
+         */
+        public DelimitedOutputStreamGenerator(final String outputPath, final boolean gzip) {
+            super(outputPath);
+            this.targetFile = Paths.get(outputPath, gzip ? FILENAME + GZIP_EXTENSION : FILENAME);
+            this.gzip = gzip;
+        }
+
+        /**
+         * Returns the stream of the single file problems are written to, opening it on first call
+         *
+         * @return the stream of the single file problems are written to
+         * @throws IOException if the file could not be created
+         */
+        @Override
+        public OutputStream getStream() throws IOException {
+            if (stream == null) {
+                final OutputStream fileStream = Files.newOutputStream(targetFile);
+                stream = gzip
+                        ? new BufferedOutputStream(new GZIPOutputStream(fileStream, BUFFER_SIZE), BUFFER_SIZE)
+                        : new BufferedOutputStream(fileStream, BUFFER_SIZE);
+            }
+            return stream;
+        }
+
+        /**
+         * Flushes and closes the file problems are written to, creating it if no problem was written
+         *
+         * @throws IOException if the file could not be written
+         */
+        @Override
+        public void closeAll() throws IOException {
+            if (!closed) {
+                getStream().close();
+                closed = true;
+            }
+        }
+
+        /**
+         * Writes a problem to the single file, preceded by its size
+         *
+         * @param problem the problem to write
+         * @throws IOException if the problem could not be written
+         */
+        @Override
+        public void write(final GtfsValidationOutputProto.GtfsProblem problem) throws IOException {
+            problem.writeDelimitedTo(getStream());
+        }
     }
-}
\ No newline at end of file
+}
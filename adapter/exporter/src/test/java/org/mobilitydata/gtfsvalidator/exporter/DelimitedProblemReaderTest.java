@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.exporter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mobilitydata.gtfsvalidator.adapter.protos.GtfsValidationOutputProto;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeAggregate;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.CannotParseIntegerNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.MissingRequiredFileNotice;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DelimitedProblemReaderTest {
+
+    @Test
+    void problemsShouldBeReadBackInTheOrderTheyWereWritten(@TempDir Path tempDir) throws IOException {
+        final List<GtfsValidationOutputProto.GtfsProblem> problems = writeAndReadBack(tempDir, false);
+
+        assertEquals(List.of(tempDir.resolve("results.pb")), listFiles(tempDir));
+        assertEquals(1001, problems.size());
+        assertEquals("agency.txt", problems.get(0).getCsvFileName());
+        assertEquals(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_MISSING_TABLE, problems.get(0).getType());
+        for (int i = 1; i < problems.size(); ++i) {
+            assertEquals("stop_times.txt", problems.get(i).getCsvFileName());
+            assertEquals(List.of("stop_sequence"), problems.get(i).getCsvColumnNameList());
+            assertEquals(i, problems.get(i).getEntityRow());
+            assertEquals("value" + i, problems.get(i).getEntityValue());
+        }
+    }
+
+    @Test
+    void gzipCompressedProblemsShouldBeReadBack(@TempDir Path tempDir) throws IOException {
+        final List<GtfsValidationOutputProto.GtfsProblem> problems = writeAndReadBack(tempDir, true);
+
+        assertEquals(List.of(tempDir.resolve("results.pb.gz")), listFiles(tempDir));
+        assertEquals(1001, problems.size());
+        assertEquals("value1000", problems.get(1000).getEntityValue());
+    }
+
+    @Test
+    void fileShouldBeCreatedWithoutProblem(@TempDir Path tempDir) throws IOException {
+        final ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(
+                GtfsValidationOutputProto.GtfsProblem.newBuilder(),
+                new ProtobufNoticeExporter.DelimitedOutputStreamGenerator(tempDir.toString(), false));
+        underTest.exportBegin();
+        underTest.exportEnd();
+
+        try (DelimitedProblemReader reader = DelimitedProblemReader.open(tempDir.resolve("results.pb"))) {
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    void aggregateSummaryShouldBeToldApartFromItsSamples(@TempDir Path tempDir) throws IOException {
+        final ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(
+                GtfsValidationOutputProto.GtfsProblem.newBuilder(),
+                new ProtobufNoticeExporter.DelimitedOutputStreamGenerator(tempDir.toString(), false));
+        final CannotParseIntegerNotice firstSample =
+                new CannotParseIntegerNotice("stop_times.txt", "stop_sequence", 2, "one");
+        final CannotParseIntegerNotice reservoirSample =
+                new CannotParseIntegerNotice("stop_times.txt", "stop_sequence", 40, "forty");
+        underTest.exportBegin();
+        underTest.export(new NoticeAggregate(firstSample.getId(), "stop_times.txt", "stop_sequence", 50,
+                List.of(firstSample), List.of(reservoirSample)));
+        underTest.exportEnd();
+
+        final List<GtfsValidationOutputProto.GtfsProblem> problems = new ArrayList<>();
+        try (DelimitedProblemReader reader = DelimitedProblemReader.open(tempDir.resolve("results.pb"))) {
+            reader.forEach(problems::add);
+        }
+
+        assertEquals(3, problems.size());
+        final GtfsValidationOutputProto.GtfsProblem summary = problems.get(0);
+        assertTrue(DelimitedProblemReader.isAggregateSummary(summary));
+        assertEquals(ProtobufNoticeExporter.AGGREGATE_SUMMARY_KEY_NAME, summary.getCsvKeyName());
+        assertFalse(summary.hasType());
+        assertFalse(summary.hasSeverity());
+        assertEquals(firstSample.getId(), summary.getEntityName());
+        assertEquals(List.of("stop_sequence"), summary.getCsvColumnNameList());
+        assertEquals("50", summary.getValue());
+        assertEquals("2", summary.getAltValue());
+        assertFalse(DelimitedProblemReader.isAggregateSummary(problems.get(1)));
+        assertEquals("one", problems.get(1).getEntityValue());
+        assertFalse(DelimitedProblemReader.isAggregateSummary(problems.get(2)));
+        assertEquals("forty", problems.get(2).getEntityValue());
+    }
+
+    private static List<GtfsValidationOutputProto.GtfsProblem> writeAndReadBack(final Path tempDir,
+                                                                                final boolean gzip)
+            throws IOException {
+        final ProtobufNoticeExporter.DelimitedOutputStreamGenerator streamGenerator =
+                new ProtobufNoticeExporter.DelimitedOutputStreamGenerator(tempDir.toString(), gzip);
+        final ProtobufNoticeExporter underTest =
+                new ProtobufNoticeExporter(GtfsValidationOutputProto.GtfsProblem.newBuilder(), streamGenerator);
+
+        underTest.exportBegin();
+        underTest.export(new MissingRequiredFileNotice("agency.txt"));
+        for (int i = 1; i <= 1000; ++i) {
+            underTest.export(new CannotParseIntegerNotice("stop_times.txt", "stop_sequence", i, "value" + i));
+        }
+        underTest.exportEnd();
+
+        final List<GtfsValidationOutputProto.GtfsProblem> problems = new ArrayList<>();
+        try (DelimitedProblemReader reader = DelimitedProblemReader.open(
+                tempDir.resolve(gzip ? "results.pb.gz" : "results.pb"))) {
+            reader.forEach(problems::add);
+        }
+        return problems;
+    }
+
+    private static List<Path> listFiles(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+}
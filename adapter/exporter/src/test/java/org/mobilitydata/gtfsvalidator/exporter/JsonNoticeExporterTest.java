@@ -18,16 +18,19 @@ package org.mobilitydata.gtfsvalidator.exporter;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeAggregate;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.*;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.ExtraFileFoundNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.InputZipContainsFolderNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonAsciiOrNonPrintableCharNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonContiguousKeyNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonStandardHeaderNotice;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InOrder;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.List;
 
 import static org.mockito.Mockito.*;
 
@@ -97,6 +100,7 @@ class JsonNoticeExporterTest {
                 FILENAME,
                 "field_name",
                 "entity_id",
+                2,
                 "entity_id_value"
         );
         underTest.export(toExport);
@@ -185,6 +189,7 @@ class JsonNoticeExporterTest {
                 FILENAME,
                 "field_name",
                 "entity_id",
+                2,
                 0, 66, 666
         );
         underTest.export(toExport);
@@ -202,6 +207,7 @@ class JsonNoticeExporterTest {
                 FILENAME,
                 "field_name",
                 "entity_id",
+                2,
                 0, 66, 666
         );
         underTest.export(toExport);
@@ -233,6 +239,7 @@ class JsonNoticeExporterTest {
                 FILENAME,
                 "field_name",
                 "entity_id",
+                2,
                 "neverland"
         );
         underTest.export(toExport);
@@ -250,6 +257,7 @@ class JsonNoticeExporterTest {
                 FILENAME,
                 "field_name",
                 "entity_id",
+                2,
                 "ftp://truc.bidule"
         );
         underTest.export(toExport);
@@ -307,6 +315,7 @@ class JsonNoticeExporterTest {
                 FILENAME,
                 "field_name",
                 "entity_id",
+                2,
                 "#zz"
         );
         underTest.export(toExport);
@@ -332,7 +341,7 @@ class JsonNoticeExporterTest {
         JsonGenerator mockGenerator = mock(JsonGenerator.class);
 
         JsonNoticeExporter underTest = new JsonNoticeExporter(mockGenerator);
-        InvalidTimeNotice toExport = new InvalidTimeNotice(FILENAME, "field_name", "time_value",
+        InvalidTimeNotice toExport = new InvalidTimeNotice(FILENAME, "field_name", "time_value", 2,
                 "entity_id");
         underTest.export(toExport);
 
@@ -359,7 +368,7 @@ class JsonNoticeExporterTest {
         JsonGenerator mockGenerator = mock(JsonGenerator.class);
 
         JsonNoticeExporter underTest = new JsonNoticeExporter(mockGenerator);
-        InvalidCurrencyCodeNotice toExport = new InvalidCurrencyCodeNotice(FILENAME, "field_name", "entity_id",
+        InvalidCurrencyCodeNotice toExport = new InvalidCurrencyCodeNotice(FILENAME, "field_name", "entity_id", 2,
                 "currency_code");
         underTest.export(toExport);
 
@@ -405,4 +414,69 @@ class JsonNoticeExporterTest {
         verify(mockGenerator, times(1)).writeObject(ArgumentMatchers.eq(toExport));
         verifyNoMoreInteractions(mockGenerator);
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportMissingForeignKeyValueNoticeShouldWriteObject() throws IOException {
+        JsonGenerator mockGenerator = mock(JsonGenerator.class);
+
+        JsonNoticeExporter underTest = new JsonNoticeExporter(mockGenerator);
+        MissingForeignKeyValueNotice toExport = new MissingForeignKeyValueNotice(FILENAME, "field_name", 3,
+                "raw_value", "referenced_filename", "referenced_field_name");
+        underTest.export(toExport);
+
+        verify(mockGenerator, times(1)).writeObject(ArgumentMatchers.eq(toExport));
+        verifyNoMoreInteractions(mockGenerator);
+    }
+
+    @Test
+    void exportUnsortedKeyNoticeShouldWriteObject() throws IOException {
+        JsonGenerator mockGenerator = mock(JsonGenerator.class);
+
+        JsonNoticeExporter underTest = new JsonNoticeExporter(mockGenerator);
+        UnsortedKeyNotice toExport = new UnsortedKeyNotice(FILENAME, "field_name", 3, "raw_value",
+                "previous_value", "group_field_name", "group_value");
+        underTest.export(toExport);
+
+        verify(mockGenerator, times(1)).writeObject(ArgumentMatchers.eq(toExport));
+        verifyNoMoreInteractions(mockGenerator);
+    }
+
+    @Test
+    void exportNonContiguousKeyNoticeShouldWriteObject() throws IOException {
+        JsonGenerator mockGenerator = mock(JsonGenerator.class);
+
+        JsonNoticeExporter underTest = new JsonNoticeExporter(mockGenerator);
+        NonContiguousKeyNotice toExport = new NonContiguousKeyNotice(FILENAME, "field_name", 3, "raw_value");
+        underTest.export(toExport);
+
+        verify(mockGenerator, times(1)).writeObject(ArgumentMatchers.eq(toExport));
+        verifyNoMoreInteractions(mockGenerator);
+    }
+
+    @Test
+    void exportNoticeAggregateShouldWriteCountAndSamples() throws IOException {
+        JsonGenerator mockGenerator = mock(JsonGenerator.class);
+
+        JsonNoticeExporter underTest = new JsonNoticeExporter(mockGenerator);
+        MissingRequiredValueNotice firstSample = new MissingRequiredValueNotice(FILENAME, "field_name", "id0");
+        MissingRequiredValueNotice reservoirSample = new MissingRequiredValueNotice(FILENAME, "field_name", "id7");
+        NoticeAggregate toExport = new NoticeAggregate(firstSample.getId(), FILENAME, "field_name", 12,
+                List.of(firstSample), List.of(reservoirSample));
+        underTest.export(toExport);
+
+        InOrder inOrder = inOrder(mockGenerator);
+        inOrder.verify(mockGenerator, times(1)).writeStartObject();
+        inOrder.verify(mockGenerator, times(1)).writeStringField("noticeId", firstSample.getId());
+        inOrder.verify(mockGenerator, times(1)).writeStringField("filename", FILENAME);
+        inOrder.verify(mockGenerator, times(1)).writeStringField("fieldName", "field_name");
+        inOrder.verify(mockGenerator, times(1)).writeNumberField("count", 12L);
+        inOrder.verify(mockGenerator, times(1)).writeArrayFieldStart("firstSamples");
+        inOrder.verify(mockGenerator, times(1)).writeObject(ArgumentMatchers.eq(firstSample));
+        inOrder.verify(mockGenerator, times(1)).writeEndArray();
+        inOrder.verify(mockGenerator, times(1)).writeArrayFieldStart("reservoirSamples");
+        inOrder.verify(mockGenerator, times(1)).writeObject(ArgumentMatchers.eq(reservoirSample));
+        inOrder.verify(mockGenerator, times(1)).writeEndArray();
+        inOrder.verify(mockGenerator, times(1)).writeEndObject();
+        verifyNoMoreInteractions(mockGenerator);
+    }
+}
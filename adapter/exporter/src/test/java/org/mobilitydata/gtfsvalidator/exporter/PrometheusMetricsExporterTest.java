@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.exporter;
+
+import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.StageMetrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrometheusMetricsExporterTest {
+
+    @Test
+    void exportEndShouldWriteOneGaugePerMetricWithSamplesOfAllStages() throws IOException {
+        StringWriter writer = new StringWriter();
+        PrometheusMetricsExporter underTest = new PrometheusMetricsExporter(writer);
+
+        underTest.exportBegin();
+        underTest.export(new StageMetrics(StageMetrics.ROWS, "stops.txt", 2_000_000_000L, 1_500_000_000L,
+                1024, 10, 400));
+        underTest.export(new StageMetrics(StageMetrics.FOREIGN_KEYS, null, 500_000_000L, -1, -1, 20, 0));
+        assertEquals("", writer.toString());
+        underTest.exportEnd();
+
+        String toCheck = writer.toString();
+        assertThat(toCheck, containsString("# TYPE gtfs_validator_stage_wall_seconds gauge\n"
+                + "gtfs_validator_stage_wall_seconds{stage=\"rows\",file=\"stops.txt\"} 2\n"
+                + "gtfs_validator_stage_wall_seconds{stage=\"foreign_keys\"} 0.5\n"));
+        assertThat(toCheck, containsString("gtfs_validator_stage_cpu_seconds{stage=\"rows\",file=\"stops.txt\"} 1.5\n"));
+        assertThat(toCheck, not(containsString("gtfs_validator_stage_cpu_seconds{stage=\"foreign_keys\"}")));
+        assertThat(toCheck, not(containsString("gtfs_validator_stage_allocated_bytes{stage=\"foreign_keys\"}")));
+        assertThat(toCheck, containsString("gtfs_validator_stage_rows_per_second{stage=\"rows\",file=\"stops.txt\"} 5\n"));
+        assertThat(toCheck, containsString("gtfs_validator_stage_bytes_per_second{stage=\"foreign_keys\"} 0\n"));
+    }
+
+    @Test
+    void escapeLabelValueShouldEscapeBackslashQuoteAndLineFeed() {
+        assertEquals("a\\\\b\\\"c\\nd", PrometheusMetricsExporter.escapeLabelValue("a\\b\"c\nd"));
+    }
+}
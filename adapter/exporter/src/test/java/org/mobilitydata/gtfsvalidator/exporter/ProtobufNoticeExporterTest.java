@@ -18,16 +18,19 @@ package org.mobilitydata.gtfsvalidator.exporter;
 
 import org.junit.jupiter.api.Test;
 import org.mobilitydata.gtfsvalidator.adapter.protos.GtfsValidationOutputProto;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeAggregate;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.*;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.ExtraFileFoundNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.InputZipContainsFolderNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonAsciiOrNonPrintableCharNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonContiguousKeyNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonStandardHeaderNotice;
 import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.net.URL;
+import java.util.List;
 
 import static org.mockito.Mockito.*;
 
@@ -75,11 +78,8 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
         underTest.export(new NonStandardHeaderNotice(FILENAME, "extra"));
@@ -92,7 +92,7 @@ class ProtobufNoticeExporterTest {
                 ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Severity.SUSPICIOUS_WARNING));
         verify(mockBuilder, times(1)).setAltEntityValue(ArgumentMatchers.eq("extra"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -104,11 +104,8 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
         underTest.export(new InputZipContainsFolderNotice(FILENAME, "extraFolder"));
@@ -120,7 +117,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setSeverity(
                 ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -132,14 +129,11 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
-        underTest.export(new NonAsciiOrNonPrintableCharNotice(FILENAME, "field_name", "entity_id",
+        underTest.export(new NonAsciiOrNonPrintableCharNotice(FILENAME, "field_name", "entity_id", 2,
                 "entity_id_value"));
 
         verify(mockBuilder, times(1)).clear();
@@ -151,7 +145,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setAltEntityValue(ArgumentMatchers.eq("field_name"));
         verify(mockBuilder, times(1)).setAltEntityId(ArgumentMatchers.eq("entity_id"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -163,11 +157,8 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
         underTest.export(new CannotConstructDataProviderNotice(FILENAME));
@@ -179,7 +170,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setSeverity(
                 ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -191,11 +182,8 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
         underTest.export(new CannotDownloadArchiveFromNetworkNotice(new URL("https://mobilitydata.org"))
@@ -209,7 +197,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setSeverity(
                 ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -221,11 +209,8 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
         underTest.export(new CannotParseFloatNotice(FILENAME, "field_name", 666, "abc")
@@ -237,11 +222,11 @@ class ProtobufNoticeExporterTest {
                 ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_VALUE_ERROR));
         verify(mockBuilder, times(1)).setSeverity(
                 ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR));
-        verify(mockBuilder, times(1)).setCsvColumnName(
-                ArgumentMatchers.eq(666), ArgumentMatchers.eq("field_name"));
+        verify(mockBuilder, times(1)).addCsvColumnName(ArgumentMatchers.eq("field_name"));
+        verify(mockBuilder, times(1)).setEntityRow(ArgumentMatchers.eq(666));
         verify(mockBuilder, times(1)).setEntityValue(ArgumentMatchers.eq("abc"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -253,11 +238,8 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
         underTest.export(new CannotParseIntegerNotice(FILENAME, "field_name", 666, "abc")
@@ -269,11 +251,11 @@ class ProtobufNoticeExporterTest {
                 ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_VALUE_ERROR));
         verify(mockBuilder, times(1)).setSeverity(
                 ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR));
-        verify(mockBuilder, times(1)).setCsvColumnName(
-                ArgumentMatchers.eq(666), ArgumentMatchers.eq("field_name"));
+        verify(mockBuilder, times(1)).addCsvColumnName(ArgumentMatchers.eq("field_name"));
+        verify(mockBuilder, times(1)).setEntityRow(ArgumentMatchers.eq(666));
         verify(mockBuilder, times(1)).setEntityValue(ArgumentMatchers.eq("abc"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -285,11 +267,8 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
         underTest.export(new CannotUnzipInputArchiveNotice(FILENAME));
@@ -301,7 +280,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setSeverity(
                 ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -313,14 +292,11 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
-        underTest.export(new FloatFieldValueOutOfRangeNotice(FILENAME, "field_name", "entity_id",
+        underTest.export(new FloatFieldValueOutOfRangeNotice(FILENAME, "field_name", "entity_id", 2,
                 0, 66, 666
         ));
 
@@ -340,7 +316,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setAltEntityValue(
                 ArgumentMatchers.eq("666.0"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -352,14 +328,11 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
-        underTest.export(new IntegerFieldValueOutOfRangeNotice(FILENAME, "field_name", "entity_id",
+        underTest.export(new IntegerFieldValueOutOfRangeNotice(FILENAME, "field_name", "entity_id", 2,
                 0, 66, 666
         ));
 
@@ -379,7 +352,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setAltEntityValue(
                 ArgumentMatchers.eq("666"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
 
     }
 
@@ -392,11 +365,8 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
         underTest.export(new InvalidRowLengthNotice(FILENAME, 666, 10, 8));
@@ -410,7 +380,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setAltEntityRow(ArgumentMatchers.eq(666));
         verify(mockBuilder, times(1)).setAltEntityValue(ArgumentMatchers.eq("10"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -422,14 +392,11 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
-        underTest.export(new InvalidTimezoneNotice(FILENAME, "field_name", "entity_id",
+        underTest.export(new InvalidTimezoneNotice(FILENAME, "field_name", "entity_id", 2,
                 "neverland"));
 
         verify(mockBuilder, times(1)).clear();
@@ -443,7 +410,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setAltEntityValue(
                 ArgumentMatchers.eq("neverland"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -455,14 +422,11 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
-        underTest.export(new InvalidUrlNotice(FILENAME, "field_name", "entity_id",
+        underTest.export(new InvalidUrlNotice(FILENAME, "field_name", "entity_id", 2,
                 "ftp://truc.bidule"));
 
         verify(mockBuilder, times(1)).clear();
@@ -476,7 +440,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setAltEntityValue(
                 ArgumentMatchers.eq("ftp://truc.bidule"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -488,11 +452,8 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
         underTest.export(new MissingHeaderNotice(FILENAME, "missing_header"));
@@ -506,7 +467,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setAltEntityId(
                 ArgumentMatchers.eq("missing_header"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -518,11 +479,8 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
         underTest.export(new MissingRequiredFileNotice(FILENAME));
@@ -536,7 +494,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setAltEntityId(
                 ArgumentMatchers.eq(FILENAME));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -548,11 +506,8 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
         underTest.export(new MissingRequiredValueNotice(FILENAME, "field_name", "entity_id")
@@ -569,7 +524,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setAltEntityValue(
                 ArgumentMatchers.eq("entity_id"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -581,14 +536,11 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
-        underTest.export(new InvalidColorNotice(FILENAME, "field_name", "entity_id", "#zz")
+        underTest.export(new InvalidColorNotice(FILENAME, "field_name", "entity_id", 2, "#zz")
         );
 
         verify(mockBuilder, times(1)).clear();
@@ -602,7 +554,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setAltEntityValue(
                 ArgumentMatchers.eq("#zz"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -614,11 +566,8 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
         underTest.export(new ExtraFileFoundNotice(FILENAME));
@@ -630,7 +579,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setSeverity(
                 ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Severity.WARNING));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -642,14 +591,11 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
-        underTest.export(new InvalidTimeNotice(FILENAME, "field_name", "entity_id", "time_value"));
+        underTest.export(new InvalidTimeNotice(FILENAME, "field_name", "entity_id", 2, "time_value"));
 
         verify(mockBuilder, times(1)).clear();
         verify(mockBuilder, times(1)).setCsvFileName(ArgumentMatchers.eq(FILENAME));
@@ -660,7 +606,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setAltEntityId(ArgumentMatchers.eq("field_name"));
         verify(mockBuilder, times(1)).setAltEntityValue(ArgumentMatchers.eq("time_value"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -672,11 +618,8 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
         underTest.export(new CannotParseDateNotice(FILENAME, "field_name", 0, "raw_value"));
@@ -687,11 +630,11 @@ class ProtobufNoticeExporterTest {
                 ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_VALUE_ERROR));
         verify(mockBuilder, times(1)).setSeverity(
                 ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR));
-        verify(mockBuilder, times(1)).setCsvColumnName(ArgumentMatchers.eq(0),
-                ArgumentMatchers.eq("field_name"));
+        verify(mockBuilder, times(1)).addCsvColumnName(ArgumentMatchers.eq("field_name"));
+        verify(mockBuilder, times(1)).setEntityRow(ArgumentMatchers.eq(0));
         verify(mockBuilder, times(1)).setEntityValue(ArgumentMatchers.eq("raw_value"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -704,15 +647,12 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
 
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
-        underTest.export(new InvalidCurrencyCodeNotice(FILENAME, "field_name", "entity_id",
+        underTest.export(new InvalidCurrencyCodeNotice(FILENAME, "field_name", "entity_id", 2,
                 "currency_code"));
 
         verify(mockBuilder, times(1)).clear();
@@ -725,7 +665,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setEntityId(ArgumentMatchers.eq("entity_id"));
         verify(mockBuilder, times(1)).setAltEntityValue(ArgumentMatchers.eq("currency_code"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -737,11 +677,8 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
         underTest.export(new UnexpectedEnumValueNotice(FILENAME, "field_name",
@@ -757,7 +694,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setEntityValue(ArgumentMatchers.eq("2"));
         verify(mockBuilder, times(1)).setAltEntityId("entity_id");
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -769,11 +706,8 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
         underTest.export(new IllegalFieldValueCombination(FILENAME, "field_name",
@@ -789,7 +723,7 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setAltEntityId(
                 ArgumentMatchers.eq("conflicting_field_name"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
 
     @Test
@@ -801,11 +735,8 @@ class ProtobufNoticeExporterTest {
 
         when(mockBuilder.build()).thenReturn(mockProblem);
 
-        OutputStream mockStream = mock(OutputStream.class);
-
         ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
                 mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
-        when(mockStreamGenerator.getStream()).thenReturn(mockStream);
 
         ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
         underTest.export(new DuplicatedEntityNotice(FILENAME, "field_name", "entity_id"));
@@ -820,6 +751,131 @@ class ProtobufNoticeExporterTest {
         verify(mockBuilder, times(1)).setAltEntityId(
                 ArgumentMatchers.eq("entity_id"));
         verify(mockBuilder, times(1)).build();
-        verify(mockProblem, times(1)).writeTo(ArgumentMatchers.eq(mockStream));
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
+    }
+
+    @Test
+    void exportMissingForeignKeyValueNoticeShouldMapToCsvProblemAndWriteToStream() throws IOException {
+        GtfsValidationOutputProto.GtfsProblem.Builder mockBuilder =
+                mock(GtfsValidationOutputProto.GtfsProblem.Builder.class, RETURNS_SELF);
+
+        GtfsValidationOutputProto.GtfsProblem mockProblem = mock(GtfsValidationOutputProto.GtfsProblem.class);
+
+        when(mockBuilder.build()).thenReturn(mockProblem);
+
+        ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
+                mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
+
+        ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
+        underTest.export(new MissingForeignKeyValueNotice(FILENAME, "field_name", 3, "raw_value",
+                "referenced_filename", "referenced_field_name"));
+
+        verify(mockBuilder, times(1)).clear();
+        verify(mockBuilder, times(1)).setCsvFileName(ArgumentMatchers.eq(FILENAME));
+        verify(mockBuilder, times(1)).setType(ArgumentMatchers.eq(
+                GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_MISSING_FOREIGN_KEY_VALUE));
+        verify(mockBuilder, times(1)).setSeverity(
+                ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR));
+        verify(mockBuilder, times(1)).addCsvColumnName(ArgumentMatchers.eq("field_name"));
+        verify(mockBuilder, times(1)).setEntityRow(ArgumentMatchers.eq(3));
+        verify(mockBuilder, times(1)).setEntityValue(ArgumentMatchers.eq("raw_value"));
+        verify(mockBuilder, times(1)).setOtherCsvFileName(ArgumentMatchers.eq("referenced_filename"));
+        verify(mockBuilder, times(1)).addOtherCsvColumnName(ArgumentMatchers.eq("referenced_field_name"));
+        verify(mockBuilder, times(1)).build();
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
+    }
+
+    @Test
+    void exportUnsortedKeyNoticeShouldMapToCsvProblemAndWriteToStream() throws IOException {
+        GtfsValidationOutputProto.GtfsProblem.Builder mockBuilder =
+                mock(GtfsValidationOutputProto.GtfsProblem.Builder.class, RETURNS_SELF);
+
+        GtfsValidationOutputProto.GtfsProblem mockProblem = mock(GtfsValidationOutputProto.GtfsProblem.class);
+
+        when(mockBuilder.build()).thenReturn(mockProblem);
+
+        ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
+                mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
+
+        ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
+        underTest.export(new UnsortedKeyNotice(FILENAME, "field_name", 3, "raw_value", "previous_value",
+                "group_field_name", "group_value"));
+
+        verify(mockBuilder, times(1)).clear();
+        verify(mockBuilder, times(1)).setCsvFileName(ArgumentMatchers.eq(FILENAME));
+        verify(mockBuilder, times(1)).setType(
+                ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_UNSORTED));
+        verify(mockBuilder, times(1)).setSeverity(
+                ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Severity.ERROR));
+        verify(mockBuilder, times(1)).addCsvColumnName(ArgumentMatchers.eq("field_name"));
+        verify(mockBuilder, times(1)).setEntityRow(ArgumentMatchers.eq(3));
+        verify(mockBuilder, times(1)).setEntityValue(ArgumentMatchers.eq("raw_value"));
+        verify(mockBuilder, times(1)).setAltEntityValue(ArgumentMatchers.eq("previous_value"));
+        verify(mockBuilder, times(1)).setEntityId(ArgumentMatchers.eq("group_value"));
+        verify(mockBuilder, times(1)).build();
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
+    }
+
+    @Test
+    void exportNonContiguousKeyNoticeShouldMapToCsvProblemAndWriteToStream() throws IOException {
+        GtfsValidationOutputProto.GtfsProblem.Builder mockBuilder =
+                mock(GtfsValidationOutputProto.GtfsProblem.Builder.class, RETURNS_SELF);
+
+        GtfsValidationOutputProto.GtfsProblem mockProblem = mock(GtfsValidationOutputProto.GtfsProblem.class);
+
+        when(mockBuilder.build()).thenReturn(mockProblem);
+
+        ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
+                mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
+
+        ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
+        underTest.export(new NonContiguousKeyNotice(FILENAME, "field_name", 3, "raw_value"));
+
+        verify(mockBuilder, times(1)).clear();
+        verify(mockBuilder, times(1)).setCsvFileName(ArgumentMatchers.eq(FILENAME));
+        verify(mockBuilder, times(1)).setType(
+                ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_NON_CONTIGUOUS));
+        verify(mockBuilder, times(1)).setSeverity(
+                ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Severity.WARNING));
+        verify(mockBuilder, times(1)).addCsvColumnName(ArgumentMatchers.eq("field_name"));
+        verify(mockBuilder, times(1)).setEntityRow(ArgumentMatchers.eq(3));
+        verify(mockBuilder, times(1)).setEntityValue(ArgumentMatchers.eq("raw_value"));
+        verify(mockBuilder, times(1)).build();
+        verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
+    }
+
+    @Test
+    void exportNoticeAggregateShouldWriteSummaryThenSamplesToStream() throws IOException {
+        GtfsValidationOutputProto.GtfsProblem.Builder mockBuilder =
+                mock(GtfsValidationOutputProto.GtfsProblem.Builder.class, RETURNS_SELF);
+
+        GtfsValidationOutputProto.GtfsProblem mockProblem = mock(GtfsValidationOutputProto.GtfsProblem.class);
+
+        when(mockBuilder.build()).thenReturn(mockProblem);
+
+        ProtobufNoticeExporter.ProtobufOutputStreamGenerator mockStreamGenerator =
+                mock(ProtobufNoticeExporter.ProtobufOutputStreamGenerator.class);
+
+        ProtobufNoticeExporter underTest = new ProtobufNoticeExporter(mockBuilder, mockStreamGenerator);
+        DuplicatedEntityNotice sample = new DuplicatedEntityNotice(FILENAME, "field_name", "entity_id");
+        underTest.export(new NoticeAggregate(sample.getId(), FILENAME, "field_name", 5, List.of(sample),
+                List.of()));
+
+        InOrder inOrder = inOrder(mockBuilder, mockStreamGenerator);
+        inOrder.verify(mockBuilder, times(1)).clear();
+        inOrder.verify(mockBuilder, times(1)).setCsvFileName(ArgumentMatchers.eq(FILENAME));
+        inOrder.verify(mockBuilder, times(1)).setCsvKeyName(
+                ArgumentMatchers.eq(ProtobufNoticeExporter.AGGREGATE_SUMMARY_KEY_NAME));
+        inOrder.verify(mockBuilder, times(1)).setEntityName(ArgumentMatchers.eq(sample.getId()));
+        inOrder.verify(mockBuilder, times(1)).setValue(ArgumentMatchers.eq("5"));
+        inOrder.verify(mockBuilder, times(1)).setAltValue(ArgumentMatchers.eq("1"));
+        inOrder.verify(mockBuilder, times(1)).addCsvColumnName(ArgumentMatchers.eq("field_name"));
+        inOrder.verify(mockBuilder, times(1)).build();
+        inOrder.verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
+        inOrder.verify(mockBuilder, times(1)).clear();
+        inOrder.verify(mockBuilder, times(1)).setType(
+                ArgumentMatchers.eq(GtfsValidationOutputProto.GtfsProblem.Type.TYPE_CSV_VALUE_ERROR));
+        inOrder.verify(mockBuilder, times(1)).build();
+        inOrder.verify(mockStreamGenerator, times(1)).write(ArgumentMatchers.eq(mockProblem));
     }
-}
\ No newline at end of file
+}
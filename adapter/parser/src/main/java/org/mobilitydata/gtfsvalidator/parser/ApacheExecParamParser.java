@@ -60,6 +60,34 @@ public class ApacheExecParamParser implements ExecParamRepository.ExecParamParse
         availableOptions.addOption("h", "help", false, "Print this message");
         availableOptions.addOption("p", "proto", false, "Export validation results as" +
                 " proto");
+        availableOptions.addOption("t", "threads", true, "Number of threads used to " +
+                "validate files in parallel");
+        availableOptions.addOption("s", "splitthreshold", true, "Size in bytes above " +
+                "which a file is split in ranges validated in parallel");
+        availableOptions.addOption("c", "chunksize", true, "Minimal size in bytes of the " +
+                "ranges of a split file");
+        availableOptions.addOption("r", "csvreader", true, "How csv files are read: " +
+                "stream or mmap");
+        availableOptions.addOption("n", "noextract", false, "Validate files from the " +
+                "zip archive without extracting them");
+        availableOptions.addOption("w", "streamresults", false, "Write notices to the " +
+                "output as they are found instead of holding them in memory");
+        availableOptions.addOption("g", "aggregateresults", false, "Count notices by " +
+                "notice id, filename and field instead of holding each of them in memory");
+        availableOptions.addOption("m", "samplecap", true, "Number of notices held as " +
+                "first samples of each aggregate of notices");
+        availableOptions.addOption("v", "reservoirsize", true, "Number of notices held as " +
+                "random sample of each aggregate of notices");
+        availableOptions.addOption("f", "protoformat", true, "How proto results are " +
+                "written: files, delimited or gzip");
+        availableOptions.addOption("b", "sortmemory", true, "Size in bytes of the " +
+                "rows held in memory by a sort before they are written to temporary files");
+        availableOptions.addOption("d", "sorttempdir", true, "Directory of the " +
+                "temporary files written by sorts, the system temporary directory if not set");
+        availableOptions.addOption("i", "progressinterval", true, "Seconds between two " +
+                "progress lines logged during the validation, 0 to log none");
+        availableOptions.addOption("j", "jfr", true, "File to which a flight " +
+                "recording of the validation is written, none is recorded if not set");
     }
 
     /**
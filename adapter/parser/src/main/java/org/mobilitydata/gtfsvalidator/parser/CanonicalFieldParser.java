@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.parser;
+
+import java.time.LocalDate;
+
+/**
+ * Parses numbers and dates of GTFS CSV files written in their canonical form, straight from their characters and
+ * without allocating: an optional minus sign followed by decimal digits, with an optional fractional part for floats,
+ * and eight digits for dates formatted as yyyyMMdd. Values in that form are parsed to the same value as the Apache
+ * Commons validators would for {@link java.util.Locale#US}. Values in any other form, including invalid ones, are not
+ * handled: callers fall back on those validators, which then decide whether the value is valid.
+ */
+final class CanonicalFieldParser {
+    /**
+     * Returned by {@link #parseInt(String)} for values that are not canonical integers
+     */
+    static final long NOT_CANONICAL_INT = Long.MIN_VALUE;
+    /**
+     * Returned by {@link #parseEpochDay(String)} for values that are not canonical dates
+     */
+    static final int NOT_CANONICAL_DATE = Integer.MIN_VALUE;
+
+    // integers of up to 9 digits always fit in an int
+    private static final int MAX_INT_DIGITS = 9;
+    // mantissas below 2^53 and powers of ten up to 10^22 are exact doubles: dividing them is correctly rounded
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAX_FLOAT_DIGITS = 18;
+    // before 1900, java.util and java.time do not agree on historical time zone offsets
+    private static final int MIN_YEAR = 1900;
+    private static final int DATE_LENGTH = 8;
+    private static final long DAYS_0000_TO_1970 = (146097 * 5L) - (30L * 365L + 7L);
+
+    private CanonicalFieldParser() {
+    }
+
+    /**
+     * Parses a float written as an optional minus sign, at least one digit and optionally a dot followed by at least
+     * one digit. The result is the float nearest to the double nearest to the value, as for
+     * {@link org.apache.commons.validator.routines.FloatValidator}.
+     *
+     * @param rawField the value to parse
+     * @return the parsed value, {@link Float#NaN} if the value is not a canonical float
+     */
+    static float parseFloat(final String rawField) {
+        final int length = rawField.length();
+        int i = 0;
+        final boolean negative = length > 0 && rawField.charAt(0) == '-';
+        if (negative) {
+            ++i;
+        }
+        long mantissa = 0;
+        int digitCount = 0;
+        int fractionDigitCount = 0;
+        boolean hasDot = false;
+        int integerDigitCount = 0;
+        for (; i < length; ++i) {
+            final char ch = rawField.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                if (++digitCount > MAX_FLOAT_DIGITS) {
+                    return Float.NaN;
+                }
+                mantissa = mantissa * 10 + (ch - '0');
+                if (hasDot) {
+                    ++fractionDigitCount;
+                } else {
+                    ++integerDigitCount;
+                }
+            } else if (ch == '.' && !hasDot) {
+                hasDot = true;
+            } else {
+                return Float.NaN;
+            }
+        }
+        if (integerDigitCount == 0 || (hasDot && fractionDigitCount == 0) || mantissa >= MAX_EXACT_MANTISSA ||
+                fractionDigitCount >= EXACT_POWERS_OF_TEN.length) {
+            return Float.NaN;
+        }
+        final double value = mantissa / EXACT_POWERS_OF_TEN[fractionDigitCount];
+        return (float) (negative ? -value : value);
+    }
+
+    /**
+     * Parses an integer written as an optional minus sign followed by one to nine digits
+     *
+     * @param rawField the value to parse
+     * @return the parsed value, {@link #NOT_CANONICAL_INT} if the value is not a canonical integer
+     */
+    static long parseInt(final String rawField) {
+        final int length = rawField.length();
+        int i = 0;
+        final boolean negative = length > 0 && rawField.charAt(0) == '-';
+        if (negative) {
+            ++i;
+        }
+        if (length == i || length - i > MAX_INT_DIGITS) {
+            return NOT_CANONICAL_INT;
+        }
+        int value = 0;
+        for (; i < length; ++i) {
+            final char ch = rawField.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return NOT_CANONICAL_INT;
+            }
+            value = value * 10 + (ch - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a valid date written as yyyyMMdd, with a year from 1900 to 9999
+     *
+     * @param rawField the value to parse
+     * @return the number of days from 1970-01-01 to the parsed date, {@link #NOT_CANONICAL_DATE} if the value is not
+     * a valid canonical date
+     */
+    static int parseEpochDay(final String rawField) {
+        if (rawField.length() != DATE_LENGTH) {
+            return NOT_CANONICAL_DATE;
+        }
+        int value = 0;
+        for (int i = 0; i < DATE_LENGTH; ++i) {
+            final char ch = rawField.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return NOT_CANONICAL_DATE;
+            }
+            value = value * 10 + (ch - '0');
+        }
+        final int year = value / 10000;
+        final int month = value / 100 % 100;
+        final int day = value % 100;
+        if (year < MIN_YEAR || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return NOT_CANONICAL_DATE;
+        }
+        return (int) epochDay(year, month, day);
+    }
+
+    private static int lengthOfMonth(final int year, final int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeapYear(final int year) {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+
+    /**
+     * Same computation as {@link LocalDate#toEpochDay()}, for a valid date
+     */
+    private static long epochDay(final int year, final int month, final int day) {
+        long total = 365L * year;
+        total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            --total;
+            if (!isLeapYear(year)) {
+                --total;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
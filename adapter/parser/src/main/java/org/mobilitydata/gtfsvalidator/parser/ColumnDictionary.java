@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.parser;
+
+import org.mobilitydata.gtfsvalidator.usecase.port.GtfsSpecRepository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deduplicates the values of a column of a GTFS CSV file: repeated values share the instance of their first
+ * occurrence, so that values held by parsed rows are stored once per distinct value. Dictionaries are enabled for the
+ * columns whose specification carries a cache hint, when parsing the rows of a file that are kept once parsed, and are
+ * cleared once all these rows are parsed: kept rows still share the instances, while the dictionary no longer holds
+ * them. Thread safe: the parsers of all the ranges of a file share the dictionaries of the file.
+ */
+public class ColumnDictionary implements GtfsSpecRepository.ColumnDictionaryStatistics {
+    // a compact String: 12 bytes of header, its hash, its coder and the reference to its array, which has 16 bytes of
+    // header. Sizes are rounded up to 8 bytes.
+    private static final int STRING_SIZE = 24;
+    private static final int ARRAY_HEADER_SIZE = 16;
+
+    private final String filename;
+    private final String columnName;
+    private final ConcurrentMap<String, String> instanceByValue = new ConcurrentHashMap<>();
+    private final LongAdder valueCount = new LongAdder();
+    private final LongAdder distinctValueCount = new LongAdder();
+    private final LongAdder savedByteCount = new LongAdder();
+
+    /**
+     * @param filename   the name of the file the column belongs to
+     * @param columnName the name of the column
+     */
+    public ColumnDictionary(final String filename, final String columnName) {
+        this.filename = filename;
+        this.columnName = columnName;
+    }
+
+    /**
+     * Returns the instance shared by all the occurrences of a value: the value itself the first time it is met,
+     * the instance of its first occurrence afterwards
+     *
+     * @param value a non null value of the column
+     * @return the instance shared by all the occurrences of the value
+     */
+    public String intern(final String value) {
+        valueCount.increment();
+        final String instance = instanceByValue.putIfAbsent(value, value);
+        if (instance == null) {
+            distinctValueCount.increment();
+            return value;
+        }
+        // estimated for Latin-1 values, stored with a byte per character
+        savedByteCount.add(STRING_SIZE + ((ARRAY_HEADER_SIZE + value.length() + 7) & ~7));
+        return instance;
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public String getColumnName() {
+        return columnName;
+    }
+
+    /**
+     * Returns the number of values deduplicated so far
+     *
+     * @return the number of values deduplicated so far
+     */
+    @Override
+    public long getValueCount() {
+        return valueCount.sum();
+    }
+
+    /**
+     * Returns the number of distinct values met so far
+     *
+     * @return the number of distinct values met so far
+     */
+    @Override
+    public long getDistinctValueCount() {
+        return distinctValueCount.sum();
+    }
+
+    /**
+     * Returns an estimate of the memory saved so far, in bytes: the size of the repeated values that were replaced by
+     * the instance of their first occurrence, which the rows kept after parsing hold.
+     *
+     * @return an estimate of the memory saved so far, in bytes
+     */
+    @Override
+    public long getSavedByteCount() {
+        return savedByteCount.sum();
+    }
+
+    /**
+     * Releases the instances held by this dictionary, once all the rows of its file are parsed. Statistics are kept.
+     */
+    public void clear() {
+        instanceByValue.clear();
+    }
+}
@@ -22,7 +22,9 @@ import org.apache.commons.validator.routines.FloatValidator;
 import org.apache.commons.validator.routines.IntegerValidator;
 import org.jetbrains.annotations.NotNull;
 import org.mobilitydata.gtfsvalidator.domain.entity.ParsedEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.ParsedEntitySchema;
 import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntitySchema;
 import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.ErrorNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.CannotParseDateNotice;
@@ -31,12 +33,16 @@ import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.CannotParseInte
 import org.mobilitydata.gtfsvalidator.protos.GtfsSpecificationProto;
 import org.mobilitydata.gtfsvalidator.usecase.port.GtfsSpecRepository;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.*;
 
 /**
- * This provides methods to parse data from a GTFS CSV file.
+ * This provides methods to parse data from a GTFS CSV file. Positions of the columns are resolved once per file, hence
+ * an instance is meant to process the rows of a single file, on a single thread.
  */
 public class GtfsEntityParser implements GtfsSpecRepository.RawEntityParser {
     private final GtfsSpecificationProto.CsvSpecProto fileSchema;
@@ -44,14 +50,46 @@ public class GtfsEntityParser implements GtfsSpecRepository.RawEntityParser {
     private final FloatValidator floatValidator;
     private final IntegerValidator integerValidator;
     private final DateValidator dateValidator;
+    // resolves midnight in the default time zone with the java.util rules the date validator uses, which differ from
+    // the java.time ones on some days with a time zone transition
+    private final Calendar dateCalendar = new GregorianCalendar(TimeZone.getDefault(), Locale.US);
+    // the epoch seconds of the dates parsed, by epoch day modulo the size of the cache: the dates of a feed span a few
+    // years, so that each of them is resolved with the calendar once per file
+    private final int[] cachedEpochDays = new int[DATE_CACHE_SIZE];
+    private final long[] cachedEpochSeconds = new long[DATE_CACHE_SIZE];
+    private final ParsedEntity.ParsedEntityBuilder entityBuilder;
+    private final ColumnDictionary[] columnDictionaries;
+    private RawEntitySchema resolvedSchema;
+    private int[] columnIndexes;
 
     private static final String DATE_PATTERN = "yyyyMMdd";
+    private static final ZoneId DATE_ZONE = ZoneId.of("America/Montreal"); //FIXME: retrieve timezone from agency.txt
+    private static final int DATE_CACHE_SIZE = 1024;
 
     public GtfsEntityParser(@NotNull GtfsSpecificationProto.CsvSpecProto fileSchema,
                             @NotNull RawFileInfo rawFileInfo,
                             @NotNull FloatValidator floatValidator,
                             @NotNull IntegerValidator integerValidator,
                             @NotNull DateValidator dateValidator) {
+        this(fileSchema, rawFileInfo, floatValidator, integerValidator, dateValidator, Collections.emptyMap());
+    }
+
+    /**
+     * @param fileSchema                   the GTFS specification for the file to parse
+     * @param rawFileInfo                  information about the file to parse
+     * @param floatValidator               the validator used to parse float values
+     * @param integerValidator             the validator used to parse integer values
+     * @param dateValidator                the validator used to parse date values, must be strict
+     * @param columnDictionaryByColumnName the dictionaries deduplicating the values of the columns of the file, by
+     *                                     column name. Values stored as strings of the columns listed are replaced by
+     *                                     the instance shared by all their occurrences.
+     */
+    public GtfsEntityParser(@NotNull GtfsSpecificationProto.CsvSpecProto fileSchema,
+                            @NotNull RawFileInfo rawFileInfo,
+                            @NotNull FloatValidator floatValidator,
+                            @NotNull IntegerValidator integerValidator,
+                            @NotNull DateValidator dateValidator,
+                            @NotNull Map<String, ColumnDictionary> columnDictionaryByColumnName) {
         this.fileSchema = fileSchema;
         this.rawFileInfo = rawFileInfo;
         this.floatValidator = floatValidator;
@@ -61,6 +99,44 @@ public class GtfsEntityParser implements GtfsSpecRepository.RawEntityParser {
             throw new IllegalArgumentException("Date validator must be strict");
         }
         this.dateValidator = dateValidator;
+        this.dateCalendar.setLenient(false);
+        Arrays.fill(cachedEpochDays, CanonicalFieldParser.NOT_CANONICAL_DATE);
+        this.entityBuilder = new ParsedEntity.ParsedEntityBuilder(createParsedSchema(fileSchema), rawFileInfo);
+        final List<GtfsSpecificationProto.ColumnSpecProto> columnList = fileSchema.getColumnList();
+        this.columnDictionaries = new ColumnDictionary[columnList.size()];
+        for (int i = 0; i < columnDictionaries.length; ++i) {
+            columnDictionaries[i] = columnDictionaryByColumnName.get(columnList.get(i).getName());
+        }
+    }
+
+    /**
+     * Returns the schema of the parsed rows of a file: one column per column of the GTFS specification for the file,
+     * in the same order, stored according to its type
+     *
+     * @param fileSchema the GTFS specification for the file
+     * @return the schema of the parsed rows of the file
+     */
+    private static ParsedEntitySchema createParsedSchema(final GtfsSpecificationProto.CsvSpecProto fileSchema) {
+        final List<String> headerList = new ArrayList<>(fileSchema.getColumnCount());
+        final List<ParsedEntitySchema.ValueType> valueTypeList = new ArrayList<>(fileSchema.getColumnCount());
+        for (GtfsSpecificationProto.ColumnSpecProto columnSpecProto : fileSchema.getColumnList()) {
+            headerList.add(columnSpecProto.getName());
+            switch (columnSpecProto.getType().getType()) {
+                case FLOAT:
+                    valueTypeList.add(ParsedEntitySchema.ValueType.FLOAT);
+                    break;
+                case INTEGER:
+                    valueTypeList.add(ParsedEntitySchema.ValueType.INTEGER);
+                    break;
+                case DATE:
+                    valueTypeList.add(ParsedEntitySchema.ValueType.DATE);
+                    break;
+                default:
+                    valueTypeList.add(ParsedEntitySchema.ValueType.STRING);
+                    break;
+            }
+        }
+        return new ParsedEntitySchema(headerList, valueTypeList);
     }
 
     /**
@@ -69,6 +145,7 @@ public class GtfsEntityParser implements GtfsSpecRepository.RawEntityParser {
      * the value is not a valid float, a {@link CannotParseFloatNotice} is generated and added to the returned list.
      * The same logic is applied for integer values, which generates {@link CannotParseIntegerNotice} notices.
      * The same logic is applied for date values, which generates {@link CannotParseDateNotice} notices.
+     * Values written in their canonical form are parsed by {@link CanonicalFieldParser}, without calling validators.
      *
      * @param toValidate a {@link RawEntity} to validate
      * @return a collection of notices containing information about the validation process
@@ -76,9 +153,12 @@ public class GtfsEntityParser implements GtfsSpecRepository.RawEntityParser {
     @Override
     public Collection<ErrorNotice> validateNonStringTypes(RawEntity toValidate) {
         Collection<ErrorNotice> toReturn = new ArrayList<>();
+        final List<GtfsSpecificationProto.ColumnSpecProto> columnList = fileSchema.getColumnList();
+        final int[] columnIndexes = resolveColumnIndexes(toValidate.getSchema(), columnList);
 
-        fileSchema.getColumnList().forEach(columnSpecProto -> {
-            String rawField = toValidate.get(columnSpecProto.getName());
+        for (int i = 0; i < columnIndexes.length; ++i) {
+            final GtfsSpecificationProto.ColumnSpecProto columnSpecProto = columnList.get(i);
+            String rawField = toValidate.get(columnIndexes[i]);
 
             //Skip values that weren't provided
             if (!Strings.isNullOrEmpty(rawField)) {
@@ -87,8 +167,9 @@ public class GtfsEntityParser implements GtfsSpecRepository.RawEntityParser {
 
                     //FIXME: retrieve locale from agency_lang in agency.txt and if that doesn't exist,
                     //from feed_lang in feed_info.txt before defaulting to Locale.US
-                    if (!floatValidator.isValid(rawField, Locale.US) || Float.isNaN(floatValidator.validate(rawField,
-                            Locale.US))) {
+                    if (Float.isNaN(CanonicalFieldParser.parseFloat(rawField)) &&
+                            (!floatValidator.isValid(rawField, Locale.US) ||
+                                    Float.isNaN(floatValidator.validate(rawField, Locale.US)))) {
 
                         toReturn.add(new CannotParseFloatNotice(
                                         fileSchema.getFilename(),
@@ -103,7 +184,8 @@ public class GtfsEntityParser implements GtfsSpecRepository.RawEntityParser {
 
                     //FIXME: retrieve locale from agency_lang in agency.txt and if that doesn't exist,
                     //from feed_lang in feed_info.txt before defaulting to Locale.US
-                    if (!integerValidator.isValid(rawField, Locale.US)) {
+                    if (CanonicalFieldParser.parseInt(rawField) == CanonicalFieldParser.NOT_CANONICAL_INT &&
+                            !integerValidator.isValid(rawField, Locale.US)) {
 
                         toReturn.add(new CannotParseIntegerNotice(
                                         fileSchema.getFilename(),
@@ -116,7 +198,8 @@ public class GtfsEntityParser implements GtfsSpecRepository.RawEntityParser {
                 } else if (columnSpecProto.getType().getType() ==
                         GtfsSpecificationProto.ColumnInputType.InputType.DATE) {
 
-                    if (!dateValidator.isValid(rawField, DATE_PATTERN)) {
+                    if (CanonicalFieldParser.parseEpochDay(rawField) == CanonicalFieldParser.NOT_CANONICAL_DATE &&
+                            !dateValidator.isValid(rawField, DATE_PATTERN)) {
                         toReturn.add(new CannotParseDateNotice(
                                         fileSchema.getFilename(),
                                         columnSpecProto.getName(),
@@ -127,7 +210,7 @@ public class GtfsEntityParser implements GtfsSpecRepository.RawEntityParser {
                     }
                 }
             }
-        });
+        }
 
         return toReturn;
     }
@@ -135,66 +218,125 @@ public class GtfsEntityParser implements GtfsSpecRepository.RawEntityParser {
     /**
      * Returns a parsed entity where fields' type have been determined. The {@link ParsedEntity} is formatted as follows:
      * - the entityId is the header name
-     * - the contentByHeaderMap is a Map(String, Object) matching columns' header names with the type validated values
-     * associated to the {@link RawEntity} to parse
+     * - values are stored by type, without boxing, in the columns of a {@link ParsedEntitySchema} that follows the
+     * order of the columns of the GTFS specification for the file
      * - the {@link RawFileInfo} associated to the file being processed
+     * - the index of the row it was parsed from
+     * Values written in their canonical form are parsed by {@link CanonicalFieldParser}, without calling validators.
+     * Values stored as strings of the columns that have a {@link ColumnDictionary} are deduplicated by it.
      *
      * @param toParse a row of a GTFS file as raw string data
      * @return a parsed entity whose fields' type have been parsed
      */
     @Override
     public ParsedEntity parse(RawEntity toParse) {
-        Map<String, Object> contentByHeaderMap = new HashMap<>(fileSchema.getColumnCount());
-        final String[] entityId = new String[1];
+        final List<GtfsSpecificationProto.ColumnSpecProto> columnList = fileSchema.getColumnList();
+        final int[] columnIndexes = resolveColumnIndexes(toParse.getSchema(), columnList);
 
-        fileSchema.getColumnList().forEach(columnSpecProto -> {
-            String rawField = toParse.get(columnSpecProto.getName());
+        for (int i = 0; i < columnIndexes.length; ++i) {
+            final GtfsSpecificationProto.ColumnSpecProto columnSpecProto = columnList.get(i);
+            String rawField = toParse.get(columnIndexes[i]);
 
             if (!Strings.isNullOrEmpty(rawField)) {
 
                 if (columnSpecProto.getType().getType() == GtfsSpecificationProto.ColumnInputType.InputType.FLOAT) {
 
+                    final float canonicalValue = CanonicalFieldParser.parseFloat(rawField);
+                    if (!Float.isNaN(canonicalValue)) {
+                        entityBuilder.floatValue(i, canonicalValue);
+
                     //FIXME: retrieve locale from agency_lang in agency.txt and if that doesn't exist,
                     //from feed_lang in feed_info.txt before defaulting to Locale.US
-                    if (floatValidator.isValid(rawField, Locale.US) && !Float.isNaN(floatValidator.validate(rawField,
-                            Locale.US))) {
-                        contentByHeaderMap.put(columnSpecProto.getName(), floatValidator.validate(rawField, Locale.US));
+                    } else if (floatValidator.isValid(rawField, Locale.US) &&
+                            !Float.isNaN(floatValidator.validate(rawField, Locale.US))) {
+                        entityBuilder.floatValue(i, floatValidator.validate(rawField, Locale.US));
                     }
 
                 } else if (columnSpecProto.getType().getType() ==
                         GtfsSpecificationProto.ColumnInputType.InputType.INTEGER) {
 
+                    final long canonicalValue = CanonicalFieldParser.parseInt(rawField);
+                    if (canonicalValue != CanonicalFieldParser.NOT_CANONICAL_INT) {
+                        entityBuilder.intValue(i, (int) canonicalValue);
+
                     //FIXME: retrieve locale from agency_lang in agency.txt and if that doesn't exist,
                     //from feed_lang in feed_info.txt before defaulting to Locale.US
-                    if (integerValidator.isValid(rawField, Locale.US)) {
-                        contentByHeaderMap.put(columnSpecProto.getName(), integerValidator.validate(rawField,
-                                Locale.US));
+                    } else if (integerValidator.isValid(rawField, Locale.US)) {
+                        entityBuilder.intValue(i, integerValidator.validate(rawField, Locale.US));
                     }
 
                 } else if (columnSpecProto.getType().getType() ==
                         GtfsSpecificationProto.ColumnInputType.InputType.DATE) {
 
+                    final int epochDay = CanonicalFieldParser.parseEpochDay(rawField);
+                    if (epochDay != CanonicalFieldParser.NOT_CANONICAL_DATE) {
+                        entityBuilder.longValue(i, getEpochSecond(epochDay));
+
                     //FIXME: retrieve locale from agency_lang in agency.txt and if that doesn't exist,
                     //from feed_lang in feed_info.txt before defaulting to Locale.US
-                    if (dateValidator.isValid(rawField, DATE_PATTERN, Locale.US)) {
-                        contentByHeaderMap.put(
+                    } else if (dateValidator.isValid(rawField, DATE_PATTERN, Locale.US)) {
+                        entityBuilder.longValue(i,
                                 //https://programminghints.com/2017/05/still-using-java-util-date-dont/
-                                columnSpecProto.getName(), LocalDateTime.ofInstant(
+                                LocalDateTime.ofInstant(
                                         dateValidator.validate(rawField, DATE_PATTERN, Locale.US).toInstant(),
-                                        ZoneId.of("America/Montreal") //FIXME: retrieve timezone from agency.txt
-                                ));
+                                        DATE_ZONE
+                                ).toEpochSecond(ZoneOffset.UTC));
                     }
 
                 } else {
-                    contentByHeaderMap.put(columnSpecProto.getName(), rawField);
+                    if (columnDictionaries[i] != null) {
+                        rawField = columnDictionaries[i].intern(rawField);
+                    }
+                    entityBuilder.stringValue(i, rawField);
                     if (columnSpecProto.getUniquevalues()) {
                         //Assuming there is only one field labelled unique per entity
-                        entityId[0] = rawField;
+                        entityBuilder.entityId(rawField);
                     }
                 }
             }
-        });
+        }
 
-        return new ParsedEntity(entityId[0], contentByHeaderMap, rawFileInfo);
+        return entityBuilder.lineNumber(toParse.getIndex()).build();
+    }
+
+    /**
+     * Returns the value a date is parsed to: midnight in the default time zone, as the date validator resolves it,
+     * read as a local date time in the time zone of the dates and expressed in seconds since the epoch in UTC
+     *
+     * @param epochDay the date to resolve, as a number of days since the epoch
+     * @return the number of seconds the date is parsed to
+     */
+    private long getEpochSecond(final int epochDay) {
+        final int slot = epochDay & (DATE_CACHE_SIZE - 1);
+        if (cachedEpochDays[slot] != epochDay) {
+            final LocalDate date = LocalDate.ofEpochDay(epochDay);
+            dateCalendar.clear();
+            dateCalendar.set(date.getYear(), date.getMonthValue() - 1, date.getDayOfMonth());
+            cachedEpochSeconds[slot] =
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(dateCalendar.getTimeInMillis()), DATE_ZONE)
+                            .toEpochSecond(ZoneOffset.UTC);
+            cachedEpochDays[slot] = epochDay;
+        }
+        return cachedEpochSeconds[slot];
+    }
+
+    /**
+     * Returns the position of each column of the GTFS specification in the rows bound to {@code schema}. Positions are
+     * resolved once per file: they are computed again only if rows are bound to another schema.
+     *
+     * @param schema     the schema of the rows to process
+     * @param columnList the columns of the GTFS specification for the file being processed
+     * @return the position of each column of the GTFS specification, -1 for columns missing from {@code schema}
+     */
+    private int[] resolveColumnIndexes(final RawEntitySchema schema,
+                                       final List<GtfsSpecificationProto.ColumnSpecProto> columnList) {
+        if (schema != resolvedSchema) {
+            columnIndexes = new int[columnList.size()];
+            for (int i = 0; i < columnIndexes.length; ++i) {
+                columnIndexes[i] = schema.getIndex(columnList.get(i).getName());
+            }
+            resolvedSchema = schema;
+        }
+        return columnIndexes;
     }
 }
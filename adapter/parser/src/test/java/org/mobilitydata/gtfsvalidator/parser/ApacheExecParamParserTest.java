@@ -45,9 +45,9 @@ class ApacheExecParamParserTest {
 
         final Map<String, ExecParam> toCheck = underTest.parse();
 
-        verify(mockOptions, times(4))
+        verify(mockOptions, times(15))
                 .addOption(anyString(), anyString(), ArgumentMatchers.eq(true), anyString());
-        verify(mockOptions, times(2))
+        verify(mockOptions, times(5))
                 .addOption(anyString(), anyString(), ArgumentMatchers.eq(false), anyString());
 
         verify(mockCommandLineParser, times(1)).parse(mockOptions, mockArguments);
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mobilitydata.gtfsvalidator.parser;
+
+import org.apache.commons.validator.routines.DateValidator;
+import org.apache.commons.validator.routines.FloatValidator;
+import org.apache.commons.validator.routines.IntegerValidator;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CanonicalFieldParserTest {
+
+    @Test
+    void canonicalFloatShouldParseAsValidator() {
+        final FloatValidator floatValidator = FloatValidator.getInstance();
+        for (String rawField : List.of("0", "-0", "1.0", "-12.5", "45.50123456", "0.1", "3.4028235", "007.25",
+                "9007199254740991", "0.0000000000000001")) {
+            assertEquals(floatValidator.validate(rawField, Locale.US), CanonicalFieldParser.parseFloat(rawField),
+                    rawField);
+        }
+    }
+
+    @Test
+    void nonCanonicalFloatShouldNotParse() {
+        for (String rawField : List.of("", "-", ".5", "1.", "1,000.5", "+1", "1e3", " 1", "1.0 ", "abc",
+                "9007199254740992", "1234567890123456789",
+                "0.00000000000000000000001")) {
+            assertTrue(Float.isNaN(CanonicalFieldParser.parseFloat(rawField)), rawField);
+        }
+    }
+
+    @Test
+    void canonicalIntegerShouldParseAsValidator() {
+        final IntegerValidator integerValidator = IntegerValidator.getInstance();
+        for (String rawField : List.of("0", "-0", "1", "-42", "0012", "999999999", "-999999999")) {
+            assertEquals((long) integerValidator.validate(rawField, Locale.US),
+                    CanonicalFieldParser.parseInt(rawField), rawField);
+        }
+    }
+
+    @Test
+    void nonCanonicalIntegerShouldNotParse() {
+        for (String rawField : List.of("", "-", "1.0", "1,000", "+1", " 1", "abc", "1000000000", "2147483648")) {
+            assertEquals(CanonicalFieldParser.NOT_CANONICAL_INT, CanonicalFieldParser.parseInt(rawField), rawField);
+        }
+    }
+
+    @Test
+    void canonicalDateShouldParseAsValidator() {
+        final DateValidator dateValidator = DateValidator.getInstance();
+        for (String rawField : List.of("19000101", "19700101", "20000229", "20201231", "99991231")) {
+            assertEquals(dateValidator.validate(rawField, "yyyyMMdd", Locale.US).toInstant(),
+                    LocalDate.ofEpochDay(CanonicalFieldParser.parseEpochDay(rawField))
+                            .atStartOfDay(ZoneId.systemDefault()).toInstant(),
+                    rawField);
+        }
+    }
+
+    @Test
+    void nonCanonicalDateShouldNotParse() {
+        for (String rawField : List.of("", "2020011", "202001011", "2020-1-01", "20200001", "20201301", "20200100",
+                "20200431", "19000229", "20210229", "18991231", "abcdefgh")) {
+            assertEquals(CanonicalFieldParser.NOT_CANONICAL_DATE, CanonicalFieldParser.parseEpochDay(rawField),
+                    rawField);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ColumnDictionaryTest {
+
+    @Test
+    void firstOccurrenceShouldBeReturnedAsIs() {
+        final ColumnDictionary underTest = new ColumnDictionary("stop_times.txt", "trip_id");
+        final String value = new String("trip_1");
+
+        assertSame(value, underTest.intern(value));
+        assertEquals(1, underTest.getValueCount());
+        assertEquals(1, underTest.getDistinctValueCount());
+        assertEquals(0, underTest.getSavedByteCount());
+    }
+
+    @Test
+    void repeatedValueShouldShareInstanceOfFirstOccurrence() {
+        final ColumnDictionary underTest = new ColumnDictionary("stop_times.txt", "trip_id");
+        final String firstOccurrence = new String("trip_1");
+        underTest.intern(firstOccurrence);
+
+        assertSame(firstOccurrence, underTest.intern(new String("trip_1")));
+        assertSame(firstOccurrence, underTest.intern(new String("trip_1")));
+        assertEquals(3, underTest.getValueCount());
+        assertEquals(1, underTest.getDistinctValueCount());
+        // 24 bytes of String and 16 + 6 bytes of array, rounded up to 24, per repeated value
+        assertEquals(2 * 48, underTest.getSavedByteCount());
+    }
+
+    @Test
+    void distinctValuesShouldBeCountedOnce() {
+        final ColumnDictionary underTest = new ColumnDictionary("stop_times.txt", "stop_id");
+        IntStream.range(0, 1000).parallel().forEach(i -> underTest.intern("stop_" + (i % 10)));
+
+        assertEquals("stop_times.txt", underTest.getFilename());
+        assertEquals("stop_id", underTest.getColumnName());
+        assertEquals(1000, underTest.getValueCount());
+        assertEquals(10, underTest.getDistinctValueCount());
+    }
+
+    @Test
+    void clearShouldReleaseInstancesAndKeepStatistics() {
+        final ColumnDictionary underTest = new ColumnDictionary("stop_times.txt", "trip_id");
+        final String firstOccurrence = new String("trip_1");
+        underTest.intern(firstOccurrence);
+        underTest.intern(new String("trip_1"));
+
+        underTest.clear();
+
+        assertEquals(2, underTest.getValueCount());
+        assertEquals(1, underTest.getDistinctValueCount());
+        assertEquals(48, underTest.getSavedByteCount());
+        assertNotSame(firstOccurrence, underTest.intern(new String("trip_1")));
+    }
+}
@@ -30,14 +30,17 @@ import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.CannotParseInte
 import org.mobilitydata.gtfsvalidator.protos.GtfsSpecificationProto;
 import org.mockito.ArgumentMatchers;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsInstanceOf.instanceOf;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.*;
 
 class GtfsEntityParserTest {
@@ -46,8 +49,6 @@ class GtfsEntityParserTest {
     void validFloatValidationShouldGenerateNothing() {
 
         FloatValidator mockFloatValidator = mock(FloatValidator.class);
-        when(mockFloatValidator.isValid(ArgumentMatchers.eq("1.0"),
-                (Locale) ArgumentMatchers.any())).thenReturn(true);
 
         GtfsSpecificationProto.CsvSpecProto mockFileSpec = mock(GtfsSpecificationProto.CsvSpecProto.class);
         GtfsSpecificationProto.ColumnSpecProto mockColumnSpec = mock(GtfsSpecificationProto.ColumnSpecProto.class);
@@ -77,16 +78,14 @@ class GtfsEntityParserTest {
 
         assertEquals(0, result.size());
 
-        verify(mockFloatValidator, times(1)).isValid(ArgumentMatchers.eq("1.0"),
-                (Locale) ArgumentMatchers.any());
+        // canonical values are parsed without validator
+        verifyNoInteractions(mockFloatValidator);
     }
 
     @Test
     void validIntegerValidationShouldGenerateNothing() {
 
         IntegerValidator mockIntegerValidator = mock(IntegerValidator.class);
-        when(mockIntegerValidator.isValid(ArgumentMatchers.eq("1"),
-                (Locale) ArgumentMatchers.any())).thenReturn(true);
 
         GtfsSpecificationProto.CsvSpecProto mockFileSpec = mock(GtfsSpecificationProto.CsvSpecProto.class);
         GtfsSpecificationProto.ColumnSpecProto mockColumnSpec = mock(GtfsSpecificationProto.ColumnSpecProto.class);
@@ -116,8 +115,8 @@ class GtfsEntityParserTest {
 
         assertEquals(0, result.size());
 
-        verify(mockIntegerValidator, times(1)).isValid(ArgumentMatchers.eq("1"),
-                (Locale) ArgumentMatchers.any());
+        // canonical values are parsed without validator
+        verifyNoInteractions(mockIntegerValidator);
     }
 
     @Test
@@ -506,10 +505,6 @@ class GtfsEntityParserTest {
     void validFloatShouldParse() {
 
         FloatValidator mockFloatValidator = mock(FloatValidator.class);
-        when(mockFloatValidator.isValid(ArgumentMatchers.eq("1.0"),
-                (Locale) ArgumentMatchers.any())).thenReturn(true);
-        when(mockFloatValidator.validate(ArgumentMatchers.eq("1.0"),
-                (Locale) ArgumentMatchers.any())).thenReturn(1.0f);
 
         GtfsSpecificationProto.CsvSpecProto mockFileSpec = mock(GtfsSpecificationProto.CsvSpecProto.class);
         GtfsSpecificationProto.ColumnSpecProto mockColumnSpec = mock(GtfsSpecificationProto.ColumnSpecProto.class);
@@ -534,15 +529,62 @@ class GtfsEntityParserTest {
 
         ParsedEntity result = underTest.parse(new RawEntity(
                 Map.of("float_type", "1.0"),
-                0
+                7
         ));
 
         assertEquals(1.0f, result.get("float_type"));
+        assertEquals(7, result.getLineNumber());
+
+        // canonical values are parsed without validator
+        verifyNoInteractions(mockFloatValidator);
+    }
+
+    @Test
+    void nonCanonicalFloatShouldParseWithValidator() {
+
+        FloatValidator mockFloatValidator = mock(FloatValidator.class);
+        when(mockFloatValidator.isValid(ArgumentMatchers.eq("1,000.5"),
+                (Locale) ArgumentMatchers.any())).thenReturn(true);
+        when(mockFloatValidator.validate(ArgumentMatchers.eq("1,000.5"),
+                (Locale) ArgumentMatchers.any())).thenReturn(1000.5f);
+
+        GtfsSpecificationProto.CsvSpecProto mockFileSpec = mock(GtfsSpecificationProto.CsvSpecProto.class);
+        GtfsSpecificationProto.ColumnSpecProto mockColumnSpec = mock(GtfsSpecificationProto.ColumnSpecProto.class);
+        when(mockColumnSpec.getName()).thenReturn("float_type");
+
+        GtfsSpecificationProto.ColumnInputType mockInputType = mock(GtfsSpecificationProto.ColumnInputType.class);
+        when(mockInputType.getType()).thenReturn(GtfsSpecificationProto.ColumnInputType.InputType.FLOAT);
+
+        when(mockColumnSpec.getType()).thenReturn(mockInputType);
+        when(mockFileSpec.getColumnList()).thenReturn(List.of(mockColumnSpec));
+
+        DateValidator mockDateValidator = mock(DateValidator.class);
+        when(mockDateValidator.isStrict()).thenReturn(true);
 
-        verify(mockFloatValidator, times(1)).isValid(ArgumentMatchers.eq("1.0"),
+        GtfsEntityParser underTest = new GtfsEntityParser(
+                mockFileSpec,
+                new RawFileInfo.RawFileInfoBuilder().build(),
+                mockFloatValidator,
+                mock(IntegerValidator.class),
+                mockDateValidator
+        );
+
+        Collection<ErrorNotice> validationResult = underTest.validateNonStringTypes(new RawEntity(
+                Map.of("float_type", "1,000.5"),
+                0
+        ));
+        ParsedEntity result = underTest.parse(new RawEntity(
+                Map.of("float_type", "1,000.5"),
+                0
+        ));
+
+        assertEquals(0, validationResult.size());
+        assertEquals(1000.5f, result.get("float_type"));
+
+        verify(mockFloatValidator, times(2)).isValid(ArgumentMatchers.eq("1,000.5"),
                 (Locale) ArgumentMatchers.any());
-        // 1 for NaN check, 1 for actual conversion
-        verify(mockFloatValidator, times(2)).validate(ArgumentMatchers.eq("1.0"),
+        // 1 for NaN check when validating, 1 for NaN check and 1 for actual conversion when parsing
+        verify(mockFloatValidator, times(3)).validate(ArgumentMatchers.eq("1,000.5"),
                 (Locale) ArgumentMatchers.any());
     }
 
@@ -654,10 +696,6 @@ class GtfsEntityParserTest {
     void validIntegerShouldParse() {
 
         IntegerValidator mockIntegerValidator = mock(IntegerValidator.class);
-        when(mockIntegerValidator.isValid(ArgumentMatchers.eq("1"),
-                (Locale) ArgumentMatchers.any())).thenReturn(true);
-        when(mockIntegerValidator.validate(ArgumentMatchers.eq("1"),
-                (Locale) ArgumentMatchers.any())).thenReturn(1);
 
         GtfsSpecificationProto.CsvSpecProto mockFileSpec = mock(GtfsSpecificationProto.CsvSpecProto.class);
         GtfsSpecificationProto.ColumnSpecProto mockColumnSpec = mock(GtfsSpecificationProto.ColumnSpecProto.class);
@@ -687,11 +725,8 @@ class GtfsEntityParserTest {
 
         assertEquals(1, result.get("integer_type"));
 
-        verify(mockIntegerValidator, times(1)).isValid(ArgumentMatchers.eq("1"),
-                (Locale) ArgumentMatchers.any());
-
-        verify(mockIntegerValidator, times(1)).validate(ArgumentMatchers.eq("1"),
-                (Locale) ArgumentMatchers.any());
+        // canonical values are parsed without validator
+        verifyNoInteractions(mockIntegerValidator);
     }
 
     @Test
@@ -768,13 +803,6 @@ class GtfsEntityParserTest {
 
         DateValidator mockDateValidator = mock(DateValidator.class);
         when(mockDateValidator.isStrict()).thenReturn(true);
-        when(mockDateValidator.isValid(ArgumentMatchers.eq("16420517"),
-                ArgumentMatchers.eq("yyyyMMdd"),
-                ArgumentMatchers.any())).thenReturn(true);
-        Date fakeDate = new Date();
-        when(mockDateValidator.validate(ArgumentMatchers.eq("16420517"),
-                ArgumentMatchers.eq("yyyyMMdd"),
-                (Locale) ArgumentMatchers.any())).thenReturn(fakeDate);
 
         GtfsSpecificationProto.CsvSpecProto mockFileSpec = mock(GtfsSpecificationProto.CsvSpecProto.class);
         GtfsSpecificationProto.ColumnSpecProto mockColumnSpec = mock(GtfsSpecificationProto.ColumnSpecProto.class);
@@ -795,23 +823,64 @@ class GtfsEntityParserTest {
         );
 
         ParsedEntity result = underTest.parse(new RawEntity(
-                Map.of("date_type", "16420517"),
+                Map.of("date_type", "20200517"),
                 0
         ));
 
         assertThat(result.get("date_type"), instanceOf(LocalDateTime.class));
         assertEquals(LocalDateTime.ofInstant(
-                fakeDate.toInstant(),
+                LocalDate.of(2020, 5, 17).atStartOfDay(ZoneId.systemDefault()).toInstant(),
                 ZoneId.of("America/Montreal")),
                 result.get("date_type"));
 
-        verify(mockDateValidator, times(1)).isValid(ArgumentMatchers.eq("16420517"),
-                ArgumentMatchers.eq("yyyyMMdd"),
-                ArgumentMatchers.any());
+        // canonical values are parsed without validator
+        verify(mockDateValidator, times(1)).isStrict();
+        verifyNoMoreInteractions(mockDateValidator);
+    }
 
-        verify(mockDateValidator, times(1)).validate(ArgumentMatchers.eq("16420517"),
-                ArgumentMatchers.eq("yyyyMMdd"),
-                (Locale) ArgumentMatchers.any());
+    @Test
+    void canonicalDateShouldParseAsValidatorAcrossTimeZoneTransitions() {
+
+        // the file is parsed once per day of more than a century, a specification built once is faster than mocks
+        GtfsSpecificationProto.CsvSpecProto fileSpec = GtfsSpecificationProto.CsvSpecProto.newBuilder()
+                .setName("date_type")
+                .addColumn(GtfsSpecificationProto.ColumnSpecProto.newBuilder()
+                        .setName("date_type")
+                        .setType(GtfsSpecificationProto.ColumnInputType.newBuilder()
+                                .setType(GtfsSpecificationProto.ColumnInputType.InputType.DATE)))
+                .build();
+
+        final TimeZone defaultTimeZone = TimeZone.getDefault();
+        try {
+            // midnight is skipped or has a historical offset on some of these days
+            for (String zoneId : List.of("America/Havana", "Europe/Paris", "America/Sao_Paulo")) {
+                TimeZone.setDefault(TimeZone.getTimeZone(zoneId));
+                DateValidator dateValidator = DateValidator.getInstance();
+                GtfsEntityParser underTest = new GtfsEntityParser(
+                        fileSpec,
+                        new RawFileInfo.RawFileInfoBuilder().build(),
+                        mock(FloatValidator.class),
+                        mock(IntegerValidator.class),
+                        dateValidator
+                );
+
+                for (LocalDate date = LocalDate.of(1900, 1, 1); date.getYear() < 2030; date = date.plusDays(1)) {
+                    String rawField = date.format(DateTimeFormatter.BASIC_ISO_DATE);
+                    LocalDateTime expected = LocalDateTime.ofInstant(
+                            dateValidator.validate(rawField, "yyyyMMdd", Locale.US).toInstant(),
+                            ZoneId.of("America/Montreal"));
+                    // the second parse of a date is resolved from the cache of the parser
+                    assertEquals(expected,
+                            underTest.parse(new RawEntity(Map.of("date_type", rawField), 0)).get("date_type"),
+                            zoneId + " " + rawField);
+                    assertEquals(expected,
+                            underTest.parse(new RawEntity(Map.of("date_type", rawField), 0)).get("date_type"),
+                            zoneId + " " + rawField);
+                }
+            }
+        } finally {
+            TimeZone.setDefault(defaultTimeZone);
+        }
     }
 
     @Test
@@ -917,5 +986,43 @@ class GtfsEntityParserTest {
         assertEquals("a_string", result.get("string_type"));
     }
 
+    @Test
+    void repeatedStringShouldShareInstanceOfFirstOccurrenceWhenColumnHasDictionary() {
+
+        GtfsSpecificationProto.CsvSpecProto mockFileSpec = mock(GtfsSpecificationProto.CsvSpecProto.class);
+        when(mockFileSpec.getFilename()).thenReturn("test_filename.tst");
+        GtfsSpecificationProto.ColumnSpecProto mockColumnSpec = mock(GtfsSpecificationProto.ColumnSpecProto.class);
+        when(mockColumnSpec.getName()).thenReturn("string_type");
+
+        GtfsSpecificationProto.ColumnInputType mockInputType = mock(GtfsSpecificationProto.ColumnInputType.class);
+        when(mockInputType.getType()).thenReturn(GtfsSpecificationProto.ColumnInputType.InputType.TEXT);
+
+        when(mockColumnSpec.getType()).thenReturn(mockInputType);
+        when(mockFileSpec.getColumnList()).thenReturn(List.of(mockColumnSpec));
+
+        DateValidator mockDateValidator = mock(DateValidator.class);
+        when(mockDateValidator.isStrict()).thenReturn(true);
+
+        ColumnDictionary dictionary = new ColumnDictionary("test_filename.tst", "string_type");
+
+        GtfsEntityParser underTest = new GtfsEntityParser(
+                mockFileSpec,
+                new RawFileInfo.RawFileInfoBuilder().build(),
+                mock(FloatValidator.class),
+                mock(IntegerValidator.class),
+                mockDateValidator,
+                Map.of("string_type", dictionary)
+        );
+
+        String firstOccurrence = new String("a_string");
+        ParsedEntity first = underTest.parse(new RawEntity(Map.of("string_type", firstOccurrence), 0));
+        ParsedEntity second = underTest.parse(new RawEntity(Map.of("string_type", new String("a_string")), 1));
+
+        assertSame(firstOccurrence, first.get("string_type"));
+        assertSame(firstOccurrence, second.get("string_type"));
+        assertEquals(2, dictionary.getValueCount());
+        assertEquals(1, dictionary.getDistinctValueCount());
+    }
+
     //TODO: add test for parsedEntity id
 }
\ No newline at end of file
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeAggregate;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeExporter;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Holds information about the validation process as aggregates of notices: notices sharing a notice id, a filename
+ * and a field name are counted exactly, but only the first ones are held, along with a uniform random sample of the
+ * following ones if requested: a notice is never held twice. Memory consumption does not depend on the number of
+ * notices, but on the number of aggregates.
+ * Notices can be added concurrently by several threads validating different files. The random sample of an aggregate
+ * is drawn from a seed derived from its notice id, filename and field name: since the notices of a file are added in
+ * the order of its rows, it is the same from one execution to the other, whatever the number of threads.
+ * This is created when creating a new default configuration if the execution parameter
+ * {@link ExecParamRepository#AGGREGATE_RESULTS_KEY} is set.
+ */
+public class AggregatingValidationResultRepository implements ValidationResultRepository {
+    private static final long RESERVOIR_SEED = 0x5EEDL;
+    private static final Comparator<String> NULLS_FIRST = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private final int sampleCap;
+    private final int reservoirSize;
+    private final String protoFormat;
+    private final Map<AggregateKey, Accumulator> accumulatorByKey = new TreeMap<>();
+
+    /**
+     * @param execParamRepo the repository of execution parameters giving the number of notices held as first samples
+     *                      and as random sample of each aggregate, from {@link ExecParamRepository#SAMPLE_CAP_KEY} and
+     *                      {@link ExecParamRepository#RESERVOIR_SIZE_KEY}, and how notices exported as protobuf are
+     *                      written from {@link ExecParamRepository#PROTO_FORMAT_KEY}
+     */
+    public AggregatingValidationResultRepository(final ExecParamRepository execParamRepo) {
+        this(Integer.parseInt(execParamRepo.getExecParamValue(ExecParamRepository.SAMPLE_CAP_KEY)),
+                Integer.parseInt(execParamRepo.getExecParamValue(ExecParamRepository.RESERVOIR_SIZE_KEY)),
+                execParamRepo.getExecParamValue(ExecParamRepository.PROTO_FORMAT_KEY));
+    }
+
+    /**
+     * @param sampleCap     the number of notices held as first samples of each aggregate
+     * @param reservoirSize the number of notices held as random sample of each aggregate, 0 for no random sample
+     * @throws IllegalArgumentException if a number of notices is negative
+     */
+    public AggregatingValidationResultRepository(final int sampleCap, final int reservoirSize)
+            throws IllegalArgumentException {
+        this(sampleCap, reservoirSize, null);
+    }
+
+    /**
+     * @param sampleCap     the number of notices held as first samples of each aggregate
+     * @param reservoirSize the number of notices held as random sample of each aggregate, 0 for no random sample
+     * @param protoFormat   how notices exported as protobuf are written, as a value of
+     *                      {@link ExecParamRepository#PROTO_FORMAT_KEY}
+     * @throws IllegalArgumentException if a number of notices is negative
+     */
+    public AggregatingValidationResultRepository(final int sampleCap,
+                                                 final int reservoirSize,
+                                                 final String protoFormat) throws IllegalArgumentException {
+        if (sampleCap < 0 || reservoirSize < 0) {
+            throw new IllegalArgumentException("Sample sizes must not be negative, found: " + sampleCap + " and " +
+                    reservoirSize);
+        }
+        this.sampleCap = sampleCap;
+        this.reservoirSize = reservoirSize;
+        this.protoFormat = protoFormat;
+    }
+
+    /**
+     * Counts a notice in its aggregate, and holds it if it is one of the first samples or if it is drawn in the random
+     * sample of that aggregate.
+     *
+     * @param newNotice notice
+     * @return the notice that was counted
+     */
+    @Override
+    public synchronized Notice addNotice(final Notice newNotice) {
+        final AggregateKey key = new AggregateKey(newNotice.getId(), newNotice.getFilename(), newNotice.getFieldName());
+        accumulatorByKey.computeIfAbsent(key, Accumulator::new).add(newNotice);
+        return newNotice;
+    }
+
+    /**
+     * Returns an empty collection: notices are held as aggregates
+     *
+     * @return an empty collection
+     */
+    @Override
+    public Collection<Notice> getAll() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public NoticeExporter getExporter(final boolean outputAsProto, final String outputPath) throws IOException {
+        return InMemoryValidationResultRepository.createExporter(outputAsProto, protoFormat, outputPath);
+    }
+
+    /**
+     * Returns false: notices are held until the end of the validation process
+     *
+     * @return false
+     */
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * Does nothing: notices are held until the end of the validation process
+     */
+    @Override
+    public void endStreamingExport() {
+    }
+
+    /**
+     * Returns the number of notices added to the repository, by notice id
+     *
+     * @return the number of notices added to the repository, by notice id
+     */
+    @Override
+    public synchronized Map<String, Long> getNoticeCountById() {
+        return accumulatorByKey.entrySet().stream()
+                .collect(Collectors.groupingBy(entry -> entry.getKey().noticeId, TreeMap::new,
+                        Collectors.summingLong(entry -> entry.getValue().count)));
+    }
+
+    /**
+     * Returns the aggregates of the notices added to the repository, ordered by notice id, filename and field name
+     *
+     * @return the aggregates of the notices added to the repository
+     */
+    @Override
+    public synchronized Collection<NoticeAggregate> getAggregates() {
+        return accumulatorByKey.entrySet().stream()
+                .map(entry -> new NoticeAggregate(entry.getKey().noticeId, entry.getKey().filename,
+                        entry.getKey().fieldName, entry.getValue().count,
+                        new ArrayList<>(entry.getValue().firstSamples),
+                        new ArrayList<>(entry.getValue().reservoirSamples)))
+                .collect(Collectors.toList());
+    }
+
+    private static class AggregateKey implements Comparable<AggregateKey> {
+        private final String noticeId;
+        private final String filename;
+        private final String fieldName;
+
+        private AggregateKey(final String noticeId, final String filename, final String fieldName) {
+            this.noticeId = noticeId;
+            this.filename = filename;
+            this.fieldName = fieldName;
+        }
+
+        @Override
+        public int compareTo(final AggregateKey other) {
+            int result = NULLS_FIRST.compare(noticeId, other.noticeId);
+            if (result == 0) {
+                result = NULLS_FIRST.compare(filename, other.filename);
+            }
+            if (result == 0) {
+                result = NULLS_FIRST.compare(fieldName, other.fieldName);
+            }
+            return result;
+        }
+
+        /**
+         * Returns a hash of the notice id, filename and field name, which does not change from one execution to the
+         * other
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(noticeId, filename, fieldName);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof AggregateKey && compareTo((AggregateKey) other) == 0;
+        }
+    }
+
+    private class Accumulator {
+        private final AggregateKey key;
+        private long count;
+        private final List<Notice> firstSamples = new ArrayList<>();
+        private final List<Notice> reservoirSamples = new ArrayList<>();
+        private SplittableRandom random;
+
+        private Accumulator(final AggregateKey key) {
+            this.key = key;
+        }
+
+        private void add(final Notice notice) {
+            ++count;
+            if (firstSamples.size() < sampleCap) {
+                firstSamples.add(notice);
+                return;
+            }
+            // reservoir sampling of the notices following the first samples: the n-th of them replaces a held one
+            // with probability reservoirSize / n
+            if (reservoirSamples.size() < reservoirSize) {
+                reservoirSamples.add(notice);
+            } else if (reservoirSize > 0) {
+                if (random == null) {
+                    // each aggregate draws from its own sequence, so that the notices of other files added
+                    // concurrently do not change its sample
+                    random = new SplittableRandom(RESERVOIR_SEED ^ key.hashCode());
+                }
+                final long drawn = random.nextLong(count - sampleCap);
+                if (drawn < reservoirSize) {
+                    reservoirSamples.set((int) drawn, notice);
+                }
+            }
+        }
+    }
+}
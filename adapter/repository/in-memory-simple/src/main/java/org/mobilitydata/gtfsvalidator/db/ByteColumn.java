@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import java.util.Arrays;
+
+/**
+ * A growable column of small int values, such as enumerated values, stored in a primitive array of bytes. Values range
+ * from 0 to {@link Byte#MAX_VALUE}, a negative byte marking null values.
+ */
+final class ByteColumn {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final byte NULL_VALUE = -1;
+
+    private byte[] values = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Adds a value that may be null at the end of this column
+     *
+     * @param value the value to add, may be null
+     * @throws IllegalArgumentException if the value is negative or greater than {@link Byte#MAX_VALUE}
+     */
+    void addNullable(final Integer value) throws IllegalArgumentException {
+        checkValue(value);
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1));
+        }
+        values[size++] = value == null ? NULL_VALUE : value.byteValue();
+    }
+
+    /**
+     * Checks that a value can be stored in a byte column
+     *
+     * @param value the value to check, may be null
+     * @throws IllegalArgumentException if the value is negative or greater than {@link Byte#MAX_VALUE}
+     */
+    static void checkValue(final Integer value) throws IllegalArgumentException {
+        if (value != null && (value < 0 || value > Byte.MAX_VALUE)) {
+            throw new IllegalArgumentException("Value " + value + " can not be stored in a byte column");
+        }
+    }
+
+    /**
+     * Returns the value of a row, or null if the value of the row is null
+     *
+     * @param row the 0 based index of the row
+     * @return the value of the row, or null if the value of the row is null
+     */
+    Integer getNullable(final int row) {
+        return values[row] < 0 ? null : (int) values[row];
+    }
+
+    /**
+     * Returns the number of rows of this column
+     *
+     * @return the number of rows of this column
+     */
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.jetbrains.annotations.NotNull;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.Agency;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.ShapePoint;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.StopTime;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.routes.Route;
+import org.mobilitydata.gtfsvalidator.usecase.port.GtfsDataRepository;
+
+import java.util.ArrayList;
+
+/**
+ * This holds an internal representation of gtfs entities stored by column, so that a whole dataset fits in memory:
+ * each file is a table holding one primitive array per field instead of one object per row. Ids are mapped to dense
+ * int indices by {@link StringDictionary} objects, and other string values are interned in one dictionary per field.
+ * Entities are created again from their columns when they are retrieved: retrieved entities are equal in value, but
+ * not identical, to added ones. Uniqueness constraints are the same as {@link InMemoryGtfsDataRepository}'s.
+ * Not thread safe.
+ */
+public class ColumnarGtfsDataRepository implements GtfsDataRepository {
+    // agency.txt: the dense index of an agency_id is the row of the agency
+    private final StringDictionary agencyIds = new StringDictionary();
+    private final StringColumn agencyNames = new StringColumn();
+    private final StringColumn agencyUrls = new StringColumn();
+    private final StringColumn agencyTimezones = new StringColumn();
+    private final StringColumn agencyLangs = new StringColumn();
+    private final StringColumn agencyPhones = new StringColumn();
+    private final StringColumn agencyFareUrls = new StringColumn();
+    private final StringColumn agencyEmails = new StringColumn();
+
+    // routes.txt: the dense index of a route_id is the row of the route
+    private final StringDictionary routeIds = new StringDictionary();
+    private final StringColumn routeAgencyIds = new StringColumn();
+    private final StringColumn routeShortNames = new StringColumn();
+    private final StringColumn routeLongNames = new StringColumn();
+    private final StringColumn routeDescs = new StringColumn();
+    private final IntColumn routeTypes = new IntColumn();
+    private final StringColumn routeUrls = new StringColumn();
+    private final StringColumn routeColors = new StringColumn();
+    private final StringColumn routeTextColors = new StringColumn();
+    private final IntColumn routeSortOrders = new IntColumn();
+
+    // stop_times.txt: rows are indexed by the dense index of their trip_id and their stop_sequence
+    private final StringDictionary tripIds = new StringDictionary();
+    private final StringDictionary stopIds = new StringDictionary();
+    private final LongIntHashMap stopTimeRowByKey = new LongIntHashMap();
+    private final IntColumn stopTimeTripIndexes = new IntColumn();
+    private final IntColumn arrivalTimes = new IntColumn();
+    private final IntColumn departureTimes = new IntColumn();
+    private final IntColumn stopTimeStopIndexes = new IntColumn();
+    private final IntColumn stopSequences = new IntColumn();
+    private final StringColumn stopHeadsigns = new StringColumn();
+    private final ByteColumn pickupTypes = new ByteColumn();
+    private final ByteColumn dropOffTypes = new ByteColumn();
+    private final FloatColumn shapeDistTraveled = new FloatColumn();
+    private final ByteColumn timepoints = new ByteColumn();
+
+    // shapes.txt: rows are indexed by the dense index of their shape_id and their shape_pt_sequence
+    private final StringDictionary shapeIds = new StringDictionary();
+    private final LongIntHashMap shapePointRowByKey = new LongIntHashMap();
+    private final FloatColumn shapePtLats = new FloatColumn();
+    private final FloatColumn shapePtLons = new FloatColumn();
+    private final FloatColumn shapePointDistTraveled = new FloatColumn();
+
+    private final Agency.AgencyBuilder agencyBuilder = new Agency.AgencyBuilder(new ArrayList<>());
+    private final Route.RouteBuilder routeBuilder = new Route.RouteBuilder(new ArrayList<>());
+    private final StopTime.StopTimeBuilder stopTimeBuilder = new StopTime.StopTimeBuilder(new ArrayList<>());
+    private final ShapePoint.ShapePointBuilder shapePointBuilder = new ShapePoint.ShapePointBuilder(new ArrayList<>());
+
+    /**
+     * Add an Agency representing a row from agency.txt to this. Return the entity added to the repository if the
+     * uniqueness constraint of agency based on agency_id is respected, if this requirement is not met, returns null.
+     *
+     * @param newAgency the internal representation of a row from agency.txt to be added to the repository.
+     * @return the entity added to the repository if the uniqueness constraint of agency based on agency_id is
+     * respected, if this requirement is not met returns null.
+     */
+    @Override
+    public Agency addAgency(@NotNull final Agency newAgency) throws IllegalArgumentException {
+        //noinspection ConstantConditions
+        if (newAgency != null) {
+            if (agencyIds.find(newAgency.getAgencyId()) != -1) {
+                return null;
+            } else {
+                agencyIds.encode(newAgency.getAgencyId());
+                agencyNames.add(newAgency.getAgencyName());
+                agencyUrls.add(newAgency.getAgencyUrl());
+                agencyTimezones.add(newAgency.getAgencyTimezone());
+                agencyLangs.add(newAgency.getAgencyLang());
+                agencyPhones.add(newAgency.getAgencyPhone());
+                agencyFareUrls.add(newAgency.getAgencyFareUrl());
+                agencyEmails.add(newAgency.getAgencyEmail());
+                return newAgency;
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot add null agency to data repository");
+        }
+    }
+
+    /**
+     * Return the Agency representing a row from agency.txt related to the id provided as parameter
+     *
+     * @param agencyId the key from agency.txt related to the Agency to be returned
+     * @return the Agency representing a row from agency.txt related to the id provided as parameter
+     */
+    @Override
+    public Agency getAgencyById(final String agencyId) {
+        final int row = agencyIds.find(agencyId);
+        if (row == -1) {
+            return null;
+        }
+        return (Agency) agencyBuilder.agencyId(agencyId)
+                .agencyName(agencyNames.get(row))
+                .agencyUrl(agencyUrls.get(row))
+                .agencyTimezone(agencyTimezones.get(row))
+                .agencyLang(agencyLangs.get(row))
+                .agencyPhone(agencyPhones.get(row))
+                .agencyFareUrl(agencyFareUrls.get(row))
+                .agencyEmail(agencyEmails.get(row))
+                .build()
+                .getData();
+    }
+
+    /**
+     * Add a Route representing a row from routes.txt to this. Return the entity added to the repository if the
+     * uniqueness constraint of route based on route_id is respected, if this requirement is not met, returns null.
+     *
+     * @param newRoute the internal representation of a row from routes.txt to be added to the repository.
+     * @return the entity added to the repository if the uniqueness constraint of route based on route_id is
+     * respected, if this requirement is not met returns null.
+     */
+    @Override
+    public Route addRoute(@NotNull final Route newRoute) throws IllegalArgumentException {
+        //noinspection ConstantConditions
+        if (newRoute != null) {
+            if (routeIds.find(newRoute.getRouteId()) != -1) {
+                return null;
+            } else {
+                routeIds.encode(newRoute.getRouteId());
+                routeAgencyIds.add(newRoute.getAgencyId());
+                routeShortNames.add(newRoute.getRouteShortName());
+                routeLongNames.add(newRoute.getRouteLongName());
+                routeDescs.add(newRoute.getRouteDesc());
+                routeTypes.add(newRoute.getRouteType().getValue());
+                routeUrls.add(newRoute.getRouteUrl());
+                routeColors.add(newRoute.getRouteColor());
+                routeTextColors.add(newRoute.getRouteTextColor());
+                routeSortOrders.addNullable(newRoute.getRouteSortOrder());
+                return newRoute;
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot add null route to data repository");
+        }
+    }
+
+    /**
+     * Return the Route representing a row from routes.txt related to the id provided as parameter
+     *
+     * @param routeId the key from routes.txt related to the Route to be returned
+     * @return the Route representing a row from routes.txt related to the id provided as parameter
+     */
+    @Override
+    public Route getRouteById(final String routeId) {
+        final int row = routeIds.find(routeId);
+        if (row == -1) {
+            return null;
+        }
+        routeBuilder.routeId(routeId)
+                .agencyId(routeAgencyIds.get(row))
+                .routeShortName(routeShortNames.get(row))
+                .routeLongName(routeLongNames.get(row))
+                .routeDesc(routeDescs.get(row))
+                .routeType(routeTypes.get(row))
+                .routeUrl(routeUrls.get(row))
+                .routeColor(routeColors.get(row))
+                .routeTextColor(routeTextColors.get(row))
+                .routeSortOrder(routeSortOrders.getNullable(row));
+        return (Route) routeBuilder.build().getData();
+    }
+
+    /**
+     * Add a StopTime representing a row from stop_times.txt to this. Return the entity added to the repository if the
+     * uniqueness constraint of stop time based on trip_id and stop_sequence is respected, if this requirement is not
+     * met, returns null.
+     *
+     * @param newStopTime the internal representation of a row from stop_times.txt to be added to the repository.
+     * @return the entity added to the repository if the uniqueness constraint of stop time based on trip_id and
+     * stop_sequence is respected, if this requirement is not met returns null.
+     * @throws IllegalArgumentException if the stop time is null, or if its pickup_type, drop_off_type or timepoint is
+     *                                  negative or greater than {@link Byte#MAX_VALUE}
+     */
+    @Override
+    public StopTime addStopTime(@NotNull final StopTime newStopTime) throws IllegalArgumentException {
+        //noinspection ConstantConditions
+        if (newStopTime != null) {
+            ByteColumn.checkValue(newStopTime.getPickupType());
+            ByteColumn.checkValue(newStopTime.getDropOffType());
+            ByteColumn.checkValue(newStopTime.getTimepoint());
+            final int tripIndex = tripIds.encode(newStopTime.getTripId());
+            final int row = stopTimeTripIndexes.size();
+            if (stopTimeRowByKey.putIfAbsent(sequenceKey(tripIndex, newStopTime.getStopSequence()), row) != -1) {
+                return null;
+            } else {
+                stopTimeTripIndexes.add(tripIndex);
+                arrivalTimes.addNullable(newStopTime.getArrivalTime());
+                departureTimes.addNullable(newStopTime.getDepartureTime());
+                stopTimeStopIndexes.add(stopIds.encode(newStopTime.getStopId()));
+                stopSequences.add(newStopTime.getStopSequence());
+                stopHeadsigns.add(newStopTime.getStopHeadsign());
+                pickupTypes.addNullable(newStopTime.getPickupType());
+                dropOffTypes.addNullable(newStopTime.getDropOffType());
+                shapeDistTraveled.addNullable(newStopTime.getShapeDistTraveled());
+                timepoints.addNullable(newStopTime.getTimepoint());
+                return newStopTime;
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot add null stop time to data repository");
+        }
+    }
+
+    /**
+     * Return the StopTime representing a row from stop_times.txt related to the trip id and stop sequence provided as
+     * parameters
+     *
+     * @param tripId       the trip_id from stop_times.txt related to the StopTime to be returned
+     * @param stopSequence the stop_sequence from stop_times.txt related to the StopTime to be returned
+     * @return the StopTime representing a row from stop_times.txt related to the trip id and stop sequence provided as
+     * parameters
+     */
+    @Override
+    public StopTime getStopTimeByTripIdAndStopSequence(final String tripId, final int stopSequence) {
+        final int tripIndex = tripIds.find(tripId);
+        if (tripIndex == -1) {
+            return null;
+        }
+        final int row = stopTimeRowByKey.get(sequenceKey(tripIndex, stopSequence));
+        if (row == -1) {
+            return null;
+        }
+        stopTimeBuilder.tripId(tripId)
+                .arrivalTime(arrivalTimes.getNullable(row))
+                .departureTime(departureTimes.getNullable(row))
+                .stopId(stopIds.decode(stopTimeStopIndexes.get(row)))
+                .stopSequence(stopSequences.get(row))
+                .stopHeadsign(stopHeadsigns.get(row))
+                .pickupType(pickupTypes.getNullable(row))
+                .dropOffType(dropOffTypes.getNullable(row))
+                .shapeDistTraveled(shapeDistTraveled.getNullable(row))
+                .timepoint(timepoints.getNullable(row));
+        return (StopTime) stopTimeBuilder.build().getData();
+    }
+
+    /**
+     * Add a ShapePoint representing a row from shapes.txt to this. Return the entity added to the repository if the
+     * uniqueness constraint of shape point based on shape_id and shape_pt_sequence is respected, if this requirement
+     * is not met, returns null.
+     *
+     * @param newShapePoint the internal representation of a row from shapes.txt to be added to the repository.
+     * @return the entity added to the repository if the uniqueness constraint of shape point based on shape_id and
+     * shape_pt_sequence is respected, if this requirement is not met returns null.
+     */
+    @Override
+    public ShapePoint addShapePoint(@NotNull final ShapePoint newShapePoint) throws IllegalArgumentException {
+        //noinspection ConstantConditions
+        if (newShapePoint != null) {
+            final int shapeIndex = shapeIds.encode(newShapePoint.getShapeId());
+            final int row = shapePtLats.size();
+            if (shapePointRowByKey.putIfAbsent(sequenceKey(shapeIndex, newShapePoint.getShapePtSequence()), row)
+                    != -1) {
+                return null;
+            } else {
+                shapePtLats.addNullable(newShapePoint.getShapePtLat());
+                shapePtLons.addNullable(newShapePoint.getShapePtLon());
+                shapePointDistTraveled.addNullable(newShapePoint.getShapeDistTraveled());
+                return newShapePoint;
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot add null shape point to data repository");
+        }
+    }
+
+    /**
+     * Return the ShapePoint representing a row from shapes.txt related to the shape id and sequence provided as
+     * parameters
+     *
+     * @param shapeId         the shape_id from shapes.txt related to the ShapePoint to be returned
+     * @param shapePtSequence the shape_pt_sequence from shapes.txt related to the ShapePoint to be returned
+     * @return the ShapePoint representing a row from shapes.txt related to the shape id and sequence provided as
+     * parameters
+     */
+    @Override
+    public ShapePoint getShapePointByShapeIdAndSequence(final String shapeId, final int shapePtSequence) {
+        final int shapeIndex = shapeIds.find(shapeId);
+        if (shapeIndex == -1) {
+            return null;
+        }
+        final int row = shapePointRowByKey.get(sequenceKey(shapeIndex, shapePtSequence));
+        if (row == -1) {
+            return null;
+        }
+        shapePointBuilder.shapeId(shapeId)
+                .shapePtLat(shapePtLats.getNullable(row))
+                .shapePtLon(shapePtLons.getNullable(row))
+                .shapePtSequence(shapePtSequence)
+                .shapeDistTraveled(shapePointDistTraveled.getNullable(row));
+        return (ShapePoint) shapePointBuilder.build().getData();
+    }
+
+    /**
+     * Returns the number of rows from stop_times.txt held by this
+     *
+     * @return the number of rows from stop_times.txt held by this
+     */
+    public int getStopTimeCount() {
+        return stopTimeTripIndexes.size();
+    }
+
+    /**
+     * Returns the key of a row of a sequence, such as a stop time or a shape point: the dense index of the id of the
+     * sequence in the high bits and the position of the row in the sequence in the low bits, which makes the key non
+     * negative
+     */
+    static long sequenceKey(final int sequenceIndex, final int position) {
+        return ((long) sequenceIndex << Integer.SIZE) | (position & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.RecordSortRepository;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * A {@link RecordSortRepository} whose sorters hold records in memory up to a budget, then spill sorted runs to
+ * temporary files that are merged once all records are added. The budget and the directory of temporary files are
+ * read from {@link ExecParamRepository#SORT_MEMORY_KEY} and {@link ExecParamRepository#SORT_TEMP_DIR_KEY}.
+ */
+public class ExternalRecordSortRepository implements RecordSortRepository {
+    private final long memoryBudget;
+    private final Path tempDirectory;
+
+    /**
+     * @param execParamRepo a repository containing execution parameters
+     */
+    public ExternalRecordSortRepository(final ExecParamRepository execParamRepo) {
+        this(Long.parseLong(execParamRepo.getExecParamValue(ExecParamRepository.SORT_MEMORY_KEY)),
+                toTempDirectory(execParamRepo.getExecParamValue(ExecParamRepository.SORT_TEMP_DIR_KEY)));
+    }
+
+    /**
+     * @param memoryBudget  the number of bytes of records a sorter holds in memory before spilling them to a file
+     * @param tempDirectory the directory of the temporary files, null for the default temporary directory
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public ExternalRecordSortRepository(final long memoryBudget, final Path tempDirectory)
+            throws IllegalArgumentException {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("memory budget must be positive: " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+        this.tempDirectory = tempDirectory;
+    }
+
+    private static Path toTempDirectory(final String value) {
+        return value == null || value.isEmpty() ? null : Paths.get(value);
+    }
+
+    /**
+     * Returns a new sorter holding up to the memory budget of this repository
+     *
+     * @param valueCount the number of values of each record
+     * @return a new sorter
+     */
+    @Override
+    public RecordSorter getSorter(final int valueCount) {
+        return new ExternalRecordSorter(valueCount, memoryBudget, tempDirectory, ExternalRecordSorter.MAX_FAN_IN);
+    }
+}
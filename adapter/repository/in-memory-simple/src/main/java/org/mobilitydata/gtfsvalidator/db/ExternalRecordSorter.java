@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.SortedRecord;
+import org.mobilitydata.gtfsvalidator.usecase.port.RecordSortRepository;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * An external merge sort of {@link SortedRecord}. Records are held in memory until their estimated size reaches the
+ * memory budget: they are then sorted and written as a run to a temporary file. Once all records are added, runs are
+ * merged: at most {@link #MAX_FAN_IN} runs are read at once, more runs being first merged into larger runs. Records
+ * are written as compact binary records: the UTF-8 bytes of the group key prefixed by their length, the sort value,
+ * the line number as a variable length integer and the values. If all records fit in the budget, nothing is written.
+ * Not thread safe.
+ */
+final class ExternalRecordSorter implements RecordSortRepository.RecordSorter {
+    static final int MAX_FAN_IN = 64;
+    static final Comparator<SortedRecord> RECORD_COMPARATOR = Comparator.comparing(SortedRecord::getGroupKey)
+            .thenComparingDouble(SortedRecord::getSortValue)
+            .thenComparingInt(SortedRecord::getLineNumber);
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    // estimated heap size of a record besides its characters and values: headers of the record, its key and arrays,
+    // the fields of the record and the reference held by the buffer
+    private static final int RECORD_OVERHEAD = 96;
+
+    private final int valueCount;
+    private final long memoryBudget;
+    private final Path tempDirectory;
+    private final int maxFanIn;
+    private final List<SortedRecord> buffer = new ArrayList<>();
+    private long bufferedBytes;
+    private final Deque<Path> runList = new ArrayDeque<>();
+    private final List<RunReader> openReaderList = new ArrayList<>();
+    private boolean isSorted;
+
+    /**
+     * @param valueCount    the number of values of each record
+     * @param memoryBudget  the number of bytes of records held in memory before they are written to a run
+     * @param tempDirectory the directory of the runs, null for the default temporary directory
+     * @param maxFanIn      the maximal number of runs read at once, at least 2
+     */
+    ExternalRecordSorter(final int valueCount, final long memoryBudget, final Path tempDirectory, final int maxFanIn) {
+        this.valueCount = valueCount;
+        this.memoryBudget = memoryBudget;
+        this.tempDirectory = tempDirectory;
+        this.maxFanIn = maxFanIn;
+    }
+
+    @Override
+    public void add(final SortedRecord record) {
+        if (isSorted) {
+            throw new IllegalStateException("records can not be added once sorted");
+        }
+        if (record.getValues().length != valueCount) {
+            throw new IllegalArgumentException("expected " + valueCount + " values, found " +
+                    record.getValues().length);
+        }
+        buffer.add(record);
+        bufferedBytes += RECORD_OVERHEAD + 2L * record.getGroupKey().length() + 8L * valueCount;
+        if (bufferedBytes >= memoryBudget) {
+            spill();
+        }
+    }
+
+    @Override
+    public Iterator<List<SortedRecord>> getGroupIterator() {
+        if (isSorted) {
+            throw new IllegalStateException("records are already sorted");
+        }
+        isSorted = true;
+        if (runList.isEmpty()) {
+            buffer.sort(RECORD_COMPARATOR);
+            final Iterator<SortedRecord> recordIterator = buffer.iterator();
+            return new GroupIterator(() -> recordIterator.hasNext() ? recordIterator.next() : null);
+        }
+        if (!buffer.isEmpty()) {
+            spill();
+        }
+        while (runList.size() > maxFanIn) {
+            final List<RunReader> readerList = openRuns(maxFanIn);
+            final Path mergedRun = createRun();
+            try (DataOutputStream output = openOutput(mergedRun)) {
+                final RecordSource source = merge(readerList);
+                for (SortedRecord record = source.next(); record != null; record = source.next()) {
+                    write(output, record);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            closeAndDelete(readerList);
+            runList.addLast(mergedRun);
+        }
+        return new GroupIterator(merge(openRuns(runList.size())));
+    }
+
+    /**
+     * Closes the runs being read and deletes all runs
+     */
+    @Override
+    public void close() {
+        closeAndDelete(openReaderList);
+        runList.forEach(ExternalRecordSorter::deleteRun);
+        runList.clear();
+        buffer.clear();
+    }
+
+    /**
+     * Returns the number of runs written to temporary files and not merged yet
+     *
+     * @return the number of runs written to temporary files and not merged yet
+     */
+    int getRunCount() {
+        return runList.size();
+    }
+
+    private void spill() {
+        buffer.sort(RECORD_COMPARATOR);
+        final Path run = createRun();
+        try (DataOutputStream output = openOutput(run)) {
+            for (SortedRecord record : buffer) {
+                write(output, record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        runList.addLast(run);
+        buffer.clear();
+        bufferedBytes = 0;
+    }
+
+    private Path createRun() {
+        try {
+            return tempDirectory == null
+                    ? Files.createTempFile("gtfs-sort-", ".run")
+                    : Files.createTempFile(tempDirectory, "gtfs-sort-", ".run");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static DataOutputStream openOutput(final Path run) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), BUFFER_SIZE));
+    }
+
+    /**
+     * Opens the first runs of the list of runs, removing them from the list
+     */
+    private List<RunReader> openRuns(final int count) {
+        final List<RunReader> readerList = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; ++i) {
+                final RunReader reader = new RunReader(runList.removeFirst(), valueCount);
+                readerList.add(reader);
+                openReaderList.add(reader);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return readerList;
+    }
+
+    /**
+     * Returns the records of several runs in order, the next record being taken from a priority queue holding the
+     * current record of each run
+     */
+    private static RecordSource merge(final List<RunReader> readerList) {
+        final PriorityQueue<RunReader> readerQueue = new PriorityQueue<>(readerList.size(),
+                (first, second) -> RECORD_COMPARATOR.compare(first.current, second.current));
+        readerList.stream().filter(RunReader::advance).forEach(readerQueue::add);
+        return () -> {
+            final RunReader reader = readerQueue.poll();
+            if (reader == null) {
+                return null;
+            }
+            final SortedRecord record = reader.current;
+            if (reader.advance()) {
+                readerQueue.add(reader);
+            }
+            return record;
+        };
+    }
+
+    private void closeAndDelete(final List<RunReader> readerList) {
+        readerList.forEach(reader -> {
+            reader.close();
+            deleteRun(reader.run);
+        });
+        openReaderList.removeAll(readerList);
+    }
+
+    private static void deleteRun(final Path run) {
+        try {
+            Files.deleteIfExists(run);
+        } catch (IOException e) {
+            // the file is left in the temporary directory
+        }
+    }
+
+    private static void write(final DataOutputStream output, final SortedRecord record) throws IOException {
+        final byte[] key = record.getGroupKey().getBytes(StandardCharsets.UTF_8);
+        writeVarInt(output, key.length);
+        output.write(key);
+        output.writeDouble(record.getSortValue());
+        writeVarInt(output, record.getLineNumber());
+        for (double value : record.getValues()) {
+            output.writeDouble(value);
+        }
+    }
+
+    private static void writeVarInt(final DataOutputStream output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    private interface RecordSource {
+        /**
+         * Returns the next record, null if there is none
+         */
+        SortedRecord next();
+    }
+
+    /**
+     * Reads the records of a run in order
+     */
+    private static final class RunReader {
+        private final Path run;
+        private final int valueCount;
+        private final DataInputStream input;
+        private byte[] keyBuffer = new byte[64];
+        private SortedRecord current;
+
+        private RunReader(final Path run, final int valueCount) throws IOException {
+            this.run = run;
+            this.valueCount = valueCount;
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), BUFFER_SIZE));
+        }
+
+        /**
+         * Reads the next record of the run as the current record. Returns false at the end of the run.
+         */
+        private boolean advance() {
+            try {
+                final int firstByte = input.read();
+                if (firstByte == -1) {
+                    current = null;
+                    return false;
+                }
+                final int keyLength = readVarInt(firstByte);
+                if (keyBuffer.length < keyLength) {
+                    keyBuffer = new byte[Math.max(keyLength, keyBuffer.length * 2)];
+                }
+                input.readFully(keyBuffer, 0, keyLength);
+                final String groupKey = new String(keyBuffer, 0, keyLength, StandardCharsets.UTF_8);
+                final double sortValue = input.readDouble();
+                final int lineNumber = readVarInt(input.readUnsignedByte());
+                final double[] values = new double[valueCount];
+                for (int i = 0; i < valueCount; ++i) {
+                    values[i] = input.readDouble();
+                }
+                current = new SortedRecord(groupKey, sortValue, lineNumber, values);
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private int readVarInt(final int firstByte) throws IOException {
+            int value = firstByte & 0x7F;
+            int nextByte = firstByte;
+            for (int shift = 7; (nextByte & 0x80) != 0; shift += 7) {
+                nextByte = input.readUnsignedByte();
+                value |= (nextByte & 0x7F) << shift;
+            }
+            return value;
+        }
+
+        private void close() {
+            try {
+                input.close();
+            } catch (IOException e) {
+                // nothing was written, the run is deleted anyway
+            }
+        }
+    }
+
+    /**
+     * Returns consecutive records of a source sharing their group key as a group
+     */
+    private static final class GroupIterator implements Iterator<List<SortedRecord>> {
+        private final RecordSource source;
+        private SortedRecord next;
+
+        private GroupIterator(final RecordSource source) {
+            this.source = source;
+            this.next = source.next();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public List<SortedRecord> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            final List<SortedRecord> group = new ArrayList<>();
+            final String groupKey = next.getGroupKey();
+            do {
+                group.add(next);
+                next = source.next();
+            } while (next != null && next.getGroupKey().equals(groupKey));
+            return group;
+        }
+    }
+}
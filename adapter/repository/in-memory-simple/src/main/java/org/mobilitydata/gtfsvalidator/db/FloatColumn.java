@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A growable column of float values, stored in a primitive array. Null values are marked in a bitmap that is only
+ * allocated once a first null value is added.
+ */
+final class FloatColumn {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private float[] values = new float[INITIAL_CAPACITY];
+    private BitSet nullBits;
+    private int size;
+
+    /**
+     * Adds a value that may be null at the end of this column
+     *
+     * @param value the value to add, may be null
+     */
+    void addNullable(final Float value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1));
+        }
+        if (value == null) {
+            if (nullBits == null) {
+                nullBits = new BitSet();
+            }
+            nullBits.set(size++);
+        } else {
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * Returns the value of a row, or null if the value of the row is null
+     *
+     * @param row the 0 based index of the row
+     * @return the value of the row, or null if the value of the row is null
+     */
+    Float getNullable(final int row) {
+        return nullBits != null && nullBits.get(row) ? null : values[row];
+    }
+
+    /**
+     * Returns the number of rows of this column
+     *
+     * @return the number of rows of this column
+     */
+    int size() {
+        return size;
+    }
+}
@@ -17,39 +17,87 @@
 package org.mobilitydata.gtfsvalidator.db;
 
 import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
-import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.google.common.io.ByteStreams;
 import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntitySchema;
 import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
 import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.Map;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 
 /**
  * Provides methods to perform operations on rows of a GTFS CSV file. Includes feature to transform a row of a GTFS
- * CSV file into a {@link RawEntity}.
+ * CSV file into a {@link RawEntity}. Rows are read as arrays of strings and bound to a {@link RawEntitySchema} built
+ * once from the header row, instead of being mapped on header names for every row. Files that are entries of a zip
+ * archive are read from the archive without being extracted.
  * This is called in {@link InMemoryRawFileRepository} to retrieve the data provider for a specific GTFS CSV file.
  */
 public class FromFileRawEntityProvider implements RawFileRepository.RawEntityProvider {
-    private final MappingIterator<Map<String, String>> dataSource;
-    private final int headerCount;
+    private final MappingIterator<String[]> dataSource;
+    private final RawEntitySchema schema;
+    private final Collection<String> headers;
+    private final int lineOffset;
 
     public FromFileRawEntityProvider(RawFileInfo file) throws IOException {
+        if (file.isArchiveEntry()) {
+            dataSource = arrayReader().readValues(ZipEntryInputStream.open(file));
+        } else {
+            dataSource = arrayReader().readValues(new File(file.getPath() + File.separator + file.getFilename()));
+        }
+        lineOffset = 0;
+
+        schema = readSchema();
+        headers = Collections.unmodifiableCollection(new LinkedHashSet<>(schema.getHeaderList()));
+    }
+
+    /**
+     * Builds a data provider for a range of a GTFS CSV file. Row indices are offset by the number of line breaks found
+     * before the range, so that they identify the row location within the whole file.
+     *
+     * @param file         information regarding the file to process
+     * @param chunk        the range of the file to read, aligned on record boundaries
+     * @param headerSchema the schema read from the header row of the file. If null, the header row is expected to be
+     *                     the first row of the range.
+     * @throws IOException if the file could not be read
+     */
+    public FromFileRawEntityProvider(final RawFileInfo file,
+                                     final CsvFileChunker.Chunk chunk,
+                                     final RawEntitySchema headerSchema) throws IOException {
         File csvFile = new File(file.getPath() + File.separator + file.getFilename());
-        CsvMapper mapper = new CsvMapper();
-        CsvSchema schema = CsvSchema.emptySchema().withHeader();
 
-        dataSource = mapper.readerFor(Map.class)
-                .with(schema)
-                .readValues(csvFile);
+        FileInputStream inputStream = new FileInputStream(csvFile);
+        try {
+            inputStream.getChannel().position(chunk.getStartOffset());
+            dataSource = arrayReader()
+                    .readValues(ByteStreams.limit(inputStream, chunk.getEndOffset() - chunk.getStartOffset()));
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
+        lineOffset = chunk.getLineBreakCountBefore();
 
-        final int[] headerCountArray = {0};
+        schema = headerSchema == null ? readSchema() : headerSchema;
+        headers = Collections.unmodifiableCollection(new LinkedHashSet<>(schema.getHeaderList()));
+    }
 
-        ((CsvSchema) (dataSource.getParser().getSchema())).iterator().forEachRemaining(column -> ++headerCountArray[0]);
+    private static ObjectReader arrayReader() {
+        return new CsvMapper()
+                .enable(CsvParser.Feature.WRAP_AS_ARRAY)
+                .readerFor(String[].class);
+    }
 
-        headerCount = headerCountArray[0];
+    private RawEntitySchema readSchema() {
+        return new RawEntitySchema(dataSource.hasNext() ? List.of(dataSource.next()) : Collections.emptyList());
     }
 
     /**
@@ -69,7 +117,7 @@ public class FromFileRawEntityProvider implements RawFileRepository.RawEntityPro
      */
     @Override
     public RawEntity getNext() {
-        return new RawEntity(dataSource.next(), dataSource.getCurrentLocation().getLineNr());
+        return new RawEntity(schema, dataSource.next(), dataSource.getCurrentLocation().getLineNr() + lineOffset);
     }
 
     /**
@@ -79,6 +127,40 @@ public class FromFileRawEntityProvider implements RawFileRepository.RawEntityPro
      */
     @Override
     public int getHeaderCount() {
-        return headerCount;
+        return schema.size();
+    }
+
+    /**
+     * Returns the headers of a GTFS CSV file, in the order they appear in the file. These are read along with the
+     * data so that headers can be validated without opening the file a second time.
+     *
+     * @return the headers of a GTFS CSV file
+     */
+    @Override
+    public Collection<String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Returns the schema built from the header row of a GTFS CSV file. This is used to read the other ranges of a
+     * file that is split.
+     *
+     * @return the schema built from the header row of a GTFS CSV file
+     */
+    @Override
+    public RawEntitySchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Closes the file, or the archive the file is read from
+     */
+    @Override
+    public void close() {
+        try {
+            dataSource.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -164,7 +164,10 @@ public class InMemoryExecParamRepository implements ExecParamRepository {
         switch (key) {
 
             case HELP_KEY:
-            case PROTO_KEY: {
+            case PROTO_KEY:
+            case NO_EXTRACT_KEY:
+            case STREAM_RESULTS_KEY:
+            case AGGREGATE_RESULTS_KEY: {
                 if (hasExecParam(key)) {
                     return hasExecParamValue(key) ? String.valueOf(true) : defaultValue;
                 } else {
@@ -198,6 +201,28 @@ public class InMemoryExecParamRepository implements ExecParamRepository {
                 return hasExecParamValue(key) ? getExecParamByKey(URL_KEY).getValue() : defaultValue;
             }
 
+            case THREADS_KEY:
+            case SPLIT_THRESHOLD_KEY:
+            case CHUNK_SIZE_KEY:
+            case CSV_READER_KEY:
+            case SAMPLE_CAP_KEY:
+            case RESERVOIR_SIZE_KEY:
+            case PROTO_FORMAT_KEY:
+            case SORT_MEMORY_KEY:
+            case PROGRESS_INTERVAL_KEY: {
+                return hasExecParamValue(key) ? getExecParamByKey(key).getValue() : defaultValue;
+            }
+
+            case SORT_TEMP_DIR_KEY: {
+                return hasExecParamValue(key)
+                        ? getExecParamByKey(key).getValue()
+                        : System.getProperty("java.io.tmpdir");
+            }
+
+            case JFR_KEY: {
+                return hasExecParamValue(key) ? getExecParamByKey(key).getValue() : null;
+            }
+
             case ZIP_KEY: {
                 String zipInputPath = hasExecParamValue(ZIP_KEY)
                         ? getExecParamByKey(ZIP_KEY).getValue()
@@ -254,6 +279,34 @@ public class InMemoryExecParamRepository implements ExecParamRepository {
         options.addOption("h", "help", false, "Print this message");
         options.addOption("p", "proto", true, "Export validation results as" +
                 " proto");
+        options.addOption("t", "threads", true, "Number of threads used to" +
+                " validate files in parallel");
+        options.addOption("s", "splitthreshold", true, "Size in bytes above" +
+                " which a file is split in ranges validated in parallel");
+        options.addOption("c", "chunksize", true, "Minimal size in bytes of the" +
+                " ranges of a split file");
+        options.addOption("r", "csvreader", true, "How csv files are read:" +
+                " stream or mmap");
+        options.addOption("n", "noextract", false, "Validate files from the zip archive" +
+                " without extracting them");
+        options.addOption("w", "streamresults", false, "Write notices to the output as" +
+                " they are found instead of holding them in memory");
+        options.addOption("g", "aggregateresults", false, "Count notices by notice id," +
+                " filename and field instead of holding each of them in memory");
+        options.addOption("m", "samplecap", true, "Number of notices held as first" +
+                " samples of each aggregate of notices");
+        options.addOption("v", "reservoirsize", true, "Number of notices held as random" +
+                " sample of each aggregate of notices");
+        options.addOption("f", "protoformat", true, "How proto results are written:" +
+                " files, delimited or gzip");
+        options.addOption("b", "sortmemory", true, "Size in bytes of the rows held" +
+                " in memory by a sort before they are written to temporary files");
+        options.addOption("d", "sorttempdir", true, "Directory of the temporary files" +
+                " written by sorts, the system temporary directory if not set");
+        options.addOption("i", "progressinterval", true, "Seconds between two progress lines" +
+                " logged during the validation, 0 to log none");
+        options.addOption("j", "jfr", true, "File to which a flight recording of the" +
+                " validation is written, none is recorded if not set");
 
         return options;
     }
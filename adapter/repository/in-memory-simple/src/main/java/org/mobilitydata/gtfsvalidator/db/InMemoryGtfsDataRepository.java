@@ -18,6 +18,8 @@ package org.mobilitydata.gtfsvalidator.db;
 
 import org.jetbrains.annotations.NotNull;
 import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.Agency;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.ShapePoint;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.StopTime;
 import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.routes.Route;
 import org.mobilitydata.gtfsvalidator.usecase.port.GtfsDataRepository;
 
@@ -30,6 +32,8 @@ import java.util.Map;
 public class InMemoryGtfsDataRepository implements GtfsDataRepository {
     private final Map<String, Agency> agencyCollection = new HashMap<>();
     private final Map<String, Route> routeCollection = new HashMap<>();
+    private final Map<String, Map<Integer, StopTime>> stopTimeCollection = new HashMap<>();
+    private final Map<String, Map<Integer, ShapePoint>> shapePointCollection = new HashMap<>();
 
     /**
      * Add an Agency representing a row from agency.txt to this. Return the entity added to the repository if the
@@ -98,4 +102,86 @@ public class InMemoryGtfsDataRepository implements GtfsDataRepository {
     public Route getRouteById(final String routeId) {
         return routeCollection.get(routeId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Add a StopTime representing a row from stop_times.txt to this. Return the entity added to the repository if the
+     * uniqueness constraint of stop time based on trip_id and stop_sequence is respected, if this requirement is not
+     * met, returns null.
+     *
+     * @param newStopTime the internal representation of a row from stop_times.txt to be added to the repository.
+     * @return the entity added to the repository if the uniqueness constraint of stop time based on trip_id and
+     * stop_sequence is respected, if this requirement is not met returns null.
+     */
+    @Override
+    public StopTime addStopTime(@NotNull final StopTime newStopTime) throws IllegalArgumentException {
+        //noinspection ConstantConditions
+        if (newStopTime != null) {
+            final Map<Integer, StopTime> stopTimeBySequence =
+                    stopTimeCollection.computeIfAbsent(newStopTime.getTripId(), tripId -> new HashMap<>());
+            if (stopTimeBySequence.containsKey(newStopTime.getStopSequence())) {
+                return null;
+            } else {
+                stopTimeBySequence.put(newStopTime.getStopSequence(), newStopTime);
+                return newStopTime;
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot add null stop time to data repository");
+        }
+    }
+
+    /**
+     * Return the StopTime representing a row from stop_times.txt related to the trip id and stop sequence provided as
+     * parameters
+     *
+     * @param tripId       the trip_id from stop_times.txt related to the StopTime to be returned
+     * @param stopSequence the stop_sequence from stop_times.txt related to the StopTime to be returned
+     * @return the StopTime representing a row from stop_times.txt related to the trip id and stop sequence provided as
+     * parameters
+     */
+    @Override
+    public StopTime getStopTimeByTripIdAndStopSequence(final String tripId, final int stopSequence) {
+        final Map<Integer, StopTime> stopTimeBySequence = stopTimeCollection.get(tripId);
+        return stopTimeBySequence == null ? null : stopTimeBySequence.get(stopSequence);
+    }
+
+    /**
+     * Add a ShapePoint representing a row from shapes.txt to this. Return the entity added to the repository if the
+     * uniqueness constraint of shape point based on shape_id and shape_pt_sequence is respected, if this requirement
+     * is not met, returns null.
+     *
+     * @param newShapePoint the internal representation of a row from shapes.txt to be added to the repository.
+     * @return the entity added to the repository if the uniqueness constraint of shape point based on shape_id and
+     * shape_pt_sequence is respected, if this requirement is not met returns null.
+     */
+    @Override
+    public ShapePoint addShapePoint(@NotNull final ShapePoint newShapePoint) throws IllegalArgumentException {
+        //noinspection ConstantConditions
+        if (newShapePoint != null) {
+            final Map<Integer, ShapePoint> shapePointBySequence =
+                    shapePointCollection.computeIfAbsent(newShapePoint.getShapeId(), shapeId -> new HashMap<>());
+            if (shapePointBySequence.containsKey(newShapePoint.getShapePtSequence())) {
+                return null;
+            } else {
+                shapePointBySequence.put(newShapePoint.getShapePtSequence(), newShapePoint);
+                return newShapePoint;
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot add null shape point to data repository");
+        }
+    }
+
+    /**
+     * Return the ShapePoint representing a row from shapes.txt related to the shape id and sequence provided as
+     * parameters
+     *
+     * @param shapeId         the shape_id from shapes.txt related to the ShapePoint to be returned
+     * @param shapePtSequence the shape_pt_sequence from shapes.txt related to the ShapePoint to be returned
+     * @return the ShapePoint representing a row from shapes.txt related to the shape id and sequence provided as
+     * parameters
+     */
+    @Override
+    public ShapePoint getShapePointByShapeIdAndSequence(final String shapeId, final int shapePtSequence) {
+        final Map<Integer, ShapePoint> shapePointBySequence = shapePointCollection.get(shapeId);
+        return shapePointBySequence == null ? null : shapePointBySequence.get(shapePtSequence);
+    }
+}
@@ -18,7 +18,11 @@ package org.mobilitydata.gtfsvalidator.db;
 
 import com.google.protobuf.TextFormat;
 import org.apache.commons.validator.routines.*;
+import org.mobilitydata.gtfsvalidator.domain.entity.ForeignKey;
 import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.domain.entity.RowOrder;
+import org.mobilitydata.gtfsvalidator.domain.entity.UniqueKey;
+import org.mobilitydata.gtfsvalidator.parser.ColumnDictionary;
 import org.mobilitydata.gtfsvalidator.parser.GtfsEntityParser;
 import org.mobilitydata.gtfsvalidator.protos.GtfsSpecificationProto;
 import org.mobilitydata.gtfsvalidator.usecase.port.GtfsSpecRepository;
@@ -27,6 +31,7 @@ import org.mobilitydata.gtfsvalidator.validator.GtfsTypeValidator;
 import java.io.IOException;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -37,7 +42,9 @@ import java.util.stream.Collectors;
 public class InMemoryGtfsSpecRepository implements GtfsSpecRepository {
 
     private final GtfsSpecificationProto.CsvSpecProtos inMemoryGTFSSpec;
-    private final Map<String, ParsedEntityTypeValidator> validatorByFilenameCache = new HashMap<>();
+    private final Map<String, ParsedEntityTypeValidator> validatorByFilenameCache = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, ColumnDictionary>> columnDictionariesByFilenameCache =
+            new ConcurrentHashMap<>();
 
     private static final String[] VALID_URL_SCHEMES = {"http", "https"};
     private static final String VALID_COLOR_REGEX_PATTERN = "[0-9a-fA-F]{6}";
@@ -138,7 +145,8 @@ public class InMemoryGtfsSpecRepository implements GtfsSpecRepository {
     }
 
     /**
-     * Returns the parser for raw data associated to a given GTFS CSV file
+     * Returns the parser for raw data associated to a given GTFS CSV file, for rows that are discarded once validated:
+     * their values are not deduplicated
      *
      * @param file information about the file to process: location and expected content
      * @return the parser for raw data associated to the file associated to {@code file}
@@ -146,16 +154,108 @@ public class InMemoryGtfsSpecRepository implements GtfsSpecRepository {
     @Override
     public RawEntityParser getParserForFile(RawFileInfo file) {
         return new GtfsEntityParser(
-                Objects.requireNonNull(inMemoryGTFSSpec.getCsvspecList().stream()
-                        .filter(spec -> file.getFilename().equals(spec.getFilename()))
-                        .findAny()
-                        .orElse(null)),
+                getRequiredSpecForFile(file),
                 file,
                 FloatValidator.getInstance(),
                 IntegerValidator.getInstance(),
                 DateValidator.getInstance());
     }
 
+    /**
+     * Returns the parser for raw data associated to a given GTFS CSV file, for rows that are kept once parsed: the
+     * values of the columns whose specification carries a cache hint are deduplicated by dictionaries shared by all the
+     * parsers of the file, until {@link #releaseColumnDictionariesForFile(RawFileInfo)} is called for the file
+     *
+     * @param file information about the file to process: location and expected content
+     * @return the deduplicating parser for raw data associated to the file associated to {@code file}
+     */
+    @Override
+    public RawEntityParser getDeduplicatingParserForFile(RawFileInfo file) {
+        final GtfsSpecificationProto.CsvSpecProto specForFile = getRequiredSpecForFile(file);
+        return new GtfsEntityParser(
+                specForFile,
+                file,
+                FloatValidator.getInstance(),
+                IntegerValidator.getInstance(),
+                DateValidator.getInstance(),
+                columnDictionariesByFilenameCache.computeIfAbsent(file.getFilename(),
+                        filename -> createColumnDictionaries(specForFile)));
+    }
+
+    /**
+     * Releases the values held by the dictionaries of a given GTFS CSV file, once all its kept rows are parsed. The
+     * statistics of the dictionaries are kept.
+     *
+     * @param file information about the file whose rows are all parsed
+     */
+    @Override
+    public void releaseColumnDictionariesForFile(RawFileInfo file) {
+        final Map<String, ColumnDictionary> columnDictionaries =
+                columnDictionariesByFilenameCache.get(file.getFilename());
+        if (columnDictionaries != null) {
+            columnDictionaries.values().forEach(ColumnDictionary::clear);
+        }
+    }
+
+    private GtfsSpecificationProto.CsvSpecProto getRequiredSpecForFile(RawFileInfo file) {
+        return Objects.requireNonNull(inMemoryGTFSSpec.getCsvspecList().stream()
+                .filter(spec -> file.getFilename().equals(spec.getFilename()))
+                .findAny()
+                .orElse(null));
+    }
+
+    /**
+     * Returns the dictionaries deduplicating the values of the columns of a GTFS CSV file, by column name. A column
+     * gets a dictionary if its specification asks for caching its keys, or for caching the numbers it holds as
+     * strings, such as times. Other numbers are stored as primitives once parsed, hence need no dictionary.
+     *
+     * @param specForFile the GTFS specification for the file
+     * @return the dictionaries deduplicating the values of the columns of the file, by column name
+     */
+    private static Map<String, ColumnDictionary> createColumnDictionaries(
+            final GtfsSpecificationProto.CsvSpecProto specForFile) {
+        final Map<String, ColumnDictionary> toReturn = new LinkedHashMap<>();
+        for (GtfsSpecificationProto.ColumnSpecProto columnSpecProto : specForFile.getColumnList()) {
+            if (columnSpecProto.hasCache() &&
+                    (columnSpecProto.getCache().getCacheKeys() ||
+                            (columnSpecProto.getCache().getCacheNumbers() && isStoredAsString(columnSpecProto)))) {
+                toReturn.put(columnSpecProto.getName(),
+                        new ColumnDictionary(specForFile.getFilename(), columnSpecProto.getName()));
+            }
+        }
+        return Collections.unmodifiableMap(toReturn);
+    }
+
+    private static boolean isStoredAsString(final GtfsSpecificationProto.ColumnSpecProto columnSpecProto) {
+        switch (columnSpecProto.getType().getType()) {
+            case FLOAT:
+            case INTEGER:
+            case DATE:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Returns the statistics of the dictionaries deduplicating the values of the columns of the files whose rows were
+     * kept so far, in the order of the GTFS specification
+     *
+     * @return the statistics of the dictionaries of the columns of the files whose rows were kept so far
+     */
+    @Override
+    public Collection<ColumnDictionaryStatistics> getColumnDictionaryStatistics() {
+        final List<ColumnDictionaryStatistics> toReturn = new ArrayList<>();
+        for (GtfsSpecificationProto.CsvSpecProto specForFile : inMemoryGTFSSpec.getCsvspecList()) {
+            final Map<String, ColumnDictionary> columnDictionaries =
+                    columnDictionariesByFilenameCache.get(specForFile.getFilename());
+            if (columnDictionaries != null) {
+                toReturn.addAll(columnDictionaries.values());
+            }
+        }
+        return toReturn;
+    }
+
     /**
      * Returns the type validator associated to a given GTFS CSV file
      *
@@ -164,26 +264,133 @@ public class InMemoryGtfsSpecRepository implements GtfsSpecRepository {
      */
     @Override
     public ParsedEntityTypeValidator getValidatorForFile(RawFileInfo file) {
-        ParsedEntityTypeValidator toReturn = validatorByFilenameCache.get(file.getFilename());
-
-        if (toReturn == null) {
-            toReturn = new GtfsTypeValidator(
-                    Objects.requireNonNull(inMemoryGTFSSpec.getCsvspecList().stream()
-                            .filter(spec -> file.getFilename().equals(spec.getFilename()))
-                            .findAny()
-                            .orElse(null)),
-                    FloatValidator.getInstance(),
-                    IntegerValidator.getInstance(),
-                    new UrlValidator(VALID_URL_SCHEMES),
-                    new RegexValidator(VALID_COLOR_REGEX_PATTERN),
-                    new RegexValidator(VALID_TIME_REGEXP_PATTERN),
-                    // Uses IANA timezone database shipped with JDK
-                    // to update without updating JDK see
-                    // https://www.oracle.com/technetwork/java/javase/tzupdater-readme-136440.html
-                    ZoneId.getAvailableZoneIds());
-            validatorByFilenameCache.put(file.getFilename(), toReturn);
+        return validatorByFilenameCache.computeIfAbsent(file.getFilename(), filename ->
+                new GtfsTypeValidator(
+                        Objects.requireNonNull(inMemoryGTFSSpec.getCsvspecList().stream()
+                                .filter(spec -> file.getFilename().equals(spec.getFilename()))
+                                .findAny()
+                                .orElse(null)),
+                        FloatValidator.getInstance(),
+                        IntegerValidator.getInstance(),
+                        new UrlValidator(VALID_URL_SCHEMES),
+                        new RegexValidator(VALID_COLOR_REGEX_PATTERN),
+                        new RegexValidator(VALID_TIME_REGEXP_PATTERN),
+                        // Uses IANA timezone database shipped with JDK
+                        // to update without updating JDK see
+                        // https://www.oracle.com/technetwork/java/javase/tzupdater-readme-136440.html
+                        ZoneId.getAvailableZoneIds()));
+    }
+
+    /**
+     * Returns the references between files defined in the GTFS schema, in the order of the schema. A reference is
+     * defined by the supersetkey of a column or of a multi-column key. When a column or key lists several superset
+     * keys, its values must be found in at least one of them: trips.txt service_id references either calendar.txt or
+     * calendar_dates.txt. A superset key names a key of the referenced file, or else one of its columns. Superset keys
+     * of files that are not part of the schema are ignored.
+     *
+     * @return the references between files defined in the GTFS schema
+     */
+    @Override
+    public List<ForeignKey> getForeignKeyList() {
+        final Map<String, GtfsSpecificationProto.CsvSpecProto> specByName = new HashMap<>();
+        inMemoryGTFSSpec.getCsvspecList().forEach(spec -> specByName.put(spec.getName(), spec));
+
+        final List<ForeignKey> toReturn = new ArrayList<>();
+        for (GtfsSpecificationProto.CsvSpecProto spec : inMemoryGTFSSpec.getCsvspecList()) {
+            for (GtfsSpecificationProto.ColumnSpecProto columnSpecProto : spec.getColumnList()) {
+                addForeignKey(spec.getFilename(), List.of(columnSpecProto.getName()),
+                        columnSpecProto.getSupersetkeyList(), specByName, toReturn);
+            }
+            for (GtfsSpecificationProto.KeySpecProto keySpecProto : spec.getKeyList()) {
+                addForeignKey(spec.getFilename(), keySpecProto.getColumnnameList(),
+                        keySpecProto.getSupersetkeyList(), specByName, toReturn);
+            }
         }
+        return toReturn;
+    }
 
+    /**
+     * Returns the tuples of columns whose values must be unique in a file, as defined by the uniquevalues option of a
+     * column or of a multi-column key: the stop_id of stops.txt, or the trip_id and stop_sequence of stop_times.txt.
+     *
+     * @return the tuples of columns whose values must be unique in a file, in the order of the GTFS schema
+     */
+    @Override
+    public List<UniqueKey> getUniqueKeyList() {
+        final List<UniqueKey> toReturn = new ArrayList<>();
+        for (GtfsSpecificationProto.CsvSpecProto spec : inMemoryGTFSSpec.getCsvspecList()) {
+            spec.getColumnList().stream()
+                    .filter(GtfsSpecificationProto.ColumnSpecProto::getUniquevalues)
+                    .forEach(columnSpecProto ->
+                            toReturn.add(new UniqueKey(spec.getFilename(), List.of(columnSpecProto.getName()))));
+            spec.getKeyList().stream()
+                    .filter(GtfsSpecificationProto.KeySpecProto::getUniquevalues)
+                    .forEach(keySpecProto -> toReturn.add(
+                            new UniqueKey(spec.getFilename(), new ArrayList<>(keySpecProto.getColumnnameList()))));
+        }
         return toReturn;
     }
+
+    /**
+     * Returns the order of the rows of a file, as defined by its resortkey and requiresortedonkey options, or an empty
+     * {@link Optional} if the file has no resort key. A key required to be sorted is checked along the resort key: it
+     * must have the same group columns, its last column being one whose values must not decrease within a group.
+     * Other keys required to be sorted are ignored.
+     *
+     * @param file the file to get the order of
+     * @return the order of the rows of the file, or an empty {@link Optional} if the file has no resort key
+     */
+    @Override
+    public Optional<RowOrder> getRowOrderForFile(final RawFileInfo file) {
+        final GtfsSpecificationProto.CsvSpecProto spec = inMemoryGTFSSpec.getCsvspecList().stream()
+                .filter(csvSpecProto -> csvSpecProto.getFilename().equals(file.getFilename()))
+                .findAny()
+                .orElse(null);
+        if (spec == null || !spec.hasResortkey()) {
+            return Optional.empty();
+        }
+        final Map<String, List<String>> columnNameListByKeyName = new HashMap<>();
+        spec.getKeyList().forEach(key -> columnNameListByKeyName.put(key.getName(), key.getColumnnameList()));
+
+        final List<String> resortKeyColumnNameList = columnNameListByKeyName.get(spec.getResortkey());
+        if (resortKeyColumnNameList == null || resortKeyColumnNameList.size() < 2) {
+            return Optional.empty();
+        }
+        final List<String> groupColumnNameList =
+                resortKeyColumnNameList.subList(0, resortKeyColumnNameList.size() - 1);
+        final List<String> sortedColumnNameList = spec.getRequiresortedonkeyList().stream()
+                .map(columnNameListByKeyName::get)
+                .filter(columnNameList -> columnNameList != null &&
+                        columnNameList.size() == resortKeyColumnNameList.size() &&
+                        columnNameList.subList(0, groupColumnNameList.size()).equals(groupColumnNameList))
+                .map(columnNameList -> columnNameList.get(columnNameList.size() - 1))
+                .collect(Collectors.toList());
+        return Optional.of(new RowOrder(spec.getFilename(), new ArrayList<>(resortKeyColumnNameList),
+                sortedColumnNameList));
+    }
+
+    private static void addForeignKey(final String filename,
+                                      final List<String> columnNameList,
+                                      final List<GtfsSpecificationProto.SupersetKeySpecProto> supersetKeyList,
+                                      final Map<String, GtfsSpecificationProto.CsvSpecProto> specByName,
+                                      final List<ForeignKey> foreignKeyList) {
+        final List<ForeignKey.ReferencedKey> referencedKeyList = new ArrayList<>();
+        for (GtfsSpecificationProto.SupersetKeySpecProto supersetKey : supersetKeyList) {
+            final GtfsSpecificationProto.CsvSpecProto referencedSpec = specByName.get(supersetKey.getCsvname());
+            if (referencedSpec != null) {
+                final List<String> referencedColumnNameList = referencedSpec.getKeyList().stream()
+                        .filter(key -> key.getName().equals(supersetKey.getKeyname()))
+                        .findAny()
+                        .map(key -> (List<String>) new ArrayList<>(key.getColumnnameList()))
+                        .orElse(List.of(supersetKey.getKeyname()));
+                if (referencedColumnNameList.size() == columnNameList.size()) {
+                    referencedKeyList.add(
+                            new ForeignKey.ReferencedKey(referencedSpec.getFilename(), referencedColumnNameList));
+                }
+            }
+        }
+        if (!referencedKeyList.isEmpty()) {
+            foreignKeyList.add(new ForeignKey(filename, new ArrayList<>(columnNameList), referencedKeyList));
+        }
+    }
 }
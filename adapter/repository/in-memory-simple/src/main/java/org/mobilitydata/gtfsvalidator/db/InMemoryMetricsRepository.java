@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.MetricsExporter;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.StageMetrics;
+import org.mobilitydata.gtfsvalidator.exporter.JsonMetricsExporter;
+import org.mobilitydata.gtfsvalidator.exporter.PrometheusMetricsExporter;
+import org.mobilitydata.gtfsvalidator.usecase.port.MetricsRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This holds the metrics of the stages of the validation process in memory, in the order stages ended. Metrics are
+ * exported to a json file and to a file in the Prometheus text format, next to the results. This is created when
+ * creating a new default configuration.
+ */
+public class InMemoryMetricsRepository implements MetricsRepository {
+    private final List<StageMetrics> stageMetricsList = new ArrayList<>();
+
+    /**
+     * Adds the metrics of a stage to this repository
+     *
+     * @param stageMetrics the metrics of a stage
+     */
+    @Override
+    public synchronized void addStageMetrics(final StageMetrics stageMetrics) {
+        stageMetricsList.add(stageMetrics);
+    }
+
+    /**
+     * Returns the metrics of all stages, in the order they were added
+     *
+     * @return the metrics of all stages
+     */
+    @Override
+    public synchronized List<StageMetrics> getAll() {
+        return List.copyOf(stageMetricsList);
+    }
+
+    /**
+     * Returns the exporters writing metrics to {@link JsonMetricsExporter#FILENAME} and
+     * {@link PrometheusMetricsExporter#FILENAME} in a given directory
+     *
+     * @param outputPath the path of the directory to write files in
+     * @return the exporters writing metrics to files located in {@code outputPath}
+     * @throws IOException if an output file could not be created
+     */
+    @Override
+    public List<MetricsExporter> getExporters(final String outputPath) throws IOException {
+        return List.of(
+                new JsonMetricsExporter(new ObjectMapper().getFactory().createGenerator(
+                        Files.newOutputStream(Paths.get(outputPath, JsonMetricsExporter.FILENAME)))),
+                new PrometheusMetricsExporter(
+                        Files.newBufferedWriter(Paths.get(outputPath, PrometheusMetricsExporter.FILENAME),
+                                StandardCharsets.UTF_8)));
+    }
+}
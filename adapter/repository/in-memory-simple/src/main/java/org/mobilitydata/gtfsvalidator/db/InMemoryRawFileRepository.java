@@ -16,23 +16,54 @@
 
 package org.mobilitydata.gtfsvalidator.db;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntitySchema;
 import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
 import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * Holds information about a GTFS CSV file that have not been through the parsing process. Provides methods to get
  * information about said file.
  * This is created when creating a new default configuration, all fields being set to their default value.
+ * Files are read with {@link FromFileRawEntityProvider}, or with {@link MappedFileRawEntityProvider} if the execution
+ * parameter {@link ExecParamRepository#CSV_READER_KEY} is set to {@link #MAPPED_CSV_READER}. Files that are entries
+ * of a zip archive are always read whole with {@link FromFileRawEntityProvider}, as their content is compressed.
  */
 public class InMemoryRawFileRepository implements RawFileRepository {
+    public static final String MAPPED_CSV_READER = "mmap";
 
-    private final Map<String, RawFileInfo> fileInfoPerFilename = new HashMap<>();
+    private final Map<String, RawFileInfo> fileInfoPerFilename = new ConcurrentHashMap<>();
+    // the ranges of the files split so far, by path: a file is scanned for record boundaries once, not once per pass
+    private final Map<String, SplitFile> splitFilePerPath = new ConcurrentHashMap<>();
+    private final ExecParamRepository execParamRepo;
+
+    public InMemoryRawFileRepository() {
+        this(null);
+    }
+
+    /**
+     * @param execParamRepo the repository of execution parameters, read when data providers are built since
+     *                      parameters are parsed after this repository is created. If null, files are read with
+     *                      {@link FromFileRawEntityProvider}.
+     */
+    public InMemoryRawFileRepository(final ExecParamRepository execParamRepo) {
+        this.execParamRepo = execParamRepo;
+    }
 
     /**
      * Builds a{@link RawFileInfo} with filename of the file to process
@@ -71,10 +102,14 @@ public class InMemoryRawFileRepository implements RawFileRepository {
 
         Collection<String> toReturn = new HashSet<>();
 
-        try {
-            ((CsvSchema) (mapper.readerFor(Map.class)
-                    .with(schema)
-                    .readValues(csvFile).getParser().getSchema())).iterator().forEachRemaining(column -> toReturn.add(column.getName()));
+        ObjectReader reader = mapper.readerFor(Map.class).with(schema);
+        // the archive, or the file, is closed even if its header row can not be read
+        try (InputStream inputStream = file.isArchiveEntry()
+                ? ZipEntryInputStream.open(file)
+                : new FileInputStream(csvFile);
+             MappingIterator<Object> dataSource = reader.readValues(inputStream)) {
+            ((CsvSchema) (dataSource.getParser().getSchema())).iterator()
+                    .forEachRemaining(column -> toReturn.add(column.getName()));
         } catch (IOException e) {
             //TODO: this should go back up to use case level so it can be properly reported
             return Collections.emptySet();
@@ -93,6 +128,27 @@ public class InMemoryRawFileRepository implements RawFileRepository {
         return fileInfoPerFilename.keySet();
     }
 
+    /**
+     * Returns the size in bytes of the content of a GTFS CSV file, read from the archive for an entry that is not
+     * extracted
+     *
+     * @param file information regarding a file to process
+     * @return the size in bytes of the content of the file, -1 if it is unknown
+     */
+    @Override
+    public long getSizeForFile(final RawFileInfo file) {
+        if (file.isArchiveEntry()) {
+            try (ZipFile zipFile = new ZipFile(file.getPath())) {
+                final ZipEntry entry = zipFile.getEntry(file.getFilename());
+                return entry == null ? -1 : entry.getSize();
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+        final File csvFile = new File(file.getPath() + File.separator + file.getFilename());
+        return csvFile.isFile() ? csvFile.length() : -1;
+    }
+
     /**
      * Returns a data provider for a GTFS CSV file
      *
@@ -103,9 +159,119 @@ public class InMemoryRawFileRepository implements RawFileRepository {
     public Optional<RawEntityProvider> getProviderForFile(RawFileInfo file) {
 
         try {
-            return Optional.of(new FromFileRawEntityProvider(file));
+            return Optional.of(createProvider(file, null, null));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns suppliers of the data providers of a GTFS CSV file. If the file is larger than {@code splitThreshold}
+     * bytes, it is split in ranges of at least {@code chunkSize} bytes aligned on record boundaries and one supplier is
+     * returned per range, in order. The ranges of a file are found once and reused by the following calls with the same
+     * chunk size, as long as the size of the file is unchanged. Otherwise, or if the file is an entry of a zip archive,
+     * a single supplier of a data provider reading the whole file is returned. The provider of the first range is
+     * opened by this call, the other ones are opened by their supplier and read the header row of the file from the
+     * first one. A supplier that fails to open its range throws an {@link UncheckedIOException}.
+     *
+     * @param file           information regarding a file to process
+     * @param splitThreshold the size in bytes above which the file is split
+     * @param chunkSize      the minimal size in bytes of a range
+     * @return suppliers of the data providers of a GTFS CSV file, in the order of the rows they provide
+     */
+    @Override
+    public Optional<List<Supplier<RawEntityProvider>>> getProviderChunkListForFile(RawFileInfo file,
+                                                                                  long splitThreshold,
+                                                                                  long chunkSize) {
+        File csvFile = new File(file.getPath() + File.separator + file.getFilename());
+
+        try {
+            if (file.isArchiveEntry() || csvFile.length() <= splitThreshold) {
+                final RawEntityProvider provider = createProvider(file, null, null);
+                return Optional.of(List.of(() -> provider));
+            }
+
+            List<CsvFileChunker.Chunk> chunkList = getChunkList(csvFile, chunkSize);
+            List<Supplier<RawEntityProvider>> toReturn = new ArrayList<>(chunkList.size());
+
+            final RawEntityProvider firstProvider = createProvider(file, chunkList.get(0), null);
+            final RawEntitySchema headerSchema = firstProvider.getSchema();
+            toReturn.add(() -> firstProvider);
+            for (CsvFileChunker.Chunk chunk : chunkList.subList(1, chunkList.size())) {
+                toReturn.add(() -> {
+                    try {
+                        return createProvider(file, chunk, headerSchema);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            return Optional.of(toReturn);
         } catch (IOException e) {
             return Optional.empty();
         }
     }
+
+    /**
+     * Returns the ranges of a file, splitting it only if it was not split before with the same chunk size
+     *
+     * @param csvFile   the file to split
+     * @param chunkSize the minimal size in bytes of a range
+     * @return the ranges of the file, in order
+     * @throws IOException if the file could not be read
+     */
+    private List<CsvFileChunker.Chunk> getChunkList(final File csvFile, final long chunkSize) throws IOException {
+        final String path = csvFile.getAbsolutePath();
+        final SplitFile splitFile = splitFilePerPath.get(path);
+        if (splitFile != null && splitFile.chunkSize == chunkSize && splitFile.fileLength == csvFile.length()) {
+            return splitFile.chunkList;
+        }
+        final long fileLength = csvFile.length();
+        final List<CsvFileChunker.Chunk> chunkList = new CsvFileChunker(chunkSize).split(csvFile);
+        splitFilePerPath.put(path, new SplitFile(chunkSize, fileLength, chunkList));
+        return chunkList;
+    }
+
+    /**
+     * Builds a data provider for a GTFS CSV file or for a range of it, according to the execution parameter
+     * {@link ExecParamRepository#CSV_READER_KEY}.
+     *
+     * @param file         information regarding the file to process
+     * @param chunk        the range of the file to read, or null to read the whole file
+     * @param headerSchema the schema read from the header row of the file, or null to read it from the first row
+     * @return a data provider for a GTFS CSV file or for a range of it
+     * @throws IOException if the file could not be read
+     */
+    private RawEntityProvider createProvider(final RawFileInfo file,
+                                             final CsvFileChunker.Chunk chunk,
+                                             final RawEntitySchema headerSchema) throws IOException {
+        if (file.isArchiveEntry()) {
+            return new FromFileRawEntityProvider(file);
+        }
+
+        final boolean isMapped = execParamRepo != null
+                && MAPPED_CSV_READER.equals(execParamRepo.getExecParamValue(ExecParamRepository.CSV_READER_KEY));
+
+        if (chunk == null) {
+            return isMapped ? new MappedFileRawEntityProvider(file) : new FromFileRawEntityProvider(file);
+        }
+        return isMapped
+                ? new MappedFileRawEntityProvider(file, chunk, headerSchema)
+                : new FromFileRawEntityProvider(file, chunk, headerSchema);
+    }
+
+    /**
+     * The ranges of a file split with a chunk size, along with the size of the file when it was split
+     */
+    private static final class SplitFile {
+        private final long chunkSize;
+        private final long fileLength;
+        private final List<CsvFileChunker.Chunk> chunkList;
+
+        private SplitFile(final long chunkSize, final long fileLength, final List<CsvFileChunker.Chunk> chunkList) {
+            this.chunkSize = chunkSize;
+            this.fileLength = fileLength;
+            this.chunkList = chunkList;
+        }
+    }
 }
@@ -18,34 +18,54 @@ package org.mobilitydata.gtfsvalidator.db;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.mobilitydata.gtfsvalidator.adapter.protos.GtfsValidationOutputProto;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeAggregate;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeExporter;
-import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.ErrorNotice;
-import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.InfoNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
-import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.WarningNotice;
 import org.mobilitydata.gtfsvalidator.exporter.JsonNoticeExporter;
 import org.mobilitydata.gtfsvalidator.exporter.ProtobufNoticeExporter;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
 import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
- * Holds information about the validation process. Stores notices according to their types. Provides methods to add
- * said notices to the repository and get said notices.
+ * Holds information about the validation process. Stores notices in the order they were added. Provides methods to
+ * add said notices to the repository and get said notices. Notices can be added concurrently by several threads
+ * validating different files.
  * This is created  when creating a new default configuration, all fields being set to their default value.
+ * Notices exported as protobuf are written to one file per notice, unless the execution parameter
+ * {@link ExecParamRepository#PROTO_FORMAT_KEY} is {@link #DELIMITED_PROTO_FORMAT} or {@link #GZIP_PROTO_FORMAT}.
  */
 public class InMemoryValidationResultRepository implements ValidationResultRepository {
-    private final List<InfoNotice> infoNoticeList = new ArrayList<>();
-    private final List<WarningNotice> warningNoticeList = new ArrayList<>();
-    private final List<ErrorNotice> errorNoticeList = new ArrayList<>();
+    // notices that relate to no row come after the notices of the rows of their file
+    private static final Comparator<Notice> BY_FILENAME_THEN_ROW =
+            Comparator.comparing(Notice::getFilename, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparingInt(notice -> notice.getLineNumber() == Notice.NO_LINE_NUMBER
+                            ? Integer.MAX_VALUE
+                            : notice.getLineNumber());
+
+    public static final String DELIMITED_PROTO_FORMAT = "delimited";
+    public static final String GZIP_PROTO_FORMAT = "gzip";
+
+    private final List<Notice> noticeList = new ArrayList<>();
+    private final String protoFormat;
+
+    public InMemoryValidationResultRepository() {
+        this.protoFormat = null;
+    }
+
+    /**
+     * @param execParamRepo the repository of execution parameters giving how notices exported as protobuf are written,
+     *                      from {@link ExecParamRepository#PROTO_FORMAT_KEY}
+     */
+    public InMemoryValidationResultRepository(final ExecParamRepository execParamRepo) {
+        this.protoFormat = execParamRepo.getExecParamValue(ExecParamRepository.PROTO_FORMAT_KEY);
+    }
 
     /**
      * Visit a generic notice to add it to the repository and returns the notice. Useful for automatic type inference
@@ -54,37 +74,55 @@ public class InMemoryValidationResultRepository implements ValidationResultRepos
      * @return the notice that was added to the repository
      */
     @Override
-    public Notice addNotice(Notice newNotice) {
-        if (newNotice instanceof InfoNotice) {
-            infoNoticeList.add((InfoNotice) newNotice);
-        } else if (newNotice instanceof WarningNotice) {
-            warningNoticeList.add((WarningNotice) newNotice);
-        } else {
-            errorNoticeList.add((ErrorNotice) newNotice);
-        }
+    public synchronized Notice addNotice(Notice newNotice) {
+        noticeList.add(newNotice);
         return newNotice;
     }
 
     /**
-     * Returns a collection of all notices contained in the validation repository
+     * Returns a collection of all notices contained in the validation repository, sorted by filename, then by row.
+     * Notices that relate to no row come after the notices of the rows of their file. Notices of the same row, or
+     * that relate to no row, are kept in the order they were added. This makes the output deterministic whatever the
+     * number of threads used, even for notices added out of the order of the rows, such as the ones of rows sorted
+     * again after a first pass over a file.
      *
      * @return all notices contained in the validation repository as a collection
      */
     @Override
-    public Collection<Notice> getAll() {
-        return Stream.concat(
-                Stream.concat(
-                        infoNoticeList.stream(),
-                        warningNoticeList.stream()),
-                errorNoticeList.stream())
+    public synchronized Collection<Notice> getAll() {
+        return noticeList.stream()
+                .sorted(BY_FILENAME_THEN_ROW)
                 .collect(Collectors.toUnmodifiableList());
     }
 
     @Override
     public NoticeExporter getExporter(boolean outputAsProto, String outputPath) throws IOException {
+        return createExporter(outputAsProto, protoFormat, outputPath);
+    }
+
+    /**
+     * Creates an exporter writing notices to files located in a given directory
+     *
+     * @param outputAsProto true to export notices as protobuf, false to export them as json
+     * @param protoFormat   how notices exported as protobuf are written: to a single file if
+     *                      {@link #DELIMITED_PROTO_FORMAT}, to a single gzip compressed file if
+     *                      {@link #GZIP_PROTO_FORMAT}, else to one file per notice
+     * @param outputPath    the path of the directory to write files in
+     * @return an exporter writing notices to files located in {@code outputPath}
+     * @throws IOException if the output file could not be created
+     */
+    static NoticeExporter createExporter(final boolean outputAsProto,
+                                         final String protoFormat,
+                                         final String outputPath) throws IOException {
         if (outputAsProto) {
-            return new ProtobufNoticeExporter(GtfsValidationOutputProto.GtfsProblem.newBuilder(),
-                    new ProtobufNoticeExporter.ProtobufOutputStreamGenerator(outputPath));
+            final ProtobufNoticeExporter.ProtobufOutputStreamGenerator streamGenerator;
+            if (DELIMITED_PROTO_FORMAT.equals(protoFormat) || GZIP_PROTO_FORMAT.equals(protoFormat)) {
+                streamGenerator = new ProtobufNoticeExporter.DelimitedOutputStreamGenerator(outputPath,
+                        GZIP_PROTO_FORMAT.equals(protoFormat));
+            } else {
+                streamGenerator = new ProtobufNoticeExporter.ProtobufOutputStreamGenerator(outputPath);
+            }
+            return new ProtobufNoticeExporter(GtfsValidationOutputProto.GtfsProblem.newBuilder(), streamGenerator);
         } else {
             return new JsonNoticeExporter(new ObjectMapper().getFactory().createGenerator(
                     Files.newOutputStream(Paths.get(
@@ -94,4 +132,42 @@ public class InMemoryValidationResultRepository implements ValidationResultRepos
                     )));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns false: notices are held until the end of the validation process
+     *
+     * @return false
+     */
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * Does nothing, as notices are exported from {@link #getAll()} at the end of the validation process
+     */
+    @Override
+    public void endStreamingExport() {
+    }
+
+    /**
+     * Returns the number of notices contained in the repository, by notice id
+     *
+     * @return the number of notices contained in the repository, by notice id
+     */
+    @Override
+    public synchronized Map<String, Long> getNoticeCountById() {
+        return noticeList.stream()
+                .collect(Collectors.groupingBy(Notice::getId, TreeMap::new, Collectors.counting()));
+    }
+
+    /**
+     * Returns an empty collection: notices are held one by one
+     *
+     * @return an empty collection
+     */
+    @Override
+    public Collection<NoticeAggregate> getAggregates() {
+        return Collections.emptyList();
+    }
+}
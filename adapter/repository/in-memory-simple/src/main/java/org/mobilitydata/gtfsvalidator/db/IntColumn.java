@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A growable column of int values, stored in a primitive array. Null values are marked in a bitmap that is only
+ * allocated once a first null value is added.
+ */
+final class IntColumn {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] values = new int[INITIAL_CAPACITY];
+    private BitSet nullBits;
+    private int size;
+
+    /**
+     * Adds a value at the end of this column
+     *
+     * @param value the value to add
+     */
+    void add(final int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1));
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Adds a value that may be null at the end of this column
+     *
+     * @param value the value to add, may be null
+     */
+    void addNullable(final Integer value) {
+        if (value == null) {
+            if (nullBits == null) {
+                nullBits = new BitSet();
+            }
+            nullBits.set(size);
+            add(0);
+        } else {
+            add(value);
+        }
+    }
+
+    /**
+     * Returns the value of a row, 0 if the value of the row is null
+     *
+     * @param row the 0 based index of the row
+     * @return the value of the row, 0 if the value of the row is null
+     */
+    int get(final int row) {
+        return values[row];
+    }
+
+    /**
+     * Returns the value of a row, or null if the value of the row is null
+     *
+     * @param row the 0 based index of the row
+     * @return the value of the row, or null if the value of the row is null
+     */
+    Integer getNullable(final int row) {
+        return isNull(row) ? null : values[row];
+    }
+
+    /**
+     * Returns true if the value of a row is null
+     *
+     * @param row the 0 based index of the row
+     * @return true if the value of the row is null
+     */
+    boolean isNull(final int row) {
+        return nullBits != null && nullBits.get(row);
+    }
+
+    /**
+     * Returns the number of rows of this column
+     *
+     * @return the number of rows of this column
+     */
+    int size() {
+        return size;
+    }
+}
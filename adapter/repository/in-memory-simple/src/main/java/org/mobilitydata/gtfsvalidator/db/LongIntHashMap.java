@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map from non negative long keys to int values, stored in primitive arrays. It is meant to
+ * index rows by composite keys, such as two dense int ids, without boxing keys or values.
+ */
+final class LongIntHashMap {
+    private static final long EMPTY_KEY = -1L;
+    private static final int INITIAL_BITS = 4;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private int[] values;
+    private int bits;
+    private int size;
+
+    LongIntHashMap() {
+        allocate(INITIAL_BITS);
+    }
+
+    /**
+     * Returns the value mapped on a key, or -1 if the key is not mapped
+     *
+     * @param key a non negative key
+     * @return the value mapped on the key, or -1 if the key is not mapped
+     */
+    int get(final long key) {
+        final int mask = keys.length - 1;
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            if (keys[slot] == EMPTY_KEY) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Maps a value on a key if the key is not mapped yet
+     *
+     * @param key   a non negative key
+     * @param value the value to map on the key
+     * @return the value already mapped on the key, or -1 if the key was not mapped and the value has been mapped on it
+     * @throws IllegalArgumentException if the key is negative
+     */
+    int putIfAbsent(final long key, final int value) throws IllegalArgumentException {
+        if (key < 0) {
+            throw new IllegalArgumentException("Key must not be negative");
+        }
+        final int mask = keys.length - 1;
+        int slot = slot(key);
+        while (keys[slot] != EMPTY_KEY) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        // keeps the load factor under 3/4
+        if (++size > (keys.length >> 2) * 3) {
+            rehash();
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of keys mapped on a value
+     *
+     * @return the number of keys mapped on a value
+     */
+    int size() {
+        return size;
+    }
+
+    private int slot(final long key) {
+        return (int) ((key * GOLDEN_RATIO) >>> (Long.SIZE - bits));
+    }
+
+    private void allocate(final int bits) {
+        this.bits = bits;
+        keys = new long[1 << bits];
+        Arrays.fill(keys, EMPTY_KEY);
+        values = new int[1 << bits];
+    }
+
+    private void rehash() {
+        final long[] oldKeys = keys;
+        final int[] oldValues = values;
+        allocate(bits + 1);
+        final int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
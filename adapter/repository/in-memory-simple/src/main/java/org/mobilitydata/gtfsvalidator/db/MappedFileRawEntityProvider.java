@@ -0,0 +1,416 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntitySchema;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Provides methods to perform operations on rows of a GTFS CSV file, like {@link FromFileRawEntityProvider}, but
+ * reads the file through memory mapped windows instead of a character stream. Each row is tokenized in place: only
+ * the boundaries of its values are recorded, and a value is decoded to a {@link String} the first time it is read.
+ * Values that are never read by the validation process are never copied.
+ * Rows, row indices and malformed input are handled the same way as {@link FromFileRawEntityProvider}: line breaks
+ * inside quoted values are counted, an empty line is a row with a single empty value, characters up to space found
+ * after a closing quote are ignored, and a UTF-8 byte order mark at the start of the file is skipped. Unlike the
+ * character stream, invalid UTF-8 sequences are replaced instead of failing the whole file.
+ * This is selected in {@link InMemoryRawFileRepository} with the execution parameter
+ * {@link org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository#CSV_READER_KEY}.
+ */
+public class MappedFileRawEntityProvider implements RawFileRepository.RawEntityProvider {
+    private static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+    private static final int INITIAL_VALUE_COUNT = 16;
+    private static final int ESCAPED_QUOTE_FLAG = Integer.MIN_VALUE;
+    private static final int NEEDS_MORE_INPUT = -1;
+
+    private static final byte QUOTE = '"';
+    private static final byte SEPARATOR = ',';
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final byte[] BYTE_ORDER_MARK = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final FileChannel channel;
+    private final long rangeEnd;
+    private final int windowSize;
+    private final int lineOffset;
+    private final RawEntitySchema schema;
+    private final Collection<String> headers;
+
+    private ByteBuffer window;
+    private long windowStart;
+    private int position;
+    private int lineBreakCount;
+    /**
+     * The boundaries of the values of the row being tokenized: start and end offsets within the window, in pairs
+     */
+    private int[] valueBounds = new int[2 * INITIAL_VALUE_COUNT];
+
+    public MappedFileRawEntityProvider(final RawFileInfo file) throws IOException {
+        this(file, null, null, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Builds a data provider for a range of a GTFS CSV file. Row indices are offset by the number of line breaks found
+     * before the range, so that they identify the row location within the whole file.
+     *
+     * @param file         information regarding the file to process
+     * @param chunk        the range of the file to read, aligned on record boundaries
+     * @param headerSchema the schema read from the header row of the file. If null, the header row is expected to be
+     *                     the first row of the range.
+     * @throws IOException if the file could not be read
+     */
+    public MappedFileRawEntityProvider(final RawFileInfo file,
+                                       final CsvFileChunker.Chunk chunk,
+                                       final RawEntitySchema headerSchema) throws IOException {
+        this(file, chunk, headerSchema, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize the maximal number of bytes mapped at once. A row cannot be larger than a window.
+     */
+    MappedFileRawEntityProvider(final RawFileInfo file,
+                                final CsvFileChunker.Chunk chunk,
+                                final RawEntitySchema headerSchema,
+                                final int windowSize) throws IOException {
+        final File csvFile = new File(file.getPath() + File.separator + file.getFilename());
+
+        this.channel = FileChannel.open(csvFile.toPath(), StandardOpenOption.READ);
+        this.windowSize = windowSize;
+        try {
+            rangeEnd = chunk == null ? channel.size() : chunk.getEndOffset();
+            lineOffset = chunk == null ? 0 : chunk.getLineBreakCountBefore();
+            map(chunk == null ? 0 : chunk.getStartOffset());
+            if (windowStart == 0) {
+                skipByteOrderMark();
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        schema = headerSchema == null ? readSchema() : headerSchema;
+        headers = Collections.unmodifiableCollection(new LinkedHashSet<>(schema.getHeaderList()));
+    }
+
+    private void map(final long start) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, rangeEnd - start));
+        windowStart = start;
+        position = 0;
+    }
+
+    private void skipByteOrderMark() {
+        // like the csv parser, a byte order mark that is the only content of the file is read as a value
+        if (window.limit() <= BYTE_ORDER_MARK.length) {
+            return;
+        }
+        for (int i = 0; i < BYTE_ORDER_MARK.length; ++i) {
+            if (window.get(i) != BYTE_ORDER_MARK[i]) {
+                return;
+            }
+        }
+        position = BYTE_ORDER_MARK.length;
+    }
+
+    private RawEntitySchema readSchema() {
+        if (!hasNext()) {
+            return new RawEntitySchema(Collections.emptyList());
+        }
+        final MappedRawEntity headerRow = readRow(null);
+        final String[] headerArray = new String[headerRow.size()];
+        for (int i = 0; i < headerArray.length; ++i) {
+            headerArray[i] = headerRow.get(i);
+        }
+        return new RawEntitySchema(List.of(headerArray));
+    }
+
+    /**
+     * Returns a boolean indicating if a GTFS CSV file has more rows that can be read. true if yes, else false.
+     *
+     * @return a boolean indicating if a GTFS CSV file has more rows that can be read. true if yes, else false
+     */
+    @Override
+    public boolean hasNext() {
+        final boolean toReturn = windowStart + position < rangeEnd;
+        if (!toReturn && channel.isOpen()) {
+            close();
+        }
+        return toReturn;
+    }
+
+    /**
+     * Returns the next row of a GTFS CSV file as a {@link RawEntity}. Values are decoded when they are read.
+     *
+     * @return the next row of a GTFS CSV file as a {@link RawEntity}
+     */
+    @Override
+    public RawEntity getNext() {
+        return readRow(schema);
+    }
+
+    private MappedRawEntity readRow(final RawEntitySchema rowSchema) {
+        int valueCount = tokenizeRow();
+        if (valueCount == NEEDS_MORE_INPUT) {
+            try {
+                map(windowStart + position);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            valueCount = tokenizeRow();
+            if (valueCount == NEEDS_MORE_INPUT) {
+                throw new IllegalStateException(String.format(
+                        "Row starting at line %d is larger than %d bytes", lineOffset + lineBreakCount + 1, windowSize));
+            }
+        }
+        return new MappedRawEntity(rowSchema, window, Arrays.copyOf(valueBounds, 2 * valueCount),
+                lineOffset + lineBreakCount + 1);
+    }
+
+    /**
+     * Records the boundaries of the values of the row starting at the current position, and moves past the row and
+     * its line break. Nothing is changed if the row does not end within the window.
+     *
+     * @return the number of values of the row, or {@link #NEEDS_MORE_INPUT} if the window must be moved to the start
+     * of the row
+     */
+    private int tokenizeRow() {
+        final ByteBuffer buffer = window;
+        final int limit = buffer.limit();
+        final boolean isLastWindow = windowStart + limit == rangeEnd;
+        int current = position;
+        int rowLineBreakCount = 0;
+        int valueCount = 0;
+
+        while (true) {
+            if (2 * valueCount == valueBounds.length) {
+                valueBounds = Arrays.copyOf(valueBounds, 2 * valueBounds.length);
+            }
+            if (current == limit) {
+                if (!isLastWindow) {
+                    return NEEDS_MORE_INPUT;
+                }
+                // a separator right before the end of the input is followed by an empty value
+                valueBounds[2 * valueCount] = current;
+                valueBounds[2 * valueCount++ + 1] = current;
+                break;
+            }
+            byte currentByte = buffer.get(current);
+            if (currentByte == QUOTE) {
+                final int valueStart = ++current;
+                boolean hasEscapedQuote = false;
+                while (true) {
+                    if (current == limit) {
+                        if (!isLastWindow) {
+                            return NEEDS_MORE_INPUT;
+                        }
+                        throw new IllegalStateException(String.format("Missing closing quote for value at line %d",
+                                lineOffset + lineBreakCount + rowLineBreakCount + 1));
+                    }
+                    currentByte = buffer.get(current);
+                    if (currentByte == QUOTE) {
+                        if (current + 1 == limit && !isLastWindow) {
+                            return NEEDS_MORE_INPUT;
+                        }
+                        if (current + 1 < limit && buffer.get(current + 1) == QUOTE) {
+                            hasEscapedQuote = true;
+                            current += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    if (currentByte == CARRIAGE_RETURN
+                            || (currentByte == LINE_FEED && (current == 0 || buffer.get(current - 1) != CARRIAGE_RETURN))) {
+                        ++rowLineBreakCount;
+                    }
+                    ++current;
+                }
+                valueBounds[2 * valueCount] = valueStart;
+                valueBounds[2 * valueCount++ + 1] = hasEscapedQuote ? current | ESCAPED_QUOTE_FLAG : current;
+                ++current;
+                // only blank characters may separate a closing quote from the next separator or line break
+                while (current < limit) {
+                    currentByte = buffer.get(current);
+                    if (currentByte == SEPARATOR || currentByte == CARRIAGE_RETURN || currentByte == LINE_FEED) {
+                        break;
+                    }
+                    if ((currentByte & 0xFF) > ' ') {
+                        throw new IllegalStateException(String.format(
+                                "Unexpected character ('%c' (code %d)) after quoted value at line %d: expected " +
+                                        "separator (',') or end-of-line", (char) (currentByte & 0xFF),
+                                currentByte & 0xFF, lineOffset + lineBreakCount + rowLineBreakCount + 1));
+                    }
+                    ++current;
+                }
+                if (current == limit) {
+                    if (!isLastWindow) {
+                        return NEEDS_MORE_INPUT;
+                    }
+                    break;
+                }
+            } else {
+                final int valueStart = current;
+                while (current < limit) {
+                    currentByte = buffer.get(current);
+                    if (currentByte == SEPARATOR || currentByte == CARRIAGE_RETURN || currentByte == LINE_FEED) {
+                        break;
+                    }
+                    ++current;
+                }
+                if (current == limit && !isLastWindow) {
+                    return NEEDS_MORE_INPUT;
+                }
+                valueBounds[2 * valueCount] = valueStart;
+                valueBounds[2 * valueCount++ + 1] = current;
+                if (current == limit) {
+                    break;
+                }
+            }
+            // current is on a separator or a line break
+            ++current;
+            if (currentByte == SEPARATOR) {
+                continue;
+            }
+            if (currentByte == CARRIAGE_RETURN) {
+                if (current == limit && !isLastWindow) {
+                    return NEEDS_MORE_INPUT;
+                }
+                if (current < limit && buffer.get(current) == LINE_FEED) {
+                    ++current;
+                }
+            }
+            ++rowLineBreakCount;
+            break;
+        }
+        position = current;
+        lineBreakCount += rowLineBreakCount;
+        return valueCount;
+    }
+
+    /**
+     * Returns the number of header of a GTFS CSV file.
+     *
+     * @return the number of header of a GTFS CSV file.
+     */
+    @Override
+    public int getHeaderCount() {
+        return schema.size();
+    }
+
+    /**
+     * Returns the headers of a GTFS CSV file, in the order they appear in the file. These are read along with the
+     * data so that headers can be validated without opening the file a second time.
+     *
+     * @return the headers of a GTFS CSV file
+     */
+    @Override
+    public Collection<String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Returns the schema built from the header row of a GTFS CSV file. This is used to read the other ranges of a
+     * file that is split.
+     *
+     * @return the schema built from the header row of a GTFS CSV file
+     */
+    @Override
+    public RawEntitySchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Closes the channel of the file. Rows already read remain valid, as mapped windows remain valid once the channel
+     * is closed.
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A row whose values are decoded from the mapped window they were read from, the first time they are read.
+     */
+    private static class MappedRawEntity extends RawEntity {
+        private final ByteBuffer source;
+        private final int[] valueBounds;
+        private String[] decodedValues;
+
+        MappedRawEntity(final RawEntitySchema schema,
+                        final ByteBuffer source,
+                        final int[] valueBounds,
+                        final int entityIndex) {
+            super(schema, entityIndex);
+            this.source = source;
+            this.valueBounds = valueBounds;
+        }
+
+        @Override
+        public String get(final int columnIndex) {
+            if (columnIndex < 0 || columnIndex >= size()) {
+                return null;
+            }
+            if (decodedValues == null) {
+                decodedValues = new String[size()];
+            }
+            String toReturn = decodedValues[columnIndex];
+            if (toReturn == null) {
+                toReturn = decode(valueBounds[2 * columnIndex], valueBounds[2 * columnIndex + 1]);
+                decodedValues[columnIndex] = toReturn;
+            }
+            return toReturn;
+        }
+
+        private String decode(final int start, final int flaggedEnd) {
+            final boolean hasEscapedQuote = (flaggedEnd & ESCAPED_QUOTE_FLAG) != 0;
+            final int end = flaggedEnd & ~ESCAPED_QUOTE_FLAG;
+            final byte[] bytes = new byte[end - start];
+            int length = 0;
+            for (int i = start; i < end; ++i) {
+                final byte current = source.get(i);
+                bytes[length++] = current;
+                if (hasEscapedQuote && current == QUOTE) {
+                    // skips the second quote of an escaped quote
+                    ++i;
+                }
+            }
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int size() {
+            return valueBounds.length / 2;
+        }
+    }
+}
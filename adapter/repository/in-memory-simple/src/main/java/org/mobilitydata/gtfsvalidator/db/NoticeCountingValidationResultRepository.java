@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeAggregate;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeExporter;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.usecase.ProgressTracker;
+import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Counts notices in a {@link ProgressTracker} as they are added, before handing them to another repository of notices.
+ * Counting this way does not lock the repository holding notices, whose own counts are only read at the end of the
+ * validation process.
+ */
+public class NoticeCountingValidationResultRepository implements ValidationResultRepository {
+    private final ValidationResultRepository resultRepo;
+    private final ProgressTracker progressTracker;
+
+    /**
+     * @param resultRepo      the repository notices are handed to
+     * @param progressTracker the counters notices are counted in
+     */
+    public NoticeCountingValidationResultRepository(final ValidationResultRepository resultRepo,
+                                                    final ProgressTracker progressTracker) {
+        this.resultRepo = resultRepo;
+        this.progressTracker = progressTracker;
+    }
+
+    @Override
+    public Notice addNotice(final Notice newNotice) {
+        progressTracker.countNotice(newNotice);
+        return resultRepo.addNotice(newNotice);
+    }
+
+    @Override
+    public Collection<Notice> getAll() {
+        return resultRepo.getAll();
+    }
+
+    @Override
+    public NoticeExporter getExporter(final boolean outputAsProto, final String outputPath) throws IOException {
+        return resultRepo.getExporter(outputAsProto, outputPath);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return resultRepo.isStreaming();
+    }
+
+    @Override
+    public void endStreamingExport() throws IOException {
+        resultRepo.endStreamingExport();
+    }
+
+    @Override
+    public Map<String, Long> getNoticeCountById() {
+        return resultRepo.getNoticeCountById();
+    }
+
+    @Override
+    public Collection<NoticeAggregate> getAggregates() {
+        return resultRepo.getAggregates();
+    }
+}
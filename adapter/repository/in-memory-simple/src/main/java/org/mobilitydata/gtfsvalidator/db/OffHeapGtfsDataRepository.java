@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.jetbrains.annotations.NotNull;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.Agency;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.ShapePoint;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.StopTime;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.routes.Route;
+import org.mobilitydata.gtfsvalidator.usecase.port.GtfsDataRepository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * This holds an internal representation of gtfs entities where the rows of the largest files, stop_times.txt and
+ * shapes.txt, are stored outside of the Java heap, so that they add no work to the garbage collector: each row is a
+ * fixed-width record of an {@link OffHeapRecordStore}, held in direct memory or in a memory-mapped temporary file.
+ * Ids are mapped to dense int indices by {@link StringDictionary} objects, and rows are found from a
+ * {@link LongIntHashMap} of their key: both stay on heap as a few primitive arrays. Other files are held by a
+ * {@link ColumnarGtfsDataRepository}. Uniqueness constraints are the same as {@link InMemoryGtfsDataRepository}'s.
+ * Off-heap memory is released, and temporary files deleted, when {@link #close()} is called: this is meant to be
+ * closed once a validation finishes, for instance with a try-with-resources statement. Not thread safe.
+ */
+public class OffHeapGtfsDataRepository implements GtfsDataRepository, Closeable {
+    // stop_times.txt record: 7 ints and floats, 3 bytes of values and 1 byte of null flags
+    private static final int TRIP_INDEX_OFFSET = 0;
+    private static final int ARRIVAL_TIME_OFFSET = 4;
+    private static final int DEPARTURE_TIME_OFFSET = 8;
+    private static final int STOP_INDEX_OFFSET = 12;
+    private static final int STOP_SEQUENCE_OFFSET = 16;
+    private static final int STOP_HEADSIGN_OFFSET = 20;
+    private static final int STOP_TIME_SHAPE_DIST_TRAVELED_OFFSET = 24;
+    private static final int PICKUP_TYPE_OFFSET = 28;
+    private static final int DROP_OFF_TYPE_OFFSET = 29;
+    private static final int TIMEPOINT_OFFSET = 30;
+    private static final int STOP_TIME_NULL_FLAGS_OFFSET = 31;
+    private static final int STOP_TIME_RECORD_SIZE = 32;
+
+    // shapes.txt record: 3 floats and 1 byte of null flags, padded to 16 bytes
+    private static final int SHAPE_PT_LAT_OFFSET = 0;
+    private static final int SHAPE_PT_LON_OFFSET = 4;
+    private static final int SHAPE_POINT_SHAPE_DIST_TRAVELED_OFFSET = 8;
+    private static final int SHAPE_POINT_NULL_FLAGS_OFFSET = 12;
+    private static final int SHAPE_POINT_RECORD_SIZE = 16;
+
+    private static final byte ARRIVAL_TIME_NULL_FLAG = 1;
+    private static final byte DEPARTURE_TIME_NULL_FLAG = 1 << 1;
+    private static final byte SHAPE_DIST_TRAVELED_NULL_FLAG = 1 << 2;
+    // marks null values of byte fields, whose values are checked by ByteColumn#checkValue
+    private static final byte NULL_BYTE = -1;
+
+    private final ColumnarGtfsDataRepository smallFileRepository = new ColumnarGtfsDataRepository();
+
+    private final OffHeapRecordStore stopTimeRecords;
+    private final StringDictionary tripIds = new StringDictionary();
+    private final StringDictionary stopIds = new StringDictionary();
+    private final StringDictionary stopHeadsigns = new StringDictionary();
+    private final LongIntHashMap stopTimeRecordByKey = new LongIntHashMap();
+
+    private final OffHeapRecordStore shapePointRecords;
+    private final StringDictionary shapeIds = new StringDictionary();
+    private final LongIntHashMap shapePointRecordByKey = new LongIntHashMap();
+
+    private final StopTime.StopTimeBuilder stopTimeBuilder = new StopTime.StopTimeBuilder(new ArrayList<>());
+    private final ShapePoint.ShapePointBuilder shapePointBuilder = new ShapePoint.ShapePointBuilder(new ArrayList<>());
+
+    /**
+     * Creates a repository whose rows from stop_times.txt and shapes.txt are held in direct memory
+     */
+    public OffHeapGtfsDataRepository() {
+        this(OffHeapRecordStore.DEFAULT_SEGMENT_SIZE);
+    }
+
+    OffHeapGtfsDataRepository(final int segmentSize) {
+        stopTimeRecords = new OffHeapRecordStore(STOP_TIME_RECORD_SIZE, segmentSize);
+        shapePointRecords = new OffHeapRecordStore(SHAPE_POINT_RECORD_SIZE, segmentSize);
+    }
+
+    /**
+     * Creates a repository whose rows from stop_times.txt and shapes.txt are held in temporary files mapped in memory
+     *
+     * @param tempDirectory the directory where to create the temporary files, deleted when this is closed
+     * @throws IOException if a temporary file can not be created
+     */
+    public OffHeapGtfsDataRepository(final Path tempDirectory) throws IOException {
+        this(OffHeapRecordStore.DEFAULT_SEGMENT_SIZE, tempDirectory);
+    }
+
+    OffHeapGtfsDataRepository(final int segmentSize, final Path tempDirectory) throws IOException {
+        stopTimeRecords = new OffHeapRecordStore(STOP_TIME_RECORD_SIZE, segmentSize, tempDirectory);
+        try {
+            shapePointRecords = new OffHeapRecordStore(SHAPE_POINT_RECORD_SIZE, segmentSize, tempDirectory);
+        } catch (IOException e) {
+            stopTimeRecords.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Add an Agency representing a row from agency.txt to this. Return the entity added to the repository if the
+     * uniqueness constraint of agency based on agency_id is respected, if this requirement is not met, returns null.
+     *
+     * @param newAgency the internal representation of a row from agency.txt to be added to the repository.
+     * @return the entity added to the repository if the uniqueness constraint of agency based on agency_id is
+     * respected, if this requirement is not met returns null.
+     */
+    @Override
+    public Agency addAgency(@NotNull final Agency newAgency) throws IllegalArgumentException {
+        return smallFileRepository.addAgency(newAgency);
+    }
+
+    /**
+     * Return the Agency representing a row from agency.txt related to the id provided as parameter
+     *
+     * @param agencyId the key from agency.txt related to the Agency to be returned
+     * @return the Agency representing a row from agency.txt related to the id provided as parameter
+     */
+    @Override
+    public Agency getAgencyById(final String agencyId) {
+        return smallFileRepository.getAgencyById(agencyId);
+    }
+
+    /**
+     * Add a Route representing a row from routes.txt to this. Return the entity added to the repository if the
+     * uniqueness constraint of route based on route_id is respected, if this requirement is not met, returns null.
+     *
+     * @param newRoute the internal representation of a row from routes.txt to be added to the repository.
+     * @return the entity added to the repository if the uniqueness constraint of route based on route_id is
+     * respected, if this requirement is not met returns null.
+     */
+    @Override
+    public Route addRoute(@NotNull final Route newRoute) throws IllegalArgumentException {
+        return smallFileRepository.addRoute(newRoute);
+    }
+
+    /**
+     * Return the Route representing a row from routes.txt related to the id provided as parameter
+     *
+     * @param routeId the key from routes.txt related to the Route to be returned
+     * @return the Route representing a row from routes.txt related to the id provided as parameter
+     */
+    @Override
+    public Route getRouteById(final String routeId) {
+        return smallFileRepository.getRouteById(routeId);
+    }
+
+    /**
+     * Add a StopTime representing a row from stop_times.txt to this. Return the entity added to the repository if the
+     * uniqueness constraint of stop time based on trip_id and stop_sequence is respected, if this requirement is not
+     * met, returns null.
+     *
+     * @param newStopTime the internal representation of a row from stop_times.txt to be added to the repository.
+     * @return the entity added to the repository if the uniqueness constraint of stop time based on trip_id and
+     * stop_sequence is respected, if this requirement is not met returns null.
+     * @throws IllegalArgumentException if the stop time is null, or if its pickup_type, drop_off_type or timepoint is
+     *                                  negative or greater than {@link Byte#MAX_VALUE}
+     */
+    @Override
+    public StopTime addStopTime(@NotNull final StopTime newStopTime) throws IllegalArgumentException {
+        //noinspection ConstantConditions
+        if (newStopTime != null) {
+            ByteColumn.checkValue(newStopTime.getPickupType());
+            ByteColumn.checkValue(newStopTime.getDropOffType());
+            ByteColumn.checkValue(newStopTime.getTimepoint());
+            final int tripIndex = tripIds.encode(newStopTime.getTripId());
+            final int record = stopTimeRecords.size();
+            if (stopTimeRecordByKey.putIfAbsent(
+                    ColumnarGtfsDataRepository.sequenceKey(tripIndex, newStopTime.getStopSequence()), record) != -1) {
+                return null;
+            } else {
+                stopTimeRecords.addRecord();
+                byte nullFlags = 0;
+                stopTimeRecords.putInt(record, TRIP_INDEX_OFFSET, tripIndex);
+                if (newStopTime.getArrivalTime() == null) {
+                    nullFlags |= ARRIVAL_TIME_NULL_FLAG;
+                } else {
+                    stopTimeRecords.putInt(record, ARRIVAL_TIME_OFFSET, newStopTime.getArrivalTime());
+                }
+                if (newStopTime.getDepartureTime() == null) {
+                    nullFlags |= DEPARTURE_TIME_NULL_FLAG;
+                } else {
+                    stopTimeRecords.putInt(record, DEPARTURE_TIME_OFFSET, newStopTime.getDepartureTime());
+                }
+                stopTimeRecords.putInt(record, STOP_INDEX_OFFSET, stopIds.encode(newStopTime.getStopId()));
+                stopTimeRecords.putInt(record, STOP_SEQUENCE_OFFSET, newStopTime.getStopSequence());
+                stopTimeRecords.putInt(record, STOP_HEADSIGN_OFFSET,
+                        stopHeadsigns.encode(newStopTime.getStopHeadsign()));
+                if (newStopTime.getShapeDistTraveled() == null) {
+                    nullFlags |= SHAPE_DIST_TRAVELED_NULL_FLAG;
+                } else {
+                    stopTimeRecords.putFloat(record, STOP_TIME_SHAPE_DIST_TRAVELED_OFFSET,
+                            newStopTime.getShapeDistTraveled());
+                }
+                stopTimeRecords.putByte(record, PICKUP_TYPE_OFFSET, toByte(newStopTime.getPickupType()));
+                stopTimeRecords.putByte(record, DROP_OFF_TYPE_OFFSET, toByte(newStopTime.getDropOffType()));
+                stopTimeRecords.putByte(record, TIMEPOINT_OFFSET, toByte(newStopTime.getTimepoint()));
+                stopTimeRecords.putByte(record, STOP_TIME_NULL_FLAGS_OFFSET, nullFlags);
+                return newStopTime;
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot add null stop time to data repository");
+        }
+    }
+
+    /**
+     * Return the StopTime representing a row from stop_times.txt related to the trip id and stop sequence provided as
+     * parameters
+     *
+     * @param tripId       the trip_id from stop_times.txt related to the StopTime to be returned
+     * @param stopSequence the stop_sequence from stop_times.txt related to the StopTime to be returned
+     * @return the StopTime representing a row from stop_times.txt related to the trip id and stop sequence provided as
+     * parameters
+     */
+    @Override
+    public StopTime getStopTimeByTripIdAndStopSequence(final String tripId, final int stopSequence) {
+        final int tripIndex = tripIds.find(tripId);
+        if (tripIndex == -1) {
+            return null;
+        }
+        final int record = stopTimeRecordByKey.get(ColumnarGtfsDataRepository.sequenceKey(tripIndex, stopSequence));
+        if (record == -1) {
+            return null;
+        }
+        final byte nullFlags = stopTimeRecords.getByte(record, STOP_TIME_NULL_FLAGS_OFFSET);
+        stopTimeBuilder.tripId(tripId)
+                .arrivalTime((nullFlags & ARRIVAL_TIME_NULL_FLAG) != 0
+                        ? null
+                        : stopTimeRecords.getInt(record, ARRIVAL_TIME_OFFSET))
+                .departureTime((nullFlags & DEPARTURE_TIME_NULL_FLAG) != 0
+                        ? null
+                        : stopTimeRecords.getInt(record, DEPARTURE_TIME_OFFSET))
+                .stopId(stopIds.decode(stopTimeRecords.getInt(record, STOP_INDEX_OFFSET)))
+                .stopSequence(stopTimeRecords.getInt(record, STOP_SEQUENCE_OFFSET))
+                .stopHeadsign(stopHeadsigns.decode(stopTimeRecords.getInt(record, STOP_HEADSIGN_OFFSET)))
+                .pickupType(fromByte(stopTimeRecords.getByte(record, PICKUP_TYPE_OFFSET)))
+                .dropOffType(fromByte(stopTimeRecords.getByte(record, DROP_OFF_TYPE_OFFSET)))
+                .shapeDistTraveled((nullFlags & SHAPE_DIST_TRAVELED_NULL_FLAG) != 0
+                        ? null
+                        : stopTimeRecords.getFloat(record, STOP_TIME_SHAPE_DIST_TRAVELED_OFFSET))
+                .timepoint(fromByte(stopTimeRecords.getByte(record, TIMEPOINT_OFFSET)));
+        return (StopTime) stopTimeBuilder.build().getData();
+    }
+
+    /**
+     * Add a ShapePoint representing a row from shapes.txt to this. Return the entity added to the repository if the
+     * uniqueness constraint of shape point based on shape_id and shape_pt_sequence is respected, if this requirement
+     * is not met, returns null.
+     *
+     * @param newShapePoint the internal representation of a row from shapes.txt to be added to the repository.
+     * @return the entity added to the repository if the uniqueness constraint of shape point based on shape_id and
+     * shape_pt_sequence is respected, if this requirement is not met returns null.
+     */
+    @Override
+    public ShapePoint addShapePoint(@NotNull final ShapePoint newShapePoint) throws IllegalArgumentException {
+        //noinspection ConstantConditions
+        if (newShapePoint != null) {
+            final int shapeIndex = shapeIds.encode(newShapePoint.getShapeId());
+            final int record = shapePointRecords.size();
+            if (shapePointRecordByKey.putIfAbsent(
+                    ColumnarGtfsDataRepository.sequenceKey(shapeIndex, newShapePoint.getShapePtSequence()), record)
+                    != -1) {
+                return null;
+            } else {
+                shapePointRecords.addRecord();
+                shapePointRecords.putFloat(record, SHAPE_PT_LAT_OFFSET, newShapePoint.getShapePtLat());
+                shapePointRecords.putFloat(record, SHAPE_PT_LON_OFFSET, newShapePoint.getShapePtLon());
+                if (newShapePoint.getShapeDistTraveled() == null) {
+                    shapePointRecords.putByte(record, SHAPE_POINT_NULL_FLAGS_OFFSET, SHAPE_DIST_TRAVELED_NULL_FLAG);
+                } else {
+                    shapePointRecords.putFloat(record, SHAPE_POINT_SHAPE_DIST_TRAVELED_OFFSET,
+                            newShapePoint.getShapeDistTraveled());
+                }
+                return newShapePoint;
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot add null shape point to data repository");
+        }
+    }
+
+    /**
+     * Return the ShapePoint representing a row from shapes.txt related to the shape id and sequence provided as
+     * parameters
+     *
+     * @param shapeId         the shape_id from shapes.txt related to the ShapePoint to be returned
+     * @param shapePtSequence the shape_pt_sequence from shapes.txt related to the ShapePoint to be returned
+     * @return the ShapePoint representing a row from shapes.txt related to the shape id and sequence provided as
+     * parameters
+     */
+    @Override
+    public ShapePoint getShapePointByShapeIdAndSequence(final String shapeId, final int shapePtSequence) {
+        final int shapeIndex = shapeIds.find(shapeId);
+        if (shapeIndex == -1) {
+            return null;
+        }
+        final int record =
+                shapePointRecordByKey.get(ColumnarGtfsDataRepository.sequenceKey(shapeIndex, shapePtSequence));
+        if (record == -1) {
+            return null;
+        }
+        shapePointBuilder.shapeId(shapeId)
+                .shapePtLat(shapePointRecords.getFloat(record, SHAPE_PT_LAT_OFFSET))
+                .shapePtLon(shapePointRecords.getFloat(record, SHAPE_PT_LON_OFFSET))
+                .shapePtSequence(shapePtSequence)
+                .shapeDistTraveled(
+                        (shapePointRecords.getByte(record, SHAPE_POINT_NULL_FLAGS_OFFSET) &
+                                SHAPE_DIST_TRAVELED_NULL_FLAG) != 0
+                                ? null
+                                : shapePointRecords.getFloat(record, SHAPE_POINT_SHAPE_DIST_TRAVELED_OFFSET));
+        return (ShapePoint) shapePointBuilder.build().getData();
+    }
+
+    /**
+     * Returns the number of rows from stop_times.txt held by this
+     *
+     * @return the number of rows from stop_times.txt held by this
+     */
+    public int getStopTimeCount() {
+        return stopTimeRecords.size();
+    }
+
+    /**
+     * Returns the number of rows from shapes.txt held by this
+     *
+     * @return the number of rows from shapes.txt held by this
+     */
+    public int getShapePointCount() {
+        return shapePointRecords.size();
+    }
+
+    /**
+     * Returns the number of bytes held by this outside of the Java heap
+     *
+     * @return the number of bytes held by this outside of the Java heap
+     */
+    public long getOffHeapByteCount() {
+        return stopTimeRecords.getReservedByteCount() + shapePointRecords.getReservedByteCount();
+    }
+
+    /**
+     * Releases the off-heap memory held by this and deletes its temporary files, if any. This can not be used
+     * afterwards: rows from stop_times.txt and shapes.txt can no longer be added nor retrieved. Closing this more than
+     * once has no effect.
+     *
+     * @throws IOException if a temporary file can not be closed or deleted
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            stopTimeRecords.close();
+        } finally {
+            shapePointRecords.close();
+        }
+    }
+
+    private static byte toByte(final Integer value) {
+        return value == null ? NULL_BYTE : value.byteValue();
+    }
+
+    private static Integer fromByte(final byte value) {
+        return value == NULL_BYTE ? null : (int) value;
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A growable table of fixed-width records stored outside of the Java heap, either in direct memory or in a
+ * memory-mapped temporary file. Records are stored in segments of equal size, a record never spanning two segments.
+ * Memory is released when {@link #close()} is called, without waiting for the garbage collector: the store can not be
+ * used afterwards. If the JVM does not let buffers be released this way, memory is left to the garbage collector: this
+ * is logged once and the memory of closed stores is still counted by {@link #getReservedByteCount()}. Not thread safe.
+ */
+final class OffHeapRecordStore implements Closeable {
+    static final int DEFAULT_SEGMENT_SIZE = 1 << 26;
+
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final AtomicBoolean IS_CLEANER_FAILURE_LOGGED = new AtomicBoolean();
+    private static final Method INVOKE_CLEANER_METHOD;
+    private static final Object UNSAFE;
+    private static final Exception CLEANER_LOOKUP_FAILURE;
+
+    static {
+        // sun.misc.Unsafe#invokeCleaner frees the memory of a direct or mapped buffer right away, see JDK-4724038
+        Method invokeCleanerMethod = null;
+        Object unsafe = null;
+        Exception cleanerLookupFailure = null;
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field unsafeField = unsafeClass.getDeclaredField("theUnsafe");
+            unsafeField.setAccessible(true);
+            unsafe = unsafeField.get(null);
+            invokeCleanerMethod = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            cleanerLookupFailure = e;
+        }
+        INVOKE_CLEANER_METHOD = invokeCleanerMethod;
+        UNSAFE = unsafe;
+        CLEANER_LOOKUP_FAILURE = cleanerLookupFailure;
+    }
+
+    private final int recordSize;
+    private final int segmentSize;
+    private final int recordCountPerSegment;
+    private final Path tempFile;
+    private final FileChannel fileChannel;
+    private final List<ByteBuffer> segmentList = new ArrayList<>();
+    private int size;
+    private boolean isClosed;
+    // the bytes of the segments of this store that close() could not release, left to the garbage collector
+    private long unreleasedByteCount;
+
+    /**
+     * Creates a store held in direct memory
+     *
+     * @param recordSize  the size of a record, in bytes
+     * @param segmentSize the size of a segment, in bytes, at least {@code recordSize}
+     */
+    OffHeapRecordStore(final int recordSize, final int segmentSize) {
+        checkSizes(recordSize, segmentSize);
+        this.recordSize = recordSize;
+        this.recordCountPerSegment = segmentSize / recordSize;
+        this.segmentSize = recordCountPerSegment * recordSize;
+        this.tempFile = null;
+        this.fileChannel = null;
+    }
+
+    /**
+     * Creates a store held in a temporary file mapped in memory. The file is deleted when the store is closed.
+     *
+     * @param recordSize    the size of a record, in bytes
+     * @param segmentSize   the size of a segment, in bytes, at least {@code recordSize}
+     * @param tempDirectory the directory where to create the temporary file
+     * @throws IOException if the temporary file can not be created
+     */
+    OffHeapRecordStore(final int recordSize, final int segmentSize, final Path tempDirectory) throws IOException {
+        checkSizes(recordSize, segmentSize);
+        this.recordSize = recordSize;
+        this.recordCountPerSegment = segmentSize / recordSize;
+        this.segmentSize = recordCountPerSegment * recordSize;
+        this.tempFile = Files.createTempFile(tempDirectory, "gtfs-records", ".bin");
+        this.fileChannel = FileChannel.open(tempFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static void checkSizes(final int recordSize, final int segmentSize) {
+        if (recordSize <= 0 || segmentSize < recordSize) {
+            throw new IllegalArgumentException("Segment size must be greater than or equal to record size");
+        }
+    }
+
+    /**
+     * Adds a record at the end of this store, with all its bytes set to 0
+     *
+     * @return the 0 based index of the record added
+     */
+    int addRecord() {
+        checkNotClosed();
+        if (size == segmentList.size() * recordCountPerSegment) {
+            segmentList.add(allocateSegment(segmentList.size()));
+        }
+        return size++;
+    }
+
+    private ByteBuffer allocateSegment(final int segmentIndex) {
+        if (fileChannel == null) {
+            return ByteBuffer.allocateDirect(segmentSize).order(ByteOrder.nativeOrder());
+        }
+        try {
+            // mapping beyond the end of the file grows it, new bytes being 0
+            return fileChannel.map(FileChannel.MapMode.READ_WRITE, (long) segmentIndex * segmentSize, segmentSize)
+                    .order(ByteOrder.nativeOrder());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void putInt(final int record, final int offset, final int value) {
+        segment(record).putInt(position(record, offset), value);
+    }
+
+    int getInt(final int record, final int offset) {
+        return segment(record).getInt(position(record, offset));
+    }
+
+    void putFloat(final int record, final int offset, final float value) {
+        segment(record).putFloat(position(record, offset), value);
+    }
+
+    float getFloat(final int record, final int offset) {
+        return segment(record).getFloat(position(record, offset));
+    }
+
+    void putByte(final int record, final int offset, final byte value) {
+        segment(record).put(position(record, offset), value);
+    }
+
+    byte getByte(final int record, final int offset) {
+        return segment(record).get(position(record, offset));
+    }
+
+    private ByteBuffer segment(final int record) {
+        checkNotClosed();
+        if (record < 0 || record >= size) {
+            throw new IndexOutOfBoundsException("Record " + record + " out of " + size);
+        }
+        return segmentList.get(record / recordCountPerSegment);
+    }
+
+    private int position(final int record, final int offset) {
+        return (record % recordCountPerSegment) * recordSize + offset;
+    }
+
+    private void checkNotClosed() {
+        if (isClosed) {
+            throw new IllegalStateException("Record store is closed");
+        }
+    }
+
+    /**
+     * Returns the number of records of this store
+     *
+     * @return the number of records of this store
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes held by this store outside of the Java heap. Once the store is closed, this is the
+     * number of bytes that could not be released right away and are left to the garbage collector, 0 if all were.
+     *
+     * @return the number of bytes held by this store outside of the Java heap
+     */
+    long getReservedByteCount() {
+        return (long) segmentList.size() * segmentSize + unreleasedByteCount;
+    }
+
+    /**
+     * Releases the memory held by this store and deletes its temporary file, if any. Closing a closed store has no
+     * effect.
+     *
+     * @throws IOException if the temporary file can not be closed or deleted
+     */
+    @Override
+    public void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        for (ByteBuffer segment : segmentList) {
+            if (!release(segment)) {
+                unreleasedByteCount += segmentSize;
+            }
+        }
+        segmentList.clear();
+        size = 0;
+        if (fileChannel != null) {
+            try {
+                fileChannel.close();
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+
+    /**
+     * Releases the memory of a segment right away
+     *
+     * @return false if the memory is left to the garbage collector
+     */
+    private static boolean release(final ByteBuffer segment) {
+        if (INVOKE_CLEANER_METHOD == null) {
+            logCleanerFailure(CLEANER_LOOKUP_FAILURE);
+            return false;
+        }
+        try {
+            INVOKE_CLEANER_METHOD.invoke(UNSAFE, segment);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logCleanerFailure(e);
+            return false;
+        }
+    }
+
+    private static void logCleanerFailure(final Exception cause) {
+        if (IS_CLEANER_FAILURE_LOGGED.compareAndSet(false, true)) {
+            LOGGER.warn("Off-heap memory can not be released right away, it is left to the garbage collector: " +
+                    cause);
+        }
+    }
+}
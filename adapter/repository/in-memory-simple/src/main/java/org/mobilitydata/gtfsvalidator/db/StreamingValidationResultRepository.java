@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeAggregate;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeExporter;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Holds information about the validation process without holding notices: each notice is exported as soon as it is
+ * added, and only the number of notices by notice id is kept. Memory consumption does not depend on the number of
+ * notices. Notices can be added concurrently by several threads validating different files; they are exported in the
+ * order they are added, which is not deterministic if several threads are used.
+ * The exporter is opened when the first notice is added, or when the export ends if no notice was added, from the
+ * execution parameters {@link ExecParamRepository#OUTPUT_KEY}, {@link ExecParamRepository#PROTO_KEY} and
+ * {@link ExecParamRepository#PROTO_FORMAT_KEY}: the output directory must exist by then.
+ * This is created when creating a new default configuration if the execution parameter
+ * {@link ExecParamRepository#STREAM_RESULTS_KEY} is set.
+ */
+public class StreamingValidationResultRepository implements ValidationResultRepository {
+    private final ExecParamRepository execParamRepo;
+    private final Map<String, Long> noticeCountById = new TreeMap<>();
+    private NoticeExporter exporter;
+
+    /**
+     * @param execParamRepo the repository of execution parameters, read when the exporter is opened
+     */
+    public StreamingValidationResultRepository(final ExecParamRepository execParamRepo) {
+        this.execParamRepo = execParamRepo;
+    }
+
+    /**
+     * Exports a notice and counts it. The notice is not held by the repository.
+     *
+     * @param newNotice notice
+     * @return the notice that was exported
+     * @throws UncheckedIOException if the notice could not be exported
+     */
+    @Override
+    public synchronized Notice addNotice(final Notice newNotice) {
+        try {
+            newNotice.export(getOpenExporter());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        noticeCountById.merge(newNotice.getId(), 1L, Long::sum);
+        return newNotice;
+    }
+
+    /**
+     * Returns an empty collection: notices are exported as soon as they are added
+     *
+     * @return an empty collection
+     */
+    @Override
+    public Collection<Notice> getAll() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public NoticeExporter getExporter(final boolean outputAsProto, final String outputPath) throws IOException {
+        return InMemoryValidationResultRepository.createExporter(outputAsProto,
+                execParamRepo.getExecParamValue(ExecParamRepository.PROTO_FORMAT_KEY), outputPath);
+    }
+
+    /**
+     * Returns true: notices are exported as soon as they are added
+     *
+     * @return true
+     */
+    @Override
+    public boolean isStreaming() {
+        return true;
+    }
+
+    /**
+     * Ends the export of notices. The output is complete once this returns, even if no notice was added.
+     *
+     * @throws IOException if the export could not be completed
+     */
+    @Override
+    public synchronized void endStreamingExport() throws IOException {
+        getOpenExporter().exportEnd();
+    }
+
+    /**
+     * Returns the number of notices exported, by notice id
+     *
+     * @return the number of notices exported, by notice id
+     */
+    @Override
+    public synchronized Map<String, Long> getNoticeCountById() {
+        return Collections.unmodifiableMap(new TreeMap<>(noticeCountById));
+    }
+
+    /**
+     * Returns an empty collection: notices are exported as soon as they are added
+     *
+     * @return an empty collection
+     */
+    @Override
+    public Collection<NoticeAggregate> getAggregates() {
+        return Collections.emptyList();
+    }
+
+    private NoticeExporter getOpenExporter() throws IOException {
+        if (exporter == null) {
+            exporter = getExporter(
+                    Boolean.parseBoolean(execParamRepo.getExecParamValue(ExecParamRepository.PROTO_KEY)),
+                    execParamRepo.getExecParamValue(ExecParamRepository.OUTPUT_KEY));
+            exporter.exportBegin();
+        }
+        return exporter;
+    }
+}
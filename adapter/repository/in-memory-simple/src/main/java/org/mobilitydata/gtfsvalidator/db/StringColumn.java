@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+/**
+ * A growable column of string values, null included. Values are interned in a {@link StringDictionary} and rows only
+ * store the code of their value, so that a value repeated over many rows is stored once.
+ */
+final class StringColumn {
+    private final StringDictionary dictionary = new StringDictionary();
+    private final IntColumn codes = new IntColumn();
+
+    /**
+     * Adds a value that may be null at the end of this column
+     *
+     * @param value the value to add, may be null
+     */
+    void add(final String value) {
+        codes.add(dictionary.encode(value));
+    }
+
+    /**
+     * Returns the value of a row
+     *
+     * @param row the 0 based index of the row
+     * @return the value of the row, may be null
+     */
+    String get(final int row) {
+        return dictionary.decode(codes.get(row));
+    }
+
+    /**
+     * Returns the number of rows of this column
+     *
+     * @return the number of rows of this column
+     */
+    int size() {
+        return codes.size();
+    }
+}
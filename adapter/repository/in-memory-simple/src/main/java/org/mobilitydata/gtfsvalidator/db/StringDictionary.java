@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns the values of a column: each distinct value, null included, is stored once and given a dense code, codes
+ * being assigned from 0 in the order values are first encountered. Rows then only store the code of their value.
+ */
+final class StringDictionary {
+    private final Map<String, Integer> codeByValue = new HashMap<>();
+    private final List<String> valueList = new ArrayList<>();
+
+    /**
+     * Returns the code of a value, adding the value to this dictionary if it is not part of it yet
+     *
+     * @param value the value to encode, may be null
+     * @return the code of the value
+     */
+    int encode(final String value) {
+        Integer code = codeByValue.get(value);
+        if (code == null) {
+            code = valueList.size();
+            codeByValue.put(value, code);
+            valueList.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * Returns the code of a value, or -1 if the value is not part of this dictionary
+     *
+     * @param value the value to look for, may be null
+     * @return the code of the value, or -1 if the value is not part of this dictionary
+     */
+    int find(final String value) {
+        return codeByValue.getOrDefault(value, -1);
+    }
+
+    /**
+     * Returns the value of a code
+     *
+     * @param code a code returned by {@link #encode(String)}
+     * @return the value of the code
+     */
+    String decode(final int code) {
+        return valueList.get(code);
+    }
+
+    /**
+     * Returns the number of distinct values
+     *
+     * @return the number of distinct values
+     */
+    int size() {
+        return valueList.size();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Reads the content of a GTFS CSV file that is an entry of a zip archive, without extracting it. The archive is
+ * opened when the stream is opened and closed along with the stream, so that each data provider owns its archive
+ * and releases it once all rows are read.
+ * This is used by {@link InMemoryRawFileRepository} for files registered with {@link RawFileInfo#isArchiveEntry()}.
+ */
+public class ZipEntryInputStream extends FilterInputStream {
+    private final ZipFile zipFile;
+
+    private ZipEntryInputStream(final ZipFile zipFile, final InputStream entryInputStream) {
+        super(entryInputStream);
+        this.zipFile = zipFile;
+    }
+
+    /**
+     * Opens the content of a file that is an entry of a zip archive
+     *
+     * @param file information regarding the file: the path of the archive and the name of the entry
+     * @return the uncompressed content of the entry
+     * @throws IOException if the archive could not be opened or does not contain the entry
+     */
+    public static ZipEntryInputStream open(final RawFileInfo file) throws IOException {
+        final ZipFile zipFile = new ZipFile(file.getPath());
+        try {
+            final ZipEntry entry = zipFile.getEntry(file.getFilename());
+            if (entry == null) {
+                throw new FileNotFoundException(file.getFilename() + " not found in " + file.getPath());
+            }
+            return new ZipEntryInputStream(zipFile, zipFile.getInputStream(entry));
+        } catch (IOException e) {
+            zipFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the content of the entry and the archive
+     *
+     * @throws IOException if the archive could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            zipFile.close();
+        }
+    }
+}
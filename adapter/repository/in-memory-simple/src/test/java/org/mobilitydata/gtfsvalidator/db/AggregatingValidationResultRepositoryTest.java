@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeAggregate;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.CannotUnzipInputArchiveNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.IntegerFieldValueOutOfRangeNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.MissingRequiredValueNotice;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AggregatingValidationResultRepositoryTest {
+
+    @Test
+    void noticesShouldBeCountedByNoticeIdFilenameAndField() {
+        final AggregatingValidationResultRepository underTest = new AggregatingValidationResultRepository(2, 0);
+
+        final List<Notice> stopSequenceNotices = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            final Notice notice = new IntegerFieldValueOutOfRangeNotice("stop_times.txt", "stop_sequence",
+                    "entity" + i, i + 2, 0, 100, 101);
+            stopSequenceNotices.add(notice);
+            underTest.addNotice(notice);
+        }
+        underTest.addNotice(new IntegerFieldValueOutOfRangeNotice("stop_times.txt", "timepoint", "entity0", 2,
+                0, 1, 2));
+        underTest.addNotice(new MissingRequiredValueNotice("stops.txt", "stop_id", "entity0"));
+        underTest.addNotice(new CannotUnzipInputArchiveNotice("input.zip"));
+
+        assertTrue(underTest.getAll().isEmpty());
+        assertFalse(underTest.isStreaming());
+        assertEquals(Map.of("E008", 1L, "E010", 6L, "E015", 1L), underTest.getNoticeCountById());
+
+        final List<NoticeAggregate> aggregates = new ArrayList<>(underTest.getAggregates());
+        assertEquals(4, aggregates.size());
+
+        assertEquals("E008", aggregates.get(0).getNoticeId());
+        assertEquals("input.zip", aggregates.get(0).getFilename());
+        assertNull(aggregates.get(0).getFieldName());
+        assertEquals(1, aggregates.get(0).getCount());
+
+        assertEquals("E010", aggregates.get(1).getNoticeId());
+        assertEquals("stop_sequence", aggregates.get(1).getFieldName());
+        assertEquals(5, aggregates.get(1).getCount());
+        assertEquals(stopSequenceNotices.subList(0, 2), aggregates.get(1).getFirstSamples());
+        assertTrue(aggregates.get(1).getReservoirSamples().isEmpty());
+
+        assertEquals("timepoint", aggregates.get(2).getFieldName());
+        assertEquals(1, aggregates.get(2).getCount());
+
+        assertEquals("E015", aggregates.get(3).getNoticeId());
+        assertEquals("stops.txt", aggregates.get(3).getFilename());
+        assertEquals("stop_id", aggregates.get(3).getFieldName());
+    }
+
+    @Test
+    void reservoirShouldHoldRequestedNumberOfAddedNotices() {
+        final ExecParamRepository mockExecParamRepo = mock(ExecParamRepository.class);
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.SAMPLE_CAP_KEY)).thenReturn("0");
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.RESERVOIR_SIZE_KEY)).thenReturn("3");
+        final AggregatingValidationResultRepository underTest =
+                new AggregatingValidationResultRepository(mockExecParamRepo);
+
+        final List<Notice> added = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            final Notice notice = new MissingRequiredValueNotice("stops.txt", "stop_id", "entity" + i);
+            added.add(notice);
+            underTest.addNotice(notice);
+        }
+
+        final NoticeAggregate aggregate = underTest.getAggregates().iterator().next();
+        assertEquals(1000, aggregate.getCount());
+        assertTrue(aggregate.getFirstSamples().isEmpty());
+        assertEquals(3, aggregate.getReservoirSamples().size());
+        assertTrue(added.containsAll(aggregate.getReservoirSamples()));
+        // samples are not only the first notices added
+        assertNotEquals(added.subList(0, 3), aggregate.getReservoirSamples());
+    }
+
+    @Test
+    void noticeShouldNotBeHeldAsFirstSampleAndInReservoir() {
+        final AggregatingValidationResultRepository underTest = new AggregatingValidationResultRepository(10, 10);
+
+        final List<Notice> fewAdded = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            final Notice notice = new MissingRequiredValueNotice("stops.txt", "stop_id", "entity" + i);
+            fewAdded.add(notice);
+            underTest.addNotice(notice);
+        }
+        final List<Notice> manyAdded = new ArrayList<>();
+        for (int i = 0; i < 25; ++i) {
+            final Notice notice = new MissingRequiredValueNotice("trips.txt", "trip_id", "entity" + i);
+            manyAdded.add(notice);
+            underTest.addNotice(notice);
+        }
+
+        final List<NoticeAggregate> aggregates = new ArrayList<>(underTest.getAggregates());
+        assertEquals(2, aggregates.size());
+
+        assertEquals(5, aggregates.get(0).getCount());
+        assertEquals(fewAdded, aggregates.get(0).getFirstSamples());
+        assertTrue(aggregates.get(0).getReservoirSamples().isEmpty());
+
+        // the reservoir is drawn from the notices following the first samples
+        assertEquals(25, aggregates.get(1).getCount());
+        assertEquals(manyAdded.subList(0, 10), aggregates.get(1).getFirstSamples());
+        assertEquals(10, aggregates.get(1).getReservoirSamples().size());
+        assertTrue(manyAdded.subList(10, 25).containsAll(aggregates.get(1).getReservoirSamples()));
+    }
+
+    @Test
+    void reservoirShouldNotDependOnNoticesOfOtherFilesAddedMeanwhile() {
+        final AggregatingValidationResultRepository alone = new AggregatingValidationResultRepository(2, 5);
+        final AggregatingValidationResultRepository interleaved = new AggregatingValidationResultRepository(2, 5);
+
+        final List<Notice> stopNotices = new ArrayList<>();
+        for (int i = 0; i < 500; ++i) {
+            stopNotices.add(new MissingRequiredValueNotice("stops.txt", "stop_id", "entity" + i));
+        }
+        stopNotices.forEach(alone::addNotice);
+        // notices of another file validated by another thread are added between the ones of stops.txt
+        for (int i = 0; i < stopNotices.size(); ++i) {
+            for (int j = 0; j < i % 3; ++j) {
+                interleaved.addNotice(new MissingRequiredValueNotice("trips.txt", "trip_id", "entity" + i));
+            }
+            interleaved.addNotice(stopNotices.get(i));
+        }
+
+        final NoticeAggregate stopAggregate = alone.getAggregates().iterator().next();
+        final NoticeAggregate interleavedStopAggregate = interleaved.getAggregates().stream()
+                .filter(aggregate -> aggregate.getFilename().equals("stops.txt"))
+                .findAny()
+                .orElseThrow();
+        assertEquals(5, stopAggregate.getReservoirSamples().size());
+        assertEquals(stopAggregate.getReservoirSamples(), interleavedStopAggregate.getReservoirSamples());
+    }
+
+    @Test
+    void negativeSampleSizeShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new AggregatingValidationResultRepository(-1, 0));
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.Agency;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.ShapePoint;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.StopTime;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.routes.Route;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.routes.RouteType;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarGtfsDataRepositoryTest {
+
+    private static Agency createAgency(final String agencyId, final String agencyName) {
+        return (Agency) new Agency.AgencyBuilder(new ArrayList<>())
+                .agencyId(agencyId)
+                .agencyName(agencyName)
+                .agencyUrl("https://example.com")
+                .agencyTimezone("America/Montreal")
+                .agencyLang("fr")
+                .build()
+                .getData();
+    }
+
+    private static Route createRoute(final String routeId, final Integer routeSortOrder) {
+        return (Route) new Route.RouteBuilder(new ArrayList<>())
+                .routeId(routeId)
+                .agencyId("agency id")
+                .routeShortName("24")
+                .routeType(3)
+                .routeColor("FF0000")
+                .routeSortOrder(routeSortOrder)
+                .build()
+                .getData();
+    }
+
+    private static StopTime createStopTime(final String tripId, final int stopSequence, final Float shapeDistTraveled) {
+        return (StopTime) new StopTime.StopTimeBuilder(new ArrayList<>())
+                .tripId(tripId)
+                .arrivalTime(30000 + stopSequence)
+                .departureTime(null)
+                .stopId("stop " + stopSequence)
+                .stopSequence(stopSequence)
+                .stopHeadsign("Downtown")
+                .pickupType(1)
+                .dropOffType(null)
+                .shapeDistTraveled(shapeDistTraveled)
+                .build()
+                .getData();
+    }
+
+    private static ShapePoint createShapePoint(final String shapeId, final int shapePtSequence,
+                                               final Float shapeDistTraveled) {
+        return (ShapePoint) new ShapePoint.ShapePointBuilder(new ArrayList<>())
+                .shapeId(shapeId)
+                .shapePtLat(45f + shapePtSequence / 1000f)
+                .shapePtLon(-73.5f)
+                .shapePtSequence(shapePtSequence)
+                .shapeDistTraveled(shapeDistTraveled)
+                .build()
+                .getData();
+    }
+
+    @Test
+    void callToAddAgencyShouldAddAgencyToRepoAndReturnSameEntity() {
+        final Agency agency = createAgency("agency id", "agency name");
+        final ColumnarGtfsDataRepository underTest = new ColumnarGtfsDataRepository();
+
+        assertSame(agency, underTest.addAgency(agency));
+    }
+
+    @Test
+    void addSameAgencyTwiceShouldReturnNull() {
+        final ColumnarGtfsDataRepository underTest = new ColumnarGtfsDataRepository();
+
+        underTest.addAgency(createAgency("agency id", "agency name"));
+
+        assertNull(underTest.addAgency(createAgency("agency id", "other agency name")));
+        assertEquals("agency name", underTest.getAgencyById("agency id").getAgencyName());
+    }
+
+    @Test
+    void addNullAgencyShouldThrowIllegalArgumentException() {
+        final ColumnarGtfsDataRepository underTest = new ColumnarGtfsDataRepository();
+        //noinspection ConstantConditions
+        final Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> underTest.addAgency(null));
+        assertEquals("Cannot add null agency to data repository", exception.getMessage());
+    }
+
+    @Test
+    void getAgencyByIdShouldReturnRelatedAgency() {
+        final ColumnarGtfsDataRepository underTest = new ColumnarGtfsDataRepository();
+        underTest.addAgency(createAgency(null, "agency without id"));
+        underTest.addAgency(createAgency("agency id1", "agency name1"));
+
+        final Agency agency = underTest.getAgencyById("agency id1");
+        assertEquals("agency id1", agency.getAgencyId());
+        assertEquals("agency name1", agency.getAgencyName());
+        assertEquals("https://example.com", agency.getAgencyUrl());
+        assertEquals("America/Montreal", agency.getAgencyTimezone());
+        assertEquals("fr", agency.getAgencyLang());
+        assertNull(agency.getAgencyPhone());
+        assertEquals("agency without id", underTest.getAgencyById(null).getAgencyName());
+        assertNull(underTest.getAgencyById("unknown agency id"));
+    }
+
+    @Test
+    void callToAddRouteShouldAddRouteToRepoAndReturnSameEntity() {
+        final Route route = createRoute("route id", 1);
+        final ColumnarGtfsDataRepository underTest = new ColumnarGtfsDataRepository();
+
+        assertSame(route, underTest.addRoute(route));
+    }
+
+    @Test
+    void addSameRouteTwiceShouldReturnNull() {
+        final ColumnarGtfsDataRepository underTest = new ColumnarGtfsDataRepository();
+
+        underTest.addRoute(createRoute("route id", 1));
+
+        assertNull(underTest.addRoute(createRoute("route id", 2)));
+        assertEquals(1, underTest.getRouteById("route id").getRouteSortOrder());
+    }
+
+    @Test
+    void addNullRouteShouldThrowIllegalArgumentException() {
+        final ColumnarGtfsDataRepository underTest = new ColumnarGtfsDataRepository();
+        //noinspection ConstantConditions
+        final Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> underTest.addRoute(null));
+        assertEquals("Cannot add null route to data repository", exception.getMessage());
+    }
+
+    @Test
+    void getRouteByIdShouldReturnRelatedRoute() {
+        final ColumnarGtfsDataRepository underTest = new ColumnarGtfsDataRepository();
+        underTest.addRoute(createRoute("route id0", 1));
+        underTest.addRoute(createRoute("route id1", null));
+
+        final Route route = underTest.getRouteById("route id1");
+        assertEquals("route id1", route.getRouteId());
+        assertEquals("agency id", route.getAgencyId());
+        assertEquals("24", route.getRouteShortName());
+        assertNull(route.getRouteLongName());
+        assertEquals(RouteType.BUS, route.getRouteType());
+        assertEquals("FF0000", route.getRouteColor());
+        assertNull(route.getRouteSortOrder());
+        assertEquals(1, underTest.getRouteById("route id0").getRouteSortOrder());
+        assertNull(underTest.getRouteById("unknown route id"));
+    }
+
+    @Test
+    void addSameStopTimeTwiceShouldReturnNull() {
+        final ColumnarGtfsDataRepository underTest = new ColumnarGtfsDataRepository();
+        final StopTime stopTime = createStopTime("trip id", 1, 0f);
+
+        assertSame(stopTime, underTest.addStopTime(stopTime));
+        assertNull(underTest.addStopTime(createStopTime("trip id", 1, 10f)));
+        assertNotNull(underTest.addStopTime(createStopTime("other trip id", 1, 10f)));
+        assertEquals(2, underTest.getStopTimeCount());
+    }
+
+    @Test
+    void addNullStopTimeShouldThrowIllegalArgumentException() {
+        final ColumnarGtfsDataRepository underTest = new ColumnarGtfsDataRepository();
+        //noinspection ConstantConditions
+        final Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> underTest.addStopTime(null));
+        assertEquals("Cannot add null stop time to data repository", exception.getMessage());
+    }
+
+    @Test
+    void addStopTimeWithEnumValueOutOfByteRangeShouldThrowIllegalArgumentException() {
+        final ColumnarGtfsDataRepository underTest = new ColumnarGtfsDataRepository();
+        final StopTime stopTime = (StopTime) new StopTime.StopTimeBuilder(new ArrayList<>())
+                .tripId("trip id")
+                .stopId("stop id")
+                .stopSequence(1)
+                .pickupType(128)
+                .build()
+                .getData();
+
+        assertThrows(IllegalArgumentException.class, () -> underTest.addStopTime(stopTime));
+        assertEquals(0, underTest.getStopTimeCount());
+        assertNull(underTest.getStopTimeByTripIdAndStopSequence("trip id", 1));
+    }
+
+    @Test
+    void getStopTimeByTripIdAndStopSequenceShouldReturnRelatedStopTime() {
+        final ColumnarGtfsDataRepository underTest = new ColumnarGtfsDataRepository();
+        for (int stopSequence = -1; stopSequence < 1000; ++stopSequence) {
+            underTest.addStopTime(createStopTime("trip id", stopSequence, stopSequence % 2 == 0 ? null : 1.5f));
+        }
+
+        final StopTime stopTime = underTest.getStopTimeByTripIdAndStopSequence("trip id", 501);
+        assertEquals("trip id", stopTime.getTripId());
+        assertEquals(30501, stopTime.getArrivalTime());
+        assertNull(stopTime.getDepartureTime());
+        assertEquals("stop 501", stopTime.getStopId());
+        assertEquals(501, stopTime.getStopSequence());
+        assertEquals("Downtown", stopTime.getStopHeadsign());
+        assertEquals(1, stopTime.getPickupType());
+        assertNull(stopTime.getDropOffType());
+        assertEquals(1.5f, stopTime.getShapeDistTraveled());
+        assertNull(stopTime.getTimepoint());
+        assertNull(underTest.getStopTimeByTripIdAndStopSequence("trip id", 500).getShapeDistTraveled());
+        assertEquals(-1, underTest.getStopTimeByTripIdAndStopSequence("trip id", -1).getStopSequence());
+        assertNull(underTest.getStopTimeByTripIdAndStopSequence("trip id", 1000));
+        assertNull(underTest.getStopTimeByTripIdAndStopSequence("unknown trip id", 1));
+    }
+
+    @Test
+    void getShapePointByShapeIdAndSequenceShouldReturnRelatedShapePoint() {
+        final ColumnarGtfsDataRepository underTest = new ColumnarGtfsDataRepository();
+        for (int shapePtSequence = 0; shapePtSequence < 1000; ++shapePtSequence) {
+            underTest.addShapePoint(createShapePoint("shape id", shapePtSequence,
+                    shapePtSequence % 2 == 0 ? null : 1.5f));
+        }
+
+        assertNull(underTest.addShapePoint(createShapePoint("shape id", 1, 2f)));
+        final ShapePoint shapePoint = underTest.getShapePointByShapeIdAndSequence("shape id", 501);
+        assertEquals("shape id", shapePoint.getShapeId());
+        assertEquals(45.501f, shapePoint.getShapePtLat());
+        assertEquals(-73.5f, shapePoint.getShapePtLon());
+        assertEquals(501, shapePoint.getShapePtSequence());
+        assertEquals(1.5f, shapePoint.getShapeDistTraveled());
+        assertNull(underTest.getShapePointByShapeIdAndSequence("shape id", 500).getShapeDistTraveled());
+        assertNull(underTest.getShapePointByShapeIdAndSequence("shape id", 1000));
+        assertNull(underTest.getShapePointByShapeIdAndSequence("unknown shape id", 1));
+    }
+}
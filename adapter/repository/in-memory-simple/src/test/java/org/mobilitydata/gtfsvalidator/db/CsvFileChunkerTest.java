@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvFileChunkerTest {
+
+    private static final String TEST_FILENAME = "stop_times.txt";
+    private static final String TEST_CONTENT = "trip_id,stop_headsign,stop_sequence\n" +
+            "t1,\"multi\nline\",1\n" +
+            "t1,\"quoted \"\"quote\"\", and comma\",2\r\n" +
+            "t2,plain,3\n" +
+            "\n" +
+            "t2,\"\r\nstarts with a line break\",4\n" +
+            "t3,too short\n" +
+            "t3,too,many,values\n" +
+            "t3,unquoted \" quote,6\n" +
+            "t3,last row,7";
+
+    @Test
+    void chunksShouldStartOnRecordBoundaries(@TempDir Path tempDir) throws IOException {
+        File csvFile = writeTestFile(tempDir);
+
+        List<CsvFileChunker.Chunk> chunkList = new CsvFileChunker(1).split(csvFile);
+
+        List<Long> startOffsetList = new ArrayList<>();
+        chunkList.forEach(chunk -> startOffsetList.add(chunk.getStartOffset()));
+        List<Long> expectedStartOffsetList = new ArrayList<>();
+        expectedStartOffsetList.add(0L);
+        for (String recordStart : List.of("t1,\"multi", "t1,\"quoted", "t2,plain", "\nt2,\"\r", "t2,\"\r",
+                "t3,too short", "t3,too,many", "t3,unquoted", "t3,last")) {
+            expectedStartOffsetList.add((long) TEST_CONTENT.indexOf(recordStart));
+        }
+        assertEquals(expectedStartOffsetList, startOffsetList);
+        assertEquals(csvFile.length(), chunkList.get(chunkList.size() - 1).getEndOffset());
+    }
+
+    @Test
+    void chunkedProvidersShouldReturnSameRowsAsWholeFileProvider(@TempDir Path tempDir) throws IOException {
+        writeTestFile(tempDir);
+        RawFileInfo rawFileInfo = RawFileInfo.builder()
+                .filename(TEST_FILENAME)
+                .path(tempDir.toString())
+                .build();
+        InMemoryRawFileRepository underTest = new InMemoryRawFileRepository();
+
+        List<String> expectedRowList = readAll(List.of(underTest.getProviderForFile(rawFileInfo).orElseThrow()));
+
+        for (long chunkSize = 1; chunkSize <= TEST_CONTENT.length(); ++chunkSize) {
+            List<RawFileRepository.RawEntityProvider> providerList =
+                    underTest.getProviderChunkListForFile(rawFileInfo, 0, chunkSize).orElseThrow().stream()
+                            .map(Supplier::get)
+                            .collect(Collectors.toList());
+
+            assertEquals(expectedRowList, readAll(providerList));
+            for (RawFileRepository.RawEntityProvider provider : providerList) {
+                assertEquals(3, provider.getHeaderCount());
+            }
+        }
+    }
+
+    @Test
+    void fileBelowThresholdShouldNotBeSplit(@TempDir Path tempDir) throws IOException {
+        writeTestFile(tempDir);
+        RawFileInfo rawFileInfo = RawFileInfo.builder()
+                .filename(TEST_FILENAME)
+                .path(tempDir.toString())
+                .build();
+
+        assertEquals(1, new InMemoryRawFileRepository()
+                .getProviderChunkListForFile(rawFileInfo, TEST_CONTENT.length(), 1).orElseThrow().size());
+    }
+
+    @Test
+    void chunkProvidersShouldBeOpenedWhenSupplied(@TempDir Path tempDir) throws IOException {
+        File csvFile = writeTestFile(tempDir);
+        RawFileInfo rawFileInfo = RawFileInfo.builder()
+                .filename(TEST_FILENAME)
+                .path(tempDir.toString())
+                .build();
+
+        List<Supplier<RawFileRepository.RawEntityProvider>> providerSupplierList =
+                new InMemoryRawFileRepository().getProviderChunkListForFile(rawFileInfo, 0, 1).orElseThrow();
+        assertTrue(csvFile.delete());
+
+        // the first range was opened to read the header row, the others are opened once supplied
+        try (RawFileRepository.RawEntityProvider firstProvider = providerSupplierList.get(0).get()) {
+            assertEquals(3, firstProvider.getHeaderCount());
+        }
+        assertThrows(UncheckedIOException.class, () -> providerSupplierList.get(1).get());
+    }
+
+    private static File writeTestFile(final Path tempDir) throws IOException {
+        return Files.writeString(tempDir.resolve(TEST_FILENAME), TEST_CONTENT, StandardCharsets.UTF_8).toFile();
+    }
+
+    private static List<String> readAll(final List<RawFileRepository.RawEntityProvider> providerList) {
+        List<String> toReturn = new ArrayList<>();
+        for (RawFileRepository.RawEntityProvider provider : providerList) {
+            while (provider.hasNext()) {
+                RawEntity rawEntity = provider.getNext();
+                toReturn.add(rawEntity.getIndex() + ":" + rawEntity.size() + ":" + rawEntity.get("stop_headsign") +
+                        ":" + rawEntity.get("stop_sequence"));
+            }
+        }
+        return toReturn;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mobilitydata.gtfsvalidator.domain.entity.SortedRecord;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.RecordSortRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExternalRecordSortRepositoryTest {
+
+    private static List<SortedRecord> createRecords(final int count) {
+        final Random random = new Random(42);
+        final List<SortedRecord> toReturn = new ArrayList<>();
+        for (int lineNumber = 2; lineNumber < count + 2; ++lineNumber) {
+            toReturn.add(new SortedRecord("trip é" + random.nextInt(count / 10),
+                    random.nextInt(5) == 0 ? Double.NaN : random.nextInt(20), lineNumber,
+                    new double[]{random.nextDouble(), lineNumber % 3 == 0 ? Double.NaN : lineNumber}));
+        }
+        return toReturn;
+    }
+
+    private static List<SortedRecord> sortAll(final RecordSortRepository.RecordSorter sorter,
+                                              final List<SortedRecord> recordList) {
+        recordList.forEach(sorter::add);
+        final List<SortedRecord> toReturn = new ArrayList<>();
+        final Iterator<List<SortedRecord>> groupIterator = sorter.getGroupIterator();
+        String previousGroupKey = null;
+        while (groupIterator.hasNext()) {
+            final List<SortedRecord> group = groupIterator.next();
+            assertFalse(group.isEmpty());
+            assertNotEquals(previousGroupKey, group.get(0).getGroupKey());
+            group.forEach(record -> assertEquals(group.get(0).getGroupKey(), record.getGroupKey()));
+            previousGroupKey = group.get(0).getGroupKey();
+            toReturn.addAll(group);
+        }
+        return toReturn;
+    }
+
+    private static void assertSameRecords(final List<SortedRecord> expected, final List<SortedRecord> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertEquals(expected.get(i).getGroupKey(), actual.get(i).getGroupKey());
+            assertEquals(expected.get(i).getSortValue(), actual.get(i).getSortValue());
+            assertEquals(expected.get(i).getLineNumber(), actual.get(i).getLineNumber());
+            assertArrayEquals(expected.get(i).getValues(), actual.get(i).getValues());
+        }
+    }
+
+    @Test
+    void recordsWithinBudgetShouldBeSortedInMemory(@TempDir final Path tempDir) throws IOException {
+        final List<SortedRecord> recordList = createRecords(1000);
+        final List<SortedRecord> expected = new ArrayList<>(recordList);
+        expected.sort(ExternalRecordSorter.RECORD_COMPARATOR);
+
+        final ExternalRecordSortRepository underTest = new ExternalRecordSortRepository(1 << 20, tempDir);
+        try (ExternalRecordSorter sorter = (ExternalRecordSorter) underTest.getSorter(2)) {
+            final List<SortedRecord> sorted = sortAll(sorter, recordList);
+            assertEquals(0, sorter.getRunCount());
+            assertSameRecords(expected, sorted);
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void recordsOverBudgetShouldBeSpilledAndMerged(@TempDir final Path tempDir) throws IOException {
+        final List<SortedRecord> recordList = createRecords(1000);
+        final List<SortedRecord> expected = new ArrayList<>(recordList);
+        expected.sort(ExternalRecordSorter.RECORD_COMPARATOR);
+
+        // about 12 records per run and 3 runs read at once, so that runs are merged in several passes
+        try (ExternalRecordSorter underTest = new ExternalRecordSorter(2, 1500, tempDir, 3)) {
+            recordList.subList(0, 100).forEach(underTest::add);
+            assertTrue(underTest.getRunCount() >= 5);
+            try (Stream<Path> files = Files.list(tempDir)) {
+                assertEquals(underTest.getRunCount(), files.count());
+            }
+            assertSameRecords(expected, sortAll(underTest, recordList.subList(100, recordList.size())));
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void recordsShouldNotBeAddedOnceSorted(@TempDir final Path tempDir) {
+        try (ExternalRecordSorter underTest = new ExternalRecordSorter(1, 1500, tempDir, 3)) {
+            underTest.add(new SortedRecord("trip", 1, 2, new double[]{0}));
+            underTest.getGroupIterator();
+
+            assertThrows(IllegalStateException.class,
+                    () -> underTest.add(new SortedRecord("trip", 2, 3, new double[]{0})));
+            assertThrows(IllegalStateException.class, underTest::getGroupIterator);
+        }
+    }
+
+    @Test
+    void recordWithUnexpectedValueCountShouldThrowException(@TempDir final Path tempDir) {
+        try (ExternalRecordSorter underTest = new ExternalRecordSorter(2, 1500, tempDir, 3)) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> underTest.add(new SortedRecord("trip", 1, 2, new double[]{0})));
+        }
+    }
+
+    @Test
+    void nonPositiveBudgetShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new ExternalRecordSortRepository(0, null));
+    }
+
+    @Test
+    void budgetAndDirectoryShouldBeReadFromExecParams(@TempDir final Path tempDir) {
+        final ExecParamRepository mockExecParamRepo = mock(ExecParamRepository.class);
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.SORT_MEMORY_KEY)).thenReturn("1");
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.SORT_TEMP_DIR_KEY))
+                .thenReturn(tempDir.toString());
+
+        final ExternalRecordSortRepository underTest = new ExternalRecordSortRepository(mockExecParamRepo);
+        try (ExternalRecordSorter sorter = (ExternalRecordSorter) underTest.getSorter(0)) {
+            sorter.add(new SortedRecord("trip", 1, 2, new double[0]));
+            assertEquals(1, sorter.getRunCount());
+        }
+    }
+}
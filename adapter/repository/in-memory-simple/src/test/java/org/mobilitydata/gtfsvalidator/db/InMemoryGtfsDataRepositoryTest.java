@@ -18,6 +18,8 @@ package org.mobilitydata.gtfsvalidator.db;
 
 import org.junit.jupiter.api.Test;
 import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.Agency;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.ShapePoint;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.StopTime;
 import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.routes.Route;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -113,4 +115,82 @@ class InMemoryGtfsDataRepositoryTest {
         assertEquals(mockRoute00, underTest.getRouteById("route id0"));
         assertEquals(mockRoute01, underTest.getRouteById("route id1"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void addSameStopTimeTwiceShouldReturnNull() {
+        final StopTime mockStopTime = mock(StopTime.class);
+        final InMemoryGtfsDataRepository underTest = new InMemoryGtfsDataRepository();
+        when(mockStopTime.getTripId()).thenReturn("trip id");
+        when(mockStopTime.getStopSequence()).thenReturn(3);
+
+        assertEquals(mockStopTime, underTest.addStopTime(mockStopTime));
+        assertNull(underTest.addStopTime(mockStopTime));
+    }
+
+    @Test
+    void addNullStopTimeShouldThrowIllegalArgumentException() {
+        final InMemoryGtfsDataRepository underTest = new InMemoryGtfsDataRepository();
+        //noinspection ConstantConditions
+        final Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> underTest.addStopTime(null));
+        assertEquals("Cannot add null stop time to data repository", exception.getMessage());
+    }
+
+    @Test
+    void getStopTimeByTripIdAndStopSequenceShouldReturnRelatedStopTime() {
+        final StopTime mockStopTime00 = mock(StopTime.class);
+        final StopTime mockStopTime01 = mock(StopTime.class);
+        final InMemoryGtfsDataRepository underTest = new InMemoryGtfsDataRepository();
+        when(mockStopTime00.getTripId()).thenReturn("trip id");
+        when(mockStopTime00.getStopSequence()).thenReturn(1);
+        when(mockStopTime01.getTripId()).thenReturn("trip id");
+        when(mockStopTime01.getStopSequence()).thenReturn(2);
+
+        underTest.addStopTime(mockStopTime00);
+        underTest.addStopTime(mockStopTime01);
+
+        assertEquals(mockStopTime00, underTest.getStopTimeByTripIdAndStopSequence("trip id", 1));
+        assertEquals(mockStopTime01, underTest.getStopTimeByTripIdAndStopSequence("trip id", 2));
+        assertNull(underTest.getStopTimeByTripIdAndStopSequence("trip id", 3));
+        assertNull(underTest.getStopTimeByTripIdAndStopSequence("other trip id", 1));
+    }
+
+    @Test
+    void addSameShapePointTwiceShouldReturnNull() {
+        final ShapePoint mockShapePoint = mock(ShapePoint.class);
+        final InMemoryGtfsDataRepository underTest = new InMemoryGtfsDataRepository();
+        when(mockShapePoint.getShapeId()).thenReturn("shape id");
+        when(mockShapePoint.getShapePtSequence()).thenReturn(3);
+
+        assertEquals(mockShapePoint, underTest.addShapePoint(mockShapePoint));
+        assertNull(underTest.addShapePoint(mockShapePoint));
+    }
+
+    @Test
+    void addNullShapePointShouldThrowIllegalArgumentException() {
+        final InMemoryGtfsDataRepository underTest = new InMemoryGtfsDataRepository();
+        //noinspection ConstantConditions
+        final Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> underTest.addShapePoint(null));
+        assertEquals("Cannot add null shape point to data repository", exception.getMessage());
+    }
+
+    @Test
+    void getShapePointByShapeIdAndSequenceShouldReturnRelatedShapePoint() {
+        final ShapePoint mockShapePoint00 = mock(ShapePoint.class);
+        final ShapePoint mockShapePoint01 = mock(ShapePoint.class);
+        final InMemoryGtfsDataRepository underTest = new InMemoryGtfsDataRepository();
+        when(mockShapePoint00.getShapeId()).thenReturn("shape id");
+        when(mockShapePoint00.getShapePtSequence()).thenReturn(1);
+        when(mockShapePoint01.getShapeId()).thenReturn("shape id");
+        when(mockShapePoint01.getShapePtSequence()).thenReturn(2);
+
+        underTest.addShapePoint(mockShapePoint00);
+        underTest.addShapePoint(mockShapePoint01);
+
+        assertEquals(mockShapePoint00, underTest.getShapePointByShapeIdAndSequence("shape id", 1));
+        assertEquals(mockShapePoint01, underTest.getShapePointByShapeIdAndSequence("shape id", 2));
+        assertNull(underTest.getShapePointByShapeIdAndSequence("shape id", 3));
+        assertNull(underTest.getShapePointByShapeIdAndSequence("other shape id", 1));
+    }
+}
@@ -18,13 +18,23 @@ package org.mobilitydata.gtfsvalidator.db;
 
 import com.google.common.io.Resources;
 import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.domain.entity.ForeignKey;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
 import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.domain.entity.RowOrder;
+import org.mobilitydata.gtfsvalidator.domain.entity.UniqueKey;
+import org.mobilitydata.gtfsvalidator.usecase.port.GtfsSpecRepository;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class InMemoryGtfsSpecRepositoryTest {
@@ -147,4 +157,112 @@ class InMemoryGtfsSpecRepositoryTest {
         assertTrue(optionalHeaderListForOptionalFile0.contains(OPTIONAL_HEADER_0));
         assertTrue(optionalHeaderListForOptionalFile1.contains(OPTIONAL_HEADER_1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void columnsWithCacheHintShouldBeDeduplicatedForKeptRowsOnly() throws IOException {
+
+        String specString = Resources.toString(Resources.getResource("gtfs_spec.asciipb"), StandardCharsets.UTF_8);
+        InMemoryGtfsSpecRepository underTest = new InMemoryGtfsSpecRepository(specString);
+
+        underTest.getParserForFile(RawFileInfo.builder().filename("stop_times.txt").build());
+
+        assertTrue(underTest.getColumnDictionaryStatistics().isEmpty());
+
+        underTest.getDeduplicatingParserForFile(RawFileInfo.builder().filename("stop_times.txt").build());
+        underTest.getDeduplicatingParserForFile(RawFileInfo.builder().filename("stop_times.txt").build());
+
+        // stop_sequence and shape_dist_traveled are stored as numbers, hence need no dictionary
+        assertEquals(List.of("trip_id", "stop_id", "arrival_time", "departure_time"),
+                underTest.getColumnDictionaryStatistics().stream()
+                        .map(GtfsSpecRepository.ColumnDictionaryStatistics::getColumnName)
+                        .collect(Collectors.toList()));
+        assertTrue(underTest.getColumnDictionaryStatistics().stream()
+                .allMatch(statistics -> statistics.getFilename().equals("stop_times.txt")));
+    }
+
+    @Test
+    void releasedDictionariesShouldNoLongerHoldValuesOfKeptRows() throws IOException {
+
+        String specString = Resources.toString(Resources.getResource("gtfs_spec.asciipb"), StandardCharsets.UTF_8);
+        InMemoryGtfsSpecRepository underTest = new InMemoryGtfsSpecRepository(specString);
+        RawFileInfo stopTimesInfo = RawFileInfo.builder().filename("stop_times.txt").build();
+
+        GtfsSpecRepository.RawEntityParser parser = underTest.getDeduplicatingParserForFile(stopTimesInfo);
+        Object firstTripId = parser.parse(new RawEntity(Map.of("trip_id", new String("trip_1")), 2)).get("trip_id");
+        assertSame(firstTripId,
+                parser.parse(new RawEntity(Map.of("trip_id", new String("trip_1")), 3)).get("trip_id"));
+        // rows parsed for validation only are not counted
+        underTest.getParserForFile(stopTimesInfo).parse(new RawEntity(Map.of("trip_id", "trip_1"), 2));
+
+        underTest.releaseColumnDictionariesForFile(stopTimesInfo);
+
+        GtfsSpecRepository.ColumnDictionaryStatistics tripIdStatistics =
+                underTest.getColumnDictionaryStatistics().stream()
+                        .filter(statistics -> statistics.getColumnName().equals("trip_id"))
+                        .findAny()
+                        .orElseThrow();
+        assertEquals(2, tripIdStatistics.getValueCount());
+        assertEquals(1, tripIdStatistics.getDistinctValueCount());
+        assertNotSame(firstTripId,
+                parser.parse(new RawEntity(Map.of("trip_id", new String("trip_1")), 4)).get("trip_id"));
+    }
+
+    @Test
+    void foreignKeysShouldBeReadFromSupersetKeys() throws IOException {
+
+        String specString = Resources.toString(Resources.getResource("gtfs_spec.asciipb"), StandardCharsets.UTF_8);
+        InMemoryGtfsSpecRepository underTest = new InMemoryGtfsSpecRepository(specString);
+
+        List<ForeignKey> foreignKeyList = underTest.getForeignKeyList();
+
+        ForeignKey stopTimesTripId = foreignKeyList.stream()
+                .filter(foreignKey -> foreignKey.getFilename().equals("stop_times.txt") &&
+                        foreignKey.getColumnNameList().equals(List.of("trip_id")))
+                .findAny().orElseThrow();
+        assertEquals(1, stopTimesTripId.getReferencedKeyList().size());
+        assertEquals("trips.txt", stopTimesTripId.getReferencedKeyList().get(0).getFilename());
+        assertEquals(List.of("trip_id"), stopTimesTripId.getReferencedKeyList().get(0).getColumnNameList());
+
+        // a service is defined either in calendar.txt or calendar_dates.txt
+        ForeignKey tripsServiceId = foreignKeyList.stream()
+                .filter(foreignKey -> foreignKey.getFilename().equals("trips.txt") &&
+                        foreignKey.getColumnNameList().equals(List.of("service_id")))
+                .findAny().orElseThrow();
+        assertEquals(List.of("calendar.txt", "calendar_dates.txt"), tripsServiceId.getReferencedKeyList().stream()
+                .map(ForeignKey.ReferencedKey::getFilename)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void uniqueKeysShouldBeReadFromColumnsAndKeys() throws IOException {
+
+        String specString = Resources.toString(Resources.getResource("gtfs_spec.asciipb"), StandardCharsets.UTF_8);
+        InMemoryGtfsSpecRepository underTest = new InMemoryGtfsSpecRepository(specString);
+
+        List<UniqueKey> uniqueKeyList = underTest.getUniqueKeyList();
+
+        assertTrue(uniqueKeyList.stream().anyMatch(uniqueKey -> uniqueKey.getFilename().equals("stops.txt") &&
+                uniqueKey.getColumnNameList().equals(List.of("stop_id"))));
+        assertTrue(uniqueKeyList.stream().anyMatch(uniqueKey -> uniqueKey.getFilename().equals("stop_times.txt") &&
+                uniqueKey.getColumnNameList().equals(List.of("trip_id", "stop_sequence"))));
+        // stop_id is part of stop_times.txt, but is not unique there
+        assertTrue(uniqueKeyList.stream().noneMatch(uniqueKey -> uniqueKey.getFilename().equals("stop_times.txt") &&
+                uniqueKey.getColumnNameList().equals(List.of("stop_id"))));
+    }
+
+    @Test
+    void rowOrderShouldBeReadFromResortKeyAndKeysRequiredToBeSorted() throws IOException {
+
+        String specString = Resources.toString(Resources.getResource("gtfs_spec.asciipb"), StandardCharsets.UTF_8);
+        InMemoryGtfsSpecRepository underTest = new InMemoryGtfsSpecRepository(specString);
+
+        RowOrder rowOrder =
+                underTest.getRowOrderForFile(RawFileInfo.builder().filename("stop_times.txt").build()).orElseThrow();
+
+        assertEquals(List.of("trip_id"), rowOrder.getGroupColumnNameList());
+        assertEquals("stop_sequence", rowOrder.getSequenceColumnName());
+        assertEquals(List.of("shape_dist_traveled", "arrival_time", "departure_time"),
+                rowOrder.getSortedColumnNameList());
+        assertTrue(underTest.getRowOrderForFile(RawFileInfo.builder().filename("agency.txt").build()).isEmpty());
+    }
+}
@@ -21,12 +21,26 @@ import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.ErrorNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.WarningNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.CannotConstructDataProviderNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.CannotParseIntegerNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.InvalidColorNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.InvalidRowLengthNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.MissingForeignKeyValueNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.MissingRequiredValueNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.UnsortedKeyNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonContiguousKeyNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonStandardHeaderNotice;
 import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsInstanceOf.instanceOf;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class InMemoryValidationResultRepositoryTest {
 
@@ -62,4 +76,89 @@ class InMemoryValidationResultRepositoryTest {
 
         assertThat(testedNotice, instanceOf(CannotConstructDataProviderNotice.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllShouldSortNoticesByFilenameAndKeepInsertionOrder() {
+        ValidationResultRepository underTest = new InMemoryValidationResultRepository();
+
+        Notice firstStopsNotice = new InvalidRowLengthNotice("stops.txt", 2, 3, 2);
+        Notice firstAgencyNotice = new InvalidRowLengthNotice("agency.txt", 2, 3, 2);
+        Notice secondStopsNotice = new NonStandardHeaderNotice("stops.txt", "extra");
+        Notice secondAgencyNotice = new CannotConstructDataProviderNotice("agency.txt");
+
+        underTest.addNotice(firstStopsNotice);
+        underTest.addNotice(firstAgencyNotice);
+        underTest.addNotice(secondStopsNotice);
+        underTest.addNotice(secondAgencyNotice);
+
+        assertEquals(List.of(firstAgencyNotice, secondAgencyNotice, firstStopsNotice, secondStopsNotice), new ArrayList<>(underTest.getAll()));
+    }
+
+    @Test
+    void getAllShouldSortNoticesOfFileByRowWithNoticesWithoutRowLast() {
+        ValidationResultRepository underTest = new InMemoryValidationResultRepository();
+
+        Notice headerNotice = new NonStandardHeaderNotice("stop_times.txt", "extra");
+        Notice laterRowNotice = new UnsortedKeyNotice("stop_times.txt", "stop_sequence", 166789, "2", "3",
+                "trip_id", "T1");
+        Notice earlierRowNotice = new UnsortedKeyNotice("stop_times.txt", "stop_sequence", 166647, "1", "2",
+                "trip_id", "T0");
+        Notice sameRowNotice = new InvalidRowLengthNotice("stop_times.txt", 166647, 7, 6);
+        Notice tripsNotice = new NonContiguousKeyNotice("trips.txt", "trip_id", 3, "T0");
+
+        underTest.addNotice(headerNotice);
+        underTest.addNotice(tripsNotice);
+        underTest.addNotice(laterRowNotice);
+        underTest.addNotice(earlierRowNotice);
+        underTest.addNotice(sameRowNotice);
+
+        assertEquals(List.of(earlierRowNotice, sameRowNotice, laterRowNotice, headerNotice, tripsNotice),
+                new ArrayList<>(underTest.getAll()));
+    }
+
+    @Test
+    void getAllShouldKeepTypeNoticesWithParseNoticesOfTheirRow() {
+        ValidationResultRepository underTest = new InMemoryValidationResultRepository();
+
+        Notice firstRowParseNotice = new CannotParseIntegerNotice("routes.txt", "route_type", 2, "bus");
+        Notice firstRowTypeNotice = new MissingRequiredValueNotice("routes.txt", "route_id", null, 2);
+        Notice secondRowParseNotice = new CannotParseIntegerNotice("routes.txt", "route_type", 3, "tram");
+        Notice secondRowTypeNotice = new InvalidColorNotice("routes.txt", "route_color", "R3", 3, "#zz");
+        Notice firstRowForeignKeyNotice = new MissingForeignKeyValueNotice("routes.txt", "agency_id", 2, "A9",
+                "agency.txt", "agency_id");
+
+        underTest.addNotice(firstRowParseNotice);
+        underTest.addNotice(firstRowTypeNotice);
+        underTest.addNotice(secondRowParseNotice);
+        underTest.addNotice(secondRowTypeNotice);
+        underTest.addNotice(firstRowForeignKeyNotice);
+
+        assertEquals(List.of(firstRowParseNotice, firstRowTypeNotice, firstRowForeignKeyNotice, secondRowParseNotice,
+                secondRowTypeNotice), new ArrayList<>(underTest.getAll()));
+    }
+
+    @Test
+    void concurrentAddNoticeShouldNotLoseNotices() throws InterruptedException {
+        ValidationResultRepository underTest = new InMemoryValidationResultRepository();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+        for (int fileIndex = 0; fileIndex < 4; ++fileIndex) {
+            final String filename = "file" + fileIndex + ".txt";
+            executorService.submit(() -> {
+                for (int rowIndex = 0; rowIndex < 10000; ++rowIndex) {
+                    underTest.addNotice(new InvalidRowLengthNotice(filename, rowIndex, 3, 2));
+                }
+            });
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+
+        List<Notice> allNotices = new ArrayList<>(underTest.getAll());
+        assertEquals(40000, allNotices.size());
+        for (int i = 0; i < allNotices.size(); ++i) {
+            InvalidRowLengthNotice notice = (InvalidRowLengthNotice) allNotices.get(i);
+            assertEquals("file" + i / 10000 + ".txt", notice.getFilename());
+            assertEquals(i % 10000, notice.getRowIndex());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LongIntHashMapTest {
+
+    @Test
+    void putIfAbsentShouldKeepFirstValue() {
+        final LongIntHashMap underTest = new LongIntHashMap();
+
+        assertEquals(-1, underTest.putIfAbsent(42L, 0));
+        assertEquals(0, underTest.putIfAbsent(42L, 1));
+        assertEquals(0, underTest.get(42L));
+        assertEquals(1, underTest.size());
+    }
+
+    @Test
+    void valuesShouldBeKeptWhenMapGrows() {
+        final LongIntHashMap underTest = new LongIntHashMap();
+        for (int i = 0; i < 100_000; ++i) {
+            assertEquals(-1, underTest.putIfAbsent(((long) i << Integer.SIZE) | (i % 7), i));
+        }
+
+        assertEquals(100_000, underTest.size());
+        for (int i = 0; i < 100_000; ++i) {
+            assertEquals(i, underTest.get(((long) i << Integer.SIZE) | (i % 7)));
+        }
+        assertEquals(-1, underTest.get(1L));
+        assertEquals(0, underTest.get(0L));
+    }
+
+    @Test
+    void negativeKeyShouldThrowIllegalArgumentException() {
+        final LongIntHashMap underTest = new LongIntHashMap();
+
+        assertThrows(IllegalArgumentException.class, () -> underTest.putIfAbsent(-1L, 0));
+    }
+}
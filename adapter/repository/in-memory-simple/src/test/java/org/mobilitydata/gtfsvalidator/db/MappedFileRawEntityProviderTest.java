@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MappedFileRawEntityProviderTest {
+
+    private static final String TEST_FILENAME = "stop_times.txt";
+    private static final String TEST_CONTENT = "\uFEFFtrip_id,stop_headsign,stop_sequence\n" +
+            "t1,\"multi\nline\",1\n" +
+            "t1,\"quoted \"\"quote\"\", and comma\",2\r\n" +
+            "t2,plain,3\n" +
+            "\n" +
+            "t2,\"\r\nstarts with a line break\",4\r" +
+            "t3,too short\n" +
+            "t3,too,many,values\n" +
+            "t3,unquoted \" quote,6\n" +
+            "t3,\"blank after quote\" \t,7\n" +
+            "t4,  \"leading blank\",8\n" +
+            "t4,café 中,9\n" +
+            "t4,trailing separator,\n" +
+            "t4,last row,11";
+    private static final int LARGEST_ROW_LENGTH = 40;
+
+    @Test
+    void mappedProviderShouldReturnSameRowsAsStreamProvider(@TempDir Path tempDir) throws IOException {
+        RawFileInfo rawFileInfo = writeTestFile(tempDir, TEST_CONTENT);
+
+        List<String> expectedRowList = readAll(List.of(new FromFileRawEntityProvider(rawFileInfo)));
+        assertEquals(13, expectedRowList.size());
+
+        MappedFileRawEntityProvider underTest = new MappedFileRawEntityProvider(rawFileInfo);
+        assertEquals(List.of("trip_id", "stop_headsign", "stop_sequence"), new ArrayList<>(underTest.getHeaders()));
+        assertEquals(expectedRowList, readAll(List.of(underTest)));
+    }
+
+    @Test
+    void rowsSpanningMappedWindowsShouldBeReadWhole(@TempDir Path tempDir) throws IOException {
+        RawFileInfo rawFileInfo = writeTestFile(tempDir, TEST_CONTENT);
+
+        List<String> expectedRowList = readAll(List.of(new FromFileRawEntityProvider(rawFileInfo)));
+
+        for (int windowSize = LARGEST_ROW_LENGTH; windowSize <= TEST_CONTENT.length(); ++windowSize) {
+            assertEquals(expectedRowList,
+                    readAll(List.of(new MappedFileRawEntityProvider(rawFileInfo, null, null, windowSize))));
+        }
+    }
+
+    @Test
+    void chunkedMappedProvidersShouldReturnSameRowsAsStreamProvider(@TempDir Path tempDir) throws IOException {
+        RawFileInfo rawFileInfo = writeTestFile(tempDir, TEST_CONTENT);
+        ExecParamRepository mockExecParamRepo = mock(ExecParamRepository.class);
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.CSV_READER_KEY))
+                .thenReturn(InMemoryRawFileRepository.MAPPED_CSV_READER);
+        InMemoryRawFileRepository underTest = new InMemoryRawFileRepository(mockExecParamRepo);
+
+        List<String> expectedRowList = readAll(List.of(new FromFileRawEntityProvider(rawFileInfo)));
+
+        assertTrue(underTest.getProviderForFile(rawFileInfo).orElseThrow() instanceof MappedFileRawEntityProvider);
+        for (long chunkSize = 1; chunkSize <= TEST_CONTENT.length(); ++chunkSize) {
+            List<RawFileRepository.RawEntityProvider> providerList =
+                    underTest.getProviderChunkListForFile(rawFileInfo, 0, chunkSize).orElseThrow().stream()
+                            .map(Supplier::get)
+                            .collect(Collectors.toList());
+
+            assertEquals(expectedRowList, readAll(providerList));
+        }
+    }
+
+    @Test
+    void emptyFileShouldHaveNoHeaderAndNoRow(@TempDir Path tempDir) throws IOException {
+        MappedFileRawEntityProvider underTest = new MappedFileRawEntityProvider(writeTestFile(tempDir, ""));
+
+        assertEquals(0, underTest.getHeaderCount());
+        assertEquals(false, underTest.hasNext());
+    }
+
+    @Test
+    void malformedQuotedValueShouldThrowException(@TempDir Path tempDir) throws IOException {
+        MappedFileRawEntityProvider missingClosingQuote =
+                new MappedFileRawEntityProvider(writeTestFile(tempDir, "a,b\n1,\"unterminated\n"));
+        assertThrows(IllegalStateException.class, missingClosingQuote::getNext);
+
+        MappedFileRawEntityProvider characterAfterQuote =
+                new MappedFileRawEntityProvider(writeTestFile(tempDir, "a,b\n1,\"value\"x\n"));
+        assertThrows(IllegalStateException.class, characterAfterQuote::getNext);
+    }
+
+    private static RawFileInfo writeTestFile(final Path tempDir, final String content) throws IOException {
+        Files.writeString(tempDir.resolve(TEST_FILENAME), content, StandardCharsets.UTF_8);
+        return RawFileInfo.builder()
+                .filename(TEST_FILENAME)
+                .path(tempDir.toString())
+                .build();
+    }
+
+    private static List<String> readAll(final List<RawFileRepository.RawEntityProvider> providerList) {
+        List<String> toReturn = new ArrayList<>();
+        for (RawFileRepository.RawEntityProvider provider : providerList) {
+            while (provider.hasNext()) {
+                RawEntity rawEntity = provider.getNext();
+                StringBuilder row = new StringBuilder().append(rawEntity.getIndex());
+                for (int i = 0; i < rawEntity.size(); ++i) {
+                    row.append('|').append(rawEntity.get(i));
+                }
+                toReturn.add(row.append('|').append(rawEntity.get("stop_headsign")).toString());
+            }
+        }
+        return toReturn;
+    }
+}
@@ -21,6 +21,7 @@ public class NoticeMemoryConsumptionTest {
             resultRepository.addNotice(new IntegerFieldValueOutOfRangeNotice("filename",
                     "fieldname",
                     "entity_id",
+                    i + 2,
                     0,
                     100,
                     101)
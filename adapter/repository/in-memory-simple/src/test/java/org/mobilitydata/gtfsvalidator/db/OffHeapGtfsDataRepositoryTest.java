@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.Agency;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.ShapePoint;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.StopTime;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapGtfsDataRepositoryTest {
+    // small segments, so that rows span several segments
+    private static final int SEGMENT_SIZE = 1000;
+
+    private static StopTime createStopTime(final String tripId, final int stopSequence) {
+        return (StopTime) new StopTime.StopTimeBuilder(new ArrayList<>())
+                .tripId(tripId)
+                .arrivalTime(stopSequence % 3 == 0 ? null : 30000 + stopSequence)
+                .departureTime(30060 + stopSequence)
+                .stopId("stop " + stopSequence % 10)
+                .stopSequence(stopSequence)
+                .stopHeadsign(stopSequence % 2 == 0 ? null : "Downtown")
+                .pickupType(stopSequence % 4 == 0 ? null : stopSequence % 4)
+                .dropOffType(0)
+                .shapeDistTraveled(stopSequence % 5 == 0 ? null : stopSequence * 10.5f)
+                .timepoint(null)
+                .build()
+                .getData();
+    }
+
+    private static ShapePoint createShapePoint(final String shapeId, final int shapePtSequence) {
+        return (ShapePoint) new ShapePoint.ShapePointBuilder(new ArrayList<>())
+                .shapeId(shapeId)
+                .shapePtLat(45f + shapePtSequence / 1000f)
+                .shapePtLon(-73.5f)
+                .shapePtSequence(shapePtSequence)
+                .shapeDistTraveled(shapePtSequence % 2 == 0 ? null : shapePtSequence * 2f)
+                .build()
+                .getData();
+    }
+
+    private static void assertStopTimeEquals(final StopTime expected, final StopTime actual) {
+        assertEquals(expected.getTripId(), actual.getTripId());
+        assertEquals(expected.getArrivalTime(), actual.getArrivalTime());
+        assertEquals(expected.getDepartureTime(), actual.getDepartureTime());
+        assertEquals(expected.getStopId(), actual.getStopId());
+        assertEquals(expected.getStopSequence(), actual.getStopSequence());
+        assertEquals(expected.getStopHeadsign(), actual.getStopHeadsign());
+        assertEquals(expected.getPickupType(), actual.getPickupType());
+        assertEquals(expected.getDropOffType(), actual.getDropOffType());
+        assertEquals(expected.getShapeDistTraveled(), actual.getShapeDistTraveled());
+        assertEquals(expected.getTimepoint(), actual.getTimepoint());
+    }
+
+    private static void addAndRetrieveRows(final OffHeapGtfsDataRepository underTest) {
+        for (int tripIndex = 0; tripIndex < 10; ++tripIndex) {
+            for (int stopSequence = 0; stopSequence < 100; ++stopSequence) {
+                assertNotNull(underTest.addStopTime(createStopTime("trip " + tripIndex, stopSequence)));
+            }
+        }
+        for (int shapePtSequence = 0; shapePtSequence < 500; ++shapePtSequence) {
+            assertNotNull(underTest.addShapePoint(createShapePoint("shape", shapePtSequence)));
+        }
+
+        assertEquals(1000, underTest.getStopTimeCount());
+        assertEquals(500, underTest.getShapePointCount());
+        for (int tripIndex = 0; tripIndex < 10; ++tripIndex) {
+            for (int stopSequence = 0; stopSequence < 100; ++stopSequence) {
+                assertStopTimeEquals(createStopTime("trip " + tripIndex, stopSequence),
+                        underTest.getStopTimeByTripIdAndStopSequence("trip " + tripIndex, stopSequence));
+            }
+        }
+        final ShapePoint shapePoint = underTest.getShapePointByShapeIdAndSequence("shape", 301);
+        assertEquals("shape", shapePoint.getShapeId());
+        assertEquals(45.301f, shapePoint.getShapePtLat());
+        assertEquals(-73.5f, shapePoint.getShapePtLon());
+        assertEquals(301, shapePoint.getShapePtSequence());
+        assertEquals(602f, shapePoint.getShapeDistTraveled());
+        assertNull(underTest.getShapePointByShapeIdAndSequence("shape", 300).getShapeDistTraveled());
+        assertNull(underTest.getShapePointByShapeIdAndSequence("shape", 500));
+        assertNull(underTest.getShapePointByShapeIdAndSequence("unknown shape", 1));
+        assertNull(underTest.getStopTimeByTripIdAndStopSequence("trip 0", 100));
+        assertNull(underTest.getStopTimeByTripIdAndStopSequence("unknown trip", 1));
+    }
+
+    @Test
+    void rowsHeldInDirectMemoryShouldBeRetrieved() throws IOException {
+        try (OffHeapGtfsDataRepository underTest = new OffHeapGtfsDataRepository(SEGMENT_SIZE)) {
+            addAndRetrieveRows(underTest);
+            assertTrue(underTest.getOffHeapByteCount() >= 1000 * 32 + 500 * 16);
+        }
+    }
+
+    @Test
+    void rowsHeldInMappedFilesShouldBeRetrievedAndFilesDeletedOnClose(@TempDir final Path tempDirectory)
+            throws IOException {
+        final OffHeapGtfsDataRepository underTest = new OffHeapGtfsDataRepository(SEGMENT_SIZE, tempDirectory);
+        try (Stream<Path> fileStream = Files.list(tempDirectory)) {
+            assertEquals(2, fileStream.count());
+        }
+
+        addAndRetrieveRows(underTest);
+        underTest.close();
+
+        try (Stream<Path> fileStream = Files.list(tempDirectory)) {
+            assertEquals(0, fileStream.count());
+        }
+    }
+
+    @Test
+    void addSameStopTimeTwiceShouldReturnNull() throws IOException {
+        try (OffHeapGtfsDataRepository underTest = new OffHeapGtfsDataRepository()) {
+            final StopTime stopTime = createStopTime("trip id", 1);
+
+            assertSame(stopTime, underTest.addStopTime(stopTime));
+            assertNull(underTest.addStopTime(createStopTime("trip id", 1)));
+            assertEquals(1, underTest.getStopTimeCount());
+        }
+    }
+
+    @Test
+    void addNullStopTimeOrShapePointShouldThrowIllegalArgumentException() throws IOException {
+        try (OffHeapGtfsDataRepository underTest = new OffHeapGtfsDataRepository()) {
+            //noinspection ConstantConditions
+            assertEquals("Cannot add null stop time to data repository",
+                    assertThrows(IllegalArgumentException.class, () -> underTest.addStopTime(null)).getMessage());
+            //noinspection ConstantConditions
+            assertEquals("Cannot add null shape point to data repository",
+                    assertThrows(IllegalArgumentException.class, () -> underTest.addShapePoint(null)).getMessage());
+        }
+    }
+
+    @Test
+    void agencyShouldBeHeldOnHeap() throws IOException {
+        try (OffHeapGtfsDataRepository underTest = new OffHeapGtfsDataRepository()) {
+            final Agency agency = (Agency) new Agency.AgencyBuilder(new ArrayList<>())
+                    .agencyId("agency id")
+                    .agencyName("agency name")
+                    .agencyUrl("https://example.com")
+                    .agencyTimezone("America/Montreal")
+                    .build()
+                    .getData();
+
+            assertSame(agency, underTest.addAgency(agency));
+            assertEquals("agency name", underTest.getAgencyById("agency id").getAgencyName());
+            assertEquals(0, underTest.getOffHeapByteCount());
+        }
+    }
+
+    @Test
+    void closedRepositoryShouldNotBeUsed() throws IOException {
+        final OffHeapGtfsDataRepository underTest = new OffHeapGtfsDataRepository();
+        underTest.addStopTime(createStopTime("trip id", 1));
+        underTest.close();
+        underTest.close();
+
+        // the memory of the records is released when the repository is closed
+        assertEquals(0, underTest.getOffHeapByteCount());
+        assertThrows(IllegalStateException.class, () -> underTest.getStopTimeByTripIdAndStopSequence("trip id", 1));
+        assertThrows(IllegalStateException.class, () -> underTest.addShapePoint(createShapePoint("shape", 1)));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.CannotUnzipInputArchiveNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.IntegerFieldValueOutOfRangeNotice;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StreamingValidationResultRepositoryTest {
+
+    @Test
+    void noticesShouldBeExportedAsTheyAreAdded(@TempDir Path tempDir) throws IOException {
+        final StreamingValidationResultRepository underTest =
+                new StreamingValidationResultRepository(mockExecParamRepo(tempDir));
+
+        underTest.addNotice(new CannotUnzipInputArchiveNotice("input.zip"));
+        for (int i = 0; i < 3; ++i) {
+            underTest.addNotice(new IntegerFieldValueOutOfRangeNotice("stop_times.txt", "stop_sequence",
+                    "entity" + i, i + 2, 0, 100, 101));
+        }
+        underTest.endStreamingExport();
+
+        assertTrue(underTest.isStreaming());
+        assertTrue(underTest.getAll().isEmpty());
+        assertEquals(Map.of("E008", 1L, "E010", 3L), underTest.getNoticeCountById());
+
+        final String results = Files.readString(tempDir.resolve("results.json"));
+        assertTrue(results.startsWith("{\"results\":[{"));
+        assertTrue(results.endsWith("}]}"));
+        assertTrue(results.indexOf("input.zip") < results.indexOf("entity0"));
+        assertTrue(results.indexOf("entity0") < results.indexOf("entity2"));
+    }
+
+    @Test
+    void exportShouldBeCompleteWithoutNotice(@TempDir Path tempDir) throws IOException {
+        final StreamingValidationResultRepository underTest =
+                new StreamingValidationResultRepository(mockExecParamRepo(tempDir));
+
+        underTest.endStreamingExport();
+
+        assertEquals("{\"results\":[]}", Files.readString(tempDir.resolve("results.json")));
+        assertTrue(underTest.getNoticeCountById().isEmpty());
+    }
+
+    private static ExecParamRepository mockExecParamRepo(final Path outputPath) {
+        final ExecParamRepository mockExecParamRepo = mock(ExecParamRepository.class);
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.OUTPUT_KEY)).thenReturn(outputPath.toString());
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.PROTO_KEY)).thenReturn("false");
+        return mockExecParamRepo;
+    }
+}
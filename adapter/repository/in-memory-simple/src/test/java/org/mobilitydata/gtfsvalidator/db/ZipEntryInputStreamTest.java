@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.db;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ZipEntryInputStreamTest {
+
+    private static final String TEST_FILENAME = "stop_times.txt";
+    private static final String TEST_CONTENT = "trip_id,stop_headsign,stop_sequence\n" +
+            "t1,\"multi\nline\",1\n" +
+            "t1,\"quoted \"\"quote\"\", and comma\",2\r\n" +
+            "t2,plain,3\n";
+
+    @Test
+    void archiveEntryShouldProvideSameRowsAsExtractedFile(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve(TEST_FILENAME), TEST_CONTENT, StandardCharsets.UTF_8);
+        Path zipPath = tempDir.resolve("input.zip");
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(zipPath))) {
+            zipOutputStream.putNextEntry(new ZipEntry(TEST_FILENAME));
+            zipOutputStream.write(TEST_CONTENT.getBytes(StandardCharsets.UTF_8));
+            zipOutputStream.closeEntry();
+        }
+        RawFileInfo extractedFileInfo = RawFileInfo.builder()
+                .filename(TEST_FILENAME)
+                .path(tempDir.toString())
+                .build();
+        RawFileInfo archiveEntryInfo = RawFileInfo.builder()
+                .filename(TEST_FILENAME)
+                .path(zipPath.toString())
+                .archiveEntry(true)
+                .build();
+        InMemoryRawFileRepository underTest = new InMemoryRawFileRepository();
+
+        List<Supplier<RawFileRepository.RawEntityProvider>> providerList =
+                underTest.getProviderChunkListForFile(archiveEntryInfo, 0, 1).orElseThrow();
+
+        assertEquals(1, providerList.size());
+        assertEquals(readAll(underTest.getProviderForFile(extractedFileInfo).orElseThrow()),
+                readAll(providerList.get(0).get()));
+        assertEquals(underTest.getActualHeadersForFile(extractedFileInfo),
+                underTest.getActualHeadersForFile(archiveEntryInfo));
+    }
+
+    @Test
+    void missingEntryShouldThrowException(@TempDir Path tempDir) throws IOException {
+        Path zipPath = tempDir.resolve("input.zip");
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(zipPath))) {
+            zipOutputStream.putNextEntry(new ZipEntry("stops.txt"));
+            zipOutputStream.closeEntry();
+        }
+
+        assertThrows(FileNotFoundException.class, () -> ZipEntryInputStream.open(RawFileInfo.builder()
+                .filename(TEST_FILENAME)
+                .path(zipPath.toString())
+                .archiveEntry(true)
+                .build()));
+    }
+
+    private static List<String> readAll(final RawFileRepository.RawEntityProvider provider) {
+        List<String> toReturn = new ArrayList<>();
+        while (provider.hasNext()) {
+            RawEntity rawEntity = provider.getNext();
+            toReturn.add(rawEntity.getIndex() + ":" + rawEntity.get("stop_headsign") + ":" +
+                    rawEntity.get("stop_sequence"));
+        }
+        return toReturn;
+    }
+}
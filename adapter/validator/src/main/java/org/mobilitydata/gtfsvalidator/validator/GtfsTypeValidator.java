@@ -22,6 +22,7 @@ import org.apache.commons.validator.routines.RegexValidator;
 import org.apache.commons.validator.routines.UrlValidator;
 import org.jetbrains.annotations.NotNull;
 import org.mobilitydata.gtfsvalidator.domain.entity.ParsedEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.ParsedEntitySchema;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.*;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonAsciiOrNonPrintableCharNotice;
@@ -31,20 +32,29 @@ import org.mobilitydata.gtfsvalidator.usecase.port.GtfsSpecRepository;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Currency;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Provides methods to validate the type of fields in a GTFS CSV file according to the theoretical type set in a
- * {@link GtfsSpecificationProto.CsvSpecProto}
+ * {@link GtfsSpecificationProto.CsvSpecProto}. The specification is compiled once, when the validator is created, into
+ * one check per column: validating an entity then runs those checks without reading the specification again. Columns
+ * that can hold any value and whose value is not required are not checked at all. Values of entities stored by type
+ * are checked through their typed accessors, without boxing, at positions resolved once per schema of the entities.
  */
 public class GtfsTypeValidator implements GtfsSpecRepository.ParsedEntityTypeValidator {
-    private final GtfsSpecificationProto.CsvSpecProto fileSchema;
     private final FloatValidator floatValidator;
     private final IntegerValidator integerValidator;
     private final UrlValidator urlValidator;
     private final RegexValidator colorValidator;
     private final RegexValidator timeValidator;
     private final Set<String> timezoneSet;
+    private final ColumnCheck[] columnChecks;
+    // the positions of the checked columns, resolved once per schema: each parser holds a schema shared by the
+    // entities it parses, and schemas are compared by identity
+    private final Map<ParsedEntitySchema, int[]> columnIndexesBySchema = new ConcurrentHashMap<>();
 
     /**
      * Private class method determining if a character is printable.
@@ -63,13 +73,63 @@ public class GtfsTypeValidator implements GtfsSpecRepository.ParsedEntityTypeVal
                              @NotNull RegexValidator colorValidator,
                              @NotNull RegexValidator timeValidator,
                              @NotNull Set<String> timezoneSet) {
-        this.fileSchema = fileSchema;
         this.floatValidator = floatValidator;
         this.integerValidator = integerValidator;
         this.urlValidator = urlValidator;
         this.colorValidator = colorValidator;
         this.timeValidator = timeValidator;
         this.timezoneSet = timezoneSet;
+        this.columnChecks = compile(fileSchema);
+    }
+
+    /**
+     * Creates the checks of the columns of a GTFS CSV file, in the order columns are specified
+     *
+     * @param fileSchema the specification of the file
+     * @return the checks of the columns of the file that require any
+     */
+    private ColumnCheck[] compile(final GtfsSpecificationProto.CsvSpecProto fileSchema) {
+        final List<ColumnCheck> checks = new ArrayList<>();
+        final List<GtfsSpecificationProto.ColumnSpecProto> columnList = fileSchema.getColumnList();
+        for (int column = 0; column < columnList.size(); ++column) {
+            final GtfsSpecificationProto.ColumnSpecProto columnSpecProto = columnList.get(column);
+            final String name = columnSpecProto.getName();
+            final boolean valueRequired = columnSpecProto.getValueRequired();
+            switch (columnSpecProto.getType().getType()) {
+                case FLOAT:
+                    checks.add(new FloatColumnCheck(name, column, valueRequired, columnSpecProto.getFloatmin(),
+                            columnSpecProto.getFloatmax()));
+                    break;
+                case INTEGER:
+                    checks.add(new IntegerColumnCheck(name, column, valueRequired, columnSpecProto.getIntmin(),
+                            columnSpecProto.getIntmax()));
+                    break;
+                case COLOR:
+                    checks.add(new ColorColumnCheck(name, column, valueRequired));
+                    break;
+                case TIMEZONE:
+                    checks.add(new TimezoneColumnCheck(name, column, valueRequired));
+                    break;
+                case ID:
+                    checks.add(new IdColumnCheck(name, column, valueRequired));
+                    break;
+                case URL:
+                    checks.add(new UrlColumnCheck(name, column, valueRequired));
+                    break;
+                case TIME:
+                    checks.add(new TimeColumnCheck(name, column, valueRequired));
+                    break;
+                case CURRENCY_CODE:
+                    checks.add(new CurrencyCodeColumnCheck(name, column, valueRequired));
+                    break;
+                default: // Text is default and, as dates, does not require validation
+                    if (valueRequired) {
+                        checks.add(new ColumnCheck(name, column, true));
+                    }
+                    break;
+            }
+        }
+        return checks.toArray(new ColumnCheck[0]);
     }
 
     /**
@@ -80,143 +140,366 @@ public class GtfsTypeValidator implements GtfsSpecRepository.ParsedEntityTypeVal
      * @param toValidate the parsed entity undergoing the operation
      * @return a collection of {@link Notice} containing information about the validation process
      */
-    @SuppressWarnings("ConstantConditions")
     @Override
     public Collection<Notice> validate(ParsedEntity toValidate) {
         Collection<Notice> toReturn = new ArrayList<>();
+        final ParsedEntitySchema schema = toValidate.getSchema();
 
-        fileSchema.getColumnList().forEach(columnSpecProto -> {
-
-            Object value = toValidate.get(columnSpecProto.getName());
-
-            if (value != null &&
-                    (!(value instanceof String) || !((String) value).isEmpty())) {
-                switch (columnSpecProto.getType().getType()) {
-                    case INPUT_TYPE_UNSPECIFIED: // Text is default and does not require validation
-                    case TEXT:
-                    case DATE: //no special validation
-                        break;
-                    case FLOAT: {
-                        if (!floatValidator.isInRange(
-                                (Float) value,
-                                columnSpecProto.getFloatmin(),
-                                columnSpecProto.getFloatmax())) {
-
-                            toReturn.add(new FloatFieldValueOutOfRangeNotice(
-                                    toValidate.getRawFileInfo().getFilename(),
-                                    columnSpecProto.getName(),
-                                    toValidate.getEntityId(),
-                                    columnSpecProto.getFloatmin(),
-                                    columnSpecProto.getFloatmax(),
-                                    (Float) value
-                            ));
-                        }
-                        break;
-                    }
-                    case INTEGER: {
-                        if (!integerValidator.isInRange(
-                                (Integer) value,
-                                columnSpecProto.getIntmin(),
-                                columnSpecProto.getIntmax())) {
-
-                            toReturn.add(new IntegerFieldValueOutOfRangeNotice(
-                                    toValidate.getRawFileInfo().getFilename(),
-                                    columnSpecProto.getName(),
-                                    toValidate.getEntityId(),
-                                    columnSpecProto.getIntmin(),
-                                    columnSpecProto.getIntmax(),
-                                    (Integer) value
-                            ));
-                        }
-                        break;
-                    }
-                    case COLOR: {  //Color
-                        if (!colorValidator.isValid((String) value)) {
-                            toReturn.add(new InvalidColorNotice(
-                                    toValidate.getRawFileInfo().getFilename(),
-                                    columnSpecProto.getName(),
-                                    toValidate.getEntityId(),
-                                    (String) value
-                            ));
-                        }
-                        break;
-                    }
-                    case TIMEZONE: {
-
-                        //noinspection RedundantCast
-                        if (!timezoneSet.contains((String) value)) {
-                            toReturn.add(new InvalidTimezoneNotice(
-                                    toValidate.getRawFileInfo().getFilename(),
-                                    columnSpecProto.getName(),
-                                    toValidate.getEntityId(),
-                                    (String) value
-                            ));
-                        }
-                        break;
-                    }
-                    case ID: {
-                        String stringValue = (String) value;
-                        int charCount = stringValue.length();
-                        for (int i = 0; i < charCount; ++i) {
-                            if (!isPrintableAscii(stringValue.charAt(i))) {
-                                toReturn.add(new NonAsciiOrNonPrintableCharNotice(
-                                        toValidate.getRawFileInfo().getFilename(),
-                                        columnSpecProto.getName(),
-                                        toValidate.getEntityId(),
-                                        stringValue
-                                ));
-                                break;
-                            }
-                        }
-                        break;
-                    }
-                    case URL: {
-                        if (!urlValidator.isValid((String) value)) {
-                            toReturn.add(new InvalidUrlNotice(
-                                    toValidate.getRawFileInfo().getFilename(),
-                                    columnSpecProto.getName(),
-                                    toValidate.getEntityId(),
-                                    (String) value
-                            ));
-                        }
-                        break;
-                    }
-                    case TIME: {
-                        if (!timeValidator.isValid((String) value)) {
-                            toReturn.add(new InvalidTimeNotice(
-                                    toValidate.getRawFileInfo().getFilename(),
-                                    columnSpecProto.getName(),
-                                    toValidate.getEntityId(),
-                                    (String) value
-                            ));
-                        }
-                        break;
-                    }
-                    case CURRENCY_CODE: {
-                        try {
-                            Currency.getInstance((String) value);
-                        } catch (IllegalArgumentException e) {
-                            toReturn.add(new InvalidCurrencyCodeNotice(
-                                    toValidate.getRawFileInfo().getFilename(),
-                                    columnSpecProto.getName(),
-                                    toValidate.getEntityId(),
-                                    (String) value
-                            ));
-                        }
-                        break;
-                    }
+        final int[] columnIndexes = schema == null ? null : resolveColumnIndexes(schema);
+
+        for (int i = 0; i < columnChecks.length; ++i) {
+            final ColumnCheck columnCheck = columnChecks[i];
+            final int columnIndex = columnIndexes == null ? -1 : columnIndexes[i];
+
+            if (columnIndex >= 0) {
+                if (!toValidate.isNull(columnIndex) &&
+                        (schema.getValueType(columnIndex) != ParsedEntitySchema.ValueType.STRING ||
+                                !toValidate.getString(columnIndex).isEmpty())) {
+                    columnCheck.validateColumn(toValidate, columnIndex, toReturn);
+                    continue;
+                }
+            } else {
+                Object value = toValidate.get(columnCheck.name);
+
+                if (value != null &&
+                        (!(value instanceof String) || !((String) value).isEmpty())) {
+                    columnCheck.validateValue(value, toValidate, toReturn);
+                    continue;
                 }
-            } else {    //value is null or an empty string
-                if (columnSpecProto.getValueRequired()) {
-                    toReturn.add(new MissingRequiredValueNotice(
+            }
+            if (columnCheck.valueRequired) {    //value is null or an empty string
+                toReturn.add(new MissingRequiredValueNotice(
+                        toValidate.getRawFileInfo().getFilename(),
+                        columnCheck.name,
+                        toValidate.getEntityId(),
+                        toValidate.getLineNumber()
+                ));
+            }
+        }
+
+        return toReturn;
+    }
+
+    /**
+     * Returns the positions of the checked columns in a schema, resolving them the first time the schema is met
+     *
+     * @param schema the schema of the entity to validate
+     * @return the position of the column of each check in {@code schema}, -1 for the checks whose values can not be
+     * read with typed accessors
+     */
+    private int[] resolveColumnIndexes(final ParsedEntitySchema schema) {
+        final int[] columnIndexes = columnIndexesBySchema.get(schema);
+        if (columnIndexes != null) {
+            return columnIndexes;
+        }
+        return columnIndexesBySchema.computeIfAbsent(schema, key -> {
+            final int[] resolvedColumnIndexes = new int[columnChecks.length];
+            for (int i = 0; i < columnChecks.length; ++i) {
+                resolvedColumnIndexes[i] = columnChecks[i].resolveIndex(key);
+            }
+            return resolvedColumnIndexes;
+        });
+    }
+
+    /**
+     * Checks the value of a column of a {@link ParsedEntity}. The base check only requires a value if the column is
+     * marked as required, any value being valid.
+     */
+    private static class ColumnCheck {
+        final String name;
+        final boolean valueRequired;
+        // the position of the column in the specification, which parsed schemas follow
+        private final int column;
+
+        ColumnCheck(final String name, final int column, final boolean valueRequired) {
+            this.name = name;
+            this.column = column;
+            this.valueRequired = valueRequired;
+        }
+
+        /**
+         * Returns the type of the values this check reads with typed accessors, null if any type is accepted
+         *
+         * @return the type of the values this check reads with typed accessors, null if any type is accepted
+         */
+        ParsedEntitySchema.ValueType getValueType() {
+            return null;
+        }
+
+        /**
+         * Returns the position of the checked column in a schema, or -1 if its values can not be read with the typed
+         * accessors of this check
+         *
+         * @param schema the schema of the entity to validate
+         * @return the position of the checked column in {@code schema}, or -1 if its values can not be read with the
+         * typed accessors of this check
+         */
+        final int resolveIndex(final ParsedEntitySchema schema) {
+            final int columnIndex = column < schema.size() && name.equals(schema.getHeaderList().get(column)) ?
+                    column :
+                    schema.getIndex(name);
+            return columnIndex >= 0 &&
+                    (getValueType() == null || schema.getValueType(columnIndex) == getValueType()) ?
+                    columnIndex :
+                    -1;
+        }
+
+        /**
+         * Checks a value stored by type, the entity having a value that is not an empty string at the given position
+         *
+         * @param toValidate  the entity holding the value
+         * @param columnIndex the position of the value in the schema of the entity
+         * @param toReturn    the collection of notices to add a notice to if the value is invalid
+         */
+        void validateColumn(final ParsedEntity toValidate, final int columnIndex, final Collection<Notice> toReturn) {
+        }
+
+        /**
+         * Checks a value that is neither null nor empty
+         *
+         * @param value      the value to check
+         * @param toValidate the entity holding the value
+         * @param toReturn   the collection of notices to add a notice to if the value is invalid
+         */
+        void validateValue(final Object value, final ParsedEntity toValidate, final Collection<Notice> toReturn) {
+        }
+    }
+
+    private class FloatColumnCheck extends ColumnCheck {
+        private final float min;
+        private final float max;
+
+        FloatColumnCheck(final String name, final int column, final boolean valueRequired, final float min,
+                         final float max) {
+            super(name, column, valueRequired);
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        ParsedEntitySchema.ValueType getValueType() {
+            return ParsedEntitySchema.ValueType.FLOAT;
+        }
+
+        @Override
+        void validateColumn(final ParsedEntity toValidate, final int columnIndex, final Collection<Notice> toReturn) {
+            final float value = toValidate.getFloat(columnIndex);
+            if (!floatValidator.isInRange(value, min, max)) {
+                addOutOfRangeNotice(value, toValidate, toReturn);
+            }
+        }
+
+        @Override
+        void validateValue(final Object value, final ParsedEntity toValidate, final Collection<Notice> toReturn) {
+            if (!floatValidator.isInRange((Float) value, min, max)) {
+                addOutOfRangeNotice((Float) value, toValidate, toReturn);
+            }
+        }
+
+        private void addOutOfRangeNotice(final float value, final ParsedEntity toValidate,
+                                         final Collection<Notice> toReturn) {
+            toReturn.add(new FloatFieldValueOutOfRangeNotice(
+                    toValidate.getRawFileInfo().getFilename(),
+                    name,
+                    toValidate.getEntityId(),
+                    toValidate.getLineNumber(),
+                    min,
+                    max,
+                    value
+            ));
+        }
+    }
+
+    private class IntegerColumnCheck extends ColumnCheck {
+        private final int min;
+        private final int max;
+
+        IntegerColumnCheck(final String name, final int column, final boolean valueRequired, final int min,
+                           final int max) {
+            super(name, column, valueRequired);
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        ParsedEntitySchema.ValueType getValueType() {
+            return ParsedEntitySchema.ValueType.INTEGER;
+        }
+
+        @Override
+        void validateColumn(final ParsedEntity toValidate, final int columnIndex, final Collection<Notice> toReturn) {
+            final int value = toValidate.getInt(columnIndex);
+            if (!integerValidator.isInRange(value, min, max)) {
+                addOutOfRangeNotice(value, toValidate, toReturn);
+            }
+        }
+
+        @Override
+        void validateValue(final Object value, final ParsedEntity toValidate, final Collection<Notice> toReturn) {
+            if (!integerValidator.isInRange((Integer) value, min, max)) {
+                addOutOfRangeNotice((Integer) value, toValidate, toReturn);
+            }
+        }
+
+        private void addOutOfRangeNotice(final int value, final ParsedEntity toValidate,
+                                         final Collection<Notice> toReturn) {
+            toReturn.add(new IntegerFieldValueOutOfRangeNotice(
+                    toValidate.getRawFileInfo().getFilename(),
+                    name,
+                    toValidate.getEntityId(),
+                    toValidate.getLineNumber(),
+                    min,
+                    max,
+                    value
+            ));
+        }
+    }
+
+    /**
+     * Checks the value of a column holding strings
+     */
+    private abstract static class StringColumnCheck extends ColumnCheck {
+
+        StringColumnCheck(final String name, final int column, final boolean valueRequired) {
+            super(name, column, valueRequired);
+        }
+
+        @Override
+        ParsedEntitySchema.ValueType getValueType() {
+            return ParsedEntitySchema.ValueType.STRING;
+        }
+
+        @Override
+        void validateColumn(final ParsedEntity toValidate, final int columnIndex, final Collection<Notice> toReturn) {
+            validateValue(toValidate.getString(columnIndex), toValidate, toReturn);
+        }
+    }
+
+    private class ColorColumnCheck extends StringColumnCheck {
+
+        ColorColumnCheck(final String name, final int column, final boolean valueRequired) {
+            super(name, column, valueRequired);
+        }
+
+        @Override
+        void validateValue(final Object value, final ParsedEntity toValidate, final Collection<Notice> toReturn) {
+            if (!colorValidator.isValid((String) value)) {
+                toReturn.add(new InvalidColorNotice(
+                        toValidate.getRawFileInfo().getFilename(),
+                        name,
+                        toValidate.getEntityId(),
+                        toValidate.getLineNumber(),
+                        (String) value
+                ));
+            }
+        }
+    }
+
+    private class TimezoneColumnCheck extends StringColumnCheck {
+
+        TimezoneColumnCheck(final String name, final int column, final boolean valueRequired) {
+            super(name, column, valueRequired);
+        }
+
+        @Override
+        void validateValue(final Object value, final ParsedEntity toValidate, final Collection<Notice> toReturn) {
+            //noinspection RedundantCast
+            if (!timezoneSet.contains((String) value)) {
+                toReturn.add(new InvalidTimezoneNotice(
+                        toValidate.getRawFileInfo().getFilename(),
+                        name,
+                        toValidate.getEntityId(),
+                        toValidate.getLineNumber(),
+                        (String) value
+                ));
+            }
+        }
+    }
+
+    private static class IdColumnCheck extends StringColumnCheck {
+
+        IdColumnCheck(final String name, final int column, final boolean valueRequired) {
+            super(name, column, valueRequired);
+        }
+
+        @Override
+        void validateValue(final Object value, final ParsedEntity toValidate, final Collection<Notice> toReturn) {
+            String stringValue = (String) value;
+            int charCount = stringValue.length();
+            for (int i = 0; i < charCount; ++i) {
+                if (!isPrintableAscii(stringValue.charAt(i))) {
+                    toReturn.add(new NonAsciiOrNonPrintableCharNotice(
                             toValidate.getRawFileInfo().getFilename(),
-                            columnSpecProto.getName(),
-                            toValidate.getEntityId()
+                            name,
+                            toValidate.getEntityId(),
+                            toValidate.getLineNumber(),
+                            stringValue
                     ));
+                    break;
                 }
             }
-        });
+        }
+    }
 
-        return toReturn;
+    private class UrlColumnCheck extends StringColumnCheck {
+
+        UrlColumnCheck(final String name, final int column, final boolean valueRequired) {
+            super(name, column, valueRequired);
+        }
+
+        @Override
+        void validateValue(final Object value, final ParsedEntity toValidate, final Collection<Notice> toReturn) {
+            if (!urlValidator.isValid((String) value)) {
+                toReturn.add(new InvalidUrlNotice(
+                        toValidate.getRawFileInfo().getFilename(),
+                        name,
+                        toValidate.getEntityId(),
+                        toValidate.getLineNumber(),
+                        (String) value
+                ));
+            }
+        }
+    }
+
+    private class TimeColumnCheck extends StringColumnCheck {
+
+        TimeColumnCheck(final String name, final int column, final boolean valueRequired) {
+            super(name, column, valueRequired);
+        }
+
+        @Override
+        void validateValue(final Object value, final ParsedEntity toValidate, final Collection<Notice> toReturn) {
+            if (!timeValidator.isValid((String) value)) {
+                toReturn.add(new InvalidTimeNotice(
+                        toValidate.getRawFileInfo().getFilename(),
+                        name,
+                        toValidate.getEntityId(),
+                        toValidate.getLineNumber(),
+                        (String) value
+                ));
+            }
+        }
+    }
+
+    private static class CurrencyCodeColumnCheck extends StringColumnCheck {
+
+        CurrencyCodeColumnCheck(final String name, final int column, final boolean valueRequired) {
+            super(name, column, valueRequired);
+        }
+
+        @Override
+        void validateValue(final Object value, final ParsedEntity toValidate, final Collection<Notice> toReturn) {
+            try {
+                Currency.getInstance((String) value);
+            } catch (IllegalArgumentException e) {
+                toReturn.add(new InvalidCurrencyCodeNotice(
+                        toValidate.getRawFileInfo().getFilename(),
+                        name,
+                        toValidate.getEntityId(),
+                        toValidate.getLineNumber(),
+                        (String) value
+                ));
+            }
+        }
     }
-}
\ No newline at end of file
+}
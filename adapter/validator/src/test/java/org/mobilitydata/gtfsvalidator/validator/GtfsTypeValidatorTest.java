@@ -22,6 +22,7 @@ import org.apache.commons.validator.routines.RegexValidator;
 import org.apache.commons.validator.routines.UrlValidator;
 import org.junit.jupiter.api.Test;
 import org.mobilitydata.gtfsvalidator.domain.entity.ParsedEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.ParsedEntitySchema;
 import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.*;
@@ -1187,4 +1188,162 @@ class GtfsTypeValidatorTest {
 
         assertEquals(0, result.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void specificationShouldBeReadOnceForAllEntities() {
+        FloatValidator mockFloatValidator = mock(FloatValidator.class);
+        when(mockFloatValidator.isInRange(ArgumentMatchers.any(Float.class), ArgumentMatchers.eq(-6.66f),
+                ArgumentMatchers.eq(66.6f))).thenReturn(true);
+
+        GtfsSpecificationProto.CsvSpecProto mockFileSpec = mock(GtfsSpecificationProto.CsvSpecProto.class);
+        GtfsSpecificationProto.ColumnSpecProto mockColumnSpec = mock(GtfsSpecificationProto.ColumnSpecProto.class);
+        when(mockColumnSpec.getName()).thenReturn("float_with_range");
+        when(mockColumnSpec.getFloatmin()).thenReturn(-6.66f);
+        when(mockColumnSpec.getFloatmax()).thenReturn(66.6f);
+
+        GtfsSpecificationProto.ColumnInputType mockInputType = mock(GtfsSpecificationProto.ColumnInputType.class);
+        when(mockInputType.getType()).thenReturn(GtfsSpecificationProto.ColumnInputType.InputType.FLOAT);
+
+        when(mockColumnSpec.getType()).thenReturn(mockInputType);
+        when(mockFileSpec.getColumnList()).thenReturn(List.of(mockColumnSpec));
+
+        GtfsTypeValidator underTest = new GtfsTypeValidator(mockFileSpec,
+                mockFloatValidator,
+                mock(IntegerValidator.class),
+                mock(UrlValidator.class),
+                mock(RegexValidator.class),
+                mock(RegexValidator.class),
+                Collections.emptySet()
+        );
+
+        for (int i = 0; i < 3; ++i) {
+            Collection<Notice> result = underTest.validate(new ParsedEntity(
+                    TEST_ID + i,
+                    Map.of("float_with_range", (float) i),
+                    new RawFileInfo.RawFileInfoBuilder().filename(TEST_FILE_TST).build()
+            ));
+            assertEquals(0, result.size());
+        }
+
+        verify(mockFileSpec, times(1)).getColumnList();
+        verify(mockColumnSpec, times(1)).getName();
+        verify(mockColumnSpec, times(1)).getFloatmin();
+        verify(mockColumnSpec, times(1)).getFloatmax();
+        verify(mockFloatValidator, times(3)).isInRange(ArgumentMatchers.any(Float.class),
+                ArgumentMatchers.eq(-6.66f), ArgumentMatchers.eq(66.6f));
+    }
+
+    @Test
+    void valuesStoredByTypeShouldBeValidatedWithoutBoxing() {
+        FloatValidator mockFloatValidator = mock(FloatValidator.class);
+        when(mockFloatValidator.isInRange(ArgumentMatchers.eq(66.7f),
+                ArgumentMatchers.eq(-6.66f),
+                ArgumentMatchers.eq(66.6f))).thenReturn(false);
+
+        GtfsSpecificationProto.CsvSpecProto mockFileSpec = mock(GtfsSpecificationProto.CsvSpecProto.class);
+        GtfsSpecificationProto.ColumnSpecProto mockFloatColumnSpec =
+                mock(GtfsSpecificationProto.ColumnSpecProto.class);
+        when(mockFloatColumnSpec.getName()).thenReturn("float_with_range");
+        when(mockFloatColumnSpec.getFloatmin()).thenReturn(-6.66f);
+        when(mockFloatColumnSpec.getFloatmax()).thenReturn(66.6f);
+        GtfsSpecificationProto.ColumnInputType mockFloatInputType =
+                mock(GtfsSpecificationProto.ColumnInputType.class);
+        when(mockFloatInputType.getType()).thenReturn(GtfsSpecificationProto.ColumnInputType.InputType.FLOAT);
+        when(mockFloatColumnSpec.getType()).thenReturn(mockFloatInputType);
+
+        GtfsSpecificationProto.ColumnSpecProto mockTextColumnSpec = mock(GtfsSpecificationProto.ColumnSpecProto.class);
+        when(mockTextColumnSpec.getName()).thenReturn("required_text");
+        when(mockTextColumnSpec.getValueRequired()).thenReturn(true);
+        GtfsSpecificationProto.ColumnInputType mockTextInputType =
+                mock(GtfsSpecificationProto.ColumnInputType.class);
+        when(mockTextInputType.getType()).thenReturn(GtfsSpecificationProto.ColumnInputType.InputType.TEXT);
+        when(mockTextColumnSpec.getType()).thenReturn(mockTextInputType);
+
+        when(mockFileSpec.getColumnList()).thenReturn(List.of(mockFloatColumnSpec, mockTextColumnSpec));
+
+        GtfsTypeValidator underTest = new GtfsTypeValidator(mockFileSpec,
+                mockFloatValidator,
+                mock(IntegerValidator.class),
+                mock(UrlValidator.class),
+                mock(RegexValidator.class),
+                mock(RegexValidator.class),
+                Collections.emptySet()
+        );
+
+        ParsedEntitySchema schema = new ParsedEntitySchema(List.of("float_with_range", "required_text"),
+                List.of(ParsedEntitySchema.ValueType.FLOAT, ParsedEntitySchema.ValueType.STRING));
+        Collection<Notice> result = underTest.validate(new ParsedEntity.ParsedEntityBuilder(schema,
+                new RawFileInfo.RawFileInfoBuilder().filename(TEST_FILE_TST).build())
+                .entityId(TEST_ID)
+                .lineNumber(5)
+                .floatValue(0, 66.7f)
+                .build());
+
+        assertEquals(2, result.size());
+
+        List<Notice> noticeList = new ArrayList<>(result);
+        assertThat(noticeList.get(0), instanceOf(FloatFieldValueOutOfRangeNotice.class));
+        assertEquals("Invalid value for field:float_with_range of entity with id:test_id -- " +
+                        "min:-6.66 max:66.6 actual:66.7",
+                noticeList.get(0).getDescription());
+        assertEquals(5, ((FloatFieldValueOutOfRangeNotice) noticeList.get(0)).getLineNumber());
+        assertThat(noticeList.get(1), instanceOf(MissingRequiredValueNotice.class));
+        assertEquals(TEST_FILE_TST, noticeList.get(1).getFilename());
+        assertEquals(5, ((MissingRequiredValueNotice) noticeList.get(1)).getLineNumber());
+
+        verify(mockFloatValidator, times(1)).isInRange(66.7f, -6.66f, 66.6f);
+        verifyNoMoreInteractions(mockFloatValidator);
+    }
+
+    @Test
+    void columnPositionsShouldBeResolvedOncePerSchema() {
+        GtfsSpecificationProto.CsvSpecProto mockFileSpec = mock(GtfsSpecificationProto.CsvSpecProto.class);
+        GtfsSpecificationProto.ColumnSpecProto mockFloatColumnSpec =
+                mock(GtfsSpecificationProto.ColumnSpecProto.class);
+        when(mockFloatColumnSpec.getName()).thenReturn("float_with_range");
+        GtfsSpecificationProto.ColumnInputType mockFloatInputType =
+                mock(GtfsSpecificationProto.ColumnInputType.class);
+        when(mockFloatInputType.getType()).thenReturn(GtfsSpecificationProto.ColumnInputType.InputType.FLOAT);
+        when(mockFloatColumnSpec.getType()).thenReturn(mockFloatInputType);
+
+        GtfsSpecificationProto.ColumnSpecProto mockTextColumnSpec = mock(GtfsSpecificationProto.ColumnSpecProto.class);
+        when(mockTextColumnSpec.getName()).thenReturn("required_text");
+        when(mockTextColumnSpec.getValueRequired()).thenReturn(true);
+        GtfsSpecificationProto.ColumnInputType mockTextInputType =
+                mock(GtfsSpecificationProto.ColumnInputType.class);
+        when(mockTextInputType.getType()).thenReturn(GtfsSpecificationProto.ColumnInputType.InputType.TEXT);
+        when(mockTextColumnSpec.getType()).thenReturn(mockTextInputType);
+
+        when(mockFileSpec.getColumnList()).thenReturn(List.of(mockFloatColumnSpec, mockTextColumnSpec));
+
+        FloatValidator mockFloatValidator = mock(FloatValidator.class);
+        when(mockFloatValidator.isInRange(ArgumentMatchers.eq(1.5f),
+                ArgumentMatchers.eq(0f),
+                ArgumentMatchers.eq(0f))).thenReturn(true);
+
+        GtfsTypeValidator underTest = new GtfsTypeValidator(mockFileSpec,
+                mockFloatValidator,
+                mock(IntegerValidator.class),
+                mock(UrlValidator.class),
+                mock(RegexValidator.class),
+                mock(RegexValidator.class),
+                Collections.emptySet()
+        );
+
+        ParsedEntitySchema spySchema = spy(new ParsedEntitySchema(List.of("float_with_range", "required_text"),
+                List.of(ParsedEntitySchema.ValueType.FLOAT, ParsedEntitySchema.ValueType.STRING)));
+        for (int i = 0; i < 3; ++i) {
+            Collection<Notice> result = underTest.validate(new ParsedEntity.ParsedEntityBuilder(spySchema,
+                    new RawFileInfo.RawFileInfoBuilder().filename(TEST_FILE_TST).build())
+                    .entityId(TEST_ID)
+                    .floatValue(0, 1.5f)
+                    .stringValue(1, "text")
+                    .build());
+
+            assertEquals(0, result.size());
+        }
+
+        // one lookup per checked column, for the first entity only
+        verify(spySchema, times(2)).getHeaderList();
+    }
+}
@@ -19,12 +19,14 @@ package org.mobilitydata.gtfsvalidator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.mobilitydata.gtfsvalidator.config.DefaultConfig;
-import org.mobilitydata.gtfsvalidator.usecase.ParseSingleRowForFile;
+import org.mobilitydata.gtfsvalidator.usecase.LogProgress;
+import org.mobilitydata.gtfsvalidator.usecase.RecordFlightData;
 import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.concurrent.*;
 
 public class Main {
 
@@ -35,7 +37,12 @@ public class Main {
         final DefaultConfig config = new DefaultConfig(logger);
 
         try {
-            config.parseAllExecutionParameter().execute(args);
+            try {
+                config.parseAllExecutionParameter().execute(args);
+            } catch (IllegalArgumentException e) {
+                logger.error("Invalid execution parameters: " + e.getMessage());
+                System.exit(1);
+            }
 
             // use case will inspect parameters and decide if help menu should be displayed or not
             if (!config.printHelp().execute()) {
@@ -43,31 +50,95 @@ public class Main {
                 // use case will inspect parameters and display relevant information about the validation execution process
                 config.logExecutionInfo().execute();
 
-                // use case will inspect parameters and decide if GTFS dataset should be downloaded or not
-                config.downloadArchiveFromNetwork().execute();
-
-                config.unzipInputArchive(
-                        config.cleanOrCreatePath().execute(ExecParamRepository.EXTRACT_KEY))
-                        .execute();
-
-                final List<String> filenameList = config.validateAllRequiredFilePresence().execute();
-
-                filenameList.addAll(config.validateAllOptionalFileName().execute());
-
-                // base validation
-                filenameList.forEach(filename -> {
-                    config.validateHeadersForFile(filename).execute();
-                    config.validateAllRowLengthForFile(filename).execute();
-
-                    ParseSingleRowForFile parseSingleRowForFile = config.parseSingleRowForFile(filename);
-                    while (parseSingleRowForFile.hasNext()) {
-                        config.validateGtfsTypes().execute(parseSingleRowForFile.execute());
+                // use case will inspect parameters and decide if the validation should be recorded by the flight
+                // recorder or not. The recording and the progress log are stopped whether the validation succeeds or
+                // fails.
+                final RecordFlightData recordFlightData = config.recordFlightData();
+                final LogProgress logProgress = config.logProgress();
+                recordFlightData.execute();
+                boolean isValidated = false;
+                try {
+                    // the output directory is prepared first, as notices can be exported as soon as they are found
+                    config.cleanOrCreatePath().execute(ExecParamRepository.OUTPUT_KEY);
+
+                    // use case will inspect parameters and decide if GTFS dataset should be downloaded or not
+                    config.downloadArchiveFromNetwork().execute();
+
+                    // progress of the validation is logged periodically by a daemon thread until results are exported
+                    logProgress.execute();
+
+                    // files are independent from each other, they are validated in parallel by the pool that also
+                    // extracts entries and reads the ranges of large files
+                    final ExecutorService executorService = config.getWorkerPool();
+                    final Map<String, Future<?>> futureByFilename = new ConcurrentHashMap<>();
+                    boolean isEveryFileValidated = false;
+
+                    try {
+                        // without extraction, files are read from the archive and the extract directory is not
+                        // needed
+                        final boolean isExtracted =
+                                !Boolean.parseBoolean(config.getExecParamValue(ExecParamRepository.NO_EXTRACT_KEY));
+                        config.unzipInputArchive(isExtracted
+                                ? config.cleanOrCreatePath().execute(ExecParamRepository.EXTRACT_KEY)
+                                : null)
+                                .execute(fileInfo -> {
+                                    if (config.isSpecFile(fileInfo.getFilename())) {
+                                        logProgress.expectFile(fileInfo.getFilename());
+                                    }
+                                    // with a pool, a file is validated as soon as it is extracted, while larger
+                                    // files are still being extracted
+                                    if (executorService != null && config.isSpecFile(fileInfo.getFilename())) {
+                                        futureByFilename.put(fileInfo.getFilename(), executorService.submit(() ->
+                                                config.parseAndValidateAllRowsForFile(fileInfo.getFilename())
+                                                        .execute()));
+                                    }
+                                });
+
+                        final List<String> filenameList = config.validateAllRequiredFilePresence().execute();
+
+                        filenameList.addAll(config.validateAllOptionalFileName().execute());
+
+                        // base validation, per file
+                        if (executorService != null) {
+                            filenameList.forEach(filename -> futureByFilename.computeIfAbsent(filename,
+                                    key -> executorService.submit(
+                                            () -> config.parseAndValidateAllRowsForFile(filename).execute())));
+                            for (String filename : filenameList) {
+                                try {
+                                    futureByFilename.get(filename).get();
+                                } catch (ExecutionException e) {
+                                    // a file fails the same way whether it is validated by the pool or sequentially
+                                    throw unwrap(e);
+                                }
+                            }
+                        } else {
+                            filenameList.forEach(
+                                    filename -> config.parseAndValidateAllRowsForFile(filename).execute());
+                        }
+                        isEveryFileValidated = true;
+                    } finally {
+                        if (!isEveryFileValidated) {
+                            // the run failed: files still queued are dropped and files being validated are
+                            // interrupted
+                            futureByFilename.values().forEach(future -> future.cancel(true));
+                        }
                     }
-                });
-
-                config.cleanOrCreatePath().execute(ExecParamRepository.OUTPUT_KEY);
 
-                config.exportResultAsFile().execute();
+                    // keys are checked once all files are validated: unique values in each file, then references
+                    // between files
+                    config.validateAllUniqueValues().execute();
+                    config.validateAllForeignKeys().execute();
+                    config.exportResultAsFile().execute();
+                    // metrics of each stage are written next to the results, as json and in the Prometheus text
+                    // format
+                    config.exportMetricsAsFile().execute();
+                    isValidated = true;
+                } finally {
+                    // the pool threads do not outlive the run, whether it succeeds or fails
+                    config.shutdownWorkerPool(!isValidated);
+                    logProgress.close();
+                    recordFlightData.close();
+                }
             }
 
         } catch (IOException e) {
@@ -76,7 +147,25 @@ public class Main {
             } else {
                 logger.error("An exception occurred: " + e);
             }
+        } catch (InterruptedException e) {
+            logger.error("An exception occurred during the validation of files: " + e);
         }
         logger.info("Took " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + "ms");
     }
+
+    /**
+     * Returns the cause of the failure of a task, to be rethrown as is if unchecked. Errors are thrown right away.
+     *
+     * @param e the exception thrown when getting the result of the task
+     * @return the unchecked cause of the failure, or an {@link IllegalStateException} wrapping a checked one
+     */
+    private static RuntimeException unwrap(final ExecutionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return cause instanceof RuntimeException
+                ? (RuntimeException) cause
+                : new IllegalStateException("Validation of a file failed", cause);
+    }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.generator;
+
+/**
+ * A kind of error injected in generated feeds, along with the code of the notice the validator is expected to report
+ * for it.
+ */
+public enum ErrorKind {
+    /**
+     * A value that is not a number in a FLOAT column whose value is optional, reported as E006
+     */
+    BAD_FLOAT("E006"),
+    /**
+     * A value out of the range of an INTEGER column, reported as E010
+     */
+    OUT_OF_RANGE_INTEGER("E010"),
+    /**
+     * An empty value in a column whose value is required, reported as E015
+     */
+    MISSING_REQUIRED_VALUE("E015"),
+    /**
+     * A row whose id is the id of the previous row, reported as E020
+     */
+    DUPLICATE_ID("E020"),
+    /**
+     * A value that is not a color in a COLOR column, reported as E014
+     */
+    INVALID_COLOR("E014");
+
+    private final String noticeId;
+
+    ErrorKind(final String noticeId) {
+        this.noticeId = noticeId;
+    }
+
+    /**
+     * Returns the id of the notice reported for this kind of error
+     *
+     * @return the id of the notice reported for this kind of error
+     */
+    public String getNoticeId() {
+        return noticeId;
+    }
+}
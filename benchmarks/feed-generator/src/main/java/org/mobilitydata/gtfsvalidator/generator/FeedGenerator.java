@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.generator;
+
+import com.google.common.io.Resources;
+import com.google.protobuf.TextFormat;
+import org.mobilitydata.gtfsvalidator.protos.GtfsSpecificationProto;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Generates synthetic GTFS archives to measure the validator on feeds of any size. A feed holds agencies, stops,
+ * routes, a calendar, shapes, trips, stop times and feed information, with the columns and the value ranges of the
+ * GTFS specification; the size of every file grows with the number of trips. References between files are valid and
+ * rows are sorted as the specification requires, so that a feed generated without errors yields no error notice.
+ * <p>
+ * Output is deterministic: a seed, a number of trips and error rates always give the same archive, byte for byte.
+ */
+public class FeedGenerator {
+    static final int STOPS_PER_TRIP = 24;
+    private static final int SHAPE_POINTS_PER_STOP = 4;
+    private static final int TRIPS_PER_ROUTE = 40;
+    private static final int ROUTES_PER_AGENCY = 200;
+    private static final int TRIPS_PER_STOP = 4;
+    private static final int SERVICE_COUNT = 3;
+    private static final int FIRST_DEPARTURE = 5 * 3600;
+    private static final int HEADWAY = 600;
+    private static final int DEPARTURES_PER_DAY = 100;
+    private static final int SECONDS_BETWEEN_STOPS = 120;
+    private static final int DWELL_SECONDS = 30;
+    private static final double METERS_BETWEEN_SHAPE_POINTS = 100;
+    private static final double CENTER_LATITUDE = 45.5;
+    private static final double CENTER_LONGITUDE = -73.6;
+    private static final int SAMPLE_TRIP_COUNT = 1000;
+    private static final LocalDate START_DATE = LocalDate.of(2020, 1, 1);
+    private static final LocalDate END_DATE = LocalDate.of(2020, 12, 31);
+    // entries get a fixed modification time, else the archive would change at each run
+    private static final long ENTRY_TIME = 1577880000000L;
+
+    private final Map<String, GtfsSpecificationProto.CsvSpecProto> specByFilename = new HashMap<>();
+    private final long seed;
+    private final Map<ErrorKind, Double> rateByKind;
+
+    /**
+     * @param spec       the GTFS specification giving the columns of files and the range of their values
+     * @param seed       the seed of the values and the errors of the feed
+     * @param rateByKind the rate at which each kind of error is injected, from 0 to 1: the probability for a row to
+     *                   get an error of this kind when its file has a column the kind applies to
+     * @throws IllegalArgumentException if a rate is not between 0 and 1
+     */
+    public FeedGenerator(final GtfsSpecificationProto.CsvSpecProtos spec,
+                         final long seed,
+                         final Map<ErrorKind, Double> rateByKind) {
+        spec.getCsvspecList().forEach(fileSpec -> specByFilename.put(fileSpec.getFilename(), fileSpec));
+        rateByKind.forEach((kind, rate) -> {
+            if (!(rate >= 0 && rate <= 1)) {
+                throw new IllegalArgumentException("error rate of " + kind + " must be between 0 and 1: " + rate);
+            }
+        });
+        this.seed = seed;
+        this.rateByKind = new EnumMap<>(ErrorKind.class);
+        this.rateByKind.putAll(rateByKind);
+    }
+
+    /**
+     * Loads the GTFS specification the validator uses, from the classpath
+     *
+     * @return the GTFS specification
+     * @throws IOException if the specification cannot be read
+     */
+    public static GtfsSpecificationProto.CsvSpecProtos loadSpec() throws IOException {
+        //noinspection UnstableApiUsage
+        return TextFormat.parse(
+                Resources.toString(Resources.getResource("gtfs_spec.asciipb"), StandardCharsets.UTF_8),
+                GtfsSpecificationProto.CsvSpecProtos.class);
+    }
+
+    /**
+     * Returns the number of trips of a feed whose files have about a given size once extracted. The size of a trip is
+     * measured on two sample feeds, as the size of all files grows with the number of trips, and ids and counters
+     * get a digit longer each time the number of trips is multiplied by 10.
+     *
+     * @param uncompressedSize the size in bytes of the files of the feed once extracted
+     * @return the number of trips to generate, at least 1
+     * @throws IOException if a sample feed cannot be generated
+     */
+    public int estimateTripCount(final long uncompressedSize) throws IOException {
+        final double bytesPerTrip = measureBytesPerTrip(SAMPLE_TRIP_COUNT);
+        final double bytesPerTripAndDigit = measureBytesPerTrip(SAMPLE_TRIP_COUNT * 10) - bytesPerTrip;
+        double tripCount = uncompressedSize / bytesPerTrip;
+        for (int i = 0; i < 4; ++i) {
+            tripCount = uncompressedSize /
+                    (bytesPerTrip + bytesPerTripAndDigit * Math.log10(Math.max(1, tripCount) / SAMPLE_TRIP_COUNT));
+        }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, Math.round(tripCount)));
+    }
+
+    private double measureBytesPerTrip(final int tripCount) throws IOException {
+        return (double) generate(tripCount, OutputStream.nullOutputStream()).getUncompressedSize() / tripCount;
+    }
+
+    /**
+     * Writes a feed as a zip archive. The stream is not closed.
+     *
+     * @param tripCount    the number of trips of the feed
+     * @param outputStream the stream the archive is written to
+     * @return the report of the generation: rows, injected errors and size of the feed
+     * @throws IOException if the archive cannot be written
+     */
+    public GenerationReport generate(final int tripCount, final OutputStream outputStream) throws IOException {
+        if (tripCount < 1) {
+            throw new IllegalArgumentException("trip count must be positive: " + tripCount);
+        }
+        final int routeCount = Math.max(1, ceilDiv(tripCount, TRIPS_PER_ROUTE));
+        final int agencyCount = Math.max(1, ceilDiv(routeCount, ROUTES_PER_AGENCY));
+        final int stopCount = Math.max(STOPS_PER_TRIP, tripCount / TRIPS_PER_STOP);
+        final GenerationReport report = new GenerationReport();
+        final ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+        final Writer writer =
+                new BufferedWriter(new OutputStreamWriter(zipOutputStream, StandardCharsets.UTF_8), 1 << 16);
+
+        TableWriter table = openTable("agency.txt", List.of("agency_id"), "agency_id", zipOutputStream, writer,
+                report);
+        final int agencyId = table.columnIndex("agency_id");
+        final int agencyTimezone = table.columnIndex("agency_timezone");
+        for (int i = 0; i < agencyCount; ++i) {
+            table.set(agencyId, "A" + i);
+            table.set(agencyTimezone, TableWriter.TIMEZONE);
+            table.writeRow();
+        }
+        closeTable(table, zipOutputStream, writer, report);
+
+        table = openTable("stops.txt", List.of("stop_id", "parent_station", "level_id"), "stop_id",
+                zipOutputStream, writer, report);
+        final int stopId = table.columnIndex("stop_id");
+        final int stopLat = table.columnIndex("stop_lat");
+        final int stopLon = table.columnIndex("stop_lon");
+        final int locationType = table.columnIndex("location_type");
+        final int parentStation = table.columnIndex("parent_station");
+        final int levelId = table.columnIndex("level_id");
+        for (int i = 0; i < stopCount; ++i) {
+            table.set(stopId, "S" + i);
+            table.set(stopLat, TableWriter.formatDecimal(
+                    CENTER_LATITUDE + (table.getRandom().nextDouble() - 0.5) * 0.4, 6));
+            table.set(stopLon, TableWriter.formatDecimal(
+                    CENTER_LONGITUDE + (table.getRandom().nextDouble() - 0.5) * 0.6, 6));
+            table.set(locationType, "0");
+            table.set(parentStation, "");
+            table.set(levelId, "");
+            table.writeRow();
+        }
+        closeTable(table, zipOutputStream, writer, report);
+
+        table = openTable("routes.txt", List.of("route_id", "agency_id"), "route_id", zipOutputStream, writer,
+                report);
+        final int routeId = table.columnIndex("route_id");
+        final int routeAgencyId = table.columnIndex("agency_id");
+        for (int i = 0; i < routeCount; ++i) {
+            table.set(routeId, "R" + i);
+            table.set(routeAgencyId, "A" + (i % agencyCount));
+            table.writeRow();
+        }
+        closeTable(table, zipOutputStream, writer, report);
+
+        table = openTable("calendar.txt", List.of("service_id"), "service_id", zipOutputStream, writer, report);
+        final int serviceId = table.columnIndex("service_id");
+        final int startDate = table.columnIndex("start_date");
+        final int endDate = table.columnIndex("end_date");
+        final String[] dayColumnNames =
+                {"monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday"};
+        final int[] dayColumns = Arrays.stream(dayColumnNames).mapToInt(table::columnIndex).toArray();
+        for (int i = 0; i < SERVICE_COUNT; ++i) {
+            table.set(serviceId, "C" + i);
+            table.set(startDate, TableWriter.formatDate(START_DATE));
+            table.set(endDate, TableWriter.formatDate(END_DATE));
+            // weekdays, saturdays, then sundays
+            for (int day = 0; day < dayColumns.length; ++day) {
+                final boolean isActive = i == 0 ? day < 5 : day == Math.min(i + 4, 6);
+                table.set(dayColumns[day], isActive ? "1" : "0");
+            }
+            table.writeRow();
+        }
+        closeTable(table, zipOutputStream, writer, report);
+
+        // a shape per route, with the rows of a shape contiguous and sorted by sequence
+        table = openTable("shapes.txt", List.of("shape_id", "shape_pt_sequence"), null, zipOutputStream, writer,
+                report);
+        final int shapeId = table.columnIndex("shape_id");
+        final int shapePtSequence = table.columnIndex("shape_pt_sequence");
+        final int shapePtLat = table.columnIndex("shape_pt_lat");
+        final int shapePtLon = table.columnIndex("shape_pt_lon");
+        final int shapeDistTraveled = table.columnIndex("shape_dist_traveled");
+        for (int i = 0; i < routeCount; ++i) {
+            double latitude = CENTER_LATITUDE + (table.getRandom().nextDouble() - 0.5) * 0.4;
+            double longitude = CENTER_LONGITUDE + (table.getRandom().nextDouble() - 0.5) * 0.6;
+            for (int point = 0; point < STOPS_PER_TRIP * SHAPE_POINTS_PER_STOP; ++point) {
+                table.set(shapeId, "SH" + i);
+                table.set(shapePtSequence, String.valueOf(point + 1));
+                table.set(shapePtLat, TableWriter.formatDecimal(latitude, 6));
+                table.set(shapePtLon, TableWriter.formatDecimal(longitude, 6));
+                table.set(shapeDistTraveled, TableWriter.formatDecimal(point * METERS_BETWEEN_SHAPE_POINTS, 1));
+                table.writeRow();
+                latitude += (table.getRandom().nextDouble() - 0.5) * 0.002;
+                longitude += (table.getRandom().nextDouble() - 0.5) * 0.002;
+            }
+        }
+        closeTable(table, zipOutputStream, writer, report);
+
+        table = openTable("trips.txt", List.of("trip_id", "route_id", "service_id", "shape_id"), "trip_id",
+                zipOutputStream, writer, report);
+        final int tripId = table.columnIndex("trip_id");
+        final int tripRouteId = table.columnIndex("route_id");
+        final int tripServiceId = table.columnIndex("service_id");
+        final int tripShapeId = table.columnIndex("shape_id");
+        for (int i = 0; i < tripCount; ++i) {
+            table.set(tripId, "T" + i);
+            table.set(tripRouteId, "R" + (i % routeCount));
+            table.set(tripServiceId, "C" + (i % SERVICE_COUNT));
+            table.set(tripShapeId, "SH" + (i % routeCount));
+            table.writeRow();
+        }
+        closeTable(table, zipOutputStream, writer, report);
+
+        // the rows of a trip are contiguous and sorted by sequence, with times and distances increasing along it
+        table = openTable("stop_times.txt", List.of("trip_id", "stop_id", "stop_sequence"), null, zipOutputStream,
+                writer, report);
+        final int stopTimeTripId = table.columnIndex("trip_id");
+        final int stopTimeStopId = table.columnIndex("stop_id");
+        final int stopSequence = table.columnIndex("stop_sequence");
+        final int arrivalTime = table.columnIndex("arrival_time");
+        final int departureTime = table.columnIndex("departure_time");
+        final int stopTimeShapeDistTraveled = table.columnIndex("shape_dist_traveled");
+        for (int i = 0; i < tripCount; ++i) {
+            final int route = i % routeCount;
+            final int firstStop = (int) ((long) route * STOPS_PER_TRIP / 2 % stopCount);
+            final int firstDeparture = FIRST_DEPARTURE + (i / routeCount) % DEPARTURES_PER_DAY * HEADWAY;
+            for (int stop = 0; stop < STOPS_PER_TRIP; ++stop) {
+                final int arrival = firstDeparture + stop * SECONDS_BETWEEN_STOPS;
+                table.set(stopTimeTripId, "T" + i);
+                table.set(stopTimeStopId, "S" + ((firstStop + stop) % stopCount));
+                table.set(stopSequence, String.valueOf(stop + 1));
+                table.set(arrivalTime, TableWriter.formatTime(arrival));
+                table.set(departureTime, TableWriter.formatTime(arrival + DWELL_SECONDS));
+                table.set(stopTimeShapeDistTraveled, TableWriter.formatDecimal(
+                        stop * SHAPE_POINTS_PER_STOP * METERS_BETWEEN_SHAPE_POINTS, 1));
+                table.writeRow();
+            }
+        }
+        closeTable(table, zipOutputStream, writer, report);
+
+        table = openTable("feed_info.txt", List.of(), null, zipOutputStream, writer, report);
+        table.set(table.columnIndex("feed_start_date"), TableWriter.formatDate(START_DATE));
+        table.set(table.columnIndex("feed_end_date"), TableWriter.formatDate(END_DATE));
+        table.set(table.columnIndex("feed_version"), String.valueOf(seed));
+        table.writeRow();
+        closeTable(table, zipOutputStream, writer, report);
+
+        zipOutputStream.finish();
+        return report;
+    }
+
+    private TableWriter openTable(final String filename,
+                                  final List<String> keyColumnNames,
+                                  final String idColumnName,
+                                  final ZipOutputStream zipOutputStream,
+                                  final Writer writer,
+                                  final GenerationReport report) throws IOException {
+        final GtfsSpecificationProto.CsvSpecProto spec = specByFilename.get(filename);
+        if (spec == null) {
+            throw new IllegalArgumentException(filename + " is not defined by the specification");
+        }
+        final ZipEntry entry = new ZipEntry(filename);
+        entry.setTime(ENTRY_TIME);
+        zipOutputStream.putNextEntry(entry);
+        // each file has its own source of values, so that a file does not change when another one does
+        final TableWriter table = new TableWriter(spec, keyColumnNames, idColumnName, rateByKind,
+                new SplittableRandom(seed ^ filename.hashCode() * 0x9e3779b97f4a7c15L), writer, report);
+        table.writeHeader();
+        return table;
+    }
+
+    private static void closeTable(final TableWriter table,
+                                   final ZipOutputStream zipOutputStream,
+                                   final Writer writer,
+                                   final GenerationReport report) throws IOException {
+        writer.flush();
+        zipOutputStream.closeEntry();
+        report.addRows(table.getFilename(), table.getRowCount());
+    }
+
+    private static int ceilDiv(final int dividend, final int divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+}
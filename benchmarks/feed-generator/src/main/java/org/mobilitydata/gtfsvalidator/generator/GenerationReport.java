@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.generator;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Describes a generated feed: the number of rows of each file, the number of errors injected of each kind and the
+ * uncompressed size of the files. Not thread safe.
+ */
+public class GenerationReport {
+    private final Map<String, Long> rowCountByFilename = new LinkedHashMap<>();
+    private final Map<ErrorKind, Long> errorCountByKind = new EnumMap<>(ErrorKind.class);
+    private long uncompressedSize;
+
+    void addRows(final String filename, final long rowCount) {
+        rowCountByFilename.merge(filename, rowCount, Long::sum);
+    }
+
+    void addError(final ErrorKind kind) {
+        errorCountByKind.merge(kind, 1L, Long::sum);
+    }
+
+    void addUncompressedSize(final long size) {
+        uncompressedSize += size;
+    }
+
+    /**
+     * Returns the number of data rows of each generated file, by filename, in the order files were written
+     *
+     * @return the number of data rows of each generated file, by filename
+     */
+    public Map<String, Long> getRowCountByFilename() {
+        return Collections.unmodifiableMap(rowCountByFilename);
+    }
+
+    /**
+     * Returns the number of errors injected of a given kind
+     *
+     * @param kind the kind of error
+     * @return the number of errors injected of this kind
+     */
+    public long getErrorCount(final ErrorKind kind) {
+        return errorCountByKind.getOrDefault(kind, 0L);
+    }
+
+    /**
+     * Returns the size in bytes of the generated files once extracted from the archive, headers included
+     *
+     * @return the size in bytes of the generated files once extracted
+     */
+    public long getUncompressedSize() {
+        return uncompressedSize;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.generator;
+
+import org.apache.commons.cli.*;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line entry point of the feed generator, for instance to write a feed of about 1 GB with one row in a
+ * thousand holding a bad float:
+ * {@code java -jar feed-generator.jar -o feed.zip -z 1G -e bad_float=0.001}
+ */
+public class Main {
+    private static final String OUTPUT = "output";
+    private static final String SEED = "seed";
+    private static final String SIZE = "size";
+    private static final String TRIPS = "trips";
+    private static final String ERROR = "error";
+    private static final String HELP = "help";
+    private static final String ALL_KINDS = "all";
+    private static final String DEFAULT_SIZE = "1M";
+
+    public static void main(String[] args) {
+        final Options options = new Options();
+        options.addOption("o", OUTPUT, true, "Path of the zip archive to write");
+        options.addOption("s", SEED, true, "Seed of the values and errors of the feed, 0 by default");
+        options.addOption("z", SIZE, true, "Size of the files of the feed once extracted, with a K, M or G " +
+                "suffix, " + DEFAULT_SIZE + " by default");
+        options.addOption("t", TRIPS, true, "Number of trips of the feed, instead of a size");
+        options.addOption(Option.builder("e").longOpt(ERROR).hasArg()
+                .desc("Rate of an error kind as kind=rate, for instance bad_float=0.001, repeatable. Kinds are " +
+                        ALL_KINDS + " or " + String.join(", ", kindNames()))
+                .build());
+        options.addOption("h", HELP, false, "Print this message");
+
+        try {
+            final CommandLine commandLine = new DefaultParser().parse(options, args);
+            if (commandLine.hasOption(HELP) || !commandLine.hasOption(OUTPUT)) {
+                new HelpFormatter().printHelp("feed-generator", options);
+                return;
+            }
+            final Map<ErrorKind, Double> rateByKind = new EnumMap<>(ErrorKind.class);
+            final String[] errorValues = commandLine.getOptionValues(ERROR);
+            if (errorValues != null) {
+                for (String errorValue : errorValues) {
+                    parseErrorRate(errorValue, rateByKind);
+                }
+            }
+            final FeedGenerator generator = new FeedGenerator(FeedGenerator.loadSpec(),
+                    Long.parseLong(commandLine.getOptionValue(SEED, "0")), rateByKind);
+            final int tripCount = commandLine.hasOption(TRIPS)
+                    ? Integer.parseInt(commandLine.getOptionValue(TRIPS))
+                    : generator.estimateTripCount(parseSize(commandLine.getOptionValue(SIZE, DEFAULT_SIZE)));
+
+            final Path output = Paths.get(commandLine.getOptionValue(OUTPUT));
+            final long startTime = System.nanoTime();
+            final GenerationReport report;
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(output), 1 << 16)) {
+                report = generator.generate(tripCount, outputStream);
+            }
+            System.out.printf("Generated %s in %d ms: %d trips, %d bytes once extracted, %d bytes compressed%n",
+                    output, (System.nanoTime() - startTime) / 1_000_000, tripCount, report.getUncompressedSize(),
+                    Files.size(output));
+            report.getRowCountByFilename().forEach((filename, rowCount) ->
+                    System.out.printf("  %-16s %d rows%n", filename, rowCount));
+            for (ErrorKind kind : ErrorKind.values()) {
+                if (report.getErrorCount(kind) > 0) {
+                    System.out.printf("  %s %-22s %d errors%n", kind.getNoticeId(), kind, report.getErrorCount(kind));
+                }
+            }
+        } catch (ParseException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            new HelpFormatter().printHelp("feed-generator", options);
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Could not generate the feed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Parses the rate of an error kind written as kind=rate, all kinds getting the rate for kind {@code all}
+     *
+     * @param errorValue the rate of an error kind, as kind=rate
+     * @param rateByKind the rates parsed so far, updated with this one
+     * @throws IllegalArgumentException if the kind or the rate is not valid
+     */
+    static void parseErrorRate(final String errorValue, final Map<ErrorKind, Double> rateByKind) {
+        final int separator = errorValue.indexOf('=');
+        if (separator < 0) {
+            throw new IllegalArgumentException("error rate must be written as kind=rate: " + errorValue);
+        }
+        final String kindName = errorValue.substring(0, separator).trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        final double rate = Double.parseDouble(errorValue.substring(separator + 1).trim());
+        if (kindName.equals(ALL_KINDS.toUpperCase(Locale.ROOT))) {
+            for (ErrorKind kind : ErrorKind.values()) {
+                rateByKind.put(kind, rate);
+            }
+        } else {
+            rateByKind.put(ErrorKind.valueOf(kindName), rate);
+        }
+    }
+
+    /**
+     * Parses a size in bytes, with an optional K, M or G suffix for powers of 1024
+     *
+     * @param size the size to parse
+     * @return the size in bytes
+     * @throws NumberFormatException if the size is not a number
+     */
+    static long parseSize(final String size) {
+        final String trimmed = size.trim().toUpperCase(Locale.ROOT);
+        final int shift;
+        switch (trimmed.isEmpty() ? ' ' : trimmed.charAt(trimmed.length() - 1)) {
+            case 'K':
+                shift = 10;
+                break;
+            case 'M':
+                shift = 20;
+                break;
+            case 'G':
+                shift = 30;
+                break;
+            default:
+                return Long.parseLong(trimmed);
+        }
+        return Long.parseLong(trimmed.substring(0, trimmed.length() - 1)) << shift;
+    }
+
+    private static String[] kindNames() {
+        final ErrorKind[] kinds = ErrorKind.values();
+        final String[] names = new String[kinds.length];
+        for (int i = 0; i < kinds.length; ++i) {
+            names[i] = kinds[i].name().toLowerCase(Locale.ROOT);
+        }
+        return names;
+    }
+}
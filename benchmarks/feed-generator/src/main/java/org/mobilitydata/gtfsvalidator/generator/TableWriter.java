@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.generator;
+
+import org.mobilitydata.gtfsvalidator.protos.GtfsSpecificationProto;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Writes the rows of a GTFS file with the columns defined by the GTFS specification, in their order. The generator
+ * sets the values that tie rows and files together: ids, references and sequences. Other values are drawn at random
+ * from the type and the range of their column, then errors are injected at the requested rates. Not thread safe.
+ */
+final class TableWriter {
+    // realistic mistakes: a placeholder left by an export and a CSS color
+    private static final String INVALID_FLOAT = "N/A";
+    private static final String INVALID_COLOR = "#FF0000";
+    static final String TIMEZONE = "America/Montreal";
+    private static final LocalDate FIRST_DATE = LocalDate.of(2020, 1, 1);
+    private static final String[] WORDS = {"Maple", "Central", "Harbour", "Union", "Park", "Station", "Market",
+            "River", "Hill", "Oak", "Bridge", "Square", "North", "South", "College", "Avenue"};
+    private static final ErrorKind[] KINDS = ErrorKind.values();
+
+    private final String filename;
+    private final List<GtfsSpecificationProto.ColumnSpecProto> columnList;
+    private final Map<String, Integer> indexByColumnName = new HashMap<>();
+    private final String[] values;
+    private final boolean[] isInjected;
+    private final int[][] eligibleColumnsByKind = new int[KINDS.length][];
+    private final double[] rateByKind = new double[KINDS.length];
+    private final int idColumn;
+    private final SplittableRandom random;
+    private final Writer writer;
+    private final GenerationReport report;
+    private final StringBuilder line = new StringBuilder();
+    private long rowCount;
+
+    /**
+     * @param spec            the specification of the file
+     * @param keyColumnNames  the columns set by the generator to tie rows and files together, no error is injected
+     *                        in them
+     * @param idColumnName    the column holding the unique id of rows, null if the file has no single column id.
+     *                        Duplicate ids are only injected in files that have one.
+     * @param rateByKind      the rate at which each kind of error is injected in rows, missing kinds are not injected
+     * @param random          the source of values and errors of this file
+     * @param writer          the writer the file is written to
+     * @param report          the report of the generation, updated with rows, errors and size
+     */
+    TableWriter(final GtfsSpecificationProto.CsvSpecProto spec,
+                final Collection<String> keyColumnNames,
+                final String idColumnName,
+                final Map<ErrorKind, Double> rateByKind,
+                final SplittableRandom random,
+                final Writer writer,
+                final GenerationReport report) {
+        this.filename = spec.getFilename();
+        this.columnList = spec.getColumnList();
+        for (int i = 0; i < columnList.size(); ++i) {
+            indexByColumnName.put(columnList.get(i).getName(), i);
+        }
+        this.values = new String[columnList.size()];
+        this.isInjected = new boolean[columnList.size()];
+        final boolean[] isKey = new boolean[columnList.size()];
+        keyColumnNames.forEach(columnName -> isKey[columnIndex(columnName)] = true);
+        this.idColumn = idColumnName == null ? -1 : columnIndex(idColumnName);
+        for (ErrorKind kind : KINDS) {
+            this.rateByKind[kind.ordinal()] = rateByKind.getOrDefault(kind, 0.0);
+            final List<Integer> eligibleColumnList = new ArrayList<>();
+            for (int i = 0; i < columnList.size(); ++i) {
+                if (!isKey[i] && isEligible(kind, columnList.get(i))) {
+                    eligibleColumnList.add(i);
+                }
+            }
+            eligibleColumnsByKind[kind.ordinal()] = eligibleColumnList.stream().mapToInt(Integer::intValue).toArray();
+        }
+        this.random = random;
+        this.writer = writer;
+        this.report = report;
+    }
+
+    /**
+     * Returns the index of a column of this file
+     *
+     * @param columnName the name of the column
+     * @return the index of the column
+     * @throws IllegalArgumentException if the specification does not define this column for this file
+     */
+    int columnIndex(final String columnName) {
+        final Integer index = indexByColumnName.get(columnName);
+        if (index == null) {
+            throw new IllegalArgumentException("column " + columnName + " is not defined for " + filename);
+        }
+        return index;
+    }
+
+    /**
+     * Sets the value of a column for the row being written
+     *
+     * @param column the index of the column
+     * @param value  the value of the column
+     */
+    void set(final int column, final String value) {
+        values[column] = value;
+    }
+
+    /**
+     * Returns the source of values of this file
+     *
+     * @return the source of values of this file
+     */
+    SplittableRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Writes the header of the file
+     *
+     * @throws IOException if the file cannot be written
+     */
+    void writeHeader() throws IOException {
+        line.setLength(0);
+        for (int i = 0; i < columnList.size(); ++i) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(columnList.get(i).getName());
+        }
+        writeLine();
+    }
+
+    /**
+     * Writes the row being built: values that were not set are drawn at random, then errors are injected at the
+     * requested rates. A duplicate id is injected as an extra row without error, written before the row.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    void writeRow() throws IOException {
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] == null) {
+                values[i] = randomValue(columnList.get(i));
+            }
+        }
+        if (idColumn >= 0 && isDrawn(ErrorKind.DUPLICATE_ID)) {
+            buildRow();
+            writeLine();
+            ++rowCount;
+            report.addError(ErrorKind.DUPLICATE_ID);
+        }
+        Arrays.fill(isInjected, false);
+        for (ErrorKind kind : KINDS) {
+            final int[] eligibleColumns = eligibleColumnsByKind[kind.ordinal()];
+            if (eligibleColumns.length == 0 || kind == ErrorKind.DUPLICATE_ID || !isDrawn(kind)) {
+                continue;
+            }
+            // a column gets a single error, so that each injected error is reported once
+            final int offset = random.nextInt(eligibleColumns.length);
+            for (int i = 0; i < eligibleColumns.length; ++i) {
+                final int column = eligibleColumns[(offset + i) % eligibleColumns.length];
+                if (!isInjected[column]) {
+                    isInjected[column] = true;
+                    values[column] = invalidValue(kind, columnList.get(column));
+                    report.addError(kind);
+                    break;
+                }
+            }
+        }
+        buildRow();
+        writeLine();
+        ++rowCount;
+        Arrays.fill(values, null);
+    }
+
+    /**
+     * Returns the name of the file written
+     *
+     * @return the name of the file written
+     */
+    String getFilename() {
+        return filename;
+    }
+
+    /**
+     * Returns the number of data rows written
+     *
+     * @return the number of data rows written
+     */
+    long getRowCount() {
+        return rowCount;
+    }
+
+    private boolean isDrawn(final ErrorKind kind) {
+        final double rate = rateByKind[kind.ordinal()];
+        return rate > 0 && random.nextDouble() < rate;
+    }
+
+    private void buildRow() {
+        line.setLength(0);
+        for (int i = 0; i < values.length; ++i) {
+            if (i > 0) {
+                line.append(',');
+            }
+            final String value = values[i];
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+    }
+
+    private void writeLine() throws IOException {
+        line.append('\n');
+        writer.append(line);
+        // generated values are ASCII, one char is one byte
+        report.addUncompressedSize(line.length());
+    }
+
+    private static boolean isEligible(final ErrorKind kind, final GtfsSpecificationProto.ColumnSpecProto column) {
+        final GtfsSpecificationProto.ColumnInputType.InputType type = column.getType().getType();
+        switch (kind) {
+            case BAD_FLOAT:
+                // a float that cannot be parsed in a required column is also reported as a missing value
+                return type == GtfsSpecificationProto.ColumnInputType.InputType.FLOAT && !column.getValueRequired();
+            case OUT_OF_RANGE_INTEGER:
+                return type == GtfsSpecificationProto.ColumnInputType.InputType.INTEGER &&
+                        (column.getIntmax() < Integer.MAX_VALUE || column.getIntmin() > Integer.MIN_VALUE);
+            case MISSING_REQUIRED_VALUE:
+                return column.getValueRequired();
+            case INVALID_COLOR:
+                return type == GtfsSpecificationProto.ColumnInputType.InputType.COLOR;
+            default:
+                return false;
+        }
+    }
+
+    private static String invalidValue(final ErrorKind kind, final GtfsSpecificationProto.ColumnSpecProto column) {
+        switch (kind) {
+            case BAD_FLOAT:
+                return INVALID_FLOAT;
+            case OUT_OF_RANGE_INTEGER:
+                return column.getIntmax() < Integer.MAX_VALUE
+                        ? String.valueOf(column.getIntmax() + 1L)
+                        : String.valueOf(column.getIntmin() - 1L);
+            case MISSING_REQUIRED_VALUE:
+                return "";
+            default:
+                return INVALID_COLOR;
+        }
+    }
+
+    private String randomValue(final GtfsSpecificationProto.ColumnSpecProto column) {
+        switch (column.getType().getType()) {
+            case INTEGER:
+                return String.valueOf(random.nextLong(column.getIntmin(), column.getIntmax() + 1L));
+            case FLOAT:
+                return formatDecimal(column.getFloatmin() +
+                        random.nextDouble() * (column.getFloatmax() - column.getFloatmin()), 2);
+            case COLOR:
+                return Integer.toHexString(0x1000000 | random.nextInt(0x1000000)).substring(1).toUpperCase();
+            case DATE:
+                return formatDate(FIRST_DATE.plusDays(random.nextInt(366)));
+            case TIME:
+                return formatTime(random.nextInt(24 * 3600));
+            case URL:
+                return "https://www.example.org/" + (rowCount + 1);
+            case TIMEZONE:
+                return TIMEZONE;
+            default:
+                return randomText(column.getName());
+        }
+    }
+
+    // untyped columns of the specification are filled after their name
+    private String randomText(final String columnName) {
+        if (isUrl(columnName)) {
+            return "https://www.example.org/" + (rowCount + 1);
+        } else if (isTimezone(columnName)) {
+            return TIMEZONE;
+        } else if (columnName.endsWith("_lang")) {
+            return "en";
+        } else if (columnName.endsWith("_email")) {
+            return "contact@example.org";
+        } else if (columnName.endsWith("_phone")) {
+            return "+1 514 555 0100";
+        }
+        return WORDS[random.nextInt(WORDS.length)] + ' ' + WORDS[random.nextInt(WORDS.length)] + ' ' + (rowCount + 1);
+    }
+
+    private static boolean isUrl(final String columnName) {
+        return columnName.endsWith("_url");
+    }
+
+    private static boolean isTimezone(final String columnName) {
+        return columnName.endsWith("_timezone");
+    }
+
+    /**
+     * Formats a date as GTFS does, YYYYMMDD
+     *
+     * @param date the date to format
+     * @return the formatted date
+     */
+    static String formatDate(final LocalDate date) {
+        return date.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    /**
+     * Formats a time as GTFS does, HH:MM:SS, with hours past 24 for trips that end after midnight
+     *
+     * @param seconds the number of seconds since the start of the service day
+     * @return the formatted time
+     */
+    static String formatTime(final int seconds) {
+        final int hours = seconds / 3600;
+        final int minutes = seconds / 60 % 60;
+        final int secondsOfMinute = seconds % 60;
+        return (hours < 10 ? "0" : "") + hours + (minutes < 10 ? ":0" : ":") + minutes +
+                (secondsOfMinute < 10 ? ":0" : ":") + secondsOfMinute;
+    }
+
+    /**
+     * Formats a number with a fixed count of decimals, without going through {@link String#format(String, Object...)}
+     * which is too slow for millions of rows
+     *
+     * @param value    the number to format
+     * @param decimals the count of decimals, from 0 to 9
+     * @return the formatted number
+     */
+    static String formatDecimal(final double value, final int decimals) {
+        long scale = 1;
+        for (int i = 0; i < decimals; ++i) {
+            scale *= 10;
+        }
+        final long scaled = Math.round(Math.abs(value) * scale);
+        final StringBuilder builder = new StringBuilder();
+        if (value < 0 && scaled != 0) {
+            builder.append('-');
+        }
+        builder.append(scaled / scale);
+        if (decimals > 0) {
+            final String fraction = Long.toString(scaled % scale + scale);
+            builder.append('.').append(fraction, 1, fraction.length());
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.generator;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.protos.GtfsSpecificationProto;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedGeneratorTest {
+    private static GtfsSpecificationProto.CsvSpecProtos spec;
+
+    @BeforeAll
+    static void loadSpec() throws IOException {
+        spec = FeedGenerator.loadSpec();
+    }
+
+    private static byte[] generate(final FeedGenerator generator, final int tripCount) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        generator.generate(tripCount, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static Map<String, List<String>> readLines(final byte[] archive) throws IOException {
+        final Map<String, List<String>> linesByFilename = new LinkedHashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                final BufferedReader reader =
+                        new BufferedReader(new InputStreamReader(zipInputStream, StandardCharsets.UTF_8));
+                linesByFilename.put(entry.getName(), reader.lines().collect(Collectors.toList()));
+            }
+        }
+        return linesByFilename;
+    }
+
+    private static List<String> column(final List<String> lines, final String columnName) {
+        final int index = Arrays.asList(lines.get(0).split(",")).indexOf(columnName);
+        return lines.stream().skip(1).map(line -> line.split(",", -1)[index]).collect(Collectors.toList());
+    }
+
+    @Test
+    void sameSeedShouldGiveSameArchive() throws IOException {
+        final Map<ErrorKind, Double> rateByKind = Map.of(ErrorKind.BAD_FLOAT, 0.05, ErrorKind.DUPLICATE_ID, 0.05);
+
+        assertArrayEquals(generate(new FeedGenerator(spec, 42, rateByKind), 100),
+                generate(new FeedGenerator(spec, 42, rateByKind), 100));
+        assertFalse(Arrays.equals(generate(new FeedGenerator(spec, 42, rateByKind), 100),
+                generate(new FeedGenerator(spec, 43, rateByKind), 100)));
+    }
+
+    @Test
+    void filesShouldHaveTheColumnsOfTheSpecification() throws IOException {
+        final Map<String, List<String>> linesByFilename =
+                readLines(generate(new FeedGenerator(spec, 0, Map.of()), 100));
+
+        assertThat(linesByFilename.keySet(), contains("agency.txt", "stops.txt", "routes.txt", "calendar.txt",
+                "shapes.txt", "trips.txt", "stop_times.txt", "feed_info.txt"));
+        for (GtfsSpecificationProto.CsvSpecProto fileSpec : spec.getCsvspecList()) {
+            final List<String> lines = linesByFilename.get(fileSpec.getFilename());
+            if (lines != null) {
+                assertEquals(fileSpec.getColumnList().stream()
+                                .map(GtfsSpecificationProto.ColumnSpecProto::getName)
+                                .collect(Collectors.joining(",")),
+                        lines.get(0));
+            }
+        }
+        assertEquals(100 * FeedGenerator.STOPS_PER_TRIP + 1, linesByFilename.get("stop_times.txt").size());
+        assertEquals(101, linesByFilename.get("trips.txt").size());
+    }
+
+    @Test
+    void referencesShouldBeValidAndRowsSorted() throws IOException {
+        final Map<String, List<String>> linesByFilename =
+                readLines(generate(new FeedGenerator(spec, 7, Map.of()), 200));
+        final List<String> stopTimeLines = linesByFilename.get("stop_times.txt");
+
+        assertTrue(new HashSet<>(column(linesByFilename.get("stops.txt"), "stop_id"))
+                .containsAll(column(stopTimeLines, "stop_id")));
+        assertTrue(new HashSet<>(column(linesByFilename.get("trips.txt"), "trip_id"))
+                .containsAll(column(stopTimeLines, "trip_id")));
+        assertTrue(new HashSet<>(column(linesByFilename.get("routes.txt"), "route_id"))
+                .containsAll(column(linesByFilename.get("trips.txt"), "route_id")));
+        assertTrue(new HashSet<>(column(linesByFilename.get("calendar.txt"), "service_id"))
+                .containsAll(column(linesByFilename.get("trips.txt"), "service_id")));
+        assertTrue(new HashSet<>(column(linesByFilename.get("shapes.txt"), "shape_id"))
+                .containsAll(column(linesByFilename.get("trips.txt"), "shape_id")));
+
+        final List<String> tripIds = column(stopTimeLines, "trip_id");
+        final List<String> sequences = column(stopTimeLines, "stop_sequence");
+        final List<String> arrivalTimes = column(stopTimeLines, "arrival_time");
+        for (int i = 1; i < tripIds.size(); ++i) {
+            if (tripIds.get(i).equals(tripIds.get(i - 1))) {
+                assertEquals(Integer.parseInt(sequences.get(i - 1)) + 1, Integer.parseInt(sequences.get(i)));
+                assertThat(arrivalTimes.get(i), greaterThan(arrivalTimes.get(i - 1)));
+            } else {
+                assertEquals("1", sequences.get(i));
+            }
+        }
+    }
+
+    @Test
+    void feedWithoutErrorRatesShouldHaveNoError() throws IOException {
+        final GenerationReport report =
+                new FeedGenerator(spec, 0, Map.of()).generate(100, OutputStream.nullOutputStream());
+
+        for (ErrorKind kind : ErrorKind.values()) {
+            assertEquals(0, report.getErrorCount(kind));
+        }
+        assertEquals(100 * FeedGenerator.STOPS_PER_TRIP, report.getRowCountByFilename().get("stop_times.txt"));
+    }
+
+    @Test
+    void injectedErrorsShouldFollowTheirRate() throws IOException {
+        final byte[] archive = generate(new FeedGenerator(spec, 3,
+                Map.of(ErrorKind.BAD_FLOAT, 0.1, ErrorKind.INVALID_COLOR, 0.5)), 1000);
+        final GenerationReport report = new FeedGenerator(spec, 3,
+                Map.of(ErrorKind.BAD_FLOAT, 0.1, ErrorKind.INVALID_COLOR, 0.5))
+                .generate(1000, OutputStream.nullOutputStream());
+        final Map<String, List<String>> linesByFilename = readLines(archive);
+
+        // floats are in stops, shapes and stop times, colors in routes only
+        final long floatRowCount = report.getRowCountByFilename().get("stops.txt") +
+                report.getRowCountByFilename().get("shapes.txt") +
+                report.getRowCountByFilename().get("stop_times.txt");
+        assertThat((double) report.getErrorCount(ErrorKind.BAD_FLOAT), closeTo(floatRowCount * 0.1,
+                floatRowCount * 0.02));
+        assertThat((double) report.getErrorCount(ErrorKind.INVALID_COLOR), closeTo(25 * 0.5, 10));
+        assertEquals(0, report.getErrorCount(ErrorKind.DUPLICATE_ID));
+
+        final long badFloatCount = linesByFilename.values().stream()
+                .flatMap(List::stream)
+                .filter(line -> line.contains("N/A"))
+                .count();
+        assertEquals(report.getErrorCount(ErrorKind.BAD_FLOAT), badFloatCount);
+        final long badColorCount = linesByFilename.get("routes.txt").stream()
+                .filter(line -> line.contains("#FF0000"))
+                .count();
+        assertEquals(report.getErrorCount(ErrorKind.INVALID_COLOR), badColorCount);
+    }
+
+    @Test
+    void duplicateIdsShouldBeExtraRows() throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final GenerationReport report =
+                new FeedGenerator(spec, 5, Map.of(ErrorKind.DUPLICATE_ID, 0.2)).generate(500, outputStream);
+        final Map<String, List<String>> linesByFilename = readLines(outputStream.toByteArray());
+        final Map<String, String> idColumnByFilename = Map.of("agency.txt", "agency_id", "stops.txt", "stop_id",
+                "routes.txt", "route_id", "calendar.txt", "service_id", "trips.txt", "trip_id");
+
+        long duplicateRowCount = 0;
+        for (Map.Entry<String, String> entry : idColumnByFilename.entrySet()) {
+            final List<String> ids = column(linesByFilename.get(entry.getKey()), entry.getValue());
+            duplicateRowCount += ids.size() - new HashSet<>(ids).size();
+        }
+        assertThat(report.getErrorCount(ErrorKind.DUPLICATE_ID), greaterThan(0L));
+        assertEquals(report.getErrorCount(ErrorKind.DUPLICATE_ID), duplicateRowCount);
+        assertEquals(500, new HashSet<>(column(linesByFilename.get("trips.txt"), "trip_id")).size());
+    }
+
+    @Test
+    void rateOutOfRangeShouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new FeedGenerator(spec, 0, Map.of(ErrorKind.BAD_FLOAT, 1.5)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new FeedGenerator(spec, 0, Map.of(ErrorKind.BAD_FLOAT, -0.1)));
+    }
+
+    @Test
+    void estimatedTripCountShouldGiveRequestedSize() throws IOException {
+        final FeedGenerator generator = new FeedGenerator(spec, 0, Map.of());
+        final long size = 4 << 20;
+
+        final int tripCount = generator.estimateTripCount(size);
+        final GenerationReport report = generator.generate(tripCount, OutputStream.nullOutputStream());
+
+        assertThat((double) report.getUncompressedSize(), closeTo(size, size * 0.05));
+        // trips get larger as ids get longer
+        assertThat(generator.estimateTripCount(size * 4), allOf(greaterThan(tripCount * 3), lessThan(tripCount * 4)));
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MainTest {
+
+    @Test
+    void sizeShouldBeParsedWithSuffix() {
+        assertEquals(1500, Main.parseSize("1500"));
+        assertEquals(2048, Main.parseSize("2k"));
+        assertEquals(5L << 20, Main.parseSize("5M"));
+        assertEquals(5L << 30, Main.parseSize("5G"));
+        assertThrows(NumberFormatException.class, () -> Main.parseSize("big"));
+    }
+
+    @Test
+    void errorRateShouldBeParsedByKind() {
+        final Map<ErrorKind, Double> rateByKind = new EnumMap<>(ErrorKind.class);
+
+        Main.parseErrorRate("all=0.01", rateByKind);
+        Main.parseErrorRate("bad-float=0.5", rateByKind);
+
+        assertEquals(ErrorKind.values().length, rateByKind.size());
+        assertEquals(0.5, rateByKind.get(ErrorKind.BAD_FLOAT));
+        assertEquals(0.01, rateByKind.get(ErrorKind.DUPLICATE_ID));
+        assertThrows(IllegalArgumentException.class, () -> Main.parseErrorRate("bad_float", rateByKind));
+        assertThrows(IllegalArgumentException.class, () -> Main.parseErrorRate("typo=0.1", rateByKind));
+        // the specification has no URL column to inject an invalid URL into
+        assertThrows(IllegalArgumentException.class, () -> Main.parseErrorRate("invalid-url=0.1", rateByKind));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mobilitydata.gtfsvalidator.db.InMemoryValidationResultRepository;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeExporter;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.exporter.JsonNoticeExporter;
+import org.mobilitydata.gtfsvalidator.exporter.ProtobufNoticeExporter;
+import org.mobilitydata.gtfsvalidator.adapter.protos.GtfsValidationOutputProto;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link InMemoryValidationResultRepository#addNotice(Notice)} and the export of notices by
+ * {@link JsonNoticeExporter} and {@link ProtobufNoticeExporter}. Exporters write to a stream discarding bytes, so that
+ * the cost of serialization is measured without the one of the file system. An operation adds or exports all the
+ * notices, so that notices per second are the operations per second times the number of notices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NoticeBenchmark {
+    @Param({"1000", "100000"})
+    public int noticeCount;
+
+    private List<Notice> noticeList;
+
+    @Setup(Level.Trial)
+    public void createNotices() {
+        noticeList = SyntheticGtfs.createNotices(noticeCount);
+    }
+
+    @Benchmark
+    public InMemoryValidationResultRepository addNotice() {
+        final InMemoryValidationResultRepository resultRepo = new InMemoryValidationResultRepository();
+        for (Notice notice : noticeList) {
+            resultRepo.addNotice(notice);
+        }
+        return resultRepo;
+    }
+
+    @Benchmark
+    public void exportJson() throws IOException {
+        export(new JsonNoticeExporter(new ObjectMapper().getFactory().createGenerator(OutputStream.nullOutputStream())));
+    }
+
+    @Benchmark
+    public void exportProtobuf() throws IOException {
+        export(new ProtobufNoticeExporter(GtfsValidationOutputProto.GtfsProblem.newBuilder(),
+                new NullOutputStreamGenerator()));
+    }
+
+    private void export(final NoticeExporter exporter) throws IOException {
+        exporter.exportBegin();
+        for (Notice notice : noticeList) {
+            notice.export(exporter);
+        }
+        exporter.exportEnd();
+    }
+
+    /**
+     * Writes problems the way {@link ProtobufNoticeExporter.DelimitedOutputStreamGenerator} does, to a stream
+     * discarding bytes
+     */
+    private static final class NullOutputStreamGenerator extends ProtobufNoticeExporter.ProtobufOutputStreamGenerator {
+        private final OutputStream stream = OutputStream.nullOutputStream();
+
+        private NullOutputStreamGenerator() {
+            super(null);
+        }
+
+        @Override
+        public OutputStream getStream() {
+            return stream;
+        }
+
+        @Override
+        public void closeAll() {
+        }
+
+        @Override
+        public void write(final GtfsValidationOutputProto.GtfsProblem problem) throws IOException {
+            problem.writeDelimitedTo(stream);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.benchmark;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.ParsedEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.parser.GtfsEntityParser;
+import org.mobilitydata.gtfsvalidator.usecase.port.GtfsSpecRepository;
+import org.mobilitydata.gtfsvalidator.validator.GtfsTypeValidator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link GtfsEntityParser#validateNonStringTypes(RawEntity)}, {@link GtfsEntityParser#parse(RawEntity)} and
+ * {@link GtfsTypeValidator#validate(ParsedEntity)} on rows of a stop_times.txt file read beforehand: an operation
+ * processes all the rows, so that rows per second are the operations per second times the number of rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({"1000", "100000"})
+    public int rowCount;
+
+    private RawEntity[] rawEntities;
+    private ParsedEntity[] parsedEntities;
+    private GtfsSpecRepository specRepo;
+    private RawFileInfo rawFileInfo;
+    private GtfsSpecRepository.ParsedEntityTypeValidator validator;
+
+    @Setup(Level.Trial)
+    public void readAndParseFile() {
+        rawFileInfo = SyntheticGtfs.writeStopTimes(rowCount);
+        final List<RawEntity> rawEntityList = SyntheticGtfs.readAll(rawFileInfo);
+        rawEntities = rawEntityList.toArray(new RawEntity[0]);
+        specRepo = SyntheticGtfs.loadSpecRepository();
+        final GtfsSpecRepository.RawEntityParser parser = specRepo.getParserForFile(rawFileInfo);
+        parsedEntities = rawEntityList.stream().map(parser::parse).toArray(ParsedEntity[]::new);
+        validator = specRepo.getValidatorForFile(rawFileInfo);
+    }
+
+    @Benchmark
+    public void validateNonStringTypes(final Blackhole blackhole) {
+        final GtfsSpecRepository.RawEntityParser parser = specRepo.getParserForFile(rawFileInfo);
+        for (RawEntity rawEntity : rawEntities) {
+            blackhole.consume(parser.validateNonStringTypes(rawEntity));
+        }
+    }
+
+    @Benchmark
+    public void parse(final Blackhole blackhole) {
+        final GtfsSpecRepository.RawEntityParser parser = specRepo.getParserForFile(rawFileInfo);
+        for (RawEntity rawEntity : rawEntities) {
+            blackhole.consume(parser.parse(rawEntity));
+        }
+    }
+
+    @Benchmark
+    public void validateTypes(final Blackhole blackhole) {
+        for (ParsedEntity parsedEntity : parsedEntities) {
+            blackhole.consume(validator.validate(parsedEntity));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.benchmark;
+
+import org.mobilitydata.gtfsvalidator.db.FromFileRawEntityProvider;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link FromFileRawEntityProvider#getNext()}: an operation reads all the rows of a stop_times.txt file, so
+ * that rows per second are the operations per second times the number of rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RawEntityProviderBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int rowCount;
+
+    private RawFileInfo rawFileInfo;
+
+    @Setup(Level.Trial)
+    public void writeFile() {
+        rawFileInfo = SyntheticGtfs.writeStopTimes(rowCount);
+    }
+
+    @Benchmark
+    public void readAllRows(final Blackhole blackhole) throws IOException {
+        final FromFileRawEntityProvider provider = new FromFileRawEntityProvider(rawFileInfo);
+        while (provider.hasNext()) {
+            blackhole.consume(provider.getNext());
+        }
+    }
+}
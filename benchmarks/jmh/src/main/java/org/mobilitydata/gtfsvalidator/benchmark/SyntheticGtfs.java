@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.benchmark;
+
+import com.google.common.io.Resources;
+import org.mobilitydata.gtfsvalidator.db.FromFileRawEntityProvider;
+import org.mobilitydata.gtfsvalidator.db.InMemoryGtfsSpecRepository;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.*;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonStandardHeaderNotice;
+import org.mobilitydata.gtfsvalidator.usecase.port.GtfsSpecRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic GTFS data for benchmarks: a stop_times.txt file of a given number of rows, and notices of the kinds found
+ * when validating such a file. Data only depends on the requested size, so that runs are comparable. One row out of
+ * {@link #INVALID_ROW_INTERVAL} has an invalid value, so that the paths generating notices are exercised too.
+ */
+final class SyntheticGtfs {
+    static final String STOP_TIMES_TXT = "stop_times.txt";
+    static final int INVALID_ROW_INTERVAL = 100;
+    private static final int STOP_COUNT_PER_TRIP = 20;
+
+    private SyntheticGtfs() {
+    }
+
+    /**
+     * Writes a stop_times.txt file of {@code rowCount} rows in a new temporary directory
+     *
+     * @param rowCount the number of rows, header excluded
+     * @return information about the written file
+     */
+    static RawFileInfo writeStopTimes(final int rowCount) {
+        try {
+            final Path directory = Files.createTempDirectory("gtfs-benchmark-");
+            directory.toFile().deleteOnExit();
+            final Path file = directory.resolve(STOP_TIMES_TXT);
+            file.toFile().deleteOnExit();
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write("trip_id,arrival_time,departure_time,stop_id,stop_sequence,stop_headsign," +
+                        "pickup_type,drop_off_type,shape_dist_traveled,timepoint\n");
+                for (int row = 0; row < rowCount; ++row) {
+                    final int stopSequence = row % STOP_COUNT_PER_TRIP + 1;
+                    final int seconds = 6 * 3600 + row / STOP_COUNT_PER_TRIP * 60 + stopSequence * 90;
+                    final String time = String.format("%02d:%02d:%02d", seconds / 3600, seconds / 60 % 60,
+                            seconds % 60);
+                    final boolean isInvalid = row % INVALID_ROW_INTERVAL == INVALID_ROW_INTERVAL - 1;
+                    writer.write("trip_" + row / STOP_COUNT_PER_TRIP + ',' + time + ',' + time + ",stop_" +
+                            row % 1000 + ',' + stopSequence + ",\"Downtown, " + row % 7 + "\"," +
+                            (isInvalid ? "9" : "0") + ",0," + (isInvalid ? "x" : stopSequence * 1.5f) + ",1\n");
+                }
+            }
+            return RawFileInfo.builder().filename(STOP_TIMES_TXT).path(directory.toString()).build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads all the rows of a file written by {@link #writeStopTimes(int)}
+     *
+     * @param rawFileInfo information about the file
+     * @return the rows of the file
+     */
+    static List<RawEntity> readAll(final RawFileInfo rawFileInfo) {
+        try {
+            final FromFileRawEntityProvider provider = new FromFileRawEntityProvider(rawFileInfo);
+            final List<RawEntity> toReturn = new ArrayList<>();
+            while (provider.hasNext()) {
+                toReturn.add(provider.getNext());
+            }
+            return toReturn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the repository of the GTFS specification shipped with the validator
+     *
+     * @return the repository of the GTFS specification
+     */
+    @SuppressWarnings("UnstableApiUsage")
+    static GtfsSpecRepository loadSpecRepository() {
+        try {
+            return new InMemoryGtfsSpecRepository(Resources.toString(Resources.getResource("gtfs_spec.asciipb"),
+                    StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns {@code noticeCount} notices, cycling through several kinds of notices
+     *
+     * @param noticeCount the number of notices
+     * @return the notices
+     */
+    static List<Notice> createNotices(final int noticeCount) {
+        final List<Notice> toReturn = new ArrayList<>(noticeCount);
+        for (int i = 0; i < noticeCount; ++i) {
+            final int lineNumber = i + 2;
+            switch (i % 5) {
+                case 0:
+                    toReturn.add(new CannotParseFloatNotice(STOP_TIMES_TXT, "shape_dist_traveled", lineNumber, "x"));
+                    break;
+                case 1:
+                    toReturn.add(new IntegerFieldValueOutOfRangeNotice(STOP_TIMES_TXT, "pickup_type",
+                            "trip_" + i, lineNumber, 0, 3, 9));
+                    break;
+                case 2:
+                    toReturn.add(new InvalidRowLengthNotice(STOP_TIMES_TXT, lineNumber, 10, 9));
+                    break;
+                case 3:
+                    toReturn.add(new MissingRequiredValueNotice(STOP_TIMES_TXT, "stop_id", "trip_" + i,
+                            lineNumber));
+                    break;
+                default:
+                    toReturn.add(new NonStandardHeaderNotice(STOP_TIMES_TXT, "extra_" + i % 10));
+            }
+        }
+        return toReturn;
+    }
+}
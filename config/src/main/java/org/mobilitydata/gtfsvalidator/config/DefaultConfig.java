@@ -19,15 +19,22 @@ package org.mobilitydata.gtfsvalidator.config;
 import com.google.common.io.Resources;
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.logging.log4j.Logger;
+import org.mobilitydata.gtfsvalidator.db.AggregatingValidationResultRepository;
+import org.mobilitydata.gtfsvalidator.db.ExternalRecordSortRepository;
 import org.mobilitydata.gtfsvalidator.db.InMemoryExecParamRepository;
 import org.mobilitydata.gtfsvalidator.db.InMemoryGtfsSpecRepository;
+import org.mobilitydata.gtfsvalidator.db.InMemoryMetricsRepository;
 import org.mobilitydata.gtfsvalidator.db.InMemoryRawFileRepository;
 import org.mobilitydata.gtfsvalidator.db.InMemoryValidationResultRepository;
+import org.mobilitydata.gtfsvalidator.db.NoticeCountingValidationResultRepository;
+import org.mobilitydata.gtfsvalidator.db.StreamingValidationResultRepository;
 import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
 import org.mobilitydata.gtfsvalidator.usecase.*;
 import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
 import org.mobilitydata.gtfsvalidator.usecase.port.GtfsSpecRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.MetricsRepository;
 import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.RecordSortRepository;
 import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
 
 import java.io.IOException;
@@ -35,6 +42,9 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Configuration calling use cases for the execution of the validation process. This is necessary for the validation
@@ -42,10 +52,15 @@ import java.nio.file.Paths;
  */
 public class DefaultConfig {
     private final GtfsSpecRepository specRepo;
-    private final RawFileRepository rawFileRepo = new InMemoryRawFileRepository();
-    private final ValidationResultRepository resultRepo = new InMemoryValidationResultRepository();
+    private final RawFileRepository rawFileRepo;
+    private ValidationResultRepository resultRepo;
     private final ExecParamRepository execParamRepo;
+    private final MetricsRepository metricsRepo = new InMemoryMetricsRepository();
+    private final ProgressTracker progressTracker = new ProgressTracker();
     private final Logger logger;
+    private ExecutorService workerPool;
+    private boolean isWorkerPoolResolved;
+    private RecordSortRepository sortRepo;
 
     @SuppressWarnings("UnstableApiUsage")
     public DefaultConfig(final Logger logger) {
@@ -59,6 +74,7 @@ public class DefaultConfig {
             e.printStackTrace();
         }
         execParamRepo = new InMemoryExecParamRepository(defaultParameterJsonString, this.logger);
+        rawFileRepo = new InMemoryRawFileRepository(execParamRepo);
 
         String gtfsSpecProtobufString = null;
 
@@ -75,7 +91,7 @@ public class DefaultConfig {
     }
 
     public DownloadArchiveFromNetwork downloadArchiveFromNetwork() {
-        return new DownloadArchiveFromNetwork(resultRepo, execParamRepo, logger);
+        return new DownloadArchiveFromNetwork(getResultRepo(), execParamRepo, logger, metricsRepo);
     }
 
     public CleanOrCreatePath cleanOrCreatePath() {
@@ -83,11 +99,12 @@ public class DefaultConfig {
     }
 
     public UnzipInputArchive unzipInputArchive(final Path zipExtractPath) {
-        return new UnzipInputArchive(rawFileRepo, zipExtractPath, resultRepo, execParamRepo, logger);
+        return new UnzipInputArchive(rawFileRepo, zipExtractPath, getResultRepo(), execParamRepo, logger,
+                metricsRepo, getWorkerExecutor());
     }
 
     public ValidateAllRequiredFilePresence validateAllRequiredFilePresence() {
-        return new ValidateAllRequiredFilePresence(specRepo, rawFileRepo, resultRepo);
+        return new ValidateAllRequiredFilePresence(specRepo, rawFileRepo, getResultRepo());
     }
 
     public ValidateHeadersForFile validateHeadersForFile(final String filename) {
@@ -95,7 +112,7 @@ public class DefaultConfig {
                 specRepo,
                 rawFileRepo.findByName(filename).orElse(RawFileInfo.builder().build()),
                 rawFileRepo,
-                resultRepo
+                getResultRepo()
         );
     }
 
@@ -103,7 +120,7 @@ public class DefaultConfig {
         return new ValidateAllRowLengthForFile(
                 rawFileRepo.findByName(filename).orElse(RawFileInfo.builder().build()),
                 rawFileRepo,
-                resultRepo
+                getResultRepo()
         );
     }
 
@@ -112,23 +129,151 @@ public class DefaultConfig {
                 rawFileRepo.findByName(filename).orElse(RawFileInfo.builder().build()),
                 rawFileRepo,
                 specRepo,
-                resultRepo
+                getResultRepo()
         );
     }
 
+    public ParseAndValidateAllRowsForFile parseAndValidateAllRowsForFile(final String filename) {
+        return new ParseAndValidateAllRowsForFile(
+                rawFileRepo.findByName(filename).orElse(RawFileInfo.builder().filename(filename).build()),
+                rawFileRepo,
+                specRepo,
+                getResultRepo(),
+                execParamRepo,
+                getWorkerExecutor(),
+                getSortRepo(),
+                metricsRepo,
+                progressTracker
+        );
+    }
+
+    public ValidateAllUniqueValues validateAllUniqueValues() {
+        return new ValidateAllUniqueValues(rawFileRepo, specRepo, getResultRepo(), execParamRepo, getWorkerExecutor(),
+                metricsRepo);
+    }
+
+    public ValidateAllForeignKeys validateAllForeignKeys() {
+        return new ValidateAllForeignKeys(rawFileRepo, specRepo, getResultRepo(), execParamRepo, getWorkerExecutor(),
+                metricsRepo);
+    }
+
+    /**
+     * Returns the repository of notices. It is created on first use, once execution parameters are known: notices are
+     * exported as soon as they are found if {@link ExecParamRepository#STREAM_RESULTS_KEY} is set, else they are held
+     * in memory until the end of the validation process: as aggregates if
+     * {@link ExecParamRepository#AGGREGATE_RESULTS_KEY} is set, else one by one. Notices are counted by notice id for
+     * the progress of the validation process as they are added.
+     *
+     * @return the repository of notices
+     */
+    private synchronized ValidationResultRepository getResultRepo() {
+        if (resultRepo == null) {
+            final ValidationResultRepository noticeRepo;
+            if (Boolean.parseBoolean(execParamRepo.getExecParamValue(ExecParamRepository.STREAM_RESULTS_KEY))) {
+                noticeRepo = new StreamingValidationResultRepository(execParamRepo);
+            } else if (Boolean.parseBoolean(
+                    execParamRepo.getExecParamValue(ExecParamRepository.AGGREGATE_RESULTS_KEY))) {
+                noticeRepo = new AggregatingValidationResultRepository(execParamRepo);
+            } else {
+                noticeRepo = new InMemoryValidationResultRepository(execParamRepo);
+            }
+            resultRepo = new NoticeCountingValidationResultRepository(noticeRepo, progressTracker);
+        }
+        return resultRepo;
+    }
+
+    /**
+     * Returns the repository sorting rows too many to be held in memory. It is created on first use, once execution
+     * parameters are known: its memory budget and temporary directory are {@link ExecParamRepository#SORT_MEMORY_KEY}
+     * and {@link ExecParamRepository#SORT_TEMP_DIR_KEY}.
+     *
+     * @return the repository sorting rows
+     */
+    private synchronized RecordSortRepository getSortRepo() {
+        if (sortRepo == null) {
+            sortRepo = new ExternalRecordSortRepository(execParamRepo);
+        }
+        return sortRepo;
+    }
+
+    /**
+     * Returns the pool of threads shared by the whole validation process: it extracts the entries of the input archive,
+     * validates files and reads the ranges of large files, so that the number of threads requested by the execution
+     * parameters bounds the threads working at once. It is created on first use, once execution parameters are known,
+     * and is null if a single thread is requested. It is to be shut down with {@link #shutdownWorkerPool(boolean)}.
+     *
+     * @return the pool of threads of the validation process, or null if a single thread is requested
+     */
+    public synchronized ExecutorService getWorkerPool() {
+        if (!isWorkerPoolResolved) {
+            final int threadCount =
+                    Integer.parseInt(execParamRepo.getExecParamValue(ExecParamRepository.THREADS_KEY));
+            if (threadCount > 1) {
+                workerPool = Executors.newFixedThreadPool(threadCount, runnable -> {
+                    final Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            isWorkerPoolResolved = true;
+        }
+        return workerPool;
+    }
+
+    /**
+     * Shuts down the pool of threads of the validation process, if it was created
+     *
+     * @param isInterrupted true if the validation failed: tasks still queued are dropped and running tasks are
+     *                      interrupted. Else, tasks already submitted are run.
+     */
+    public synchronized void shutdownWorkerPool(final boolean isInterrupted) {
+        if (workerPool == null) {
+            return;
+        }
+        if (isInterrupted) {
+            workerPool.shutdownNow();
+        } else {
+            workerPool.shutdown();
+        }
+    }
+
+    /**
+     * Returns the executor of the use cases that work in parallel: the pool of threads of the validation process, or
+     * the calling thread if a single thread is requested. A file waiting for a range that no thread of the pool has
+     * started runs it itself, hence files and their ranges can share the pool.
+     *
+     * @return the executor of the use cases that work in parallel
+     */
+    private Executor getWorkerExecutor() {
+        final ExecutorService pool = getWorkerPool();
+        return pool != null ? pool : Runnable::run;
+    }
+
     public ValidateGtfsTypes validateGtfsTypes() {
         return new ValidateGtfsTypes(
                 specRepo,
-                resultRepo
+                getResultRepo()
         );
     }
 
     public ValidateAllOptionalFilename validateAllOptionalFileName() {
-        return new ValidateAllOptionalFilename(specRepo, rawFileRepo, resultRepo);
+        return new ValidateAllOptionalFilename(specRepo, rawFileRepo, getResultRepo());
     }
 
     public ExportResultAsFile exportResultAsFile() {
-        return new ExportResultAsFile(resultRepo, execParamRepo, logger);
+        return new ExportResultAsFile(getResultRepo(), execParamRepo, logger, metricsRepo);
+    }
+
+    public ExportMetricsAsFile exportMetricsAsFile() {
+        return new ExportMetricsAsFile(metricsRepo, execParamRepo, logger);
+    }
+
+    public RecordFlightData recordFlightData() {
+        return new RecordFlightData(execParamRepo, logger);
+    }
+
+    public LogProgress logProgress() {
+        return new LogProgress(progressTracker, rawFileRepo, execParamRepo, logger);
     }
 
     public ParseAllExecParam parseAllExecutionParameter() throws IOException {
@@ -140,6 +285,28 @@ public class DefaultConfig {
         return new LogExecutionInfo(logger, execParamRepo);
     }
 
+    /**
+     * Returns the value of the execution parameter associated to the key passed as parameter, or its default value
+     *
+     * @param key the key of the execution parameter
+     * @return the value of the execution parameter associated to the key passed as parameter
+     */
+    public String getExecParamValue(final String key) {
+        return execParamRepo.getExecParamValue(key);
+    }
+
+    /**
+     * Returns true if a file is defined by the GTFS specification, as a required or an optional file. Only these files
+     * are validated.
+     *
+     * @param filename the name of the file
+     * @return true if the file is defined by the GTFS specification
+     */
+    public boolean isSpecFile(final String filename) {
+        return specRepo.getRequiredFilenameList().contains(filename)
+                || specRepo.getOptionalFilenameList().contains(filename);
+    }
+
     public PrintHelp printHelp() {
         return new PrintHelp(execParamRepo, new HelpFormatter());
     }
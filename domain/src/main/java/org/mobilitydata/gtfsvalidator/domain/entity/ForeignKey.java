@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents a reference from the rows of a GTFS file to the rows of other files: the values of a tuple of columns of
+ * the referencing file must be found among the values of a key of at least one of the referenced files, rows with an
+ * empty value in one of the columns excepted. For instance, the trip_id of stop_times.txt references the trip_id of
+ * trips.txt, and the service_id of trips.txt references the service_id of calendar.txt or calendar_dates.txt.
+ */
+public class ForeignKey {
+    private final String filename;
+    private final List<String> columnNameList;
+    private final List<ReferencedKey> referencedKeyList;
+
+    /**
+     * @param filename          the name of the referencing file
+     * @param columnNameList    the columns of the referencing file whose values are references
+     * @param referencedKeyList the keys of the referenced files, among which values must be found
+     */
+    public ForeignKey(final String filename,
+                      final List<String> columnNameList,
+                      final List<ReferencedKey> referencedKeyList) {
+        this.filename = filename;
+        this.columnNameList = Collections.unmodifiableList(columnNameList);
+        this.referencedKeyList = Collections.unmodifiableList(referencedKeyList);
+    }
+
+    /**
+     * Returns the name of the referencing file
+     *
+     * @return the name of the referencing file
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    /**
+     * Returns the columns of the referencing file whose values are references
+     *
+     * @return the columns of the referencing file whose values are references
+     */
+    public List<String> getColumnNameList() {
+        return columnNameList;
+    }
+
+    /**
+     * Returns the keys of the referenced files, among which values must be found
+     *
+     * @return the keys of the referenced files, among which values must be found
+     */
+    public List<ReferencedKey> getReferencedKeyList() {
+        return referencedKeyList;
+    }
+
+    /**
+     * A key of a referenced file: a tuple of columns with as many columns as the foreign key referencing it
+     */
+    public static class ReferencedKey {
+        private final String filename;
+        private final List<String> columnNameList;
+
+        /**
+         * @param filename       the name of the referenced file
+         * @param columnNameList the columns of the key, in the order of the columns of the foreign key
+         */
+        public ReferencedKey(final String filename, final List<String> columnNameList) {
+            this.filename = filename;
+            this.columnNameList = Collections.unmodifiableList(columnNameList);
+        }
+
+        /**
+         * Returns the name of the referenced file
+         *
+         * @return the name of the referenced file
+         */
+        public String getFilename() {
+            return filename;
+        }
+
+        /**
+         * Returns the columns of the key, in the order of the columns of the foreign key
+         *
+         * @return the columns of the key, in the order of the columns of the foreign key
+         */
+        public List<String> getColumnNameList() {
+            return columnNameList;
+        }
+    }
+}
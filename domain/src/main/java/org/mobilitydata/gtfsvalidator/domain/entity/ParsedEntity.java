@@ -16,20 +16,47 @@
 
 package org.mobilitydata.gtfsvalidator.domain.entity;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.Map;
 
 /**
  * Represents a row of a GTFS file that has been parsed: the type of each column of the raw data has been determined.
+ * Values are either mapped on header names, or stored by type in primitive arrays whose layout is given by a
+ * {@link ParsedEntitySchema} shared by all the rows of a file. In the latter case, values can be read without boxing
+ * through the typed accessors, {@link #get(String)} remaining available to read any value by header name.
  */
 public class ParsedEntity {
+    private static final int[] NO_INT_VALUES = new int[0];
+    private static final float[] NO_FLOAT_VALUES = new float[0];
+    private static final long[] NO_LONG_VALUES = new long[0];
+    private static final String[] NO_STRING_VALUES = new String[0];
 
     private final RawFileInfo rawFileInfo;
     private final String entityId;
+    /**
+     * The 1 based index of the row the entity was parsed from, 0 if unknown
+     */
+    private final int lineNumber;
     /**
      * Key: header string from original CSV file
      * Value: a String, Integer or Float, depending on the declared type of the column
+     * Null if values are stored by type
      */
     private final Map<String, Object> contentByHeaderMap;
+    private final ParsedEntitySchema schema;
+    private final int[] intValues;
+    private final float[] floatValues;
+    /**
+     * Dates, as the number of seconds from 1970-01-01T00:00 to their local date-time
+     */
+    private final long[] longValues;
+    private final String[] stringValues;
+    /**
+     * One bit per column, set if the column has no value
+     */
+    private final long[] nullBits;
 
     /**
      * @param rawFileInfo        an object containing information regarding a file location and expected content
@@ -40,6 +67,26 @@ public class ParsedEntity {
         this.contentByHeaderMap = contentByHeaderMap;
         this.rawFileInfo = rawFileInfo;
         this.entityId = id;
+        this.lineNumber = 0;
+        this.schema = null;
+        this.intValues = null;
+        this.floatValues = null;
+        this.longValues = null;
+        this.stringValues = null;
+        this.nullBits = null;
+    }
+
+    private ParsedEntity(final ParsedEntityBuilder builder) {
+        this.contentByHeaderMap = null;
+        this.rawFileInfo = builder.rawFileInfo;
+        this.entityId = builder.entityId;
+        this.lineNumber = builder.lineNumber;
+        this.schema = builder.schema;
+        this.intValues = builder.intValues;
+        this.floatValues = builder.floatValues;
+        this.longValues = builder.longValues;
+        this.stringValues = builder.stringValues;
+        this.nullBits = builder.nullBits;
     }
 
     /**
@@ -52,13 +99,106 @@ public class ParsedEntity {
     }
 
     /**
-     * Returns the value contained in a parsed row for a given header (column)
+     * Returns the 1 based index of the row the entity was parsed from, 0 if unknown
+     *
+     * @return the 1 based index of the row the entity was parsed from, 0 if unknown
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Returns the value contained in a parsed row for a given header (column). Values stored by type are boxed:
+     * integers as {@link Integer}, floats as {@link Float} and dates as {@link LocalDateTime}.
      *
      * @param header a GTFS file column header
      * @return the value contained in a parsed row for a given header (column)
      */
     public Object get(final String header) {
-        return contentByHeaderMap.get(header);
+        if (contentByHeaderMap != null) {
+            return contentByHeaderMap.get(header);
+        }
+        final int columnIndex = schema.getIndex(header);
+        if (columnIndex < 0 || isNull(columnIndex)) {
+            return null;
+        }
+        final int slot = schema.getSlot(columnIndex);
+        switch (schema.getValueType(columnIndex)) {
+            case INTEGER:
+                return intValues[slot];
+            case FLOAT:
+                return floatValues[slot];
+            case DATE:
+                return LocalDateTime.ofEpochSecond(longValues[slot], 0, ZoneOffset.UTC);
+            default:
+                return stringValues[slot];
+        }
+    }
+
+    /**
+     * Returns the schema giving the position of the values stored by type, or null if values are mapped on header
+     * names. Positions are resolved once per file with {@link ParsedEntitySchema#getIndex(String)}.
+     *
+     * @return the schema giving the position of the values stored by type, or null if values are mapped on header
+     * names
+     */
+    public ParsedEntitySchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Returns true if a parsed row has no value at a given position
+     *
+     * @param columnIndex the 0 based position of a column of the {@link ParsedEntitySchema}
+     * @return true if a parsed row has no value at a given position
+     */
+    public boolean isNull(final int columnIndex) {
+        if (schema == null) {
+            throw new IllegalArgumentException("Values of this entity are mapped on header names");
+        }
+        return (nullBits[columnIndex >>> 6] & (1L << columnIndex)) != 0;
+    }
+
+    /**
+     * Returns the value of an integer column, 0 if the row has no value for this column
+     *
+     * @param columnIndex the 0 based position of an integer column of the {@link ParsedEntitySchema}
+     * @return the value of the column
+     */
+    public int getInt(final int columnIndex) {
+        return intValues[slot(columnIndex, ParsedEntitySchema.ValueType.INTEGER)];
+    }
+
+    /**
+     * Returns the value of a float column, 0 if the row has no value for this column
+     *
+     * @param columnIndex the 0 based position of a float column of the {@link ParsedEntitySchema}
+     * @return the value of the column
+     */
+    public float getFloat(final int columnIndex) {
+        return floatValues[slot(columnIndex, ParsedEntitySchema.ValueType.FLOAT)];
+    }
+
+    /**
+     * Returns the value of a date column as the number of seconds from 1970-01-01T00:00 to its local date-time, 0 if
+     * the row has no value for this column
+     *
+     * @param columnIndex the 0 based position of a date column of the {@link ParsedEntitySchema}
+     * @return the value of the column, as given by {@link LocalDateTime#toEpochSecond(ZoneOffset)} at
+     * {@link ZoneOffset#UTC}
+     */
+    public long getLong(final int columnIndex) {
+        return longValues[slot(columnIndex, ParsedEntitySchema.ValueType.DATE)];
+    }
+
+    /**
+     * Returns the value of a column holding strings, null if the row has no value for this column
+     *
+     * @param columnIndex the 0 based position of a string column of the {@link ParsedEntitySchema}
+     * @return the value of the column
+     */
+    public String getString(final int columnIndex) {
+        return stringValues[slot(columnIndex, ParsedEntitySchema.ValueType.STRING)];
     }
 
     /**
@@ -69,4 +209,140 @@ public class ParsedEntity {
     public RawFileInfo getRawFileInfo() {
         return rawFileInfo;
     }
+
+    private int slot(final int columnIndex, final ParsedEntitySchema.ValueType valueType) {
+        if (schema == null || schema.getValueType(columnIndex) != valueType) {
+            throw new IllegalArgumentException("Column " + columnIndex + " does not hold " + valueType + " values");
+        }
+        return schema.getSlot(columnIndex);
+    }
+
+    /**
+     * Builder class to create {@link ParsedEntity} objects whose values are stored by type. A builder is bound to the
+     * schema of a file and is reused for all its rows: each call to {@link #build()} hands the values set so far to
+     * the built entity and starts a new row with no value. Not thread safe.
+     */
+    public static class ParsedEntityBuilder {
+        private final ParsedEntitySchema schema;
+        private final RawFileInfo rawFileInfo;
+        private String entityId;
+        private int lineNumber;
+        private int[] intValues;
+        private float[] floatValues;
+        private long[] longValues;
+        private String[] stringValues;
+        private long[] nullBits;
+
+        /**
+         * @param schema      the schema of the rows to build
+         * @param rawFileInfo an object containing information regarding a file location and expected content
+         */
+        public ParsedEntityBuilder(final ParsedEntitySchema schema, final RawFileInfo rawFileInfo) {
+            this.schema = schema;
+            this.rawFileInfo = rawFileInfo;
+            clear();
+        }
+
+        /**
+         * Sets the id extracted from the original row
+         *
+         * @param entityId the id extracted from the original row
+         * @return builder for future object creation
+         */
+        public ParsedEntityBuilder entityId(final String entityId) {
+            this.entityId = entityId;
+            return this;
+        }
+
+        /**
+         * Sets the 1 based index of the row the entity is parsed from
+         *
+         * @param lineNumber the 1 based index of the row the entity is parsed from
+         * @return builder for future object creation
+         */
+        public ParsedEntityBuilder lineNumber(final int lineNumber) {
+            this.lineNumber = lineNumber;
+            return this;
+        }
+
+        /**
+         * Sets the value of an integer column
+         *
+         * @param columnIndex the 0 based position of an integer column of the schema
+         * @param value       the value of the column
+         * @return builder for future object creation
+         */
+        public ParsedEntityBuilder intValue(final int columnIndex, final int value) {
+            intValues[slot(columnIndex, ParsedEntitySchema.ValueType.INTEGER)] = value;
+            return this;
+        }
+
+        /**
+         * Sets the value of a float column
+         *
+         * @param columnIndex the 0 based position of a float column of the schema
+         * @param value       the value of the column
+         * @return builder for future object creation
+         */
+        public ParsedEntityBuilder floatValue(final int columnIndex, final float value) {
+            floatValues[slot(columnIndex, ParsedEntitySchema.ValueType.FLOAT)] = value;
+            return this;
+        }
+
+        /**
+         * Sets the value of a date column
+         *
+         * @param columnIndex the 0 based position of a date column of the schema
+         * @param value       the local date-time of the column, as given by
+         *                    {@link LocalDateTime#toEpochSecond(ZoneOffset)} at {@link ZoneOffset#UTC}
+         * @return builder for future object creation
+         */
+        public ParsedEntityBuilder longValue(final int columnIndex, final long value) {
+            longValues[slot(columnIndex, ParsedEntitySchema.ValueType.DATE)] = value;
+            return this;
+        }
+
+        /**
+         * Sets the value of a column holding strings
+         *
+         * @param columnIndex the 0 based position of a string column of the schema
+         * @param value       the value of the column
+         * @return builder for future object creation
+         */
+        public ParsedEntityBuilder stringValue(final int columnIndex, final String value) {
+            stringValues[slot(columnIndex, ParsedEntitySchema.ValueType.STRING)] = value;
+            return this;
+        }
+
+        /**
+         * Returns a {@link ParsedEntity} holding the values set since the previous call, columns whose value was not
+         * set having no value
+         *
+         * @return a {@link ParsedEntity} holding the values set since the previous call
+         */
+        public ParsedEntity build() {
+            final ParsedEntity toReturn = new ParsedEntity(this);
+            clear();
+            return toReturn;
+        }
+
+        private int slot(final int columnIndex, final ParsedEntitySchema.ValueType valueType) {
+            if (schema.getValueType(columnIndex) != valueType) {
+                throw new IllegalArgumentException("Column " + columnIndex + " does not hold " + valueType + " values");
+            }
+            nullBits[columnIndex >>> 6] &= ~(1L << columnIndex);
+            return schema.getSlot(columnIndex);
+        }
+
+        private void clear() {
+            entityId = null;
+            lineNumber = 0;
+            intValues = schema.getIntCount() == 0 ? NO_INT_VALUES : new int[schema.getIntCount()];
+            floatValues = schema.getFloatCount() == 0 ? NO_FLOAT_VALUES : new float[schema.getFloatCount()];
+            longValues = schema.getLongCount() == 0 ? NO_LONG_VALUES : new long[schema.getLongCount()];
+            stringValues = schema.getStringCount() == 0 ? NO_STRING_VALUES : new String[schema.getStringCount()];
+            nullBits = new long[(schema.size() + 63) >>> 6];
+            Arrays.fill(nullBits, -1L);
+        }
+    }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents the columns of a parsed GTFS file and the type of their values. Each column is given a slot in the storage
+ * area matching its type, so that rows of a file are stored as primitive arrays shared by type instead of a map of
+ * boxed values: integers in an {@code int[]}, floats in a {@code float[]}, dates in a {@code long[]} and any other
+ * value in a {@code String[]}. Slots are resolved once per file and shared by all the {@link ParsedEntity} of the file.
+ */
+public class ParsedEntitySchema {
+    /**
+     * The type of the values of a column, which determines the storage area of the column
+     */
+    public enum ValueType {
+        INTEGER,
+        FLOAT,
+        DATE,
+        STRING
+    }
+
+    private final List<String> headerList;
+    private final ValueType[] valueTypes;
+    private final int[] slots;
+    private final Map<String, Integer> indexByHeader;
+    private final int intCount;
+    private final int floatCount;
+    private final int longCount;
+    private final int stringCount;
+
+    /**
+     * @param headerList    the headers of a GTFS file, in the order of the columns of the parsed rows
+     * @param valueTypeList the type of the values of each column, in the same order as {@code headerList}
+     */
+    public ParsedEntitySchema(final List<String> headerList, final List<ValueType> valueTypeList) {
+        if (headerList.size() != valueTypeList.size()) {
+            throw new IllegalArgumentException("Each header must have a value type");
+        }
+        this.headerList = Collections.unmodifiableList(headerList);
+        this.valueTypes = valueTypeList.toArray(new ValueType[0]);
+        this.slots = new int[valueTypes.length];
+        this.indexByHeader = new HashMap<>(headerList.size() * 2);
+        int intCount = 0;
+        int floatCount = 0;
+        int longCount = 0;
+        int stringCount = 0;
+        for (int i = 0; i < valueTypes.length; ++i) {
+            // when a header is duplicated, its last occurrence is kept
+            indexByHeader.put(headerList.get(i), i);
+            switch (valueTypes[i]) {
+                case INTEGER:
+                    slots[i] = intCount++;
+                    break;
+                case FLOAT:
+                    slots[i] = floatCount++;
+                    break;
+                case DATE:
+                    slots[i] = longCount++;
+                    break;
+                default:
+                    slots[i] = stringCount++;
+                    break;
+            }
+        }
+        this.intCount = intCount;
+        this.floatCount = floatCount;
+        this.longCount = longCount;
+        this.stringCount = stringCount;
+    }
+
+    /**
+     * Returns the 0 based position of a header (column), or -1 if the header is not part of the schema
+     *
+     * @param header a GTFS file column header
+     * @return the 0 based position of a header (column), or -1 if the header is not part of the schema
+     */
+    public int getIndex(final String header) {
+        return indexByHeader.getOrDefault(header, -1);
+    }
+
+    /**
+     * Returns the headers (columns), in the order of the columns of the parsed rows
+     *
+     * @return the headers (columns), in the order of the columns of the parsed rows
+     */
+    public List<String> getHeaderList() {
+        return headerList;
+    }
+
+    /**
+     * Returns the type of the values of a column
+     *
+     * @param columnIndex the 0 based position of a column
+     * @return the type of the values of the column
+     */
+    public ValueType getValueType(final int columnIndex) {
+        return valueTypes[columnIndex];
+    }
+
+    /**
+     * Returns the number of headers (columns).
+     *
+     * @return the number of headers (columns)
+     */
+    public int size() {
+        return valueTypes.length;
+    }
+
+    /**
+     * Returns the position of a column in the storage area of its type
+     *
+     * @param columnIndex the 0 based position of a column
+     * @return the position of the column in the storage area of its type
+     */
+    int getSlot(final int columnIndex) {
+        return slots[columnIndex];
+    }
+
+    int getIntCount() {
+        return intCount;
+    }
+
+    int getFloatCount() {
+        return floatCount;
+    }
+
+    int getLongCount() {
+        return longCount;
+    }
+
+    int getStringCount() {
+        return stringCount;
+    }
+}
@@ -16,18 +16,20 @@
 
 package org.mobilitydata.gtfsvalidator.domain.entity;
 
+import java.util.ArrayList;
 import java.util.Map;
 
 /**
- * Represents a row of a GTFS file as raw string data.
+ * Represents a row of a GTFS file as raw string data. Values are stored by position, the position of each header
+ * being given by the {@link RawEntitySchema} shared by all the rows of a file.
  */
 public class RawEntity {
 
+    private final RawEntitySchema schema;
     /**
-     * Key: header string from original CSV file
-     * Value: a String, the raw value read from the CSV file
+     * The raw values read from the CSV file, in the order of the columns of the row
      */
-    private final Map<String, String> contentByHeaderMap;
+    private final String[] values;
     private final int entityIndex;
 
     /**
@@ -38,10 +40,36 @@ public class RawEntity {
      * @param entityIndex        the 1 based index of the row
      */
     public RawEntity(Map<String, String> contentByHeaderMap, int entityIndex) {
-        this.contentByHeaderMap = contentByHeaderMap;
+        this(new RawEntitySchema(new ArrayList<>(contentByHeaderMap.keySet())),
+                contentByHeaderMap.values().toArray(new String[0]),
+                entityIndex);
+    }
+
+    /**
+     * This class matches a 1 based index identifying the row location within a GTFS CSV file and its content as an
+     * array of strings, positioned according to a {@link RawEntitySchema}.
+     *
+     * @param schema      the schema of the file the row belongs to
+     * @param values      the values of the row, in the order of the columns of the row
+     * @param entityIndex the 1 based index of the row
+     */
+    public RawEntity(final RawEntitySchema schema, final String[] values, final int entityIndex) {
+        this.schema = schema;
+        this.values = values;
         this.entityIndex = entityIndex;
     }
 
+    /**
+     * Builds a row whose values are not held by this class. Subclasses provide them by overriding
+     * {@link #get(int)} and {@link #size()}, which allows values to be decoded only when they are read.
+     *
+     * @param schema      the schema of the file the row belongs to
+     * @param entityIndex the 1 based index of the row
+     */
+    protected RawEntity(final RawEntitySchema schema, final int entityIndex) {
+        this(schema, null, entityIndex);
+    }
+
     /**
      * Returns the value contained in a row for a given header (column)
      *
@@ -49,16 +77,36 @@ public class RawEntity {
      * @return the value contained in a row for a given header (column)
      */
     public String get(final String header) {
-        return contentByHeaderMap.get(header);
+        return get(schema.getIndex(header));
+    }
+
+    /**
+     * Returns the value contained in a row at a given position, or null if the row has no value at this position.
+     * Positions are resolved once per file with {@link RawEntitySchema#getIndex(String)}.
+     *
+     * @param columnIndex the 0 based position of a column
+     * @return the value contained in a row at a given position
+     */
+    public String get(final int columnIndex) {
+        return columnIndex >= 0 && columnIndex < values.length ? values[columnIndex] : null;
+    }
+
+    /**
+     * Returns the schema of the file this row belongs to
+     *
+     * @return the schema of the file this row belongs to
+     */
+    public RawEntitySchema getSchema() {
+        return schema;
     }
 
     /**
-     * Returns the number of headers (columns).
+     * Returns the number of values of the row.
      *
-     * @return the number of headers (columns)
+     * @return the number of values of the row
      */
     public int size() {
-        return contentByHeaderMap.size();
+        return values.length;
     }
 
     /**
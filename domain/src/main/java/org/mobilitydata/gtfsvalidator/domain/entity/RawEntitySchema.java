@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents the header row of a GTFS file. Column positions are resolved once per file from the header, so that
+ * values of a {@link RawEntity} can be accessed by position instead of being mapped on header names for every row.
+ */
+public class RawEntitySchema {
+    private final List<String> headerList;
+    private final Map<String, Integer> indexByHeader;
+
+    /**
+     * @param headerList the headers of a GTFS file, in the order they appear in the file
+     */
+    public RawEntitySchema(final List<String> headerList) {
+        this.headerList = Collections.unmodifiableList(headerList);
+        this.indexByHeader = new HashMap<>(headerList.size() * 2);
+        for (int i = 0; i < headerList.size(); ++i) {
+            // when a header is duplicated, its last occurrence is kept
+            indexByHeader.put(headerList.get(i), i);
+        }
+    }
+
+    /**
+     * Returns the 0 based position of a header (column), or -1 if the header is not part of the schema
+     *
+     * @param header a GTFS file column header
+     * @return the 0 based position of a header (column), or -1 if the header is not part of the schema
+     */
+    public int getIndex(final String header) {
+        return indexByHeader.getOrDefault(header, -1);
+    }
+
+    /**
+     * Returns the headers (columns), in the order they appear in the file
+     *
+     * @return the headers (columns), in the order they appear in the file
+     */
+    public List<String> getHeaderList() {
+        return headerList;
+    }
+
+    /**
+     * Returns the number of headers (columns).
+     *
+     * @return the number of headers (columns)
+     */
+    public int size() {
+        return headerList.size();
+    }
+}
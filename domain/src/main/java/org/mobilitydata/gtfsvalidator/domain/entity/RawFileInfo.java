@@ -17,20 +17,25 @@
 package org.mobilitydata.gtfsvalidator.domain.entity;
 
 /**
- * Contains information regarding a file location and expected content (file name)
+ * Contains information regarding a file location and expected content (file name). A file is either located in a
+ * directory, or is an entry of a zip archive that has not been extracted.
  */
 public class RawFileInfo {
 
     private final String filename;
     private final String path;
+    private final boolean archiveEntry;
 
     /**
-     * @param filename the name of the file
-     * @param path     a relative path to access a file
+     * @param filename     the name of the file
+     * @param path         a relative path to access a file: the directory containing the file, or the zip archive
+     *                     containing it if {@code archiveEntry} is true
+     * @param archiveEntry true if the file is an entry of the zip archive pointed by {@code path}
      */
-    private RawFileInfo(final String filename, final String path) {
+    private RawFileInfo(final String filename, final String path, final boolean archiveEntry) {
         this.filename = filename;
         this.path = path;
+        this.archiveEntry = archiveEntry;
     }
 
     /**
@@ -46,6 +51,7 @@ public class RawFileInfo {
     public static class RawFileInfoBuilder {
         private String filename;
         private String path;
+        private boolean archiveEntry;
 
         public RawFileInfoBuilder() {
         }
@@ -60,13 +66,18 @@ public class RawFileInfo {
             return this;
         }
 
+        public RawFileInfoBuilder archiveEntry(final boolean archiveEntry) {
+            this.archiveEntry = archiveEntry;
+            return this;
+        }
+
         /**
          * Build and return a new instance
          *
          * @return a new instance
          */
         public RawFileInfo build() {
-            return new RawFileInfo(filename, path);
+            return new RawFileInfo(filename, path, archiveEntry);
         }
     }
 
@@ -77,4 +88,14 @@ public class RawFileInfo {
     public String getPath() {
         return path;
     }
+
+    /**
+     * Returns true if the file is an entry of the zip archive returned by {@link #getPath()}, false if it is located
+     * in the directory returned by {@link #getPath()}.
+     *
+     * @return true if the file is an entry of a zip archive
+     */
+    public boolean isArchiveEntry() {
+        return archiveEntry;
+    }
 }
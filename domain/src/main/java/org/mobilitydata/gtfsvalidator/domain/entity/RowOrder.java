@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the order of the rows of a GTFS file: rows are grouped on all the columns of a resort key but the last
+ * one, and sorted within each group on its last column. Along this order, the values of some other columns must not
+ * decrease within a group. For instance, the rows of stop_times.txt are grouped on trip_id and sorted on stop_sequence,
+ * arrival_time, departure_time and shape_dist_traveled not decreasing along a trip.
+ */
+public class RowOrder {
+    private final String filename;
+    private final List<String> resortKeyColumnNameList;
+    private final List<String> sortedColumnNameList;
+
+    /**
+     * @param filename                the name of the file
+     * @param resortKeyColumnNameList the columns of the resort key, the first one being the most significant
+     * @param sortedColumnNameList    the columns whose values must not decrease within a group
+     */
+    public RowOrder(final String filename,
+                    final List<String> resortKeyColumnNameList,
+                    final List<String> sortedColumnNameList) {
+        if (resortKeyColumnNameList.size() < 2) {
+            throw new IllegalArgumentException("A resort key needs a group column and a sequence column");
+        }
+        this.filename = filename;
+        this.resortKeyColumnNameList = Collections.unmodifiableList(resortKeyColumnNameList);
+        this.sortedColumnNameList = Collections.unmodifiableList(sortedColumnNameList);
+    }
+
+    /**
+     * Returns the name of the file
+     *
+     * @return the name of the file
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    /**
+     * Returns the columns of the resort key, the first one being the most significant
+     *
+     * @return the columns of the resort key, the first one being the most significant
+     */
+    public List<String> getResortKeyColumnNameList() {
+        return resortKeyColumnNameList;
+    }
+
+    /**
+     * Returns the columns rows are grouped on: all the columns of the resort key but the last one
+     *
+     * @return the columns rows are grouped on
+     */
+    public List<String> getGroupColumnNameList() {
+        return resortKeyColumnNameList.subList(0, resortKeyColumnNameList.size() - 1);
+    }
+
+    /**
+     * Returns the column rows are sorted on within a group: the last column of the resort key
+     *
+     * @return the column rows are sorted on within a group
+     */
+    public String getSequenceColumnName() {
+        return resortKeyColumnNameList.get(resortKeyColumnNameList.size() - 1);
+    }
+
+    /**
+     * Returns the columns whose values must not decrease within a group
+     *
+     * @return the columns whose values must not decrease within a group
+     */
+    public List<String> getSortedColumnNameList() {
+        return sortedColumnNameList;
+    }
+}
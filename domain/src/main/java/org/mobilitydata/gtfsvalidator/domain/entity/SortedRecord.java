@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity;
+
+/**
+ * Represents a row of a file reduced to the values needed by a check on groups of rows: the key of the group of the
+ * row, the value the rows of a group are sorted on, the line number of the row and the values to check. Records are
+ * sorted on their group key, then on their sort value, then on their line number.
+ */
+public class SortedRecord {
+    private final String groupKey;
+    private final double sortValue;
+    private final int lineNumber;
+    private final double[] values;
+
+    /**
+     * @param groupKey   the key of the group of the row
+     * @param sortValue  the value the rows of a group are sorted on, NaN if the row has none
+     * @param lineNumber the line number of the row in the file
+     * @param values     the values to check, NaN for a missing value
+     */
+    public SortedRecord(final String groupKey, final double sortValue, final int lineNumber, final double[] values) {
+        this.groupKey = groupKey;
+        this.sortValue = sortValue;
+        this.lineNumber = lineNumber;
+        this.values = values;
+    }
+
+    /**
+     * Returns the key of the group of the row
+     *
+     * @return the key of the group of the row
+     */
+    public String getGroupKey() {
+        return groupKey;
+    }
+
+    /**
+     * Returns the value the rows of a group are sorted on
+     *
+     * @return the value the rows of a group are sorted on, NaN if the row has none
+     */
+    public double getSortValue() {
+        return sortValue;
+    }
+
+    /**
+     * Returns the line number of the row in the file
+     *
+     * @return the line number of the row in the file
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Returns the values to check. The array is not copied and must not be modified.
+     *
+     * @return the values to check, NaN for a missing value
+     */
+    public double[] getValues() {
+        return values;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents a tuple of columns of a GTFS file whose values must be unique among the rows of the file, rows with an
+ * empty value in one of the columns excepted. For instance, the stop_id of stops.txt, or the trip_id and stop_sequence
+ * of stop_times.txt.
+ */
+public class UniqueKey {
+    private final String filename;
+    private final List<String> columnNameList;
+
+    /**
+     * @param filename       the name of the file
+     * @param columnNameList the columns whose values must be unique
+     */
+    public UniqueKey(final String filename, final List<String> columnNameList) {
+        this.filename = filename;
+        this.columnNameList = Collections.unmodifiableList(columnNameList);
+    }
+
+    /**
+     * Returns the name of the file
+     *
+     * @return the name of the file
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    /**
+     * Returns the columns whose values must be unique
+     *
+     * @return the columns whose values must be unique
+     */
+    public List<String> getColumnNameList() {
+        return columnNameList;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity.gtfs;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.MissingRequiredValueNotice;
+
+import java.util.List;
+
+/**
+ * Class for all entities defined in shapes.txt: a point of the path travelled by a vehicle. Can not be directly
+ * instantiated: user must use the {@link ShapePointBuilder} to create this.
+ */
+public class ShapePoint extends GtfsEntity {
+    @NotNull
+    private final String shapeId;
+    private final float shapePtLat;
+    private final float shapePtLon;
+    private final int shapePtSequence;
+    @Nullable
+    private final Float shapeDistTraveled;
+
+    /**
+     * Class for all entities defined in shapes.txt
+     *
+     * @param shapeId           identifies a shape
+     * @param shapePtLat        latitude of a shape point
+     * @param shapePtLon        longitude of a shape point
+     * @param shapePtSequence   sequence in which the shape points connect to form the shape
+     * @param shapeDistTraveled actual distance traveled along the shape from the first shape point to the point
+     *                          specified in this record
+     */
+    private ShapePoint(@NotNull final String shapeId,
+                       final float shapePtLat,
+                       final float shapePtLon,
+                       final int shapePtSequence,
+                       @Nullable final Float shapeDistTraveled) {
+        this.shapeId = shapeId;
+        this.shapePtLat = shapePtLat;
+        this.shapePtLon = shapePtLon;
+        this.shapePtSequence = shapePtSequence;
+        this.shapeDistTraveled = shapeDistTraveled;
+    }
+
+    @NotNull
+    public String getShapeId() {
+        return shapeId;
+    }
+
+    public float getShapePtLat() {
+        return shapePtLat;
+    }
+
+    public float getShapePtLon() {
+        return shapePtLon;
+    }
+
+    public int getShapePtSequence() {
+        return shapePtSequence;
+    }
+
+    @Nullable
+    public Float getShapeDistTraveled() {
+        return shapeDistTraveled;
+    }
+
+    /**
+     * Builder class to create {@link ShapePoint} objects. Allows an unordered definition of the different attributes
+     * of {@link ShapePoint}.
+     */
+    public static class ShapePointBuilder {
+        private String shapeId;
+        private Float shapePtLat;
+        private Float shapePtLon;
+        private Integer shapePtSequence;
+        private Float shapeDistTraveled;
+        private final List<Notice> noticeCollection;
+
+        public ShapePointBuilder(final List<Notice> noticeCollection) {
+            this.noticeCollection = noticeCollection;
+        }
+
+        /**
+         * Sets field shapeId value and returns this
+         *
+         * @param shapeId identifies a shape
+         * @return builder for future object creation
+         */
+        public ShapePointBuilder shapeId(@NotNull final String shapeId) {
+            this.shapeId = shapeId;
+            return this;
+        }
+
+        /**
+         * Sets field shapePtLat value and returns this
+         *
+         * @param shapePtLat latitude of a shape point
+         * @return builder for future object creation
+         */
+        public ShapePointBuilder shapePtLat(@NotNull final Float shapePtLat) {
+            this.shapePtLat = shapePtLat;
+            return this;
+        }
+
+        /**
+         * Sets field shapePtLon value and returns this
+         *
+         * @param shapePtLon longitude of a shape point
+         * @return builder for future object creation
+         */
+        public ShapePointBuilder shapePtLon(@NotNull final Float shapePtLon) {
+            this.shapePtLon = shapePtLon;
+            return this;
+        }
+
+        /**
+         * Sets field shapePtSequence value and returns this
+         *
+         * @param shapePtSequence sequence in which the shape points connect to form the shape
+         * @return builder for future object creation
+         */
+        public ShapePointBuilder shapePtSequence(@NotNull final Integer shapePtSequence) {
+            this.shapePtSequence = shapePtSequence;
+            return this;
+        }
+
+        /**
+         * Sets field shapeDistTraveled value and returns this
+         *
+         * @param shapeDistTraveled actual distance traveled along the shape from the first shape point to the point
+         *                          specified in this record
+         * @return builder for future object creation
+         */
+        @SuppressWarnings("UnusedReturnValue")
+        public ShapePointBuilder shapeDistTraveled(@Nullable final Float shapeDistTraveled) {
+            this.shapeDistTraveled = shapeDistTraveled;
+            return this;
+        }
+
+        /**
+         * Returns an entity representing a row from shapes.txt if the requirements from the official GTFS
+         * specification are met. Otherwise, method returns an entity representing a list of notices.
+         *
+         * @return entity representing a row from shapes.txt if the requirements from the official GTFS
+         * specification are met. Otherwise, method returns an entity representing a list of notices.
+         */
+        public EntityBuildResult<?> build() {
+            noticeCollection.clear();
+
+            if (shapeId == null || shapePtLat == null || shapePtLon == null || shapePtSequence == null) {
+                if (shapeId == null) {
+                    noticeCollection.add(new MissingRequiredValueNotice("shapes.txt", "shape_id",
+                            shapeId));
+                }
+                if (shapePtLat == null) {
+                    noticeCollection.add(new MissingRequiredValueNotice("shapes.txt", "shape_pt_lat",
+                            shapeId));
+                }
+                if (shapePtLon == null) {
+                    noticeCollection.add(new MissingRequiredValueNotice("shapes.txt", "shape_pt_lon",
+                            shapeId));
+                }
+                if (shapePtSequence == null) {
+                    noticeCollection.add(new MissingRequiredValueNotice("shapes.txt", "shape_pt_sequence",
+                            shapeId));
+                }
+                return new EntityBuildResult<>(noticeCollection);
+            } else {
+                return new EntityBuildResult<>(new ShapePoint(shapeId, shapePtLat, shapePtLon, shapePtSequence,
+                        shapeDistTraveled));
+            }
+        }
+    }
+}
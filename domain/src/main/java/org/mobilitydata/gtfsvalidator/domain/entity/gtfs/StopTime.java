@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity.gtfs;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.MissingRequiredValueNotice;
+
+import java.util.List;
+
+/**
+ * Class for all entities defined in stop_times.txt. Can not be directly instantiated: user must use the
+ * {@link StopTimeBuilder} to create this.
+ */
+public class StopTime extends GtfsEntity {
+    @NotNull
+    private final String tripId;
+    @Nullable
+    private final Integer arrivalTime;
+    @Nullable
+    private final Integer departureTime;
+    @NotNull
+    private final String stopId;
+    private final int stopSequence;
+    @Nullable
+    private final String stopHeadsign;
+    @Nullable
+    private final Integer pickupType;
+    @Nullable
+    private final Integer dropOffType;
+    @Nullable
+    private final Float shapeDistTraveled;
+    @Nullable
+    private final Integer timepoint;
+
+    /**
+     * Class for all entities defined in stop_times.txt
+     *
+     * @param tripId            identifies a trip
+     * @param arrivalTime       arrival time at a specific stop, in seconds after noon minus 12h of the service day
+     * @param departureTime     departure time from a specific stop, in seconds after noon minus 12h of the service day
+     * @param stopId            identifies the serviced stop
+     * @param stopSequence      order of stops for a particular trip
+     * @param stopHeadsign      text that appears on signage identifying the trip's destination to riders
+     * @param pickupType        indicates pickup method
+     * @param dropOffType       indicates drop off method
+     * @param shapeDistTraveled actual distance traveled along the associated shape, from the first stop to the stop
+     *                          specified in this record
+     * @param timepoint         indicates if arrival and departure times for a stop are strictly adhered to by the
+     *                          vehicle or if they are instead approximate and/or interpolated times
+     */
+    private StopTime(@NotNull final String tripId,
+                     @Nullable final Integer arrivalTime,
+                     @Nullable final Integer departureTime,
+                     @NotNull final String stopId,
+                     final int stopSequence,
+                     @Nullable final String stopHeadsign,
+                     @Nullable final Integer pickupType,
+                     @Nullable final Integer dropOffType,
+                     @Nullable final Float shapeDistTraveled,
+                     @Nullable final Integer timepoint) {
+        this.tripId = tripId;
+        this.arrivalTime = arrivalTime;
+        this.departureTime = departureTime;
+        this.stopId = stopId;
+        this.stopSequence = stopSequence;
+        this.stopHeadsign = stopHeadsign;
+        this.pickupType = pickupType;
+        this.dropOffType = dropOffType;
+        this.shapeDistTraveled = shapeDistTraveled;
+        this.timepoint = timepoint;
+    }
+
+    @NotNull
+    public String getTripId() {
+        return tripId;
+    }
+
+    @Nullable
+    public Integer getArrivalTime() {
+        return arrivalTime;
+    }
+
+    @Nullable
+    public Integer getDepartureTime() {
+        return departureTime;
+    }
+
+    @NotNull
+    public String getStopId() {
+        return stopId;
+    }
+
+    public int getStopSequence() {
+        return stopSequence;
+    }
+
+    @Nullable
+    public String getStopHeadsign() {
+        return stopHeadsign;
+    }
+
+    @Nullable
+    public Integer getPickupType() {
+        return pickupType;
+    }
+
+    @Nullable
+    public Integer getDropOffType() {
+        return dropOffType;
+    }
+
+    @Nullable
+    public Float getShapeDistTraveled() {
+        return shapeDistTraveled;
+    }
+
+    @Nullable
+    public Integer getTimepoint() {
+        return timepoint;
+    }
+
+    /**
+     * Builder class to create {@link StopTime} objects. Allows an unordered definition of the different attributes of
+     * {@link StopTime}.
+     */
+    public static class StopTimeBuilder {
+        private String tripId;
+        private Integer arrivalTime;
+        private Integer departureTime;
+        private String stopId;
+        private Integer stopSequence;
+        private String stopHeadsign;
+        private Integer pickupType;
+        private Integer dropOffType;
+        private Float shapeDistTraveled;
+        private Integer timepoint;
+        private final List<Notice> noticeCollection;
+
+        public StopTimeBuilder(final List<Notice> noticeCollection) {
+            this.noticeCollection = noticeCollection;
+        }
+
+        /**
+         * Sets field tripId value and returns this
+         *
+         * @param tripId identifies a trip
+         * @return builder for future object creation
+         */
+        public StopTimeBuilder tripId(@NotNull final String tripId) {
+            this.tripId = tripId;
+            return this;
+        }
+
+        /**
+         * Sets field arrivalTime value and returns this
+         *
+         * @param arrivalTime arrival time at a specific stop, in seconds after noon minus 12h of the service day
+         * @return builder for future object creation
+         */
+        public StopTimeBuilder arrivalTime(@Nullable final Integer arrivalTime) {
+            this.arrivalTime = arrivalTime;
+            return this;
+        }
+
+        /**
+         * Sets field departureTime value and returns this
+         *
+         * @param departureTime departure time from a specific stop, in seconds after noon minus 12h of the service day
+         * @return builder for future object creation
+         */
+        public StopTimeBuilder departureTime(@Nullable final Integer departureTime) {
+            this.departureTime = departureTime;
+            return this;
+        }
+
+        /**
+         * Sets field stopId value and returns this
+         *
+         * @param stopId identifies the serviced stop
+         * @return builder for future object creation
+         */
+        public StopTimeBuilder stopId(@NotNull final String stopId) {
+            this.stopId = stopId;
+            return this;
+        }
+
+        /**
+         * Sets field stopSequence value and returns this
+         *
+         * @param stopSequence order of stops for a particular trip
+         * @return builder for future object creation
+         */
+        public StopTimeBuilder stopSequence(@NotNull final Integer stopSequence) {
+            this.stopSequence = stopSequence;
+            return this;
+        }
+
+        /**
+         * Sets field stopHeadsign value and returns this
+         *
+         * @param stopHeadsign text that appears on signage identifying the trip's destination to riders
+         * @return builder for future object creation
+         */
+        public StopTimeBuilder stopHeadsign(@Nullable final String stopHeadsign) {
+            this.stopHeadsign = stopHeadsign;
+            return this;
+        }
+
+        /**
+         * Sets field pickupType value and returns this
+         *
+         * @param pickupType indicates pickup method
+         * @return builder for future object creation
+         */
+        public StopTimeBuilder pickupType(@Nullable final Integer pickupType) {
+            this.pickupType = pickupType;
+            return this;
+        }
+
+        /**
+         * Sets field dropOffType value and returns this
+         *
+         * @param dropOffType indicates drop off method
+         * @return builder for future object creation
+         */
+        public StopTimeBuilder dropOffType(@Nullable final Integer dropOffType) {
+            this.dropOffType = dropOffType;
+            return this;
+        }
+
+        /**
+         * Sets field shapeDistTraveled value and returns this
+         *
+         * @param shapeDistTraveled actual distance traveled along the associated shape, from the first stop to the
+         *                          stop specified in this record
+         * @return builder for future object creation
+         */
+        public StopTimeBuilder shapeDistTraveled(@Nullable final Float shapeDistTraveled) {
+            this.shapeDistTraveled = shapeDistTraveled;
+            return this;
+        }
+
+        /**
+         * Sets field timepoint value and returns this
+         *
+         * @param timepoint indicates if arrival and departure times for a stop are strictly adhered to by the vehicle
+         *                  or if they are instead approximate and/or interpolated times
+         * @return builder for future object creation
+         */
+        @SuppressWarnings("UnusedReturnValue")
+        public StopTimeBuilder timepoint(@Nullable final Integer timepoint) {
+            this.timepoint = timepoint;
+            return this;
+        }
+
+        /**
+         * Returns an entity representing a row from stop_times.txt if the requirements from the official GTFS
+         * specification are met. Otherwise, method returns an entity representing a list of notices.
+         *
+         * @return entity representing a row from stop_times.txt if the requirements from the official GTFS
+         * specification are met. Otherwise, method returns an entity representing a list of notices.
+         */
+        public EntityBuildResult<?> build() {
+            noticeCollection.clear();
+
+            if (tripId == null || stopId == null || stopSequence == null) {
+                if (tripId == null) {
+                    noticeCollection.add(new MissingRequiredValueNotice("stop_times.txt", "trip_id",
+                            tripId));
+                }
+                if (stopId == null) {
+                    noticeCollection.add(new MissingRequiredValueNotice("stop_times.txt", "stop_id",
+                            tripId));
+                }
+                if (stopSequence == null) {
+                    noticeCollection.add(new MissingRequiredValueNotice("stop_times.txt", "stop_sequence",
+                            tripId));
+                }
+                return new EntityBuildResult<>(noticeCollection);
+            } else {
+                return new EntityBuildResult<>(new StopTime(tripId, arrivalTime, departureTime, stopId, stopSequence,
+                        stopHeadsign, pickupType, dropOffType, shapeDistTraveled, timepoint));
+            }
+        }
+    }
+}
@@ -40,6 +40,15 @@ public enum RouteType {
         this.value = value;
     }
 
+    /**
+     * Returns the value of the route_type field matching this enum item
+     *
+     * @return the value of the route_type field matching this enum item
+     */
+    public int getValue() {
+        return value;
+    }
+
     /**
      * Matches enum values to Integer value. Returns the {@link RouteType} enum item value matching the integer passed
      * as parameter. Returns null if the integer passed as parameter is null or does not match any
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity.metrics;
+
+import java.io.IOException;
+
+/**
+ * Exports the {@link StageMetrics} of a validation process to a given format
+ */
+public interface MetricsExporter {
+
+    void exportBegin() throws IOException;
+
+    void export(StageMetrics toExport) throws IOException;
+
+    void exportEnd() throws IOException;
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity.metrics;
+
+/**
+ * The resources used by a stage of the validation process, for a file or for the whole dataset: wall time, CPU time and
+ * memory allocated by the threads that worked on it, along with the number of rows and bytes it processed. CPU time
+ * and allocated memory are -1 if the JVM cannot measure them.
+ */
+public class StageMetrics {
+    public static final String DOWNLOAD = "download";
+    public static final String UNZIP = "unzip";
+    public static final String HEADERS = "headers";
+    // row length, parsing, types and row order are validated in a single pass over the rows of a file: timing them
+    // apart would cost more than the work per row, so they are reported together as this stage
+    public static final String ROWS = "rows";
+    public static final String RESORT = "resort";
+    public static final String UNIQUE_KEYS = "unique_keys";
+    public static final String FOREIGN_KEYS = "foreign_keys";
+    // the rows of the export are the notices written
+    public static final String EXPORT = "export";
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final String stage;
+    private final String filename;
+    private final long wallTimeNanos;
+    private final long cpuTimeNanos;
+    private final long allocatedBytes;
+    private final long rowCount;
+    private final long byteCount;
+
+    /**
+     * @param stage          the name of the stage
+     * @param filename       the name of the file the stage processed, null for a stage of the whole dataset
+     * @param wallTimeNanos  the elapsed time of the stage, in nanoseconds
+     * @param cpuTimeNanos   the CPU time used by the threads that worked on the stage, in nanoseconds, -1 if unknown
+     * @param allocatedBytes the memory allocated by the threads that worked on the stage, in bytes, -1 if unknown
+     * @param rowCount       the number of rows processed by the stage
+     * @param byteCount      the number of bytes processed by the stage
+     */
+    public StageMetrics(final String stage,
+                        final String filename,
+                        final long wallTimeNanos,
+                        final long cpuTimeNanos,
+                        final long allocatedBytes,
+                        final long rowCount,
+                        final long byteCount) {
+        this.stage = stage;
+        this.filename = filename;
+        this.wallTimeNanos = wallTimeNanos;
+        this.cpuTimeNanos = cpuTimeNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.rowCount = rowCount;
+        this.byteCount = byteCount;
+    }
+
+    /**
+     * Returns the name of the stage
+     *
+     * @return the name of the stage
+     */
+    public String getStage() {
+        return stage;
+    }
+
+    /**
+     * Returns the name of the file the stage processed
+     *
+     * @return the name of the file the stage processed, null for a stage of the whole dataset
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    /**
+     * Returns the elapsed time of the stage
+     *
+     * @return the elapsed time of the stage, in nanoseconds
+     */
+    public long getWallTimeNanos() {
+        return wallTimeNanos;
+    }
+
+    /**
+     * Returns the CPU time used by the threads that worked on the stage
+     *
+     * @return the CPU time used by the threads that worked on the stage, in nanoseconds, -1 if unknown
+     */
+    public long getCpuTimeNanos() {
+        return cpuTimeNanos;
+    }
+
+    /**
+     * Returns the memory allocated by the threads that worked on the stage
+     *
+     * @return the memory allocated by the threads that worked on the stage, in bytes, -1 if unknown
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the number of rows processed by the stage
+     *
+     * @return the number of rows processed by the stage
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the number of bytes processed by the stage
+     *
+     * @return the number of bytes processed by the stage
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Returns the number of rows processed per second of wall time, 0 if the stage took no measurable time
+     *
+     * @return the number of rows processed per second of wall time
+     */
+    public double getRowsPerSecond() {
+        return wallTimeNanos > 0 ? rowCount * NANOS_PER_SECOND / wallTimeNanos : 0;
+    }
+
+    /**
+     * Returns the number of bytes processed per second of wall time, 0 if the stage took no measurable time
+     *
+     * @return the number of bytes processed per second of wall time
+     */
+    public double getBytesPerSecond() {
+        return wallTimeNanos > 0 ? byteCount * NANOS_PER_SECOND / wallTimeNanos : 0;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity.notice;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This represents all the notices sharing a notice id, a filename and a field name, found during the validation
+ * process. It holds the exact number of those notices, and only some of them as samples: the first ones that were
+ * found, and optionally a uniform random sample of the following ones, so that no notice is held twice.
+ */
+public class NoticeAggregate {
+    private final String noticeId;
+    private final String filename;
+    private final String fieldName;
+    private final long count;
+    private final List<Notice> firstSamples;
+    private final List<Notice> reservoirSamples;
+
+    /**
+     * @param noticeId         the id of the aggregated notices
+     * @param filename         the name of the file the aggregated notices relate to
+     * @param fieldName        the name of the field the aggregated notices relate to, null if they relate to no field
+     * @param count            the number of aggregated notices
+     * @param firstSamples     the first aggregated notices, in the order they were found
+     * @param reservoirSamples a uniform random sample of the aggregated notices following the first samples, empty if
+     *                         none was requested
+     */
+    public NoticeAggregate(final String noticeId,
+                           final String filename,
+                           final String fieldName,
+                           final long count,
+                           final List<Notice> firstSamples,
+                           final List<Notice> reservoirSamples) {
+        this.noticeId = noticeId;
+        this.filename = filename;
+        this.fieldName = fieldName;
+        this.count = count;
+        this.firstSamples = Collections.unmodifiableList(firstSamples);
+        this.reservoirSamples = Collections.unmodifiableList(reservoirSamples);
+    }
+
+    public void export(final NoticeExporter exporter) throws IOException {
+        exporter.export(this);
+    }
+
+    public String getNoticeId() {
+        return noticeId;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public List<Notice> getFirstSamples() {
+        return firstSamples;
+    }
+
+    public List<Notice> getReservoirSamples() {
+        return reservoirSamples;
+    }
+
+    @Override
+    public String toString() {
+        return "\nNoticeAggregate{" +
+                "noticeId='" + noticeId + '\'' +
+                ", filename='" + filename + '\'' +
+                ", fieldName='" + fieldName + '\'' +
+                ", count=" + count +
+                '}';
+    }
+}
@@ -4,6 +4,7 @@ import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.*;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.ExtraFileFoundNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.InputZipContainsFolderNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonAsciiOrNonPrintableCharNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonContiguousKeyNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonStandardHeaderNotice;
 
 import java.io.IOException;
@@ -63,4 +64,12 @@ public interface NoticeExporter {
     void export(IllegalFieldValueCombination toExport) throws IOException;
 
     void export(UnexpectedEnumValueNotice toExport) throws IOException;
+
+    void export(MissingForeignKeyValueNotice toExport) throws IOException;
+
+    void export(UnsortedKeyNotice toExport) throws IOException;
+
+    void export(NonContiguousKeyNotice toExport) throws IOException;
+
+    void export(NoticeAggregate toExport) throws IOException;
 }
@@ -39,6 +39,8 @@ public abstract class ErrorNotice extends Notice {
     protected static final String E_019 = "E019";
     protected static final String E_020 = "E020";
     protected static final String E_021 = "E020";
+    protected static final String E_022 = "E022";
+    protected static final String E_023 = "E023";
 
     public ErrorNotice(final String filename,
                        final String noticeId,
@@ -21,6 +21,11 @@ import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeExporter;
 import java.io.IOException;
 
 public abstract class Notice {
+    /**
+     * Returned by {@link #getLineNumber()} for notices that relate to no row of a file
+     */
+    public static final int NO_LINE_NUMBER = -1;
+
     private final String filename;
     private final String noticeId;
     private final String title;
@@ -61,6 +66,24 @@ public abstract class Notice {
         return entityId;
     }
 
+    /**
+     * Returns the 1 based index of the row the notice relates to
+     *
+     * @return the 1 based index of the row the notice relates to, {@link #NO_LINE_NUMBER} if it relates to no row
+     */
+    public int getLineNumber() {
+        return NO_LINE_NUMBER;
+    }
+
+    /**
+     * Returns the name of the field the notice relates to
+     *
+     * @return the name of the field the notice relates to, null if it relates to no field
+     */
+    public String getFieldName() {
+        return null;
+    }
+
     @Override
     public String toString() {
         return "\nNotice{" +
@@ -37,10 +37,12 @@ public class CannotParseIntegerNotice extends ErrorNotice {
         this.lineNumber = lineNumber;
     }
 
+    @Override
     public String getFieldName() {
         return fieldName;
     }
 
+    @Override
     public int getLineNumber() {
         return lineNumber;
     }
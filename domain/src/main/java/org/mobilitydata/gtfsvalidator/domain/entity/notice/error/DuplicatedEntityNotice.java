@@ -37,6 +37,7 @@ public class DuplicatedEntityNotice extends ErrorNotice {
         exporter.export(this);
     }
 
+    @Override
     public String getFieldName() {
         return fieldName;
     }
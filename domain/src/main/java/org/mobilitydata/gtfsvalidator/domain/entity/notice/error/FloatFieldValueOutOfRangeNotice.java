@@ -23,6 +23,7 @@ import java.io.IOException;
 
 public class FloatFieldValueOutOfRangeNotice extends ErrorNotice {
     private String fieldName;
+    private int lineNumber;
     private float rangeMin;
     private float rangeMax;
     private float actualValue;
@@ -31,6 +32,7 @@ public class FloatFieldValueOutOfRangeNotice extends ErrorNotice {
             String filename,
             String fieldName,
             String entityId,
+            int lineNumber,
             float rangeMin,
             float rangeMax,
             float actualValue) {
@@ -42,6 +44,7 @@ public class FloatFieldValueOutOfRangeNotice extends ErrorNotice {
         this.rangeMax = rangeMax;
         this.rangeMin = rangeMin;
         this.fieldName = fieldName;
+        this.lineNumber = lineNumber;
         this.actualValue = actualValue;
     }
 
@@ -50,10 +53,16 @@ public class FloatFieldValueOutOfRangeNotice extends ErrorNotice {
         exporter.export(this);
     }
 
+    @Override
     public String getFieldName() {
         return fieldName;
     }
 
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
     public float getRangeMin() {
         return rangeMin;
     }
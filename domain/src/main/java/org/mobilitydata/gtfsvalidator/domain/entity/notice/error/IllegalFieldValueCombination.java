@@ -40,6 +40,7 @@ public class IllegalFieldValueCombination extends ErrorNotice {
         exporter.export(this);
     }
 
+    @Override
     public String getFieldName() {
         return fieldName;
     }
@@ -23,6 +23,7 @@ import java.io.IOException;
 
 public class IntegerFieldValueOutOfRangeNotice extends ErrorNotice {
     private String fieldName;
+    private int lineNumber;
     private int rangeMin;
     private int rangeMax;
     private int actualValue;
@@ -31,6 +32,7 @@ public class IntegerFieldValueOutOfRangeNotice extends ErrorNotice {
             String filename,
             String fieldName,
             String entityId,
+            int lineNumber,
             int rangeMin,
             int rangeMax,
             int actualValue) {
@@ -40,6 +42,7 @@ public class IntegerFieldValueOutOfRangeNotice extends ErrorNotice {
                         " -- min:" + rangeMin + " max:" + rangeMax + " actual:" + actualValue,
                 entityId);
         this.fieldName = fieldName;
+        this.lineNumber = lineNumber;
         this.rangeMax = rangeMax;
         this.rangeMin = rangeMin;
         this.actualValue = actualValue;
@@ -50,10 +53,16 @@ public class IntegerFieldValueOutOfRangeNotice extends ErrorNotice {
         exporter.export(this);
     }
 
+    @Override
     public String getFieldName() {
         return fieldName;
     }
 
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
     public int getRangeMin() {
         return rangeMin;
     }
@@ -23,15 +23,18 @@ import java.io.IOException;
 
 public class InvalidColorNotice extends ErrorNotice {
     private String fieldName;
+    private int lineNumber;
     private String colorValue;
 
-    public InvalidColorNotice(String filename, String fieldName, String entityId, String colorValue) {
+    public InvalidColorNotice(String filename, String fieldName, String entityId, int lineNumber,
+                              String colorValue) {
         super(filename, E_014,
                 "Invalid color",
                 "Invalid color:" + colorValue + " in field:" + fieldName
                         + " for entity with id:" + entityId,
                 entityId);
         this.fieldName = fieldName;
+        this.lineNumber = lineNumber;
         this.colorValue = colorValue;
     }
 
@@ -40,10 +43,16 @@ public class InvalidColorNotice extends ErrorNotice {
         exporter.export(this);
     }
 
+    @Override
     public String getFieldName() {
         return fieldName;
     }
 
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
     public String getColorValue() {
         return colorValue;
     }
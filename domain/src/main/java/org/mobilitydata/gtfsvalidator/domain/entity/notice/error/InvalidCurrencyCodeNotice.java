@@ -23,13 +23,15 @@ import java.io.IOException;
 
 public class InvalidCurrencyCodeNotice extends ErrorNotice {
     private final String fieldName;
+    private final int lineNumber;
     private String currencyCode;
 
     public InvalidCurrencyCodeNotice(final String filename, final String fieldName, final String entityId,
-                                     String currencyCode) {
+                                     final int lineNumber, String currencyCode) {
         super(filename, E_018, "Invalid currency code", "Invalid currency code: " + currencyCode +
                 " in field: " + fieldName + " for entity with id: " + entityId, entityId);
         this.fieldName = fieldName;
+        this.lineNumber = lineNumber;
         this.currencyCode = currencyCode;
     }
 
@@ -38,10 +40,16 @@ public class InvalidCurrencyCodeNotice extends ErrorNotice {
         exporter.export(this);
     }
 
+    @Override
     public String getFieldName() {
         return fieldName;
     }
 
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
     public String getCurrencyCode() {
         return currencyCode;
     }
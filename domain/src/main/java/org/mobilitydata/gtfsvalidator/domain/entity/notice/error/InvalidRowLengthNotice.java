@@ -46,6 +46,11 @@ public class InvalidRowLengthNotice extends ErrorNotice {
         return rowIndex;
     }
 
+    @Override
+    public int getLineNumber() {
+        return rowIndex;
+    }
+
     public int getExpectedLength() {
         return expectedLength;
     }
@@ -23,21 +23,30 @@ import java.io.IOException;
 
 public class InvalidTimeNotice extends ErrorNotice {
     private final String fieldName;
+    private final int lineNumber;
     private final String timeValue;
 
-    public InvalidTimeNotice(String filename, String fieldName, String entityId, String timeValue) {
+    public InvalidTimeNotice(String filename, String fieldName, String entityId, int lineNumber,
+                             String timeValue) {
         super(filename, E_016,
                 "Invalid time",
                 "Invalid time:" + timeValue + " in field:" + fieldName + " for entity with id:" + entityId,
                 entityId);
         this.fieldName = fieldName;
+        this.lineNumber = lineNumber;
         this.timeValue = timeValue;
     }
 
+    @Override
     public String getFieldName() {
         return fieldName;
     }
 
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
     public String getTimeValue() {
         return timeValue;
     }
@@ -23,15 +23,18 @@ import java.io.IOException;
 
 public class InvalidTimezoneNotice extends ErrorNotice {
     private String fieldName;
+    private int lineNumber;
     private String timezoneValue;
 
-    public InvalidTimezoneNotice(String filename, String fieldName, String entityId, String timezoneValue) {
+    public InvalidTimezoneNotice(String filename, String fieldName, String entityId, int lineNumber,
+                                 String timezoneValue) {
         super(filename, E_013,
                 "Invalid timezone",
                 "Invalid timezone:" + timezoneValue + " in field:" + fieldName
                         + " for entity with id:" + entityId,
                 entityId);
         this.fieldName = fieldName;
+        this.lineNumber = lineNumber;
         this.timezoneValue = timezoneValue;
     }
 
@@ -44,10 +47,16 @@ public class InvalidTimezoneNotice extends ErrorNotice {
         return entityId;
     }
 
+    @Override
     public String getFieldName() {
         return fieldName;
     }
 
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
     public String getTimezoneValue() {
         return timezoneValue;
     }
@@ -24,13 +24,16 @@ import java.io.IOException;
 public class InvalidUrlNotice extends ErrorNotice {
     private String urlValue;
     private String fieldName;
+    private int lineNumber;
 
-    public InvalidUrlNotice(String filename, String fieldName, String entityId, String urlValue) {
+    public InvalidUrlNotice(String filename, String fieldName, String entityId, int lineNumber,
+                            String urlValue) {
         super(filename, E_012,
                 "Invalid url",
                 "Invalid url:" + urlValue + " in field:" + fieldName + " for entity with id:" + entityId,
                 entityId);
         this.fieldName = fieldName;
+        this.lineNumber = lineNumber;
         this.urlValue = urlValue;
     }
 
@@ -47,7 +50,13 @@ public class InvalidUrlNotice extends ErrorNotice {
         return entityId;
     }
 
+    @Override
     public String getFieldName() {
         return fieldName;
     }
+
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
 }
\ No newline at end of file
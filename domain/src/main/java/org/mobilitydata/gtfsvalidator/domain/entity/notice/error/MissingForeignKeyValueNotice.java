@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity.notice.error;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeExporter;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.ErrorNotice;
+
+import java.io.IOException;
+
+public class MissingForeignKeyValueNotice extends ErrorNotice {
+    private final String fieldName;
+    private final int lineNumber;
+    private final String rawValue;
+    private final String referencedFilename;
+    private final String referencedFieldName;
+
+    public MissingForeignKeyValueNotice(final String filename,
+                                        final String fieldName,
+                                        final int lineNumber,
+                                        final String rawValue,
+                                        final String referencedFilename,
+                                        final String referencedFieldName) {
+        super(filename, E_022,
+                "Missing foreign key value",
+                "Value: '" + rawValue + "' of field: " + fieldName + " in file: " + filename + " at row: " +
+                        lineNumber + " can't be found in field: " + referencedFieldName + " of file: " +
+                        referencedFilename,
+                null);
+        this.fieldName = fieldName;
+        this.lineNumber = lineNumber;
+        this.rawValue = rawValue;
+        this.referencedFilename = referencedFilename;
+        this.referencedFieldName = referencedFieldName;
+    }
+
+    @Override
+    public void export(final NoticeExporter exporter) throws IOException {
+        exporter.export(this);
+    }
+
+    @Override
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getRawValue() {
+        return rawValue;
+    }
+
+    public String getReferencedFilename() {
+        return referencedFilename;
+    }
+
+    public String getReferencedFieldName() {
+        return referencedFieldName;
+    }
+}
@@ -23,14 +23,20 @@ import java.io.IOException;
 
 public class MissingRequiredValueNotice extends ErrorNotice {
     private String fieldName;
+    private int lineNumber;
 
     public MissingRequiredValueNotice(String filename, String fieldName, String entityId) {
+        this(filename, fieldName, entityId, NO_LINE_NUMBER);
+    }
+
+    public MissingRequiredValueNotice(String filename, String fieldName, String entityId, int lineNumber) {
         super(filename, E_015,
                 "Missing required value",
                 "Missing value for field:" + fieldName
                         + " marked as required in entity with id:" + entityId,
                 entityId);
         this.fieldName = fieldName;
+        this.lineNumber = lineNumber;
     }
 
     @Override
@@ -38,8 +44,21 @@ public class MissingRequiredValueNotice extends ErrorNotice {
         exporter.export(this);
     }
 
+    @Override
     public String getFieldName() {
         return fieldName;
     }
 
+    /**
+     * Returns the 1 based index of the row missing the value, {@link #NO_LINE_NUMBER} if the value is not missing from
+     * a row of the file
+     *
+     * @return the 1 based index of the row missing the value, {@link #NO_LINE_NUMBER} if the value is not missing
+     * from a row of the file
+     */
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
 }
\ No newline at end of file
@@ -44,6 +44,7 @@ public class UnexpectedEnumValueNotice extends ErrorNotice {
         return String.valueOf(enumValue);
     }
 
+    @Override
     public String getFieldName() {
         return fieldName;
     }
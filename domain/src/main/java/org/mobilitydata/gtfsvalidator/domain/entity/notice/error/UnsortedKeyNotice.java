@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity.notice.error;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeExporter;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.ErrorNotice;
+
+import java.io.IOException;
+
+public class UnsortedKeyNotice extends ErrorNotice {
+    private final String fieldName;
+    private final int lineNumber;
+    private final String rawValue;
+    private final String previousValue;
+    private final String groupFieldName;
+    private final String groupValue;
+
+    public UnsortedKeyNotice(final String filename,
+                             final String fieldName,
+                             final int lineNumber,
+                             final String rawValue,
+                             final String previousValue,
+                             final String groupFieldName,
+                             final String groupValue) {
+        super(filename, E_023,
+                "Unsorted values",
+                "Value: '" + rawValue + "' of field: " + fieldName + " in file: " + filename + " at row: " +
+                        lineNumber + " is lower than the previous value: '" + previousValue + "' for " +
+                        groupFieldName + ": '" + groupValue + "'",
+                groupValue);
+        this.fieldName = fieldName;
+        this.lineNumber = lineNumber;
+        this.rawValue = rawValue;
+        this.previousValue = previousValue;
+        this.groupFieldName = groupFieldName;
+        this.groupValue = groupValue;
+    }
+
+    @Override
+    public void export(final NoticeExporter exporter) throws IOException {
+        exporter.export(this);
+    }
+
+    @Override
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getRawValue() {
+        return rawValue;
+    }
+
+    public String getPreviousValue() {
+        return previousValue;
+    }
+
+    public String getGroupFieldName() {
+        return groupFieldName;
+    }
+
+    public String getGroupValue() {
+        return groupValue;
+    }
+}
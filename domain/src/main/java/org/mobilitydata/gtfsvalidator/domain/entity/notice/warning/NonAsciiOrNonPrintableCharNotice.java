@@ -24,14 +24,17 @@ import java.io.IOException;
 public class NonAsciiOrNonPrintableCharNotice extends WarningNotice {
 
     private String fieldName;
+    private int lineNumber;
 
-    public NonAsciiOrNonPrintableCharNotice(String filename, String fieldName, String entityId, String idValue) {
+    public NonAsciiOrNonPrintableCharNotice(String filename, String fieldName, String entityId, int lineNumber,
+                                            String idValue) {
         super(filename, W_003,
                 "Suspicious id",
                 "Non ascii or non printable character(s) in:" + idValue + " in field:"
                         + fieldName + " for entity with id:" + entityId,
                 entityId);
         this.fieldName = fieldName;
+        this.lineNumber = lineNumber;
     }
 
     @Override
@@ -40,7 +43,13 @@ public class NonAsciiOrNonPrintableCharNotice extends WarningNotice {
         exporter.export(this);
     }
 
+    @Override
     public String getFieldName() {
         return fieldName;
     }
+
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity.notice.warning;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeExporter;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.WarningNotice;
+
+import java.io.IOException;
+
+public class NonContiguousKeyNotice extends WarningNotice {
+    private final String fieldName;
+    private final int lineNumber;
+    private final String rawValue;
+
+    public NonContiguousKeyNotice(final String filename,
+                                  final String fieldName,
+                                  final int lineNumber,
+                                  final String rawValue) {
+        super(filename, W_005,
+                "Rows not sorted on key",
+                "Rows of file: " + filename + " are not grouped and sorted on key: " + fieldName +
+                        ", row: " + lineNumber + " with value: '" + rawValue + "' is out of order",
+                null);
+        this.fieldName = fieldName;
+        this.lineNumber = lineNumber;
+        this.rawValue = rawValue;
+    }
+
+    @Override
+    public void export(final NoticeExporter exporter) throws IOException {
+        exporter.export(this);
+    }
+
+    @Override
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getRawValue() {
+        return rawValue;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParsedEntityTest {
+
+    private static final ParsedEntitySchema TEST_SCHEMA = new ParsedEntitySchema(
+            List.of("stop_id", "stop_lat", "stop_sequence", "start_date", "stop_lon", "stop_name"),
+            List.of(ParsedEntitySchema.ValueType.STRING,
+                    ParsedEntitySchema.ValueType.FLOAT,
+                    ParsedEntitySchema.ValueType.INTEGER,
+                    ParsedEntitySchema.ValueType.DATE,
+                    ParsedEntitySchema.ValueType.FLOAT,
+                    ParsedEntitySchema.ValueType.STRING));
+
+    @Test
+    void valuesShouldBeAccessibleByTypeAndByHeader() {
+        final LocalDateTime startDate = LocalDateTime.of(2020, 5, 17, 0, 0);
+        final ParsedEntity underTest = new ParsedEntity.ParsedEntityBuilder(TEST_SCHEMA, null)
+                .entityId("s1")
+                .stringValue(0, "s1")
+                .floatValue(1, 45.5f)
+                .intValue(2, 7)
+                .longValue(3, startDate.toEpochSecond(ZoneOffset.UTC))
+                .floatValue(4, -73.5f)
+                .build();
+
+        assertEquals("s1", underTest.getEntityId());
+        assertSame(TEST_SCHEMA, underTest.getSchema());
+        assertEquals("s1", underTest.getString(0));
+        assertEquals(45.5f, underTest.getFloat(1));
+        assertEquals(7, underTest.getInt(2));
+        assertEquals(startDate.toEpochSecond(ZoneOffset.UTC), underTest.getLong(3));
+        assertEquals(-73.5f, underTest.getFloat(TEST_SCHEMA.getIndex("stop_lon")));
+
+        assertEquals("s1", underTest.get("stop_id"));
+        assertEquals(45.5f, underTest.get("stop_lat"));
+        assertEquals(7, underTest.get("stop_sequence"));
+        assertEquals(startDate, underTest.get("start_date"));
+        assertEquals(-73.5f, underTest.get("stop_lon"));
+    }
+
+    @Test
+    void unsetValuesShouldBeNull() {
+        final ParsedEntity underTest = new ParsedEntity.ParsedEntityBuilder(TEST_SCHEMA, null)
+                .floatValue(1, 0f)
+                .build();
+
+        assertFalse(underTest.isNull(1));
+        assertEquals(0f, underTest.get("stop_lat"));
+        assertTrue(underTest.isNull(0));
+        assertTrue(underTest.isNull(2));
+        assertTrue(underTest.isNull(5));
+        assertNull(underTest.get("stop_name"));
+        assertNull(underTest.get("stop_sequence"));
+        assertNull(underTest.get("unknown_header"));
+        assertNull(underTest.getEntityId());
+    }
+
+    @Test
+    void builderShouldStartNewRowAfterBuild() {
+        final ParsedEntity.ParsedEntityBuilder builder = new ParsedEntity.ParsedEntityBuilder(TEST_SCHEMA, null);
+        final ParsedEntity first = builder.entityId("s1").intValue(2, 1).build();
+        final ParsedEntity second = builder.stringValue(5, "second").build();
+
+        assertEquals(1, first.getInt(2));
+        assertTrue(first.isNull(5));
+        assertTrue(second.isNull(2));
+        assertNull(second.getEntityId());
+        assertEquals("second", second.getString(5));
+    }
+
+    @Test
+    void accessingColumnWithWrongTypeShouldThrowException() {
+        final ParsedEntity underTest = new ParsedEntity.ParsedEntityBuilder(TEST_SCHEMA, null)
+                .floatValue(1, 45.5f)
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> underTest.getInt(1));
+        assertThrows(IllegalArgumentException.class, () -> underTest.getString(1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParsedEntity.ParsedEntityBuilder(TEST_SCHEMA, null).intValue(0, 1));
+    }
+}
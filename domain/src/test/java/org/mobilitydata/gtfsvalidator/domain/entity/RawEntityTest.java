@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RawEntityTest {
+
+    private static final RawEntitySchema TEST_SCHEMA =
+            new RawEntitySchema(List.of("stop_id", "stop_name", "stop_lat", "stop_name"));
+
+    @Test
+    void valuesShouldBeAccessibleByHeaderAndByPosition() {
+        RawEntity underTest = new RawEntity(TEST_SCHEMA, new String[]{"s1", "first", "45.5", "last"}, 3);
+
+        assertEquals("s1", underTest.get("stop_id"));
+        assertEquals("45.5", underTest.get(TEST_SCHEMA.getIndex("stop_lat")));
+        assertEquals(4, underTest.size());
+        assertEquals(3, underTest.getIndex());
+    }
+
+    @Test
+    void duplicatedHeaderShouldResolveToLastOccurrence() {
+        RawEntity underTest = new RawEntity(TEST_SCHEMA, new String[]{"s1", "first", "45.5", "last"}, 3);
+
+        assertEquals(3, TEST_SCHEMA.getIndex("stop_name"));
+        assertEquals("last", underTest.get("stop_name"));
+    }
+
+    @Test
+    void missingValueShouldBeNull() {
+        RawEntity underTest = new RawEntity(TEST_SCHEMA, new String[]{"s1"}, 3);
+
+        assertNull(underTest.get("stop_lat"));
+        assertNull(underTest.get("unknown_header"));
+        assertEquals(-1, TEST_SCHEMA.getIndex("unknown_header"));
+        assertEquals(1, underTest.size());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity.gtfs;
+
+import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.MissingRequiredValueNotice;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ShapePointTest {
+
+    private static final String STRING_TEST_VALUE = "test_value";
+
+    // Fields shapePtLat and shapePtSequence are annotated as `@NonNull` but test require these fields to be null.
+    // Therefore annotation "@SuppressWarnings("ConstantConditions")" is used here to suppress lint.
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    public void createShapePointWithNullLatAndSequenceShouldGenerateMissingRequiredValueNotices() {
+        @SuppressWarnings("unchecked") final List<Notice> mockNoticeCollection = mock(ArrayList.class);
+        final ShapePoint.ShapePointBuilder underTest = new ShapePoint.ShapePointBuilder(mockNoticeCollection);
+
+        underTest.shapeId(STRING_TEST_VALUE)
+                .shapePtLat(null)
+                .shapePtLon(2.5f)
+                .shapePtSequence(null)
+                .shapeDistTraveled(0.0f);
+
+        final EntityBuildResult<?> entityBuildResult = underTest.build();
+
+        final ArgumentCaptor<MissingRequiredValueNotice> captor =
+                ArgumentCaptor.forClass(MissingRequiredValueNotice.class);
+
+        verify(mockNoticeCollection, times(1)).clear();
+        verify(mockNoticeCollection, times(2)).add(captor.capture());
+
+        final List<MissingRequiredValueNotice> noticeList = captor.getAllValues();
+
+        assertEquals("shapes.txt", noticeList.get(0).getFilename());
+        assertEquals("shape_pt_lat", noticeList.get(0).getFieldName());
+        assertEquals(STRING_TEST_VALUE, noticeList.get(0).getEntityId());
+        assertEquals("shape_pt_sequence", noticeList.get(1).getFieldName());
+
+        assertTrue(entityBuildResult.getData() instanceof List);
+        verifyNoMoreInteractions(mockNoticeCollection);
+    }
+
+    @Test
+    public void createShapePointWithValidValuesShouldNotGenerateNotice() {
+        @SuppressWarnings("unchecked") final List<Notice> mockNoticeCollection = mock(ArrayList.class);
+        final ShapePoint.ShapePointBuilder underTest = new ShapePoint.ShapePointBuilder(mockNoticeCollection);
+
+        underTest.shapeId(STRING_TEST_VALUE)
+                .shapePtLat(45.5f)
+                .shapePtLon(-73.5f)
+                .shapePtSequence(7)
+                .shapeDistTraveled(null);
+
+        final EntityBuildResult<?> entityBuildResult = underTest.build();
+
+        verify(mockNoticeCollection, times(1)).clear();
+        verifyNoMoreInteractions(mockNoticeCollection);
+
+        assertTrue(entityBuildResult.getData() instanceof ShapePoint);
+        final ShapePoint shapePoint = (ShapePoint) entityBuildResult.getData();
+        assertEquals(STRING_TEST_VALUE, shapePoint.getShapeId());
+        assertEquals(45.5f, shapePoint.getShapePtLat());
+        assertEquals(-73.5f, shapePoint.getShapePtLon());
+        assertEquals(7, shapePoint.getShapePtSequence());
+        assertNull(shapePoint.getShapeDistTraveled());
+    }
+}
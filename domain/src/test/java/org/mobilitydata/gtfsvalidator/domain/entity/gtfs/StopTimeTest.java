@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.domain.entity.gtfs;
+
+import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.MissingRequiredValueNotice;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StopTimeTest {
+
+    private static final String STRING_TEST_VALUE = "test_value";
+    private static final int INT_TEST_VALUE = 0;
+
+    // Field stopId is annotated as `@NonNull` but test require this field to be null. Therefore annotation
+    // "@SuppressWarnings("ConstantConditions")" is used here to suppress lint.
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    public void createStopTimeWithNullStopIdAndStopSequenceShouldGenerateMissingRequiredValueNotices() {
+        @SuppressWarnings("unchecked") final List<Notice> mockNoticeCollection = mock(ArrayList.class);
+        final StopTime.StopTimeBuilder underTest = new StopTime.StopTimeBuilder(mockNoticeCollection);
+
+        underTest.tripId(STRING_TEST_VALUE)
+                .arrivalTime(INT_TEST_VALUE)
+                .departureTime(INT_TEST_VALUE)
+                .stopId(null)
+                .stopSequence(null)
+                .stopHeadsign(STRING_TEST_VALUE)
+                .pickupType(INT_TEST_VALUE)
+                .dropOffType(INT_TEST_VALUE)
+                .shapeDistTraveled(0.0f)
+                .timepoint(INT_TEST_VALUE);
+
+        final EntityBuildResult<?> entityBuildResult = underTest.build();
+
+        final ArgumentCaptor<MissingRequiredValueNotice> captor =
+                ArgumentCaptor.forClass(MissingRequiredValueNotice.class);
+
+        verify(mockNoticeCollection, times(1)).clear();
+        verify(mockNoticeCollection, times(2)).add(captor.capture());
+
+        final List<MissingRequiredValueNotice> noticeList = captor.getAllValues();
+
+        assertEquals("stop_times.txt", noticeList.get(0).getFilename());
+        assertEquals("stop_id", noticeList.get(0).getFieldName());
+        assertEquals(STRING_TEST_VALUE, noticeList.get(0).getEntityId());
+        assertEquals("stop_sequence", noticeList.get(1).getFieldName());
+
+        assertTrue(entityBuildResult.getData() instanceof List);
+        verifyNoMoreInteractions(mockNoticeCollection);
+    }
+
+    @Test
+    public void createStopTimeWithValidValuesShouldNotGenerateNotice() {
+        @SuppressWarnings("unchecked") final List<Notice> mockNoticeCollection = mock(ArrayList.class);
+        final StopTime.StopTimeBuilder underTest = new StopTime.StopTimeBuilder(mockNoticeCollection);
+
+        underTest.tripId(STRING_TEST_VALUE)
+                .arrivalTime(28800)
+                .departureTime(null)
+                .stopId(STRING_TEST_VALUE)
+                .stopSequence(3)
+                .stopHeadsign(null)
+                .pickupType(INT_TEST_VALUE)
+                .dropOffType(null)
+                .shapeDistTraveled(12.5f)
+                .timepoint(1);
+
+        final EntityBuildResult<?> entityBuildResult = underTest.build();
+
+        verify(mockNoticeCollection, times(1)).clear();
+        verifyNoMoreInteractions(mockNoticeCollection);
+
+        assertTrue(entityBuildResult.getData() instanceof StopTime);
+        final StopTime stopTime = (StopTime) entityBuildResult.getData();
+        assertEquals(STRING_TEST_VALUE, stopTime.getTripId());
+        assertEquals(28800, stopTime.getArrivalTime());
+        assertNull(stopTime.getDepartureTime());
+        assertEquals(3, stopTime.getStopSequence());
+        assertEquals(12.5f, stopTime.getShapeDistTraveled());
+        assertEquals(1, stopTime.getTimepoint());
+    }
+}
@@ -17,8 +17,10 @@
 package org.mobilitydata.gtfsvalidator.usecase;
 
 import org.apache.logging.log4j.Logger;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.StageMetrics;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.CannotDownloadArchiveFromNetworkNotice;
 import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.MetricsRepository;
 import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
 
 import java.io.IOException;
@@ -35,23 +37,28 @@ public class DownloadArchiveFromNetwork {
     private final ValidationResultRepository resultRepo;
     private final ExecParamRepository execParamRepo;
     private final Logger logger;
+    private final MetricsRepository metricsRepo;
 
     /**
-     * @param resultRepo a repository storing information about the validation process
-     * @param logger     logger used to log relevant information about the downloading process
+     * @param resultRepo  a repository storing information about the validation process
+     * @param logger      logger used to log relevant information about the downloading process
+     * @param metricsRepo a repository storing the metrics of the stages of the validation process
      */
     public DownloadArchiveFromNetwork(final ValidationResultRepository resultRepo,
                                       final ExecParamRepository execParamRepo,
-                                      final Logger logger) {
+                                      final Logger logger,
+                                      final MetricsRepository metricsRepo) {
         this.resultRepo = resultRepo;
         this.execParamRepo = execParamRepo;
         this.logger = logger;
+        this.metricsRepo = metricsRepo;
     }
 
     /**
      * Use case execution method: downloads a GTFS archive at the URL provided in the constructor. If the process fails
      * a {@link CannotDownloadArchiveFromNetworkNotice} is generated and added to the {@link ValidationResultRepository}
-     * provided in the constructor.
+     * provided in the constructor. The metrics of the download are added to the {@link MetricsRepository} provided in
+     * the constructor.
      */
     public void execute() throws IOException {
         //TODO: does using File class break clean architecture (make business logic dependant on a framework)?
@@ -60,13 +67,15 @@ public class DownloadArchiveFromNetwork {
             logger.info("Downloading archive");
             final String url = execParamRepo.getExecParamValue(execParamRepo.URL_KEY);
             final String targetPath = execParamRepo.getExecParamValue(execParamRepo.ZIP_KEY);
+            final StageTimer timer = StageTimer.start(StageMetrics.DOWNLOAD, null);
             try {
                 URL sourceUrl = new URL(url);
-                Files.copy(
+                timer.addBytes(Files.copy(
                         sourceUrl.openStream(), // TODO: think about how to remove dependency on Files. FileCopier interface?
                         Paths.get(targetPath),
                         StandardCopyOption.REPLACE_EXISTING
-                );
+                ));
+                metricsRepo.addStageMetrics(timer.stop());
             } catch (IOException e) {
                 resultRepo.addNotice
                         (new CannotDownloadArchiveFromNetworkNotice(
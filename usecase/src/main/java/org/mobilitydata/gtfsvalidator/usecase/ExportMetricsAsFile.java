@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.apache.logging.log4j.Logger;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.MetricsExporter;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.StageMetrics;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.MetricsRepository;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Use case to export the metrics of the stages of the validation process next to the results, in every format the
+ * {@link MetricsRepository} provides. This is the last step of the validation process.
+ */
+public class ExportMetricsAsFile {
+    private final MetricsRepository metricsRepo;
+    private final ExecParamRepository execParamRepo;
+    private final Logger logger;
+
+    /**
+     * @param metricsRepo   a repository storing the metrics of the stages of the validation process
+     * @param execParamRepo a repository containing execution parameters
+     * @param logger        a logger used to log where metrics are exported
+     */
+    public ExportMetricsAsFile(final MetricsRepository metricsRepo,
+                               final ExecParamRepository execParamRepo,
+                               final Logger logger) {
+        this.metricsRepo = metricsRepo;
+        this.execParamRepo = execParamRepo;
+        this.logger = logger;
+    }
+
+    /**
+     * Use case execution method: exports the metrics of all stages to the output directory
+     *
+     * @throws IOException if the metrics could not be exported
+     */
+    public void execute() throws IOException {
+        final List<StageMetrics> stageMetricsList = metricsRepo.getAll();
+        final String outputPath = execParamRepo.getExecParamValue(ExecParamRepository.OUTPUT_KEY);
+        for (MetricsExporter exporter : metricsRepo.getExporters(outputPath)) {
+            exporter.exportBegin();
+            for (StageMetrics stageMetrics : stageMetricsList) {
+                exporter.export(stageMetrics);
+            }
+            exporter.exportEnd();
+        }
+        logger.info("Exported metrics of " + stageMetricsList.size() + " stages to " + outputPath);
+    }
+}
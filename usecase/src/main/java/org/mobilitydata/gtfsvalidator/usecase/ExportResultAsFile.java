@@ -17,9 +17,12 @@
 package org.mobilitydata.gtfsvalidator.usecase;
 
 import org.apache.logging.log4j.Logger;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.StageMetrics;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeAggregate;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeExporter;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
 import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.MetricsRepository;
 import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
 
 import java.io.IOException;
@@ -28,16 +31,20 @@ public class ExportResultAsFile {
     private final ValidationResultRepository resultRepo;
     private final ExecParamRepository execParamRepo;
     private final Logger logger;
+    private final MetricsRepository metricsRepo;
 
     public ExportResultAsFile(final ValidationResultRepository resultRepo,
                               final ExecParamRepository execParamRepo,
-                              final Logger logger) {
+                              final Logger logger,
+                              final MetricsRepository metricsRepo) {
         this.resultRepo = resultRepo;
         this.execParamRepo = execParamRepo;
         this.logger = logger;
+        this.metricsRepo = metricsRepo;
     }
 
     public void execute() throws IOException {
+        final StageTimer timer = StageTimer.start(StageMetrics.EXPORT, null);
 
         if (Boolean.parseBoolean(execParamRepo.getExecParamValue(execParamRepo.PROTO_KEY))) {
             logger.info("-p provided, exporting results as proto");
@@ -45,7 +52,13 @@ public class ExportResultAsFile {
             logger.info("Results are exported as JSON by default");
         }
 
-        logger.info("Exporting validation repo content:" + resultRepo.getAll());
+        if (resultRepo.isStreaming()) {
+            // notices were exported as they were found, only the end of the export is left
+            resultRepo.endStreamingExport();
+            logger.info("Exported notice count by notice id: " + resultRepo.getNoticeCountById());
+            metricsRepo.addStageMetrics(timer.stop());
+            return;
+        }
 
         final String outputPath = execParamRepo.getExecParamValue(execParamRepo.OUTPUT_KEY);
         final boolean asProto = Boolean.parseBoolean(execParamRepo.getExecParamValue(execParamRepo.PROTO_KEY));
@@ -54,9 +67,20 @@ public class ExportResultAsFile {
 
         exporter.exportBegin();
 
+        long exportedCount = 0;
+        // notices are sorted on each call, hence retrieved only once
         for (Notice notice : resultRepo.getAll()) {
             notice.export(exporter);
+            ++exportedCount;
+        }
+        for (NoticeAggregate aggregate : resultRepo.getAggregates()) {
+            aggregate.export(exporter);
+            ++exportedCount;
         }
         exporter.exportEnd();
+        logger.info("Exported notice count by notice id: " + resultRepo.getNoticeCountById());
+        // the rows of the export are the notices and aggregates written
+        timer.addRows(exportedCount);
+        metricsRepo.addStageMetrics(timer.stop());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning the validation of a file by {@link ParseAndValidateAllRowsForFile}: headers, rows and
+ * the second pass on groups of rows found out of order, if any.
+ */
+@Name("org.mobilitydata.gtfsvalidator.File")
+@Label("Validated File")
+@Category("GTFS Validator")
+@Description("The validation of the headers and rows of a file")
+final class FileEvent extends jdk.jfr.Event {
+    @Label("Filename")
+    String filename;
+
+    @Label("Rows")
+    long rowCount;
+
+    @Label("Bytes")
+    @DataAmount
+    long byteCount;
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import java.util.Arrays;
+
+/**
+ * A scalable Bloom filter of key hashes, as returned by {@link KeyHashSet#hash(String[])}: a key that was added is
+ * always found, a key that was not added is found with a probability below 1%. Keys are added to a first filter sized
+ * for the number of keys expected; once a filter is full, a filter twice as large is added, keys being searched in each
+ * filter. Each filter uses one more probe than the previous one, so that its false positive rate is halved and the
+ * rates of all the filters add up to less than twice the rate of the first one, which is about 0.4%. A key takes about
+ * 12 bits in the first filter, and about 1.5 more bits in each following filter. Not thread safe while keys are added.
+ */
+final class KeyBloomFilter {
+    private static final int MIN_CAPACITY = 1 << 12;
+    // k probes over k / ln(2) bits per key give a false positive rate of 1 / 2^k
+    private static final int FIRST_PROBE_COUNT = 8;
+    // a bit index is the product of a 32-bit probe by the bit count of a filter, which must fit in 63 bits
+    private static final long MAX_BIT_COUNT = 1L << 31;
+
+    private long[][] filters = new long[0][];
+    private long[] bitCounts = new long[0];
+    private long capacity;
+    private long keyCountInLastFilter;
+
+    /**
+     * @param expectedKeyCount the number of keys expected, used to size the first filter. More keys can be added, at
+     *                         the cost of a few more bits per key.
+     */
+    KeyBloomFilter(final long expectedKeyCount) {
+        capacity = Math.max(MIN_CAPACITY, expectedKeyCount);
+        addFilter();
+    }
+
+    KeyBloomFilter() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Adds the hash of a key to this filter
+     *
+     * @param hash a hash returned by {@link KeyHashSet#hash(String[])}
+     * @return true if the hash was definitely not part of this filter, false if it may have been added before
+     */
+    boolean add(final long hash) {
+        if (mightContain(hash)) {
+            return false;
+        }
+        if (keyCountInLastFilter == capacity) {
+            capacity *= 2;
+            addFilter();
+        }
+        final int lastFilterIndex = filters.length - 1;
+        final long[] bits = filters[lastFilterIndex];
+        final long bitCount = bitCounts[lastFilterIndex];
+        final int probeCount = FIRST_PROBE_COUNT + lastFilterIndex;
+        for (int i = 0; i < probeCount; ++i) {
+            final long bitIndex = bitIndex(hash, i, bitCount);
+            bits[(int) (bitIndex >>> 6)] |= 1L << bitIndex;
+        }
+        ++keyCountInLastFilter;
+        return true;
+    }
+
+    /**
+     * Returns false if the hash of a key was definitely not added to this filter
+     *
+     * @param hash a hash returned by {@link KeyHashSet#hash(String[])}
+     * @return false if the hash was definitely not added to this filter, true if it may have been added
+     */
+    boolean mightContain(final long hash) {
+        for (int filterIndex = 0; filterIndex < filters.length; ++filterIndex) {
+            if (mightContain(filters[filterIndex], bitCounts[filterIndex], FIRST_PROBE_COUNT + filterIndex, hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of bytes used by the bits of this filter
+     *
+     * @return the number of bytes used by the bits of this filter
+     */
+    long getByteCount() {
+        return Arrays.stream(filters).mapToLong(bits -> bits.length * (long) Long.BYTES).sum();
+    }
+
+    private void addFilter() {
+        final int probeCount = FIRST_PROBE_COUNT + filters.length;
+        final double bitsPerKey = probeCount / Math.log(2);
+        capacity = Math.min(capacity, (long) (MAX_BIT_COUNT / bitsPerKey));
+        final long bitCount = (long) Math.ceil(capacity * bitsPerKey);
+        filters = Arrays.copyOf(filters, filters.length + 1);
+        filters[filters.length - 1] = new long[(int) ((bitCount + Long.SIZE - 1) / Long.SIZE)];
+        bitCounts = Arrays.copyOf(bitCounts, bitCounts.length + 1);
+        bitCounts[bitCounts.length - 1] = bitCount;
+        keyCountInLastFilter = 0;
+    }
+
+    private static boolean mightContain(final long[] bits, final long bitCount, final int probeCount, final long hash) {
+        for (int i = 0; i < probeCount; ++i) {
+            final long bitIndex = bitIndex(hash, i, bitCount);
+            if ((bits[(int) (bitIndex >>> 6)] & (1L << bitIndex)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the bit of a probe: probes are derived from both halves of the hash by double hashing, then mapped to
+     * the bits of the filter by a multiplication rather than a division
+     */
+    private static long bitIndex(final long hash, final int probe, final long bitCount) {
+        final int probeHash = (int) hash + probe * ((int) (hash >>> 32) | 1);
+        return ((probeHash & 0xffffffffL) * bitCount) >>> 32;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+/**
+ * A set of key values stored as 64 bit hashes in an open addressing table, so that a key takes 8 to 16 bytes whatever
+ * the length of its values. Two distinct keys may share a hash: with n keys in the set, a key that is not part of the
+ * set is found with a probability of about n / 2^64, which is negligible for GTFS datasets. Not thread safe while
+ * keys are added.
+ */
+final class KeyHashSet {
+    private static final int INITIAL_CAPACITY = 16;
+    // 0 marks empty slots, the hash of a key is never 0
+    private static final long EMPTY = 0;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    // separates the values of a multi-column key, so that ("ab", "c") and ("a", "bc") have distinct hashes
+    private static final char VALUE_SEPARATOR = '\u001F';
+
+    private long[] hashes = new long[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Returns the hash of a key, never 0: the values of the key are hashed with FNV-1a then mixed with the finalizer
+     * of MurmurHash3, so that similar ids have unrelated hashes
+     *
+     * @param values the values of the key, none of them null
+     * @return the hash of the key
+     */
+    static long hash(final String[] values) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < values.length; ++i) {
+            if (i > 0) {
+                hash = (hash ^ VALUE_SEPARATOR) * FNV_PRIME;
+            }
+            final String value = values[i];
+            for (int j = 0; j < value.length(); ++j) {
+                hash = (hash ^ value.charAt(j)) * FNV_PRIME;
+            }
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    /**
+     * Adds the hash of a key to this set
+     *
+     * @param hash a hash returned by {@link #hash(String[])}
+     * @return true if the hash was not part of this set
+     */
+    boolean add(final long hash) {
+        if ((size + 1) * 4L > hashes.length * 3L) {
+            rehash();
+        }
+        final int mask = hashes.length - 1;
+        int slot = (int) hash & mask;
+        while (hashes[slot] != EMPTY) {
+            if (hashes[slot] == hash) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        ++size;
+        return true;
+    }
+
+    /**
+     * Returns true if the hash of a key is part of this set
+     *
+     * @param hash a hash returned by {@link #hash(String[])}
+     * @return true if the hash is part of this set
+     */
+    boolean contains(final long hash) {
+        final int mask = hashes.length - 1;
+        int slot = (int) hash & mask;
+        while (hashes[slot] != EMPTY) {
+            if (hashes[slot] == hash) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Adds all the hashes of another set to this set
+     *
+     * @param other the set whose hashes to add
+     */
+    void addAll(final KeyHashSet other) {
+        for (long hash : other.hashes) {
+            if (hash != EMPTY) {
+                add(hash);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of hashes of this set
+     *
+     * @return the number of hashes of this set
+     */
+    int size() {
+        return size;
+    }
+
+    private void rehash() {
+        final long[] previousHashes = hashes;
+        hashes = new long[previousHashes.length * 2];
+        final int mask = hashes.length - 1;
+        for (long hash : previousHashes) {
+            if (hash != EMPTY) {
+                int slot = (int) hash & mask;
+                while (hashes[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = hash;
+            }
+        }
+    }
+}
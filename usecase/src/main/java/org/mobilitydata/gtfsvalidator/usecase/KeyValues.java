@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntitySchema;
+
+import java.util.List;
+
+/**
+ * Utility methods reading the values of a tuple of columns from the rows of a file, for validations of keys
+ */
+final class KeyValues {
+
+    private KeyValues() {
+    }
+
+    /**
+     * Returns the position of each column of a key in the rows bound to {@code schema}, or null if one of the columns
+     * is not part of {@code schema}
+     *
+     * @param schema         the schema of the rows to read
+     * @param columnNameList the columns of the key
+     * @return the position of each column of the key, or null if one of the columns is not part of {@code schema}
+     */
+    static int[] resolveColumnIndexes(final RawEntitySchema schema, final List<String> columnNameList) {
+        final int[] toReturn = new int[columnNameList.size()];
+        for (int i = 0; i < toReturn.length; ++i) {
+            toReturn[i] = schema.getIndex(columnNameList.get(i));
+            if (toReturn[i] == -1) {
+                return null;
+            }
+        }
+        return toReturn;
+    }
+
+    /**
+     * Reads the values of the columns of a key in a row into {@code values}, so that the same array can be used for
+     * each row
+     *
+     * @param rawEntity     the row to read
+     * @param columnIndexes the position of each column of the key, as returned by
+     *                      {@link #resolveColumnIndexes(RawEntitySchema, List)}
+     * @param values        the array receiving the values, as long as {@code columnIndexes}
+     * @return false if one of the values is empty
+     */
+    static boolean readValues(final RawEntity rawEntity, final int[] columnIndexes, final String[] values) {
+        for (int i = 0; i < columnIndexes.length; ++i) {
+            values[i] = rawEntity.get(columnIndexes[i]);
+            if (values[i] == null || values[i].isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
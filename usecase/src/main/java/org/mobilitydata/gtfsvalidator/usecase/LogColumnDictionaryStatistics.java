@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.apache.logging.log4j.Logger;
+import org.mobilitydata.gtfsvalidator.usecase.port.GtfsSpecRepository;
+
+/**
+ * Use case to log the memory saved by deduplicating the values of the columns of the GTFS files whose parsed rows are
+ * kept, as when they are loaded with {@link ParseSingleRowForFile} to fill a
+ * {@link org.mobilitydata.gtfsvalidator.usecase.port.GtfsDataRepository}. Rows parsed for validation only, as by
+ * {@link ParseAndValidateAllRowsForFile}, are discarded once validated, hence are not deduplicated nor logged.
+ */
+public class LogColumnDictionaryStatistics {
+    private final Logger logger;
+    private final GtfsSpecRepository specRepo;
+
+    /**
+     * @param logger   logger used to log information
+     * @param specRepo a repository holding information about the GTFS specification and the files parsed
+     */
+    public LogColumnDictionaryStatistics(final Logger logger,
+                                         final GtfsSpecRepository specRepo) {
+        this.logger = logger;
+        this.specRepo = specRepo;
+    }
+
+    /**
+     * Use case execution method: logs, for each deduplicated column, the number of values and distinct values met,
+     * and an estimate of the memory saved in the kept rows.
+     */
+    public void execute() {
+        for (GtfsSpecRepository.ColumnDictionaryStatistics statistics : specRepo.getColumnDictionaryStatistics()) {
+            logger.info(String.format("Column dictionary %s/%s: %d values, %d distinct, ~%d KiB saved in kept rows",
+                    statistics.getFilename(),
+                    statistics.getColumnName(),
+                    statistics.getValueCount(),
+                    statistics.getDistinctValueCount(),
+                    statistics.getSavedByteCount() / 1024));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.apache.logging.log4j.Logger;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Use case to log the progress of the validation process while it runs, every
+ * {@link ExecParamRepository#PROGRESS_INTERVAL_KEY} seconds: files done, share of the bytes of the dataset validated
+ * with an estimate of the remaining time, files being validated and notices found so far. Counters are read from the
+ * {@link ProgressTracker} provided in the constructor by a daemon thread, the validation is never waited for.
+ */
+public class LogProgress implements AutoCloseable {
+    private static final int LOGGED_NOTICE_ID_COUNT = 5;
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    private final ProgressTracker progressTracker;
+    private final RawFileRepository rawFileRepo;
+    private final ExecParamRepository execParamRepo;
+    private final Logger logger;
+    private ScheduledExecutorService scheduler;
+    private long startNanos;
+
+    /**
+     * @param progressTracker the counters of the progress of the validation process
+     * @param rawFileRepo     a repository storing information about a GTFS dataset, giving the size of files
+     * @param execParamRepo   a repository containing execution parameters
+     * @param logger          a logger used to log progress
+     */
+    public LogProgress(final ProgressTracker progressTracker,
+                       final RawFileRepository rawFileRepo,
+                       final ExecParamRepository execParamRepo,
+                       final Logger logger) {
+        this.progressTracker = progressTracker;
+        this.rawFileRepo = rawFileRepo;
+        this.execParamRepo = execParamRepo;
+        this.logger = logger;
+    }
+
+    /**
+     * Use case execution method: starts logging progress periodically, until {@link #close()} is called. Does nothing
+     * if the interval is 0.
+     */
+    public synchronized void execute() {
+        final long intervalSeconds =
+                Long.parseLong(execParamRepo.getExecParamValue(ExecParamRepository.PROGRESS_INTERVAL_KEY));
+        if (intervalSeconds <= 0 || scheduler != null) {
+            return;
+        }
+        startNanos = System.nanoTime();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> logger.info(formatProgress(System.nanoTime() - startNanos)),
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Registers a file of the dataset that is to be validated, so that its size counts in the progress and in the
+     * estimate of the remaining time before its validation starts
+     *
+     * @param filename the name of the file
+     */
+    public void expectFile(final String filename) {
+        progressTracker.expectFile(filename,
+                rawFileRepo.findByName(filename).map(rawFileRepo::getSizeForFile).orElse(-1L));
+    }
+
+    /**
+     * Stops logging progress
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Returns a line describing the progress of the validation process. The remaining time is estimated from the share
+     * of the bytes of files of known size that are validated, assuming the rest is validated at the same pace.
+     *
+     * @param elapsedNanos the time elapsed since the start of the validation process, in nanoseconds
+     * @return a line describing the progress of the validation process
+     */
+    String formatProgress(final long elapsedNanos) {
+        final List<ProgressTracker.FileProgress> fileProgressList = progressTracker.getFileProgressList();
+        long doneFileCount = 0;
+        long rowCount = 0;
+        long totalByteCount = 0;
+        double doneByteCount = 0;
+        for (ProgressTracker.FileProgress fileProgress : fileProgressList) {
+            if (fileProgress.isDone()) {
+                ++doneFileCount;
+            }
+            rowCount += fileProgress.getRowCount();
+            if (fileProgress.getByteCount() > 0) {
+                totalByteCount += fileProgress.getByteCount();
+                doneByteCount += fileProgress.getByteCount() * fileProgress.getDoneFraction();
+            }
+        }
+
+        final StringBuilder builder = new StringBuilder("Progress: ")
+                .append(doneFileCount).append('/').append(fileProgressList.size()).append(" files done, ")
+                .append(rowCount).append(" rows");
+        if (!fileProgressList.isEmpty() && doneFileCount == fileProgressList.size()) {
+            builder.append(", rows of all files validated");
+        } else if (totalByteCount > 0) {
+            final double doneFraction = doneByteCount / totalByteCount;
+            builder.append(", ").append(Math.round(100 * doneFraction)).append("% of ")
+                    .append(String.format(Locale.ROOT, "%.1f", totalByteCount / BYTES_PER_MEGABYTE)).append(" MB, ETA ")
+                    .append(doneFraction > 0
+                            ? formatDuration(Math.round(elapsedNanos * (1 - doneFraction) / doneFraction))
+                            : "unknown");
+        }
+
+        final String validatedFiles = fileProgressList.stream()
+                .filter(fileProgress -> fileProgress.isStarted() && !fileProgress.isDone())
+                .map(fileProgress -> fileProgress.getEstimatedRowCount() < 0
+                        ? fileProgress.getFilename()
+                        : fileProgress.getFilename() + " " + Math.round(100 * fileProgress.getDoneFraction())
+                        + "% of ~" + fileProgress.getEstimatedRowCount() + " rows")
+                .collect(Collectors.joining(", "));
+        if (!validatedFiles.isEmpty()) {
+            builder.append("; validating ").append(validatedFiles);
+        }
+
+        final Map<String, Long> noticeCountById = progressTracker.getNoticeCountById();
+        builder.append("; ").append(noticeCountById.values().stream().mapToLong(Long::longValue).sum())
+                .append(" notices");
+        if (!noticeCountById.isEmpty()) {
+            builder.append(": ").append(noticeCountById.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .limit(LOGGED_NOTICE_ID_COUNT)
+                    .map(entry -> entry.getKey() + " " + entry.getValue())
+                    .collect(Collectors.joining(", ")));
+        }
+        return builder.toString();
+    }
+
+    private static String formatDuration(final long nanos) {
+        final long seconds = TimeUnit.NANOSECONDS.toSeconds(nanos);
+        return seconds >= 60 ? seconds / 60 + "m " + seconds % 60 + "s" : seconds + "s";
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a batch of notices added to the repository of notices by
+ * {@link ParseAndValidateAllRowsForFile}: the notices of a pass over the rows of a file, or of a range of a split
+ * file, spanning the validation of its rows.
+ */
+@Name("org.mobilitydata.gtfsvalidator.NoticeBatch")
+@Label("Notice Batch")
+@Category("GTFS Validator")
+@Description("A batch of notices added to the repository of notices")
+final class NoticeBatchEvent extends jdk.jfr.Event {
+    @Label("Filename")
+    String filename;
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Notices")
+    long noticeCount;
+}
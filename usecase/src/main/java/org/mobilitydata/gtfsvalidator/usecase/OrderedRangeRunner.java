@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs the ranges of a split file on an executor and hands their notices to a consumer in the order of the ranges, as
+ * if the file was read at once, while holding a bounded number of notices. At most {@code maxRangeInFlightCount}
+ * ranges are submitted at once, in order. The notices of the first range not done go straight to the consumer, from
+ * the thread validating the range; the notices of the following ranges are held in a buffer of
+ * {@code bufferCapacity} notices per range, and the thread validating a range waits when its buffer is full until the
+ * previous ranges are done. If no thread of the executor has started the first range not done, the calling thread runs
+ * it, so that the ranges of a file make progress even when the threads of the executor are busy with other files, or
+ * when the calling thread is one of them: the first range not done is always running and the others always end up
+ * draining. The number of ranges in flight should not exceed the number of threads of the executor, and is to be 1 if
+ * the executor runs tasks on the calling thread.
+ */
+final class OrderedRangeRunner {
+    static final int DEFAULT_BUFFER_CAPACITY = 4096;
+
+    private final Executor executor;
+    private final int maxRangeInFlightCount;
+    private final int bufferCapacity;
+
+    /**
+     * @param executor              the executor validating the ranges
+     * @param maxRangeInFlightCount the number of ranges submitted at once
+     */
+    OrderedRangeRunner(final Executor executor, final int maxRangeInFlightCount) {
+        this(executor, maxRangeInFlightCount, DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * @param executor              the executor validating the ranges
+     * @param maxRangeInFlightCount the number of ranges submitted at once
+     * @param bufferCapacity        the number of notices held for a range before the thread validating it waits
+     */
+    OrderedRangeRunner(final Executor executor, final int maxRangeInFlightCount, final int bufferCapacity) {
+        this.executor = executor;
+        this.maxRangeInFlightCount = Math.max(1, maxRangeInFlightCount);
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    /**
+     * Validates all ranges and returns once they are all done. If a range fails, the notices of the following ranges
+     * are dropped so that their threads are released, and the failure is thrown once they are done.
+     *
+     * @param rangeList         the ranges, in order
+     * @param rangeTask         validates a range, handing its notices to the consumer it is given
+     * @param noticeConsumer    the consumer of the notices of all ranges, in order; it must be thread safe
+     * @param rangeDoneConsumer called on the calling thread for each range in order, once its notices are consumed and
+     *                          before the notices of the next range are, with the result of the range and its number
+     *                          of notices
+     * @param <P>               the type of the ranges
+     * @param <R>               the type of the result of a range
+     */
+    <P, R> void run(final List<P> rangeList,
+                    final BiFunction<P, Consumer<Notice>, R> rangeTask,
+                    final Consumer<Notice> noticeConsumer,
+                    final ObjLongConsumer<R> rangeDoneConsumer) {
+        final List<RangeSink> sinkList = new ArrayList<>(rangeList.size());
+        for (int i = 0; i < rangeList.size(); ++i) {
+            sinkList.add(new RangeSink(noticeConsumer, bufferCapacity, Thread.currentThread()));
+        }
+        final List<RangeRun<R>> runList = new ArrayList<>(rangeList.size());
+        try {
+            for (int i = 0; i < rangeList.size(); ++i) {
+                final RangeSink sink = sinkList.get(i);
+                sink.activate();
+                while (runList.size() < Math.min(rangeList.size(), i + maxRangeInFlightCount)) {
+                    final int rangeIndex = runList.size();
+                    final RangeRun<R> rangeRun =
+                            new RangeRun<>(() -> rangeTask.apply(rangeList.get(rangeIndex), sinkList.get(rangeIndex)));
+                    runList.add(rangeRun);
+                    executor.execute(rangeRun::runIfNotStarted);
+                }
+                final RangeRun<R> rangeRun = runList.get(i);
+                rangeRun.runIfNotStarted();
+                final R result = rangeRun.future.join();
+                // the result of a range is released once it is consumed
+                runList.set(i, null);
+                rangeDoneConsumer.accept(result, sink.noticeCount);
+            }
+        } finally {
+            sinkList.forEach(RangeSink::cancel);
+            runList.stream()
+                    .filter(rangeRun -> rangeRun != null)
+                    .forEach(RangeRun::cancelOrWait);
+        }
+    }
+
+    /**
+     * A range to run once, by a thread of the executor or by the calling thread, whichever starts it first
+     *
+     * @param <R> the type of the result of the range
+     */
+    private static final class RangeRun<R> {
+        private final Supplier<R> task;
+        private final AtomicBoolean isStarted = new AtomicBoolean();
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+
+        private RangeRun(final Supplier<R> task) {
+            this.task = task;
+        }
+
+        private void runIfNotStarted() {
+            if (isStarted.compareAndSet(false, true)) {
+                try {
+                    future.complete(task.get());
+                } catch (Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                }
+            }
+        }
+
+        /**
+         * Cancels the range if it is not started, else waits until it is done
+         */
+        private void cancelOrWait() {
+            if (isStarted.compareAndSet(false, true)) {
+                future.cancel(false);
+            } else {
+                future.handle((result, throwable) -> null).join();
+            }
+        }
+    }
+
+    /**
+     * Receives the notices of a range: they are handed to the consumer once the range is active, and held in a
+     * bounded buffer until then.
+     */
+    private static final class RangeSink implements Consumer<Notice> {
+        private final Consumer<Notice> noticeConsumer;
+        private final int capacity;
+        private final Thread runnerThread;
+        private final ArrayDeque<Notice> buffer = new ArrayDeque<>();
+        private volatile boolean isActive;
+        private volatile boolean isCancelled;
+        // written by the thread validating the range, read once the range is done
+        private long noticeCount;
+
+        private RangeSink(final Consumer<Notice> noticeConsumer, final int capacity, final Thread runnerThread) {
+            this.noticeConsumer = noticeConsumer;
+            this.capacity = capacity;
+            this.runnerThread = runnerThread;
+        }
+
+        @Override
+        public void accept(final Notice notice) {
+            ++noticeCount;
+            if (!isActive) {
+                synchronized (this) {
+                    while (!isActive) {
+                        if (isCancelled) {
+                            return;
+                        }
+                        // the thread running the ranges can not wait for itself
+                        if (buffer.size() < capacity || Thread.currentThread() == runnerThread) {
+                            buffer.add(notice);
+                            return;
+                        }
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            buffer.add(notice);
+                            return;
+                        }
+                    }
+                }
+            }
+            noticeConsumer.accept(notice);
+        }
+
+        private synchronized void activate() {
+            buffer.forEach(noticeConsumer);
+            buffer.clear();
+            isActive = true;
+            notifyAll();
+        }
+
+        private synchronized void cancel() {
+            if (!isActive) {
+                buffer.clear();
+                isCancelled = true;
+                notifyAll();
+            }
+        }
+    }
+}
@@ -50,18 +50,63 @@ public class ParseAllExecParam {
      * parsed.
      * This method throws {@link IOException} if the parsing operation could not be executed.
      * This method throws {@link IllegalArgumentException} if an {@link ExecParamRepository} could not be added to the
-     * repository provided to the constructor.
+     * repository provided to the constructor, or if a numeric execution parameter, such as the number of threads given
+     * by {@link ExecParamRepository#THREADS_KEY}, is not an integer in its range. Numeric values are checked here, so
+     * that a typo stops the process before any file is read.
      *
      * @param args the command line execution parameters to parse if {@param fromConfigFile} is false
      * @throws IOException              if the parsing operation could not be executed.
      * @throws IllegalArgumentException if an {@link ExecParamRepository} could not be added to the repository provided
-     *                                  to the constructor.
+     *                                  to the constructor, or if a numeric execution parameter is invalid.
      */
     public void execute(final String[] args) throws IllegalArgumentException, IOException {
 
         execParamRepository
                 .getParser(parameterJsonString, args, logger)
                 .parse()
-                .forEach((s, execParam) -> execParamRepository.addExecParam(execParam));
+                .forEach((s, execParam) -> {
+                    if (execParam.getValue() != null) {
+                        checkValue(execParam.getKey(), execParam.getValue());
+                    }
+                    execParamRepository.addExecParam(execParam);
+                });
+    }
+
+    private static void checkValue(final String key, final String value) throws IllegalArgumentException {
+        switch (key) {
+            case ExecParamRepository.THREADS_KEY: {
+                checkInteger(key, value, 1, Integer.MAX_VALUE);
+                break;
+            }
+            case ExecParamRepository.SPLIT_THRESHOLD_KEY:
+            case ExecParamRepository.PROGRESS_INTERVAL_KEY: {
+                checkInteger(key, value, 0, Long.MAX_VALUE);
+                break;
+            }
+            case ExecParamRepository.CHUNK_SIZE_KEY:
+            case ExecParamRepository.SORT_MEMORY_KEY: {
+                checkInteger(key, value, 1, Long.MAX_VALUE);
+                break;
+            }
+            case ExecParamRepository.SAMPLE_CAP_KEY:
+            case ExecParamRepository.RESERVOIR_SIZE_KEY: {
+                checkInteger(key, value, 0, Integer.MAX_VALUE);
+                break;
+            }
+        }
+    }
+
+    private static void checkInteger(final String key, final String value, final long minimum, final long maximum)
+            throws IllegalArgumentException {
+        long number;
+        try {
+            number = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            number = minimum - 1;
+        }
+        if (number < minimum || number > maximum) {
+            throw new IllegalArgumentException("Execution parameter " + key +
+                    " must be an integer greater than or equal to " + minimum + ", found: " + value);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.ParsedEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.domain.entity.RowOrder;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.StageMetrics;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.CannotConstructDataProviderNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.InvalidRowLengthNotice;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.GtfsSpecRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.MetricsRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.RecordSortRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Use case to validate a single csv file in one pass. It performs the work of {@link ValidateHeadersForFile},
+ * {@link ValidateAllRowLengthForFile}, {@link ParseSingleRowForFile} and {@link ValidateGtfsTypes} while reading each
+ * row of the file only once. Files larger than the split threshold are read in ranges that are validated in parallel.
+ * This use case is triggered after the validation of the presence of required files.
+ */
+public class ParseAndValidateAllRowsForFile {
+
+    private final RawFileInfo rawFileInfo;
+    private final RawFileRepository rawFileRepo;
+    private final GtfsSpecRepository specRepo;
+    private final ValidationResultRepository resultRepo;
+    private final ExecParamRepository execParamRepo;
+    private final Executor chunkExecutor;
+    private final RecordSortRepository sortRepo;
+    private final MetricsRepository metricsRepo;
+    private final ProgressTracker progressTracker;
+
+    /**
+     * @param rawFileInfo     an object containing information regarding a file location and expected content
+     * @param rawFileRepo     a repository storing information about a GTFS dataset
+     * @param specRepo        a repository storing information about the GTFS specification used
+     * @param resultRepo      a repository storing information about the validation process
+     * @param execParamRepo   a repository containing execution parameters
+     * @param chunkExecutor   the executor validating the ranges of a file that is split
+     * @param sortRepo        a repository sorting the rows of the groups found out of order
+     * @param metricsRepo     a repository storing the metrics of the stages of the validation process
+     * @param progressTracker the counters of the progress of the validation process
+     */
+    public ParseAndValidateAllRowsForFile(final RawFileInfo rawFileInfo,
+                                          final RawFileRepository rawFileRepo,
+                                          final GtfsSpecRepository specRepo,
+                                          final ValidationResultRepository resultRepo,
+                                          final ExecParamRepository execParamRepo,
+                                          final Executor chunkExecutor,
+                                          final RecordSortRepository sortRepo,
+                                          final MetricsRepository metricsRepo,
+                                          final ProgressTracker progressTracker) {
+        this.rawFileInfo = rawFileInfo;
+        this.rawFileRepo = rawFileRepo;
+        this.specRepo = specRepo;
+        this.resultRepo = resultRepo;
+        this.execParamRepo = execParamRepo;
+        this.chunkExecutor = chunkExecutor;
+        this.sortRepo = sortRepo;
+        this.metricsRepo = metricsRepo;
+        this.progressTracker = progressTracker;
+    }
+
+    /**
+     * Use case execution method: validates the headers of the file linked to the {@link RawFileInfo}, then the length,
+     * the GTFS types and, if the file has a {@link RowOrder}, the order of each row. Files larger than the split
+     * threshold are validated by range on the executor provided in the constructor, notices being added to the
+     * {@link ValidationResultRepository} provided in the constructor in the order of the rows. Generated notices are
+     * the same as the ones generated by the separate use cases. If the process to retrieve data from a file fail, a
+     * {@link CannotConstructDataProviderNotice} is generated. Metrics and progress are added to the
+     * {@link MetricsRepository} and the {@link ProgressTracker} provided in the constructor.
+     */
+    public void execute() {
+        final long splitThreshold =
+                Long.parseLong(execParamRepo.getExecParamValue(ExecParamRepository.SPLIT_THRESHOLD_KEY));
+        final long chunkSize = Long.parseLong(execParamRepo.getExecParamValue(ExecParamRepository.CHUNK_SIZE_KEY));
+
+        rawFileRepo.getProviderChunkListForFile(rawFileInfo, splitThreshold, chunkSize).ifPresentOrElse(
+                providerSupplierList -> {
+                    // the provider of the first range is already open, providers are closed once their rows are read
+                    try (RawFileRepository.RawEntityProvider firstProvider = providerSupplierList.get(0).get()) {
+                        validateAllRanges(providerSupplierList, firstProvider);
+                    }
+                },
+                () -> resultRepo.addNotice(new CannotConstructDataProviderNotice(rawFileInfo.getFilename()))
+        );
+    }
+
+    /**
+     * Validates the headers of the file, read by the provider of its first range, then the rows of all its ranges
+     */
+    private void validateAllRanges(final List<Supplier<RawFileRepository.RawEntityProvider>> providerSupplierList,
+                                   final RawFileRepository.RawEntityProvider firstProvider) {
+        final FileEvent fileEvent = new FileEvent();
+        fileEvent.begin();
+        final StageTimer headersTimer = StageTimer.start(StageMetrics.HEADERS, rawFileInfo.getFilename());
+        new ValidateHeadersForFile(specRepo, rawFileInfo, rawFileRepo, resultRepo).execute(firstProvider.getHeaders());
+        metricsRepo.addStageMetrics(headersTimer.stop());
+
+        final GtfsSpecRepository.ParsedEntityTypeValidator validator = specRepo.getValidatorForFile(rawFileInfo);
+        final Optional<RowOrder> rowOrder = specRepo.getRowOrderForFile(rawFileInfo);
+        final long byteCount = rawFileRepo.getSizeForFile(rawFileInfo);
+        final StageTimer rowsTimer = StageTimer.start(StageMetrics.ROWS, rawFileInfo.getFilename());
+        rowsTimer.addBytes(Math.max(0, byteCount));
+        final ProgressTracker.FileProgress fileProgress =
+                progressTracker.startFile(rawFileInfo.getFilename(), byteCount);
+
+        final StageMetrics rowsMetrics;
+        if (providerSupplierList.size() == 1) {
+            final RowOrderValidator rowOrderValidator = rowOrder
+                    .map(order -> new RowOrderValidator(rawFileInfo.getFilename(), order, false))
+                    .orElse(null);
+            final NoticeBatchEvent noticeBatchEvent = new NoticeBatchEvent();
+            noticeBatchEvent.begin();
+            // notices are only counted while a flight recording listens to notice batches
+            final AtomicLong noticeCount = new AtomicLong();
+            validateAllRows(firstProvider, validator, rowOrderValidator,
+                    noticeBatchEvent.isEnabled()
+                            ? notice -> {
+                                noticeCount.incrementAndGet();
+                                resultRepo.addNotice(notice);
+                            }
+                            : resultRepo::addNotice,
+                    rowsTimer, fileProgress);
+            commitNoticeBatchEvent(noticeBatchEvent, noticeCount.get());
+            rowsMetrics = rowsTimer.stop();
+            metricsRepo.addStageMetrics(rowsMetrics);
+            fileProgress.finish();
+            if (rowOrderValidator != null) {
+                validateOutOfOrderGroups(rowOrder.get(), rowOrderValidator.getOutOfOrderGroupHashes(),
+                        rowOrderValidator.getUnsortedRowKeys());
+            }
+        } else {
+            // groups spanning several ranges are checked as ranges are merged in order
+            final RowOrderValidator.Merger rowOrderMerger = new RowOrderValidator.Merger();
+            // ranges are opened as they are validated, the first one by the repository
+            new OrderedRangeRunner(chunkExecutor, getRangeInFlightCount()).run(providerSupplierList,
+                    (providerSupplier, rangeNoticeConsumer) -> rowsTimer.measure(() -> {
+                        final ChunkResult chunkResult = new ChunkResult(rowOrder
+                                .map(order -> new RowOrderValidator(rawFileInfo.getFilename(), order, true))
+                                .orElse(null));
+                        try (RawFileRepository.RawEntityProvider provider = providerSupplier.get()) {
+                            validateAllRows(provider, validator, chunkResult.rowOrderValidator,
+                                    rangeNoticeConsumer, rowsTimer, fileProgress);
+                        }
+                        return chunkResult;
+                    }),
+                    resultRepo::addNotice,
+                    (chunkResult, noticeCount) -> {
+                        commitNoticeBatchEvent(chunkResult.noticeBatchEvent, noticeCount);
+                        if (chunkResult.rowOrderValidator != null) {
+                            rowOrderMerger.merge(chunkResult.rowOrderValidator, resultRepo::addNotice);
+                        }
+                    });
+            rowsMetrics = rowsTimer.stop();
+            metricsRepo.addStageMetrics(rowsMetrics);
+            fileProgress.finish();
+            rowOrder.ifPresent(order -> validateOutOfOrderGroups(order,
+                    rowOrderMerger.getOutOfOrderGroupHashes(), rowOrderMerger.getUnsortedRowKeys()));
+        }
+
+        fileEvent.end();
+        if (fileEvent.shouldCommit()) {
+            fileEvent.filename = rawFileInfo.getFilename();
+            fileEvent.rowCount = rowsMetrics.getRowCount();
+            fileEvent.byteCount = rowsMetrics.getByteCount();
+            fileEvent.commit();
+        }
+    }
+
+    private void validateAllRows(final RawFileRepository.RawEntityProvider provider,
+                                 final GtfsSpecRepository.ParsedEntityTypeValidator validator,
+                                 final RowOrderValidator rowOrderValidator,
+                                 final Consumer<Notice> noticeConsumer,
+                                 final StageTimer timer,
+                                 final ProgressTracker.FileProgress fileProgress) {
+        final int headerCount = provider.getHeaderCount();
+        final GtfsSpecRepository.RawEntityParser parser = specRepo.getParserForFile(rawFileInfo);
+
+        long rowCount = 0;
+        while (provider.hasNext()) {
+            RawEntity rawEntity = provider.getNext();
+            // progress is counted once per interval of rows, a shared counter per row would slow down the loop
+            if ((++rowCount & ProgressTracker.SAMPLE_MASK) == 0) {
+                fileProgress.addSample(rawEntity);
+            }
+            if (rawEntity.size() != headerCount) {
+                noticeConsumer.accept(new InvalidRowLengthNotice(
+                        rawFileInfo.getFilename(),
+                        rawEntity.getIndex(),
+                        headerCount,
+                        rawEntity.size())
+                );
+            }
+            parser.validateNonStringTypes(rawEntity).forEach(noticeConsumer);
+            final ParsedEntity parsedEntity = parser.parse(rawEntity);
+            validator.validate(parsedEntity).forEach(noticeConsumer);
+            if (rowOrderValidator != null) {
+                rowOrderValidator.validate(parsedEntity, rawEntity.getIndex(), noticeConsumer);
+            }
+        }
+        timer.addRows(rowCount);
+        fileProgress.addRows(rowCount & ProgressTracker.SAMPLE_MASK);
+    }
+
+    private void commitNoticeBatchEvent(final NoticeBatchEvent noticeBatchEvent, final long noticeCount) {
+        noticeBatchEvent.end();
+        if (noticeBatchEvent.shouldCommit()) {
+            noticeBatchEvent.filename = rawFileInfo.getFilename();
+            noticeBatchEvent.stage = StageMetrics.ROWS;
+            noticeBatchEvent.noticeCount = noticeCount;
+            noticeBatchEvent.commit();
+        }
+    }
+
+    /**
+     * Reads the file again to check the sorted columns of the groups found out of order, once their rows are sorted on
+     * the sequence column. Rows already reported as unsorted are not reported again.
+     */
+    private void validateOutOfOrderGroups(final RowOrder rowOrder,
+                                          final KeyHashSet outOfOrderGroupHashes,
+                                          final KeyHashSet unsortedRowKeys) {
+        if (outOfOrderGroupHashes.size() == 0 || rowOrder.getSortedColumnNameList().isEmpty()) {
+            return;
+        }
+        final Optional<RawFileRepository.RawEntityProvider> provider = rawFileRepo.getProviderForFile(rawFileInfo);
+        if (provider.isEmpty()) {
+            return;
+        }
+        final StageTimer timer = StageTimer.start(StageMetrics.RESORT, rawFileInfo.getFilename());
+        timer.addBytes(Math.max(0, rawFileRepo.getSizeForFile(rawFileInfo)));
+        final GtfsSpecRepository.RawEntityParser parser = specRepo.getParserForFile(rawFileInfo);
+        final RowOrderValidator rowOrderValidator = new RowOrderValidator(rawFileInfo.getFilename(), rowOrder, false);
+        try (RawFileRepository.RawEntityProvider rowProvider = provider.get();
+             RecordSortRepository.RecordSorter sorter =
+                     sortRepo.getSorter(rowOrder.getSortedColumnNameList().size())) {
+            long rowCount = 0;
+            while (rowProvider.hasNext()) {
+                final RawEntity rawEntity = rowProvider.getNext();
+                rowOrderValidator.collect(parser.parse(rawEntity), rawEntity.getIndex(), outOfOrderGroupHashes,
+                        sorter);
+                ++rowCount;
+            }
+            rowOrderValidator.validateSortedGroups(sorter.getGroupIterator(), unsortedRowKeys, resultRepo::addNotice);
+            timer.addRows(rowCount);
+        }
+        metricsRepo.addStageMetrics(timer.stop());
+    }
+
+    /**
+     * Returns the number of ranges of a split file validated at once: one per thread of the executor, so that the
+     * notices held while previous ranges are validated stay bounded
+     */
+    private int getRangeInFlightCount() {
+        return Integer.parseInt(execParamRepo.getExecParamValue(ExecParamRepository.THREADS_KEY));
+    }
+
+    /**
+     * The validator of the order of the rows of a range of a file if the file has a resort key, with the flight
+     * recorder event of its notices
+     */
+    private static final class ChunkResult {
+        private final RowOrderValidator rowOrderValidator;
+        private final NoticeBatchEvent noticeBatchEvent = new NoticeBatchEvent();
+
+        private ChunkResult(final RowOrderValidator rowOrderValidator) {
+            this.rowOrderValidator = rowOrderValidator;
+            noticeBatchEvent.begin();
+        }
+    }
+}
@@ -26,10 +26,13 @@ import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
 
 /**
  * Use case to parse a single row of a csv file. This use case is triggered after the validation of the length of all
- * rows for a specific file.
+ * rows for a specific file. Parsed rows are meant to be kept: repeated values of the columns whose specification
+ * carries a cache hint share a single instance, held by the dictionaries of the file until all its rows are parsed.
  */
 public class ParseSingleRowForFile {
 
+    private final RawFileInfo rawFileInfo;
+    private final GtfsSpecRepository specRepo;
     private final ValidationResultRepository resultRepo;
     private RawFileRepository.RawEntityProvider provider;
     private GtfsSpecRepository.RawEntityParser parser;
@@ -44,11 +47,13 @@ public class ParseSingleRowForFile {
                                  final RawFileRepository rawFileRepo,
                                  final GtfsSpecRepository specRepo,
                                  final ValidationResultRepository resultRepo) {
+        this.rawFileInfo = rawFileInfo;
+        this.specRepo = specRepo;
         this.resultRepo = resultRepo;
 
         rawFileRepo.getProviderForFile(rawFileInfo).ifPresentOrElse(
                 provider -> {
-                    this.parser = specRepo.getParserForFile(rawFileInfo);
+                    this.parser = specRepo.getDeduplicatingParserForFile(rawFileInfo);
                     this.provider = provider;
                 },
                 () -> resultRepo.addNotice(new CannotConstructDataProviderNotice(rawFileInfo.getFilename()))
@@ -56,20 +61,30 @@ public class ParseSingleRowForFile {
     }
 
     /**
-     * Returns true if a row has a next row, else false
+     * Returns true if a row has a next row, else false. Once the file has no more rows, the dictionaries of the file
+     * are released.
      *
      * @return true if a row has a next row, else false
      */
     public boolean hasNext() {
-        return provider != null && provider.hasNext();
+        if (provider == null) {
+            return false;
+        }
+        if (!provider.hasNext()) {
+            specRepo.releaseColumnDictionariesForFile(rawFileInfo);
+            provider = null;
+            parser = null;
+            return false;
+        }
+        return true;
     }
 
     /**
      * Use case execution method returns a parsed row from a GTFS CSV file. While the processed file has rows, a
      * {@link RawEntity} is created with 1 based index identifying the row location within a GTFS CSV file and its
-     * content as a map of strings; which allows validation of numeric types.
+     * content as an array of strings; which allows validation of numeric types.
      *
-     * @return a parsed row from a GTFS file
+     * @return a parsed row from a GTFS file, or null if the file has no more rows
      */
     public ParsedEntity execute() {
         ParsedEntity toReturn = null;
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the progress of the validation process while it runs: rows validated per file, against the size of the file,
+ * and notices found per notice id. Counters are written by the threads validating rows and read by the thread logging
+ * progress: they are {@link LongAdder}s, whose cells are striped across threads so that writers do not contend, and
+ * rows are only added once every {@link #SAMPLE_INTERVAL} rows, so that the loop over rows only increments a local
+ * counter. The length of the rows sampled this way gives the average length of a row of a file, from which its number
+ * of rows is estimated. Thread safe.
+ */
+public final class ProgressTracker {
+    public static final int SAMPLE_INTERVAL = 1024;
+    public static final int SAMPLE_MASK = SAMPLE_INTERVAL - 1;
+
+    private final Map<String, FileProgress> fileProgressByFilename = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> noticeCountById = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a file that is to be validated, so that its size counts in the progress before its validation starts
+     *
+     * @param filename  the name of the file
+     * @param byteCount the size of the file in bytes, -1 if it is unknown
+     * @return the progress of the file
+     */
+    public FileProgress expectFile(final String filename, final long byteCount) {
+        return fileProgressByFilename.computeIfAbsent(filename, key -> new FileProgress(key, byteCount));
+    }
+
+    /**
+     * Marks the validation of the rows of a file as started
+     *
+     * @param filename  the name of the file
+     * @param byteCount the size of the file in bytes, -1 if it is unknown
+     * @return the progress of the file, to which rows are added as they are validated
+     */
+    public FileProgress startFile(final String filename, final long byteCount) {
+        final FileProgress fileProgress = expectFile(filename, byteCount);
+        fileProgress.start(byteCount);
+        return fileProgress;
+    }
+
+    /**
+     * Counts a notice found by the validation process
+     *
+     * @param notice the notice found
+     */
+    public void countNotice(final Notice notice) {
+        LongAdder count = noticeCountById.get(notice.getId());
+        if (count == null) {
+            count = noticeCountById.computeIfAbsent(notice.getId(), key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * Returns the progress of every file expected or started, by filename
+     *
+     * @return the progress of every file expected or started, sorted by filename
+     */
+    public List<FileProgress> getFileProgressList() {
+        final List<FileProgress> toReturn = new ArrayList<>(fileProgressByFilename.values());
+        toReturn.sort(Comparator.comparing(FileProgress::getFilename));
+        return toReturn;
+    }
+
+    /**
+     * Returns the number of notices found so far, by notice id
+     *
+     * @return the number of notices found so far, by notice id
+     */
+    public Map<String, Long> getNoticeCountById() {
+        final Map<String, Long> toReturn = new TreeMap<>();
+        noticeCountById.forEach((noticeId, count) -> toReturn.put(noticeId, count.sum()));
+        return toReturn;
+    }
+
+    /**
+     * The progress of the validation of the rows of a file. Rows are added by {@link #addSample(RawEntity)} once every
+     * {@link #SAMPLE_INTERVAL} rows and by {@link #addRows(long)} for the remaining rows of a data provider.
+     */
+    public static final class FileProgress {
+        private final String filename;
+        private volatile long byteCount;
+        private volatile boolean isStarted;
+        private volatile boolean isDone;
+        private final LongAdder rowCount = new LongAdder();
+        private final LongAdder sampleCount = new LongAdder();
+        private final LongAdder sampledByteCount = new LongAdder();
+
+        private FileProgress(final String filename, final long byteCount) {
+            this.filename = filename;
+            this.byteCount = byteCount;
+        }
+
+        private void start(final long byteCount) {
+            if (byteCount >= 0) {
+                this.byteCount = byteCount;
+            }
+            isStarted = true;
+        }
+
+        /**
+         * Adds {@link #SAMPLE_INTERVAL} rows, the last of which is sampled to estimate the length of a row. The length
+         * of a row is estimated from its values and separators, quotes are not counted.
+         *
+         * @param rawEntity the last row of the interval
+         */
+        public void addSample(final RawEntity rawEntity) {
+            long rowByteCount = rawEntity.size();
+            for (int columnIndex = 0; columnIndex < rawEntity.size(); ++columnIndex) {
+                final String value = rawEntity.get(columnIndex);
+                if (value != null) {
+                    rowByteCount += value.length();
+                }
+            }
+            rowCount.add(SAMPLE_INTERVAL);
+            sampleCount.increment();
+            sampledByteCount.add(rowByteCount);
+        }
+
+        /**
+         * Adds rows that are not part of a sampled interval
+         *
+         * @param count the number of rows to add
+         */
+        public void addRows(final long count) {
+            rowCount.add(count);
+        }
+
+        /**
+         * Marks the validation of the rows of the file as done
+         */
+        public void finish() {
+            isDone = true;
+        }
+
+        public String getFilename() {
+            return filename;
+        }
+
+        /**
+         * Returns the size of the file in bytes
+         *
+         * @return the size of the file in bytes, -1 if it is unknown
+         */
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        public long getRowCount() {
+            return rowCount.sum();
+        }
+
+        public boolean isStarted() {
+            return isStarted;
+        }
+
+        public boolean isDone() {
+            return isDone;
+        }
+
+        /**
+         * Returns the number of rows of the file: the number of rows validated once the file is done, else an
+         * estimate from its size and from the average length of the rows sampled so far
+         *
+         * @return the number of rows of the file, -1 if it cannot be estimated yet
+         */
+        public long getEstimatedRowCount() {
+            if (isDone) {
+                return getRowCount();
+            }
+            final long sampledBytes = sampledByteCount.sum();
+            if (byteCount < 0 || sampledBytes == 0) {
+                return -1;
+            }
+            return Math.max(getRowCount(), Math.round((double) byteCount * sampleCount.sum() / sampledBytes));
+        }
+
+        /**
+         * Returns the fraction of the rows of the file that are validated
+         *
+         * @return the fraction of the rows of the file that are validated, between 0 and 1
+         */
+        public double getDoneFraction() {
+            if (isDone) {
+                return 1;
+            }
+            final long estimatedRowCount = getEstimatedRowCount();
+            return estimatedRowCount <= 0 ? 0 : Math.min(1, (double) getRowCount() / estimatedRowCount);
+        }
+    }
+}
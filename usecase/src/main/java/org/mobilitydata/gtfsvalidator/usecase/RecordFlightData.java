@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.apache.logging.log4j.Logger;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * Use case to record the validation process with the flight recorder of the JVM, to the file given by
+ * {@link ExecParamRepository#JFR_KEY}. The recording uses the profile settings of the JDK, along with the events of the
+ * validator: {@link StageEvent}, {@link FileEvent} and {@link NoticeBatchEvent}, so that profiles can be read against
+ * the stages and files of the dataset. The recording is written when {@link #close()} is called, or when the JVM exits.
+ */
+public class RecordFlightData implements AutoCloseable {
+    private static final String CONFIGURATION_NAME = "profile";
+
+    private final ExecParamRepository execParamRepo;
+    private final Logger logger;
+    private Recording recording;
+
+    /**
+     * @param execParamRepo a repository containing execution parameters
+     * @param logger        a logger used to log where the recording is written
+     */
+    public RecordFlightData(final ExecParamRepository execParamRepo, final Logger logger) {
+        this.execParamRepo = execParamRepo;
+        this.logger = logger;
+    }
+
+    /**
+     * Use case execution method: starts a flight recording if a file to write it to is given. If the recording cannot
+     * be started, the validation process goes on without it.
+     */
+    public synchronized void execute() {
+        final String destination = execParamRepo.getExecParamValue(ExecParamRepository.JFR_KEY);
+        if (destination == null || recording != null) {
+            return;
+        }
+        try {
+            final Recording newRecording = new Recording(Configuration.getConfiguration(CONFIGURATION_NAME));
+            newRecording.setName("gtfs-validator");
+            newRecording.setDestination(Path.of(destination));
+            newRecording.setDumpOnExit(true);
+            newRecording.start();
+            recording = newRecording;
+            logger.info("Recording flight data to " + destination);
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            logger.error("Could not start flight recording: " + e);
+        }
+    }
+
+    /**
+     * Stops the flight recording, if any, and writes it to its file
+     */
+    @Override
+    public synchronized void close() {
+        if (recording != null) {
+            recording.stop();
+            logger.info("Flight data recorded to " + recording.getDestination());
+            recording.close();
+            recording = null;
+        }
+    }
+}
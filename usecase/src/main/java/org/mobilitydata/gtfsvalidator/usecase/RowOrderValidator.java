@@ -0,0 +1,533 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.ParsedEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.ParsedEntitySchema;
+import org.mobilitydata.gtfsvalidator.domain.entity.RowOrder;
+import org.mobilitydata.gtfsvalidator.domain.entity.SortedRecord;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.UnsortedKeyNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonContiguousKeyNotice;
+import org.mobilitydata.gtfsvalidator.usecase.port.RecordSortRepository;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Validates the order of the rows of a file against its {@link RowOrder} in a single pass, as rows are parsed. Rows of
+ * a group must be contiguous and sorted on the sequence column: a {@link NonContiguousKeyNotice} is generated for the
+ * first row of a group found out of this order. Within a group, the values of the sorted columns must not decrease: an
+ * {@link UnsortedKeyNotice} is generated for each value lower than the previous one. Once rows of a group are out of
+ * order, its sorted columns can not be checked without sorting the file, and are no longer checked in this pass.
+ * Besides the values of the current group, only the hashes of the groups already seen are kept, in a
+ * {@link KeyHashSet}. When a file is read in ranges, a validator is used per range and groups spanning several ranges
+ * are checked by a {@link Merger}. The groups found out of order can then be checked in a second pass: their rows are
+ * collected by {@link #collect(ParsedEntity, int, KeyHashSet, RecordSortRepository.RecordSorter)} and checked once
+ * sorted by {@link #validateSortedGroups(Iterator, KeyHashSet, Consumer)}. Not thread safe.
+ */
+final class RowOrderValidator {
+    private static final int INTEGER = 0;
+    private static final int FLOAT = 1;
+    private static final int TIME = 2;
+    private static final int DATE = 3;
+    private static final int INITIAL_RANGE_GROUP_CAPACITY = 16;
+
+    private final String filename;
+    private final List<String> groupColumnNameList;
+    private final String sequenceColumnName;
+    private final List<String> sortedColumnNameList;
+    private final String resortKeyFieldName;
+    private final String groupFieldName;
+    private final boolean isRange;
+
+    private ParsedEntitySchema resolvedSchema;
+    private int[] groupColumnIndexes;
+    private int sequenceColumnIndex;
+    private int[] sortedColumnIndexes;
+    private int sequenceKind;
+    private final int[] sortedKinds;
+
+    private final String[] groupValues;
+    private final KeyHashSet visitedGroupHashes = new KeyHashSet();
+    private final KeyHashSet reportedGroupHashes = new KeyHashSet();
+    // the rows and sorted columns already reported as unsorted, see #unsortedRowKey
+    private final KeyHashSet unsortedRowKeys = new KeyHashSet();
+
+    // the current group
+    private boolean hasGroup;
+    private long groupHash;
+    private String groupValue;
+    private boolean isGroupOutOfOrder;
+    private double lastSequence;
+    private final double[] lastSortedValues;
+
+    // the first values of the first group of a range, as this group may continue the last group of the previous range
+    private boolean isFirstGroup = true;
+    private long firstGroupHash;
+    private String firstGroupValue;
+    private double firstSequence = Double.NaN;
+    private int firstSequenceLine;
+    private final double[] firstSortedValues;
+    private final int[] firstSortedLines;
+
+    // the groups of a range in order of first appearance, with their first row
+    private long[] rangeGroupHashes;
+    private int[] rangeGroupLines;
+    private String[] rangeGroupValues;
+    private int rangeGroupCount;
+
+    /**
+     * @param filename the name of the file
+     * @param rowOrder the order the rows of the file must follow
+     * @param isRange  true if the file is read in ranges, each range being validated by its own validator: groups
+     *                 of the range are then kept until the range is merged with the previous ones
+     */
+    RowOrderValidator(final String filename, final RowOrder rowOrder, final boolean isRange) {
+        this.filename = filename;
+        this.groupColumnNameList = rowOrder.getGroupColumnNameList();
+        this.sequenceColumnName = rowOrder.getSequenceColumnName();
+        this.sortedColumnNameList = rowOrder.getSortedColumnNameList();
+        this.resortKeyFieldName = String.join(",", rowOrder.getResortKeyColumnNameList());
+        this.groupFieldName = String.join(",", groupColumnNameList);
+        this.isRange = isRange;
+        this.groupValues = new String[groupColumnNameList.size()];
+        this.sortedKinds = new int[sortedColumnNameList.size()];
+        this.lastSortedValues = new double[sortedColumnNameList.size()];
+        this.firstSortedValues = new double[sortedColumnNameList.size()];
+        this.firstSortedLines = new int[sortedColumnNameList.size()];
+        Arrays.fill(firstSortedValues, Double.NaN);
+        if (isRange) {
+            rangeGroupHashes = new long[INITIAL_RANGE_GROUP_CAPACITY];
+            rangeGroupLines = new int[INITIAL_RANGE_GROUP_CAPACITY];
+            rangeGroupValues = new String[INITIAL_RANGE_GROUP_CAPACITY];
+        }
+    }
+
+    /**
+     * Validates the position of a row among the rows already validated. Rows with no value for a group column are
+     * ignored, as well as empty values of the other columns.
+     *
+     * @param parsedEntity   the parsed row
+     * @param lineNumber     the line number of the row in the file
+     * @param noticeConsumer the consumer of the generated notices
+     */
+    void validate(final ParsedEntity parsedEntity, final int lineNumber, final Consumer<Notice> noticeConsumer) {
+        resolveColumnIndexes(parsedEntity.getSchema());
+        if (!readGroupValues(parsedEntity)) {
+            return;
+        }
+        final long hash = KeyHashSet.hash(groupValues);
+        final double sequence = readNumber(parsedEntity, sequenceColumnName, sequenceColumnIndex, -1);
+        if (!hasGroup || hash != groupHash) {
+            startGroup(hash, lineNumber);
+            if (isGroupOutOfOrder) {
+                reportOutOfOrder(groupFieldName, lineNumber, groupValue, noticeConsumer);
+            }
+        }
+
+        if (!Double.isNaN(sequence)) {
+            if (!isGroupOutOfOrder && !Double.isNaN(lastSequence) && sequence <= lastSequence) {
+                isGroupOutOfOrder = true;
+                reportOutOfOrder(resortKeyFieldName, lineNumber,
+                        groupValue + "," + describe(sequence, sequenceKind), noticeConsumer);
+            } else if (isFirstGroup && Double.isNaN(firstSequence)) {
+                firstSequence = sequence;
+                firstSequenceLine = lineNumber;
+            }
+            lastSequence = sequence;
+        }
+        if (isGroupOutOfOrder) {
+            return;
+        }
+
+        for (int i = 0; i < sortedColumnIndexes.length; ++i) {
+            final double value = readNumber(parsedEntity, sortedColumnNameList.get(i), sortedColumnIndexes[i], i);
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            if (!Double.isNaN(lastSortedValues[i]) && value < lastSortedValues[i]) {
+                unsortedRowKeys.add(unsortedRowKey(lineNumber, i));
+                noticeConsumer.accept(new UnsortedKeyNotice(filename, sortedColumnNameList.get(i), lineNumber,
+                        describe(value, sortedKinds[i]), describe(lastSortedValues[i], sortedKinds[i]),
+                        groupFieldName, groupValue));
+            } else if (isFirstGroup && Double.isNaN(firstSortedValues[i])) {
+                firstSortedValues[i] = value;
+                firstSortedLines[i] = lineNumber;
+            }
+            lastSortedValues[i] = value;
+        }
+    }
+
+    /**
+     * Returns the hashes of the groups reported as out of order, whose sorted columns were not fully checked
+     *
+     * @return the hashes of the groups reported as out of order
+     */
+    KeyHashSet getOutOfOrderGroupHashes() {
+        return reportedGroupHashes;
+    }
+
+    /**
+     * Returns the rows and sorted columns reported as unsorted, as keys returned by {@link #unsortedRowKey(int, int)}
+     *
+     * @return the rows and sorted columns reported as unsorted
+     */
+    KeyHashSet getUnsortedRowKeys() {
+        return unsortedRowKeys;
+    }
+
+    /**
+     * Adds a row to a sorter if its group is one of {@code groupHashes}, as a {@link SortedRecord} holding the value of
+     * the sequence column as sort value and the values of the sorted columns
+     *
+     * @param parsedEntity the parsed row
+     * @param lineNumber   the line number of the row in the file
+     * @param groupHashes  the hashes of the groups to collect
+     * @param sorter       the sorter of the rows to collect
+     */
+    void collect(final ParsedEntity parsedEntity,
+                 final int lineNumber,
+                 final KeyHashSet groupHashes,
+                 final RecordSortRepository.RecordSorter sorter) {
+        resolveColumnIndexes(parsedEntity.getSchema());
+        if (!readGroupValues(parsedEntity) || !groupHashes.contains(KeyHashSet.hash(groupValues))) {
+            return;
+        }
+        final double[] values = new double[sortedColumnIndexes.length];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = readNumber(parsedEntity, sortedColumnNameList.get(i), sortedColumnIndexes[i], i);
+        }
+        sorter.add(new SortedRecord(groupValues.length == 1 ? groupValues[0] : String.join(",", groupValues),
+                readNumber(parsedEntity, sequenceColumnName, sequenceColumnIndex, -1), lineNumber, values));
+    }
+
+    /**
+     * Validates the sorted columns of groups whose rows are sorted on the sequence column: an
+     * {@link UnsortedKeyNotice} is generated for each value lower than the previous one in this order, unless the row
+     * was already reported for this column.
+     *
+     * @param groupIterator   the groups of rows collected by this validator, each sorted on the sequence column
+     * @param unsortedRowKeys the rows and sorted columns already reported, see {@link #getUnsortedRowKeys()}
+     * @param noticeConsumer  the consumer of the generated notices
+     */
+    void validateSortedGroups(final Iterator<List<SortedRecord>> groupIterator,
+                              final KeyHashSet unsortedRowKeys,
+                              final Consumer<Notice> noticeConsumer) {
+        final double[] previousValues = new double[sortedColumnNameList.size()];
+        while (groupIterator.hasNext()) {
+            Arrays.fill(previousValues, Double.NaN);
+            for (SortedRecord record : groupIterator.next()) {
+                for (int i = 0; i < previousValues.length; ++i) {
+                    final double value = record.getValues()[i];
+                    if (Double.isNaN(value)) {
+                        continue;
+                    }
+                    if (!Double.isNaN(previousValues[i]) && value < previousValues[i] &&
+                            !unsortedRowKeys.contains(unsortedRowKey(record.getLineNumber(), i))) {
+                        noticeConsumer.accept(new UnsortedKeyNotice(filename, sortedColumnNameList.get(i),
+                                record.getLineNumber(), describe(value, sortedKinds[i]),
+                                describe(previousValues[i], sortedKinds[i]), groupFieldName, record.getGroupKey()));
+                    }
+                    previousValues[i] = value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a key identifying a row and a sorted column, never 0 so that it can be held by a {@link KeyHashSet}:
+     * multiplying by an odd constant maps distinct values to distinct keys and spreads consecutive line numbers.
+     */
+    private static long unsortedRowKey(final int lineNumber, final int sortedColumn) {
+        return ((((long) lineNumber << 16) | sortedColumn) + 1) * 0x9e3779b97f4a7c15L;
+    }
+
+    private void startGroup(final long hash, final int lineNumber) {
+        if (hasGroup) {
+            isFirstGroup = false;
+        }
+        hasGroup = true;
+        groupHash = hash;
+        groupValue = groupValues.length == 1 ? groupValues[0] : String.join(",", groupValues);
+        lastSequence = Double.NaN;
+        Arrays.fill(lastSortedValues, Double.NaN);
+        isGroupOutOfOrder = !visitedGroupHashes.add(hash);
+        if (isFirstGroup) {
+            firstGroupHash = hash;
+            firstGroupValue = groupValue;
+        }
+        if (isRange && !isGroupOutOfOrder) {
+            if (rangeGroupCount == rangeGroupHashes.length) {
+                rangeGroupHashes = Arrays.copyOf(rangeGroupHashes, rangeGroupCount * 2);
+                rangeGroupLines = Arrays.copyOf(rangeGroupLines, rangeGroupCount * 2);
+                rangeGroupValues = Arrays.copyOf(rangeGroupValues, rangeGroupCount * 2);
+            }
+            rangeGroupHashes[rangeGroupCount] = hash;
+            rangeGroupLines[rangeGroupCount] = lineNumber;
+            rangeGroupValues[rangeGroupCount] = groupValue;
+            ++rangeGroupCount;
+        }
+    }
+
+    /**
+     * Reports the current group as out of order, once per group: either as found again after other groups, on the
+     * group columns, or as not sorted on the sequence column, on the resort key
+     */
+    private void reportOutOfOrder(final String fieldName,
+                                  final int lineNumber,
+                                  final String rawValue,
+                                  final Consumer<Notice> noticeConsumer) {
+        if (reportedGroupHashes.add(groupHash)) {
+            noticeConsumer.accept(new NonContiguousKeyNotice(filename, fieldName, lineNumber, rawValue));
+        }
+    }
+
+    private void resolveColumnIndexes(final ParsedEntitySchema schema) {
+        if (schema == resolvedSchema && groupColumnIndexes != null) {
+            return;
+        }
+        resolvedSchema = schema;
+        groupColumnIndexes = new int[groupColumnNameList.size()];
+        sortedColumnIndexes = new int[sortedColumnNameList.size()];
+        if (schema != null) {
+            for (int i = 0; i < groupColumnIndexes.length; ++i) {
+                groupColumnIndexes[i] = schema.getIndex(groupColumnNameList.get(i));
+            }
+            sequenceColumnIndex = schema.getIndex(sequenceColumnName);
+            for (int i = 0; i < sortedColumnIndexes.length; ++i) {
+                sortedColumnIndexes[i] = schema.getIndex(sortedColumnNameList.get(i));
+            }
+        }
+    }
+
+    /**
+     * Reads the values of the group columns of a row into {@link #groupValues}. Returns false if one of them is empty.
+     */
+    private boolean readGroupValues(final ParsedEntity parsedEntity) {
+        for (int i = 0; i < groupValues.length; ++i) {
+            final String value;
+            if (resolvedSchema != null) {
+                final int columnIndex = groupColumnIndexes[i];
+                if (columnIndex < 0 || parsedEntity.isNull(columnIndex)) {
+                    return false;
+                }
+                value = resolvedSchema.getValueType(columnIndex) == ParsedEntitySchema.ValueType.STRING
+                        ? parsedEntity.getString(columnIndex)
+                        : String.valueOf(parsedEntity.get(groupColumnNameList.get(i)));
+            } else {
+                final Object object = parsedEntity.get(groupColumnNameList.get(i));
+                value = object == null ? null : object.toString();
+            }
+            if (value == null || value.isEmpty()) {
+                return false;
+            }
+            groupValues[i] = value;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value of a column of a row as a number, NaN if the row has no value for this column or if its value
+     * is not a number, a time or a date. Times are read as a number of seconds. The kind of value read is kept for
+     * notices, as the kind of the sequence column if {@code sortedColumn} is -1, else as the kind of a sorted column.
+     */
+    private double readNumber(final ParsedEntity parsedEntity,
+                              final String columnName,
+                              final int columnIndex,
+                              final int sortedColumn) {
+        final double toReturn;
+        final int kind;
+        if (resolvedSchema != null) {
+            if (columnIndex < 0 || parsedEntity.isNull(columnIndex)) {
+                return Double.NaN;
+            }
+            switch (resolvedSchema.getValueType(columnIndex)) {
+                case INTEGER:
+                    toReturn = parsedEntity.getInt(columnIndex);
+                    kind = INTEGER;
+                    break;
+                case FLOAT:
+                    toReturn = parsedEntity.getFloat(columnIndex);
+                    kind = FLOAT;
+                    break;
+                case DATE:
+                    toReturn = parsedEntity.getLong(columnIndex);
+                    kind = DATE;
+                    break;
+                default:
+                    toReturn = parseTime(parsedEntity.getString(columnIndex));
+                    kind = TIME;
+            }
+        } else {
+            final Object value = parsedEntity.get(columnName);
+            if (value instanceof Integer) {
+                toReturn = (Integer) value;
+                kind = INTEGER;
+            } else if (value instanceof Number) {
+                toReturn = ((Number) value).doubleValue();
+                kind = FLOAT;
+            } else if (value instanceof String) {
+                toReturn = parseTime((String) value);
+                kind = TIME;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (sortedColumn == -1) {
+            sequenceKind = kind;
+        } else {
+            sortedKinds[sortedColumn] = kind;
+        }
+        return toReturn;
+    }
+
+    /**
+     * Returns the number of seconds of a time formatted as H:MM:SS or HH:MM:SS, NaN if the value is not such a time
+     */
+    static double parseTime(final String value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+        final int firstColon = value.indexOf(':');
+        if (firstColon < 1 || firstColon > 2 || value.length() != firstColon + 6 ||
+                value.charAt(firstColon + 3) != ':') {
+            return Double.NaN;
+        }
+        int hours = 0;
+        for (int i = 0; i < firstColon; ++i) {
+            final int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Double.NaN;
+            }
+            hours = hours * 10 + digit;
+        }
+        final int minutes = parseTwoDigits(value, firstColon + 1);
+        final int seconds = parseTwoDigits(value, firstColon + 4);
+        if (minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59) {
+            return Double.NaN;
+        }
+        return hours * 3600 + minutes * 60 + seconds;
+    }
+
+    private static int parseTwoDigits(final String value, final int start) {
+        final int tens = value.charAt(start) - '0';
+        final int units = value.charAt(start + 1) - '0';
+        if (tens < 0 || tens > 9 || units < 0 || units > 9) {
+            return -1;
+        }
+        return tens * 10 + units;
+    }
+
+    private static String describe(final double value, final int kind) {
+        switch (kind) {
+            case INTEGER:
+            case DATE:
+                return Long.toString((long) value);
+            case FLOAT:
+                return Float.toString((float) value);
+            default:
+                final int seconds = (int) value;
+                return String.format("%02d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+        }
+    }
+
+    /**
+     * Checks the order of rows across the ranges of a file, each range having been validated by its own
+     * {@link RowOrderValidator}: a group found in a range must not have been found in the previous ranges, unless it
+     * continues the last group of the previous range. Ranges must be merged in the order of the file.
+     */
+    static final class Merger {
+        private final KeyHashSet visitedGroupHashes = new KeyHashSet();
+        private final KeyHashSet outOfOrderGroupHashes = new KeyHashSet();
+        private final KeyHashSet unsortedRowKeys = new KeyHashSet();
+        private RowOrderValidator previousRange;
+
+        /**
+         * Merges a range with the ranges merged so far
+         *
+         * @param range          the validator of the range that follows the ranges merged so far
+         * @param noticeConsumer the consumer of the generated notices
+         */
+        void merge(final RowOrderValidator range, final Consumer<Notice> noticeConsumer) {
+            if (!range.hasGroup) {
+                return;
+            }
+            final boolean isContinued = previousRange != null && range.firstGroupHash == previousRange.groupHash;
+            if (isContinued && !previousRange.isGroupOutOfOrder) {
+                checkContinuation(range, noticeConsumer);
+            }
+            for (int i = isContinued ? 1 : 0; i < range.rangeGroupCount; ++i) {
+                if (visitedGroupHashes.contains(range.rangeGroupHashes[i]) &&
+                        range.reportedGroupHashes.add(range.rangeGroupHashes[i])) {
+                    noticeConsumer.accept(new NonContiguousKeyNotice(range.filename, range.groupFieldName,
+                            range.rangeGroupLines[i], range.rangeGroupValues[i]));
+                }
+            }
+            visitedGroupHashes.addAll(range.visitedGroupHashes);
+            outOfOrderGroupHashes.addAll(range.reportedGroupHashes);
+            unsortedRowKeys.addAll(range.unsortedRowKeys);
+            previousRange = range;
+        }
+
+        /**
+         * Returns the hashes of the groups reported as out of order in the ranges merged so far
+         *
+         * @return the hashes of the groups reported as out of order
+         */
+        KeyHashSet getOutOfOrderGroupHashes() {
+            return outOfOrderGroupHashes;
+        }
+
+        /**
+         * Returns the rows and sorted columns reported as unsorted in the ranges merged so far
+         *
+         * @return the rows and sorted columns reported as unsorted
+         */
+        KeyHashSet getUnsortedRowKeys() {
+            return unsortedRowKeys;
+        }
+
+        /**
+         * Checks the first rows of a range against the last rows of the previous range, both of the same group
+         */
+        private void checkContinuation(final RowOrderValidator range, final Consumer<Notice> noticeConsumer) {
+            if (!Double.isNaN(previousRange.lastSequence) && !Double.isNaN(range.firstSequence) &&
+                    range.firstSequence <= previousRange.lastSequence) {
+                if (range.reportedGroupHashes.add(range.firstGroupHash)) {
+                    noticeConsumer.accept(new NonContiguousKeyNotice(range.filename, range.resortKeyFieldName,
+                            range.firstSequenceLine,
+                            range.firstGroupValue + "," + describe(range.firstSequence, range.sequenceKind)));
+                }
+                return;
+            }
+            for (int i = 0; i < range.firstSortedValues.length; ++i) {
+                if (!Double.isNaN(previousRange.lastSortedValues[i]) && !Double.isNaN(range.firstSortedValues[i]) &&
+                        range.firstSortedValues[i] < previousRange.lastSortedValues[i]) {
+                    range.unsortedRowKeys.add(unsortedRowKey(range.firstSortedLines[i], i));
+                    noticeConsumer.accept(new UnsortedKeyNotice(range.filename,
+                            range.sortedColumnNameList.get(i), range.firstSortedLines[i],
+                            describe(range.firstSortedValues[i], range.sortedKinds[i]),
+                            describe(previousRange.lastSortedValues[i], range.sortedKinds[i]),
+                            range.groupFieldName, range.firstGroupValue));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.StageMetrics;
+
+/**
+ * Flight recorder event spanning a stage of the validation process, for a file or for the whole dataset. It is emitted
+ * by {@link StageTimer}, so that every stage of {@link StageMetrics} shows up in a recording. Rows are validated under
+ * the {@link StageMetrics#ROWS} stage, without an event per row.
+ */
+@Name("org.mobilitydata.gtfsvalidator.Stage")
+@Label("Validation Stage")
+@Category("GTFS Validator")
+@Description("A stage of the validation process")
+final class StageEvent extends jdk.jfr.Event {
+    @Label("Stage")
+    String stage;
+
+    @Label("Filename")
+    @Description("The file the stage processed, null for a stage of the whole dataset")
+    String filename;
+
+    @Label("Rows")
+    long rowCount;
+
+    @Label("Bytes")
+    @DataAmount
+    long byteCount;
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.StageMetrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Measures a stage of the validation process: wall time from {@link #start(String, String)} to {@link #stop()}, along
+ * with CPU time and allocated memory read from the {@link ThreadMXBean} of the JVM. The thread that starts the timer is
+ * measured until it stops it; work done by other threads, such as the ranges of a split file, is measured by running
+ * it through {@link #measure(Supplier)}. Reading the thread counters takes about a microsecond: timers measure stages,
+ * not rows. Each stage is also emitted as a {@link StageEvent} for flight recordings. Thread safe.
+ */
+public final class StageTimer {
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean IS_CPU_TIME_MEASURED =
+            THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_MX_BEAN.isThreadCpuTimeEnabled();
+    private static final boolean IS_ALLOCATION_MEASURED = isAllocationMeasured();
+
+    private final String stage;
+    private final String filename;
+    private final Thread ownerThread = Thread.currentThread();
+    private final long startNanos;
+    private final long startCpuTimeNanos;
+    private final long startAllocatedBytes;
+    private final AtomicLong otherThreadCpuTimeNanos = new AtomicLong();
+    private final AtomicLong otherThreadAllocatedBytes = new AtomicLong();
+    private final AtomicLong rowCount = new AtomicLong();
+    private final AtomicLong byteCount = new AtomicLong();
+    private final StageEvent event = new StageEvent();
+
+    private StageTimer(final String stage, final String filename) {
+        this.stage = stage;
+        this.filename = filename;
+        this.startCpuTimeNanos = currentThreadCpuTimeNanos();
+        this.startAllocatedBytes = currentThreadAllocatedBytes();
+        this.startNanos = System.nanoTime();
+        event.begin();
+    }
+
+    /**
+     * Starts measuring a stage on the calling thread
+     *
+     * @param stage    the name of the stage, one of the constants of {@link StageMetrics}
+     * @param filename the name of the file the stage processes, null for a stage of the whole dataset
+     * @return the timer of the stage
+     */
+    public static StageTimer start(final String stage, final String filename) {
+        return new StageTimer(stage, filename);
+    }
+
+    /**
+     * Adds rows to the number of rows processed by the stage
+     *
+     * @param count the number of rows to add
+     */
+    public void addRows(final long count) {
+        rowCount.addAndGet(count);
+    }
+
+    /**
+     * Adds bytes to the number of bytes processed by the stage
+     *
+     * @param count the number of bytes to add
+     */
+    public void addBytes(final long count) {
+        byteCount.addAndGet(count);
+    }
+
+    /**
+     * Runs a part of the stage on the calling thread, adding the CPU time and the memory it uses to the stage. Work run
+     * on the thread that started the timer is already measured and is not added twice.
+     *
+     * @param work the part of the stage to run
+     * @param <T>  the type of the result of the work
+     * @return the result of the work
+     */
+    public <T> T measure(final Supplier<T> work) {
+        if (Thread.currentThread() == ownerThread) {
+            return work.get();
+        }
+        final long cpuTimeNanos = currentThreadCpuTimeNanos();
+        final long allocatedBytes = currentThreadAllocatedBytes();
+        try {
+            return work.get();
+        } finally {
+            otherThreadCpuTimeNanos.addAndGet(currentThreadCpuTimeNanos() - cpuTimeNanos);
+            otherThreadAllocatedBytes.addAndGet(currentThreadAllocatedBytes() - allocatedBytes);
+        }
+    }
+
+    /**
+     * Stops measuring the stage. It is to be called by the thread that started the timer, once the other threads are
+     * done with the stage.
+     *
+     * @return the metrics of the stage
+     */
+    public StageMetrics stop() {
+        final long wallTimeNanos = System.nanoTime() - startNanos;
+        event.end();
+        if (event.shouldCommit()) {
+            event.stage = stage;
+            event.filename = filename;
+            event.rowCount = rowCount.get();
+            event.byteCount = byteCount.get();
+            event.commit();
+        }
+        return new StageMetrics(stage, filename, wallTimeNanos,
+                IS_CPU_TIME_MEASURED
+                        ? currentThreadCpuTimeNanos() - startCpuTimeNanos + otherThreadCpuTimeNanos.get()
+                        : -1,
+                IS_ALLOCATION_MEASURED
+                        ? currentThreadAllocatedBytes() - startAllocatedBytes + otherThreadAllocatedBytes.get()
+                        : -1,
+                rowCount.get(),
+                byteCount.get());
+    }
+
+    private static long currentThreadCpuTimeNanos() {
+        return IS_CPU_TIME_MEASURED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        return IS_ALLOCATION_MEASURED
+                ? ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN)
+                .getThreadAllocatedBytes(Thread.currentThread().getId())
+                : 0;
+    }
+
+    // allocated memory is only available from the extension of HotSpot based JVMs
+    private static boolean isAllocationMeasured() {
+        if (!(THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean)) {
+            return false;
+        }
+        final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+        return threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled();
+    }
+}
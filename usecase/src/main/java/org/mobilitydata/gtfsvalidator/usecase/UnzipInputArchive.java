@@ -18,22 +18,34 @@ package org.mobilitydata.gtfsvalidator.usecase;
 
 import org.apache.logging.log4j.Logger;
 import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.StageMetrics;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.CannotUnzipInputArchiveNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.InputZipContainsFolderNotice;
 import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.MetricsRepository;
 import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
 import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Enumeration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 /**
  * Use case to unzip an archive containing the GTFS dataset to validate. This step intervenes after the said archive
- * has been downloaded from the network.
+ * has been downloaded from the network. If the execution parameter {@link ExecParamRepository#NO_EXTRACT_KEY} is set,
+ * entries are not extracted: they are registered as entries of the archive and their content is read from the archive
+ * during the validation process.
+ * Entries are independent from each other: they are extracted by the {@link Executor} provided in the constructor,
+ * largest entries first, and each file is registered as soon as it is extracted. The metrics of each entry are added
+ * to the {@link MetricsRepository} provided in the constructor.
  */
 public class UnzipInputArchive {
 
@@ -42,55 +54,173 @@ public class UnzipInputArchive {
     private final ValidationResultRepository resultRepo;
     private final ExecParamRepository execParamRepo;
     private final Logger logger;
+    private final MetricsRepository metricsRepo;
+    private final Executor extractExecutor;
 
     /**
      * @param fileRepo       a repository storing information about a GTFS dataset
-     * @param zipExtractPath a path pointing to the target directory
+     * @param zipExtractPath a path pointing to the target directory, unused if entries are not extracted
      * @param resultRepo     a repository storing information about the validation process
+     * @param metricsRepo    a repository storing the metrics of the stages of the validation process
      */
     public UnzipInputArchive(final RawFileRepository fileRepo,
                              final Path zipExtractPath,
                              final ValidationResultRepository resultRepo,
                              final ExecParamRepository execParamRepo,
-                             final Logger logger) {
+                             final Logger logger,
+                             final MetricsRepository metricsRepo) {
+        this(fileRepo, zipExtractPath, resultRepo, execParamRepo, logger, metricsRepo, Runnable::run);
+    }
+
+    /**
+     * @param fileRepo        a repository storing information about a GTFS dataset
+     * @param zipExtractPath  a path pointing to the target directory, unused if entries are not extracted
+     * @param resultRepo      a repository storing information about the validation process
+     * @param metricsRepo     a repository storing the metrics of the stages of the validation process
+     * @param extractExecutor the executor extracting entries, which can run them concurrently
+     */
+    public UnzipInputArchive(final RawFileRepository fileRepo,
+                             final Path zipExtractPath,
+                             final ValidationResultRepository resultRepo,
+                             final ExecParamRepository execParamRepo,
+                             final Logger logger,
+                             final MetricsRepository metricsRepo,
+                             final Executor extractExecutor) {
         this.rawFileRepo = fileRepo;
         this.zipExtractPath = zipExtractPath;
         this.resultRepo = resultRepo;
         this.execParamRepo = execParamRepo;
         this.logger = logger;
+        this.metricsRepo = metricsRepo;
+        this.extractExecutor = extractExecutor;
     }
 
     /**
      * Use case execution method. Tries to unzip an archive, if the process fails then
      * a {@link CannotUnzipInputArchiveNotice} is generated and added to the {@link ValidationResultRepository} provided
-     * in the constructor.
+     * in the constructor. Entries nested in a folder cannot be extracted, as folders are not created.
      */
     public void execute() throws IOException {
+        execute(fileInfo -> {
+        });
+    }
+
+    /**
+     * Use case execution method. Tries to unzip an archive, if the process fails then
+     * a {@link CannotUnzipInputArchiveNotice} is generated and added to the {@link ValidationResultRepository} provided
+     * in the constructor. Entries nested in a folder cannot be extracted, as folders are not created.
+     * Each file is passed to {@code registeredFileConsumer} once it is registered in the {@link RawFileRepository},
+     * possibly from the thread that extracted it, which allows its validation to start while larger entries are still
+     * being extracted. This returns once all entries are processed; notices are added in the order of the entries in
+     * the archive, whatever the order in which entries are extracted.
+     *
+     * @param registeredFileConsumer called with each file once it is registered
+     */
+    public void execute(final Consumer<RawFileInfo> registeredFileConsumer) throws IOException {
+
+        final boolean isExtracted = !Boolean.parseBoolean(
+                execParamRepo.getExecParamValue(ExecParamRepository.NO_EXTRACT_KEY));
 
-        logger.info("Unzipping archive");
+        logger.info(isExtracted ? "Unzipping archive" : "Reading archive entries");
 
         final String zipInputPath = execParamRepo.getExecParamValue(execParamRepo.ZIP_KEY);
-        final ZipFile inputZip = new ZipFile(zipInputPath);
-
-        Enumeration<? extends ZipEntry> zipEntries = inputZip.entries();
-        zipEntries.asIterator().forEachRemaining(entry -> {
-            try {
-                if (entry.isDirectory()) {
-                    resultRepo.addNotice(new InputZipContainsFolderNotice(inputZip.getName(), entry.getName()));
-                } else {
-                    Path fileToCreate = zipExtractPath.resolve(entry.getName());
-                    Files.copy(inputZip.getInputStream(entry), fileToCreate);
-                    rawFileRepo.create(
-                            new RawFileInfo.RawFileInfoBuilder()
-                                    .filename(entry.getName())
-                                    .path(zipExtractPath.toAbsolutePath().toString())
-                                    .build()
-                    );
-                }
-            } catch (IOException e) {
-                //TODO: should CannotUnzipInputArchiveNotice be made a warning instead of an error?
-                resultRepo.addNotice(new CannotUnzipInputArchiveNotice(inputZip.getName()));
-            }
-        });
+        try (ZipFile inputZip = new ZipFile(zipInputPath)) {
+            final List<ZipEntry> entryList = new ArrayList<>(Collections.list(inputZip.entries()));
+
+            // large entries such as stop_times.txt take the longest to inflate: they are started first
+            final List<ZipEntry> extractionOrderList = new ArrayList<>(entryList);
+            extractionOrderList.sort(Comparator.comparingLong(ZipEntry::getSize).reversed());
+
+            final Map<ZipEntry, CompletableFuture<Optional<Notice>>> noticeFutureByEntry = new IdentityHashMap<>();
+            extractionOrderList.forEach(entry -> noticeFutureByEntry.put(entry, CompletableFuture.supplyAsync(
+                    () -> processEntry(inputZip, entry, isExtracted, zipInputPath, registeredFileConsumer),
+                    extractExecutor)));
+
+            entryList.forEach(entry -> noticeFutureByEntry.get(entry).join().ifPresent(resultRepo::addNotice));
+        }
+    }
+
+    /**
+     * Extracts or registers an entry of the archive
+     *
+     * @param inputZip               the archive
+     * @param entry                  the entry to process
+     * @param isExtracted            true if the entry is to be extracted, false if it is to be read from the archive
+     * @param zipInputPath           the path of the archive
+     * @param registeredFileConsumer called with the file once it is registered
+     * @return the notice generated by the entry, if any
+     */
+    private Optional<Notice> processEntry(final ZipFile inputZip,
+                                          final ZipEntry entry,
+                                          final boolean isExtracted,
+                                          final String zipInputPath,
+                                          final Consumer<RawFileInfo> registeredFileConsumer) {
+        if (entry.isDirectory()) {
+            return Optional.of(new InputZipContainsFolderNotice(inputZip.getName(), entry.getName()));
+        }
+        final StageTimer timer = StageTimer.start(StageMetrics.UNZIP, entry.getName());
+        final RawFileInfo fileInfo;
+        try {
+            fileInfo = isExtracted
+                    ? extractEntry(inputZip, entry)
+                    : registerArchiveEntry(inputZip, entry, zipInputPath);
+        } catch (IOException e) {
+            //TODO: should CannotUnzipInputArchiveNotice be made a warning instead of an error?
+            return Optional.of(new CannotUnzipInputArchiveNotice(inputZip.getName()));
+        }
+        if (isExtracted) {
+            timer.addBytes(Math.max(0, entry.getSize()));
+        }
+        metricsRepo.addStageMetrics(timer.stop());
+        registeredFileConsumer.accept(fileInfo);
+        return Optional.empty();
+    }
+
+    /**
+     * Extracts an entry of the archive in the target directory and registers it in the {@link RawFileRepository}
+     *
+     * @param inputZip the archive
+     * @param entry    the entry to extract
+     * @return information regarding the extracted file
+     * @throws IOException if the entry cannot be extracted
+     */
+    private RawFileInfo extractEntry(final ZipFile inputZip, final ZipEntry entry) throws IOException {
+        Path fileToCreate = zipExtractPath.resolve(entry.getName());
+        try (InputStream entryInputStream = inputZip.getInputStream(entry)) {
+            Files.copy(entryInputStream, fileToCreate);
+        }
+        final RawFileInfo fileInfo = new RawFileInfo.RawFileInfoBuilder()
+                .filename(entry.getName())
+                .path(zipExtractPath.toAbsolutePath().toString())
+                .build();
+        rawFileRepo.create(fileInfo);
+        return fileInfo;
+    }
+
+    /**
+     * Registers an entry of the archive in the {@link RawFileRepository} without extracting it. Like extraction, this
+     * fails if the entry is nested in a folder or if its content cannot be read.
+     *
+     * @param inputZip     the archive
+     * @param entry        the entry to register
+     * @param zipInputPath the path of the archive
+     * @return information regarding the registered file
+     * @throws IOException if the entry cannot be read from the archive
+     */
+    private RawFileInfo registerArchiveEntry(final ZipFile inputZip,
+                                             final ZipEntry entry,
+                                             final String zipInputPath) throws IOException {
+        if (entry.getName().contains("/")) {
+            throw new IOException("entry is nested in a folder: " + entry.getName());
+        }
+        // opening the entry checks that its compression method is supported
+        inputZip.getInputStream(entry).close();
+        final RawFileInfo fileInfo = new RawFileInfo.RawFileInfoBuilder()
+                .filename(entry.getName())
+                .path(Path.of(zipInputPath).toAbsolutePath().toString())
+                .archiveEntry(true)
+                .build();
+        rawFileRepo.create(fileInfo);
+        return fileInfo;
     }
 }
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.ForeignKey;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.StageMetrics;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.MissingForeignKeyValueNotice;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.GtfsSpecRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.MetricsRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Use case to validate the references between the files of a GTFS dataset, as defined by the {@link ForeignKey}
+ * list of the GTFS specification. The keys of each referenced file are first indexed in a single pass over the file,
+ * as hashes in a {@link KeyHashSet}: memory used depends on the number of distinct keys, not on their length nor on
+ * the number of rows of the referencing files. Each referencing file is then read once, all its references being
+ * checked for each row. This use case is triggered after the validation of each file.
+ */
+public class ValidateAllForeignKeys {
+
+    private final RawFileRepository rawFileRepo;
+    private final GtfsSpecRepository specRepo;
+    private final ValidationResultRepository resultRepo;
+    private final ExecParamRepository execParamRepo;
+    private final Executor chunkExecutor;
+    private final MetricsRepository metricsRepo;
+
+    /**
+     * @param rawFileRepo   a repository storing information about a GTFS dataset
+     * @param specRepo      a repository storing information about the GTFS specification used
+     * @param resultRepo    a repository storing information about the validation process
+     * @param execParamRepo a repository containing execution parameters
+     * @param chunkExecutor the executor reading the ranges of a file that is split
+     * @param metricsRepo   a repository storing the metrics of the stages of the validation process
+     */
+    public ValidateAllForeignKeys(final RawFileRepository rawFileRepo,
+                                  final GtfsSpecRepository specRepo,
+                                  final ValidationResultRepository resultRepo,
+                                  final ExecParamRepository execParamRepo,
+                                  final Executor chunkExecutor,
+                                  final MetricsRepository metricsRepo) {
+        this.rawFileRepo = rawFileRepo;
+        this.specRepo = specRepo;
+        this.resultRepo = resultRepo;
+        this.execParamRepo = execParamRepo;
+        this.chunkExecutor = chunkExecutor;
+        this.metricsRepo = metricsRepo;
+    }
+
+    /**
+     * Use case execution method: indexes the keys of the referenced files, then checks the references of each
+     * referencing file. A {@link MissingForeignKeyValueNotice} is generated for each row whose values can not be found
+     * in any of the files it references, rows with an empty value in a column of the reference excepted.
+     * References from files that are not part of the dataset are not checked. When none of the referenced files is
+     * part of the dataset, references are reported as missing if all of them are optional, and not checked if one of
+     * them is required, since its absence is already reported. References to a file lacking a column of the key are
+     * not checked either, the missing header being already reported.
+     * Notices are added to the {@link ValidationResultRepository} provided in the constructor in the order of the
+     * references of the GTFS specification, then in the order of the rows. The metrics of the whole stage are added to
+     * the {@link MetricsRepository} provided in the constructor.
+     */
+    public void execute() {
+        final StageTimer timer = StageTimer.start(StageMetrics.FOREIGN_KEYS, null);
+        final Set<String> presentFilenameSet = rawFileRepo.getFilenameAll();
+        final List<ForeignKey> foreignKeyList = specRepo.getForeignKeyList().stream()
+                .filter(foreignKey -> presentFilenameSet.contains(foreignKey.getFilename()))
+                .collect(Collectors.toList());
+
+        // keys to index, by referenced file
+        final Map<String, Set<List<String>>> keyColumnsByFilename = new LinkedHashMap<>();
+        foreignKeyList.forEach(foreignKey -> foreignKey.getReferencedKeyList().stream()
+                .filter(referencedKey -> presentFilenameSet.contains(referencedKey.getFilename()))
+                .forEach(referencedKey -> keyColumnsByFilename
+                        .computeIfAbsent(referencedKey.getFilename(), filename -> new LinkedHashSet<>())
+                        .add(referencedKey.getColumnNameList())));
+
+        final Map<String, Map<List<String>, KeyHashSet>> indexByKeyColumnsByFilename = new HashMap<>();
+        keyColumnsByFilename.forEach((filename, keyColumnsSet) ->
+                indexByKeyColumnsByFilename.put(filename, indexAllKeys(filename, keyColumnsSet, timer)));
+
+        final List<String> requiredFilenameList = specRepo.getRequiredFilenameList();
+        final Map<String, List<ReferenceCheck>> checkListByFilename = new LinkedHashMap<>();
+        for (ForeignKey foreignKey : foreignKeyList) {
+            final List<KeyHashSet> indexList = new ArrayList<>();
+            boolean isReportedElsewhere = false;
+            for (ForeignKey.ReferencedKey referencedKey : foreignKey.getReferencedKeyList()) {
+                if (presentFilenameSet.contains(referencedKey.getFilename())) {
+                    final KeyHashSet index = indexByKeyColumnsByFilename.get(referencedKey.getFilename())
+                            .get(referencedKey.getColumnNameList());
+                    if (index != null) {
+                        indexList.add(index);
+                    } else {
+                        isReportedElsewhere = true;
+                    }
+                } else if (requiredFilenameList.contains(referencedKey.getFilename())) {
+                    isReportedElsewhere = true;
+                }
+            }
+            if (!indexList.isEmpty() || !isReportedElsewhere) {
+                checkListByFilename.computeIfAbsent(foreignKey.getFilename(), filename -> new ArrayList<>())
+                        .add(new ReferenceCheck(foreignKey, indexList));
+            }
+        }
+
+        checkListByFilename.forEach((filename, checkList) -> checkAllReferences(filename, checkList, timer));
+        metricsRepo.addStageMetrics(timer.stop());
+    }
+
+    /**
+     * Returns the index of each key of a file, or an empty map if the file can not be read. Keys having a column that
+     * is not part of the file are not indexed.
+     */
+    private Map<List<String>, KeyHashSet> indexAllKeys(final String filename,
+                                                       final Set<List<String>> keyColumnsSet,
+                                                       final StageTimer timer) {
+        final Map<List<String>, KeyHashSet> toReturn = new HashMap<>();
+        getProviderSupplierList(filename).ifPresent(providerSupplierList -> {
+            // each range is opened by the task indexing it, so that ranges waiting for a thread hold no open file
+            final List<CompletableFuture<Map<List<String>, KeyHashSet>>> chunkIndexFutures = providerSupplierList
+                    .stream()
+                    .map(providerSupplier -> CompletableFuture.supplyAsync(
+                            () -> timer.measure(() -> {
+                                try (RawFileRepository.RawEntityProvider provider = providerSupplier.get()) {
+                                    return indexAllRows(provider, keyColumnsSet, timer);
+                                }
+                            }), chunkExecutor))
+                    .collect(Collectors.toList());
+
+            chunkIndexFutures.forEach(chunkIndexFuture -> chunkIndexFuture.join().forEach((keyColumns, chunkIndex) -> {
+                final KeyHashSet index = toReturn.get(keyColumns);
+                if (index == null) {
+                    toReturn.put(keyColumns, chunkIndex);
+                } else {
+                    index.addAll(chunkIndex);
+                }
+            }));
+        });
+        return toReturn;
+    }
+
+    private Map<List<String>, KeyHashSet> indexAllRows(final RawFileRepository.RawEntityProvider provider,
+                                                       final Set<List<String>> keyColumnsSet,
+                                                       final StageTimer timer) {
+        final Map<List<String>, KeyHashSet> indexByKeyColumns = new HashMap<>();
+        final List<int[]> columnIndexesList = new ArrayList<>();
+        final List<KeyHashSet> indexList = new ArrayList<>();
+        for (List<String> keyColumns : keyColumnsSet) {
+            final int[] columnIndexes = KeyValues.resolveColumnIndexes(provider.getSchema(), keyColumns);
+            if (columnIndexes != null) {
+                final KeyHashSet index = new KeyHashSet();
+                indexByKeyColumns.put(keyColumns, index);
+                columnIndexesList.add(columnIndexes);
+                indexList.add(index);
+            }
+        }
+
+        final String[][] valuesList = new String[indexList.size()][];
+        for (int i = 0; i < valuesList.length; ++i) {
+            valuesList[i] = new String[columnIndexesList.get(i).length];
+        }
+        long rowCount = 0;
+        while (provider.hasNext()) {
+            final RawEntity rawEntity = provider.getNext();
+            ++rowCount;
+            for (int i = 0; i < valuesList.length; ++i) {
+                if (KeyValues.readValues(rawEntity, columnIndexesList.get(i), valuesList[i])) {
+                    indexList.get(i).add(KeyHashSet.hash(valuesList[i]));
+                }
+            }
+        }
+        timer.addRows(rowCount);
+        return indexByKeyColumns;
+    }
+
+    private void checkAllReferences(final String filename,
+                                    final List<ReferenceCheck> checkList,
+                                    final StageTimer timer) {
+        getProviderSupplierList(filename).ifPresent(providerSupplierList -> {
+            if (providerSupplierList.size() == 1) {
+                try (RawFileRepository.RawEntityProvider provider = providerSupplierList.get(0).get()) {
+                    checkAllRows(filename, provider, checkList, resultRepo::addNotice, timer);
+                }
+            } else {
+                // as many ranges as threads are checked at once, notices of the following ones are held bounded
+                new OrderedRangeRunner(chunkExecutor,
+                        Integer.parseInt(execParamRepo.getExecParamValue(ExecParamRepository.THREADS_KEY)))
+                        .run(providerSupplierList,
+                                (providerSupplier, rangeNoticeConsumer) -> timer.measure(() -> {
+                                    try (RawFileRepository.RawEntityProvider provider = providerSupplier.get()) {
+                                        checkAllRows(filename, provider, checkList, rangeNoticeConsumer, timer);
+                                    }
+                                    return null;
+                                }),
+                                resultRepo::addNotice,
+                                (result, noticeCount) -> {
+                                });
+            }
+        });
+    }
+
+    private void checkAllRows(final String filename,
+                              final RawFileRepository.RawEntityProvider provider,
+                              final List<ReferenceCheck> checkList,
+                              final Consumer<Notice> noticeConsumer,
+                              final StageTimer timer) {
+        final List<ReferenceCheck> resolvedCheckList = new ArrayList<>();
+        final List<int[]> columnIndexesList = new ArrayList<>();
+        for (ReferenceCheck check : checkList) {
+            final int[] columnIndexes =
+                    KeyValues.resolveColumnIndexes(provider.getSchema(), check.foreignKey.getColumnNameList());
+            // rows of a file lacking a column of the reference have no value to check
+            if (columnIndexes != null) {
+                resolvedCheckList.add(check);
+                columnIndexesList.add(columnIndexes);
+            }
+        }
+
+        final String[][] valuesList = new String[resolvedCheckList.size()][];
+        for (int i = 0; i < valuesList.length; ++i) {
+            valuesList[i] = new String[columnIndexesList.get(i).length];
+        }
+        long rowCount = 0;
+        while (provider.hasNext()) {
+            final RawEntity rawEntity = provider.getNext();
+            ++rowCount;
+            for (int i = 0; i < valuesList.length; ++i) {
+                final ReferenceCheck check = resolvedCheckList.get(i);
+                if (KeyValues.readValues(rawEntity, columnIndexesList.get(i), valuesList[i]) &&
+                        !check.isReferenced(KeyHashSet.hash(valuesList[i]))) {
+                    noticeConsumer.accept(new MissingForeignKeyValueNotice(
+                            filename,
+                            String.join(",", check.foreignKey.getColumnNameList()),
+                            rawEntity.getIndex(),
+                            String.join(",", valuesList[i]),
+                            check.referencedFilename,
+                            check.referencedFieldName));
+                }
+            }
+        }
+        timer.addRows(rowCount);
+    }
+
+    private Optional<List<Supplier<RawFileRepository.RawEntityProvider>>> getProviderSupplierList(
+            final String filename) {
+        final long splitThreshold =
+                Long.parseLong(execParamRepo.getExecParamValue(ExecParamRepository.SPLIT_THRESHOLD_KEY));
+        final long chunkSize = Long.parseLong(execParamRepo.getExecParamValue(ExecParamRepository.CHUNK_SIZE_KEY));
+        final RawFileInfo rawFileInfo =
+                rawFileRepo.findByName(filename).orElse(RawFileInfo.builder().filename(filename).build());
+        return rawFileRepo.getProviderChunkListForFile(rawFileInfo, splitThreshold, chunkSize);
+    }
+
+    /**
+     * A reference to check, with the indexes of the keys it references that are part of the dataset
+     */
+    private static final class ReferenceCheck {
+        private final ForeignKey foreignKey;
+        private final List<KeyHashSet> indexList;
+        private final String referencedFilename;
+        private final String referencedFieldName;
+
+        private ReferenceCheck(final ForeignKey foreignKey, final List<KeyHashSet> indexList) {
+            this.foreignKey = foreignKey;
+            this.indexList = indexList;
+            this.referencedFilename = foreignKey.getReferencedKeyList().stream()
+                    .map(ForeignKey.ReferencedKey::getFilename)
+                    .distinct()
+                    .collect(Collectors.joining(","));
+            this.referencedFieldName = foreignKey.getReferencedKeyList().stream()
+                    .map(referencedKey -> String.join(",", referencedKey.getColumnNameList()))
+                    .distinct()
+                    .collect(Collectors.joining(","));
+        }
+
+        private boolean isReferenced(final long hash) {
+            for (KeyHashSet index : indexList) {
+                if (index.contains(hash)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
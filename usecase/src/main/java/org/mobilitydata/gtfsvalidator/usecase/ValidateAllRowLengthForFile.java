@@ -50,20 +50,22 @@ public class ValidateAllRowLengthForFile {
     /**
      * Use case execution method: validates the length of all rows of the file linked to the {@link RawFileInfo}.
      * For each row of a GTFS CSV file, a {@link RawEntity} is created with a 1 based index identifying the row location
-     * within a GTFS CSV file and its content as a map of strings.
+     * within a GTFS CSV file and its content as an array of strings. The expected number of values is retrieved once
+     * for the whole file.
      * If the process to retrieve data from a file fail, a {@link CannotConstructDataProviderNotice} is generated
      * and added to the {@link ValidationResultRepository} provided in the constructor.
      */
     public void execute() {
         rawFileRepo.getProviderForFile(rawFileInfo).ifPresentOrElse(
                 provider -> {
+                    final int headerCount = provider.getHeaderCount();
                     while (provider.hasNext()) {
                         RawEntity rawEntity = provider.getNext();
-                        if (rawEntity.size() != provider.getHeaderCount()) {
+                        if (rawEntity.size() != headerCount) {
                             resultRepo.addNotice(new InvalidRowLengthNotice(
                                     rawFileInfo.getFilename(),
                                     rawEntity.getIndex(),
-                                    provider.getHeaderCount(),
+                                    headerCount,
                                     rawEntity.size())
                             );
                         }
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.domain.entity.UniqueKey;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.StageMetrics;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.DuplicatedEntityNotice;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.GtfsSpecRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.MetricsRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Use case to validate that the values of the {@link UniqueKey} of the GTFS specification are unique in each file of a
+ * GTFS dataset. Keeping every value in a set would use as much memory as the values themselves: instead, a first pass
+ * over a file adds the hash of each value to a {@link KeyBloomFilter}, using about 12 bits per row. The filter tells
+ * values seen for the first time apart from values possibly seen before, whose hashes are kept as candidates. A second
+ * pass then compares the values of the rows matching a candidate, so that duplicates are found exactly while only
+ * duplicates and about 1% of the values are held in memory. False positives of the filter alone give candidates to
+ * any file of more than some ten thousand rows: the second pass is skipped for small files only, which is why both
+ * passes read the ranges of a split file in parallel. This use case is triggered after the validation of each file.
+ */
+public class ValidateAllUniqueValues {
+    // separates the values of a multi-column key once joined, as a character that is not expected in values
+    private static final String VALUE_SEPARATOR = "\u001F";
+    // the first Bloom filter of a key is sized from the size of the file, assuming rows are at least that long: files
+    // with shorter rows make the filter grow
+    private static final long MIN_BYTES_PER_ROW = 32;
+
+    private final RawFileRepository rawFileRepo;
+    private final GtfsSpecRepository specRepo;
+    private final ValidationResultRepository resultRepo;
+    private final ExecParamRepository execParamRepo;
+    private final Executor chunkExecutor;
+    private final MetricsRepository metricsRepo;
+
+    /**
+     * @param rawFileRepo   a repository storing information about a GTFS dataset
+     * @param specRepo      a repository storing information about the GTFS specification used
+     * @param resultRepo    a repository storing information about the validation process
+     * @param execParamRepo a repository containing execution parameters
+     * @param chunkExecutor the executor reading the ranges of a file that is split
+     * @param metricsRepo   a repository storing the metrics of the stages of the validation process
+     */
+    public ValidateAllUniqueValues(final RawFileRepository rawFileRepo,
+                                   final GtfsSpecRepository specRepo,
+                                   final ValidationResultRepository resultRepo,
+                                   final ExecParamRepository execParamRepo,
+                                   final Executor chunkExecutor,
+                                   final MetricsRepository metricsRepo) {
+        this.rawFileRepo = rawFileRepo;
+        this.specRepo = specRepo;
+        this.resultRepo = resultRepo;
+        this.execParamRepo = execParamRepo;
+        this.chunkExecutor = chunkExecutor;
+        this.metricsRepo = metricsRepo;
+    }
+
+    /**
+     * Use case execution method: checks the unique keys of each file of the dataset. A {@link DuplicatedEntityNotice}
+     * is generated for each row whose values were found in a previous row of the file, rows with an empty value in a
+     * column of the key excepted. Keys with a column that is not part of a file are not checked, the missing header
+     * being already reported. Notices are added to the {@link ValidationResultRepository} provided in the constructor
+     * in the order of the rows. The metrics of each file are added to the {@link MetricsRepository} provided in the
+     * constructor.
+     */
+    public void execute() {
+        final Set<String> presentFilenameSet = rawFileRepo.getFilenameAll();
+        final Map<String, List<UniqueKey>> uniqueKeyListByFilename = new LinkedHashMap<>();
+        specRepo.getUniqueKeyList().stream()
+                .filter(uniqueKey -> presentFilenameSet.contains(uniqueKey.getFilename()))
+                .forEach(uniqueKey -> uniqueKeyListByFilename
+                        .computeIfAbsent(uniqueKey.getFilename(), filename -> new ArrayList<>())
+                        .add(uniqueKey));
+
+        uniqueKeyListByFilename.forEach(this::checkAllUniqueKeys);
+    }
+
+    private void checkAllUniqueKeys(final String filename, final List<UniqueKey> uniqueKeyList) {
+        final RawFileInfo rawFileInfo =
+                rawFileRepo.findByName(filename).orElse(RawFileInfo.builder().filename(filename).build());
+        final StageTimer timer = StageTimer.start(StageMetrics.UNIQUE_KEYS, filename);
+        final long fileSize = rawFileRepo.getSizeForFile(rawFileInfo);
+
+        // first pass: values possibly seen before are kept as candidates
+        final List<KeyBloomFilter> filterList = new ArrayList<>();
+        final List<KeyHashSet> candidateHashesList = new ArrayList<>();
+        uniqueKeyList.forEach(uniqueKey -> {
+            filterList.add(new KeyBloomFilter(Math.max(0, fileSize) / MIN_BYTES_PER_ROW));
+            candidateHashesList.add(new KeyHashSet());
+        });
+        final boolean isRead = readAllRanges(rawFileInfo, uniqueKeyList, timer, () -> new RangeKeyBuffer(null),
+                (keyIndex, hash, values) -> {
+                    if (!filterList.get(keyIndex).add(hash)) {
+                        candidateHashesList.get(keyIndex).add(hash);
+                    }
+                });
+        if (isRead) {
+            timer.addBytes(Math.max(0, fileSize));
+        }
+        // filters are no longer needed, they are released before the second pass
+        filterList.clear();
+        if (!isRead || candidateHashesList.stream().allMatch(candidateHashes -> candidateHashes.size() == 0)) {
+            metricsRepo.addStageMetrics(timer.stop());
+            return;
+        }
+
+        // second pass: the values of the rows matching a candidate are compared
+        final List<Set<String>> candidateValuesList = new ArrayList<>();
+        uniqueKeyList.forEach(uniqueKey -> candidateValuesList.add(new HashSet<>()));
+        readAllRanges(rawFileInfo, uniqueKeyList, timer, () -> new RangeKeyBuffer(candidateHashesList),
+                (keyIndex, hash, values) -> {
+                    if (candidateHashesList.get(keyIndex).contains(hash) &&
+                            !candidateValuesList.get(keyIndex).add(String.join(VALUE_SEPARATOR, values))) {
+                        resultRepo.addNotice(new DuplicatedEntityNotice(filename,
+                                String.join(",", uniqueKeyList.get(keyIndex).getColumnNameList()),
+                                String.join(",", values)));
+                    }
+                });
+        timer.addBytes(Math.max(0, fileSize));
+        metricsRepo.addStageMetrics(timer.stop());
+    }
+
+    /**
+     * Reads each row of a file, passing the hash and values of each unique key of the row to {@code consumer} in the
+     * order of the rows. The ranges of a split file are read by the executor provided in the constructor, as many at
+     * once as there are threads, into the buffers returned by {@code bufferSupplier}; each buffer is passed to
+     * {@code consumer} on the calling thread once the previous ranges are. Returns false if the file could not be read
+     * or if none of the unique keys is part of the file. Rows read are added to {@code timer}.
+     */
+    private boolean readAllRanges(final RawFileInfo rawFileInfo,
+                                  final List<UniqueKey> uniqueKeyList,
+                                  final StageTimer timer,
+                                  final Supplier<RangeKeyBuffer> bufferSupplier,
+                                  final KeyConsumer consumer) {
+        final long splitThreshold =
+                Long.parseLong(execParamRepo.getExecParamValue(ExecParamRepository.SPLIT_THRESHOLD_KEY));
+        final long chunkSize = Long.parseLong(execParamRepo.getExecParamValue(ExecParamRepository.CHUNK_SIZE_KEY));
+        final Optional<List<Supplier<RawFileRepository.RawEntityProvider>>> providerSupplierList =
+                rawFileRepo.getProviderChunkListForFile(rawFileInfo, splitThreshold, chunkSize);
+        if (providerSupplierList.isEmpty()) {
+            return false;
+        }
+        if (providerSupplierList.get().size() == 1) {
+            try (RawFileRepository.RawEntityProvider provider = providerSupplierList.get().get(0).get()) {
+                return readAllRows(provider, uniqueKeyList, timer, consumer);
+            }
+        }
+        final AtomicBoolean isRead = new AtomicBoolean();
+        new OrderedRangeRunner(chunkExecutor,
+                Integer.parseInt(execParamRepo.getExecParamValue(ExecParamRepository.THREADS_KEY)))
+                .run(providerSupplierList.get(),
+                        (providerSupplier, rangeNoticeConsumer) -> timer.measure(() -> {
+                            final RangeKeyBuffer buffer = bufferSupplier.get();
+                            try (RawFileRepository.RawEntityProvider provider = providerSupplier.get()) {
+                                return readAllRows(provider, uniqueKeyList, timer, buffer) ? buffer : null;
+                            }
+                        }),
+                        resultRepo::addNotice,
+                        (buffer, noticeCount) -> {
+                            if (buffer != null) {
+                                isRead.set(true);
+                                buffer.forEach(consumer);
+                            }
+                        });
+        return isRead.get();
+    }
+
+    private boolean readAllRows(final RawFileRepository.RawEntityProvider provider,
+                                final List<UniqueKey> uniqueKeyList,
+                                final StageTimer timer,
+                                final KeyConsumer consumer) {
+        final int[][] columnIndexesList = new int[uniqueKeyList.size()][];
+        for (int i = 0; i < columnIndexesList.length; ++i) {
+            columnIndexesList[i] = KeyValues.resolveColumnIndexes(provider.getSchema(),
+                    uniqueKeyList.get(i).getColumnNameList());
+        }
+        if (Arrays.stream(columnIndexesList).allMatch(Objects::isNull)) {
+            return false;
+        }
+
+        final String[][] valuesList = new String[columnIndexesList.length][];
+        for (int i = 0; i < valuesList.length; ++i) {
+            valuesList[i] = columnIndexesList[i] == null ? null : new String[columnIndexesList[i].length];
+        }
+        long rowCount = 0;
+        while (provider.hasNext()) {
+            final RawEntity rawEntity = provider.getNext();
+            ++rowCount;
+            for (int i = 0; i < valuesList.length; ++i) {
+                if (valuesList[i] != null && KeyValues.readValues(rawEntity, columnIndexesList[i], valuesList[i])) {
+                    consumer.accept(i, KeyHashSet.hash(valuesList[i]), valuesList[i]);
+                }
+            }
+        }
+        timer.addRows(rowCount);
+        return true;
+    }
+
+    private interface KeyConsumer {
+        void accept(int keyIndex, long hash, String[] values);
+    }
+
+    /**
+     * The keys of the rows of a range of a split file, in the order of the rows, held until the previous ranges are
+     * read. During the first pass, every hash is held, taking 12 bytes per key of a row; during the second pass, only
+     * the keys matching a candidate are held, with their values.
+     */
+    private static final class RangeKeyBuffer implements KeyConsumer {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        // the hashes of the keys to hold, by key, or null to hold every key without its values
+        private final List<KeyHashSet> candidateHashesList;
+        private final List<String[]> valuesList = new ArrayList<>();
+        private int[] keyIndexes = new int[INITIAL_CAPACITY];
+        private long[] hashes = new long[INITIAL_CAPACITY];
+        private int size;
+
+        private RangeKeyBuffer(final List<KeyHashSet> candidateHashesList) {
+            this.candidateHashesList = candidateHashesList;
+        }
+
+        @Override
+        public void accept(final int keyIndex, final long hash, final String[] values) {
+            if (candidateHashesList != null) {
+                // the candidates are no longer modified once the first pass is done
+                if (!candidateHashesList.get(keyIndex).contains(hash)) {
+                    return;
+                }
+                valuesList.add(values.clone());
+            }
+            if (size == hashes.length) {
+                keyIndexes = Arrays.copyOf(keyIndexes, size * 2);
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            keyIndexes[size] = keyIndex;
+            hashes[size] = hash;
+            ++size;
+        }
+
+        private void forEach(final KeyConsumer consumer) {
+            for (int i = 0; i < size; ++i) {
+                consumer.accept(keyIndexes[i], hashes[i], candidateHashesList == null ? null : valuesList.get(i));
+            }
+        }
+    }
+}
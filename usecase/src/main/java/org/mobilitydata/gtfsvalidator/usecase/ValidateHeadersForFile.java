@@ -65,6 +65,26 @@ public class ValidateHeadersForFile {
         List<String> expectedOptionalHeaderList = specRepo.getOptionalHeadersForFile(rawFileInfo);
         Collection<String> actualHeaderList = rawFileRepo.getActualHeadersForFile(rawFileInfo);
 
+        validateHeaders(expectedRequiredHeaderList, expectedOptionalHeaderList, actualHeaderList);
+    }
+
+    /**
+     * Use case execution method: same as {@link #execute()} but validates a list of headers that was already read from
+     * the file, for instance by a {@link RawFileRepository.RawEntityProvider}. This avoids reading the file a second
+     * time when its rows are processed right after.
+     *
+     * @param actualHeaderList the headers read from the file linked to the {@link RawFileInfo}
+     */
+    public void execute(final Collection<String> actualHeaderList) {
+        List<String> expectedRequiredHeaderList = specRepo.getRequiredHeadersForFile(rawFileInfo);
+        List<String> expectedOptionalHeaderList = specRepo.getOptionalHeadersForFile(rawFileInfo);
+
+        validateHeaders(expectedRequiredHeaderList, expectedOptionalHeaderList, actualHeaderList);
+    }
+
+    private void validateHeaders(final List<String> expectedRequiredHeaderList,
+                                 final List<String> expectedOptionalHeaderList,
+                                 final Collection<String> actualHeaderList) {
         //Missing headers
         expectedRequiredHeaderList.stream()
                 .filter(expectedHeader -> !(actualHeaderList.contains(expectedHeader)))
@@ -34,6 +34,20 @@ public interface ExecParamRepository {
     String PROTO_KEY = "proto";
     String URL_KEY = "url";
     String ZIP_KEY = "zipinput";
+    String THREADS_KEY = "threads";
+    String SPLIT_THRESHOLD_KEY = "splitthreshold";
+    String CHUNK_SIZE_KEY = "chunksize";
+    String CSV_READER_KEY = "csvreader";
+    String NO_EXTRACT_KEY = "noextract";
+    String STREAM_RESULTS_KEY = "streamresults";
+    String AGGREGATE_RESULTS_KEY = "aggregateresults";
+    String SAMPLE_CAP_KEY = "samplecap";
+    String RESERVOIR_SIZE_KEY = "reservoirsize";
+    String PROTO_FORMAT_KEY = "protoformat";
+    String SORT_MEMORY_KEY = "sortmemory";
+    String SORT_TEMP_DIR_KEY = "sorttempdir";
+    String PROGRESS_INTERVAL_KEY = "progressinterval";
+    String JFR_KEY = "jfr";
 
     ExecParam getExecParamByKey(final String optionName);
 
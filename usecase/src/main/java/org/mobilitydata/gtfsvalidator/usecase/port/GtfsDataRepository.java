@@ -17,6 +17,8 @@
 package org.mobilitydata.gtfsvalidator.usecase.port;
 
 import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.Agency;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.ShapePoint;
+import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.StopTime;
 import org.mobilitydata.gtfsvalidator.domain.entity.gtfs.routes.Route;
 
 public interface GtfsDataRepository {
@@ -27,4 +29,12 @@ public interface GtfsDataRepository {
     Route addRoute(final Route newRoute) throws IllegalArgumentException;
 
     Route getRouteById(final String routeId);
+
+    StopTime addStopTime(final StopTime newStopTime) throws IllegalArgumentException;
+
+    StopTime getStopTimeByTripIdAndStopSequence(final String tripId, final int stopSequence);
+
+    ShapePoint addShapePoint(final ShapePoint newShapePoint) throws IllegalArgumentException;
+
+    ShapePoint getShapePointByShapeIdAndSequence(final String shapeId, final int shapePtSequence);
 }
\ No newline at end of file
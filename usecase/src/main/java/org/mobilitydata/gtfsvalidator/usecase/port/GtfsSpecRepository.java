@@ -16,14 +16,18 @@
 
 package org.mobilitydata.gtfsvalidator.usecase.port;
 
+import org.mobilitydata.gtfsvalidator.domain.entity.ForeignKey;
 import org.mobilitydata.gtfsvalidator.domain.entity.ParsedEntity;
 import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
 import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.domain.entity.RowOrder;
+import org.mobilitydata.gtfsvalidator.domain.entity.UniqueKey;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.ErrorNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * This holds information about a GTFS specification and provides methods to execute the validation process.
@@ -40,8 +44,20 @@ public interface GtfsSpecRepository {
 
     RawEntityParser getParserForFile(RawFileInfo file);
 
+    RawEntityParser getDeduplicatingParserForFile(RawFileInfo file);
+
+    void releaseColumnDictionariesForFile(RawFileInfo file);
+
     ParsedEntityTypeValidator getValidatorForFile(RawFileInfo file);
 
+    Collection<ColumnDictionaryStatistics> getColumnDictionaryStatistics();
+
+    List<ForeignKey> getForeignKeyList();
+
+    List<UniqueKey> getUniqueKeyList();
+
+    Optional<RowOrder> getRowOrderForFile(RawFileInfo file);
+
     interface RawEntityParser {
         Collection<ErrorNotice> validateNonStringTypes(RawEntity toValidate);
 
@@ -55,4 +71,19 @@ public interface GtfsSpecRepository {
         //on GtfsTypeValidator interface
         Collection<Notice> validate(ParsedEntity toValidate);
     }
+
+    /**
+     * Statistics about the deduplication of the values of a column, whose repeated values share a single instance
+     */
+    interface ColumnDictionaryStatistics {
+        String getFilename();
+
+        String getColumnName();
+
+        long getValueCount();
+
+        long getDistinctValueCount();
+
+        long getSavedByteCount();
+    }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase.port;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.MetricsExporter;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.StageMetrics;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * This holds the metrics of the stages of the validation process. Metrics can be added concurrently, by the threads
+ * validating files.
+ */
+public interface MetricsRepository {
+
+    void addStageMetrics(StageMetrics stageMetrics);
+
+    List<StageMetrics> getAll();
+
+    List<MetricsExporter> getExporters(String outputPath) throws IOException;
+}
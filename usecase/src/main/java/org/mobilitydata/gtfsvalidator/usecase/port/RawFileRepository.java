@@ -17,11 +17,14 @@
 package org.mobilitydata.gtfsvalidator.usecase.port;
 
 import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntitySchema;
 import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * This holds information about a GTFS dataset to validate.
@@ -36,14 +39,44 @@ public interface RawFileRepository {
 
     Set<String> getFilenameAll();
 
+    long getSizeForFile(RawFileInfo file);
+
     Optional<RawEntityProvider> getProviderForFile(RawFileInfo file);
 
-    interface RawEntityProvider {
+    /**
+     * Returns suppliers of the data providers of a GTFS CSV file, one per range of the file if it is split, in the
+     * order of the rows they provide. Only the provider of the first range, which reads the header row, is opened by
+     * this call: its supplier returns it as is. The providers of the other ranges are opened when their supplier is
+     * called, so that the files held open are bounded by the ranges being read and not by the number of ranges.
+     * Providers are to be closed by the caller.
+     *
+     * @param file           information regarding a file to process
+     * @param splitThreshold the size in bytes above which the file is split
+     * @param chunkSize      the minimal size in bytes of a range
+     * @return suppliers of the data providers of the file, in the order of the rows they provide, or an empty optional
+     * if the file could not be read
+     */
+    Optional<List<Supplier<RawEntityProvider>>> getProviderChunkListForFile(RawFileInfo file,
+                                                                           long splitThreshold,
+                                                                           long chunkSize);
+
+    interface RawEntityProvider extends AutoCloseable {
 
         boolean hasNext();
 
         RawEntity getNext();
 
         int getHeaderCount();
+
+        Collection<String> getHeaders();
+
+        RawEntitySchema getSchema();
+
+        /**
+         * Releases the file read by this provider. Providers release it once all rows are read, this is needed when
+         * rows are left unread. Closing a provider more than once has no effect.
+         */
+        @Override
+        void close();
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase.port;
+
+import org.mobilitydata.gtfsvalidator.domain.entity.SortedRecord;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * This sorts the rows of a file on a group key, for checks that need the rows of a group together while the file is
+ * too large to be held in memory.
+ */
+public interface RecordSortRepository {
+
+    /**
+     * Returns a new sorter. Sorters are independent from each other and may be used by different threads.
+     *
+     * @param valueCount the number of values of each record
+     * @return a new sorter
+     */
+    RecordSorter getSorter(int valueCount);
+
+    /**
+     * Sorts the {@link SortedRecord} added to it. Temporary resources are released by {@link #close()}. Methods throw
+     * {@link java.io.UncheckedIOException} if temporary resources can not be written or read. Not thread safe.
+     */
+    interface RecordSorter extends Closeable {
+
+        /**
+         * Adds a record to sort
+         *
+         * @param record the record to add, with as many values as requested when creating the sorter
+         */
+        void add(SortedRecord record);
+
+        /**
+         * Returns the groups of records added so far: the records of a group share their group key. Groups are
+         * returned in the order of their keys and records in the order of their sort value then of their line number.
+         * No record can be added afterwards.
+         *
+         * @return an iterator on the groups of records
+         */
+        Iterator<List<SortedRecord>> getGroupIterator();
+
+        @Override
+        void close();
+    }
+}
@@ -16,11 +16,13 @@
 
 package org.mobilitydata.gtfsvalidator.usecase.port;
 
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeAggregate;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeExporter;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Map;
 
 /**
  * This hold contains notices generated during the validation process.
@@ -32,4 +34,34 @@ public interface ValidationResultRepository {
     Collection<Notice> getAll();
 
     NoticeExporter getExporter(boolean outputAsProto, String outputPath) throws IOException;
-}
\ No newline at end of file
+
+    /**
+     * Returns true if notices are exported as soon as they are added instead of being held until the end of the
+     * validation process. In that case, {@link #getAll()} returns no notice.
+     *
+     * @return true if notices are exported as soon as they are added
+     */
+    boolean isStreaming();
+
+    /**
+     * Ends the export of notices that are exported as soon as they are added. Does nothing if notices are held.
+     *
+     * @throws IOException if the export could not be completed
+     */
+    void endStreamingExport() throws IOException;
+
+    /**
+     * Returns the number of notices added to the repository, by notice id
+     *
+     * @return the number of notices added to the repository, by notice id
+     */
+    Map<String, Long> getNoticeCountById();
+
+    /**
+     * Returns the notices added to the repository that are held as aggregates rather than one by one. Those notices
+     * are not returned by {@link #getAll()}.
+     *
+     * @return the notices added to the repository that are held as aggregates
+     */
+    Collection<NoticeAggregate> getAggregates();
+}
@@ -18,10 +18,12 @@ package org.mobilitydata.gtfsvalidator.usecase;
 
 import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeAggregate;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.NoticeExporter;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.CannotConstructDataProviderNotice;
 import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.CannotUnzipInputArchiveNotice;
 import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.MetricsRepository;
 import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InOrder;
@@ -29,6 +31,7 @@ import org.mockito.Mockito;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.Mockito.*;
 
@@ -45,6 +48,7 @@ class ExportResultAsFileTest {
 
         when(mockResultRepo.getExporter(ArgumentMatchers.eq(false), anyString())).thenReturn(mockExporter);
         when(mockResultRepo.getAll()).thenReturn(List.of(mockNotice0, mockNotice1));
+        when(mockResultRepo.getNoticeCountById()).thenReturn(Map.of("E001", 1L, "E005", 1L));
 
         when(mockExecParamRepo.getExecParamValue(mockExecParamRepo.OUTPUT_KEY)).thenReturn(mockExecParamRepo.OUTPUT_KEY);
         when(mockExecParamRepo.getExecParamValue(mockExecParamRepo.PROTO_KEY)).thenReturn("false");
@@ -52,7 +56,8 @@ class ExportResultAsFileTest {
 
         Logger mockLogger = mock(Logger.class);
 
-        final ExportResultAsFile underTest = new ExportResultAsFile(mockResultRepo, mockExecParamRepo, mockLogger);
+        final ExportResultAsFile underTest = new ExportResultAsFile(mockResultRepo, mockExecParamRepo, mockLogger,
+                mock(MetricsRepository.class));
 
         underTest.execute();
 
@@ -61,7 +66,8 @@ class ExportResultAsFileTest {
         verify(mockLogger, times(1))
                 .info(ArgumentMatchers.eq("Results are exported as JSON by default"));
         verify(mockLogger, times(1))
-                .info(ArgumentMatchers.eq("Exporting validation repo content:" + mockResultRepo.getAll()));
+                .info(ArgumentMatchers.eq("Exported notice count by notice id: " +
+                        Map.of("E001", 1L, "E005", 1L)));
 
         verify(mockNotice0, times(1)).export(ArgumentMatchers.eq(mockExporter));
         verify(mockNotice1, times(1)).export(ArgumentMatchers.eq(mockExporter));
@@ -82,9 +88,12 @@ class ExportResultAsFileTest {
         verify(mockNotice0, times(1)).export(mockExporter);
         verify(mockNotice1, times(1)).export(mockExporter);
 
-        verify(mockResultRepo, times(3)).getAll();
+        verify(mockResultRepo, times(1)).getAll();
 
+        verify(mockResultRepo, times(1)).getAggregates();
         verify(mockExporter, times(1)).exportEnd();
+        verify(mockResultRepo, times(1)).getNoticeCountById();
+        verify(mockResultRepo, times(1)).isStreaming();
         verifyNoMoreInteractions(mockExporter, mockResultRepo, mockExecParamRepo, mockLogger);
     }
 
@@ -98,6 +107,7 @@ class ExportResultAsFileTest {
         final ExecParamRepository mockExecParamRepo = mock(ExecParamRepository.class);
 
         when(mockResultRepo.getAll()).thenReturn(List.of(mockNotice0, mockNotice1));
+        when(mockResultRepo.getNoticeCountById()).thenReturn(Map.of("E001", 1L, "E005", 1L));
         when(mockExecParamRepo.getExecParamValue(mockExecParamRepo.OUTPUT_KEY))
                 .thenReturn(mockExecParamRepo.OUTPUT_KEY);
         when(mockExecParamRepo.getExecParamValue(mockExecParamRepo.PROTO_KEY)).thenReturn(String.valueOf(true));
@@ -106,14 +116,16 @@ class ExportResultAsFileTest {
                 .thenReturn(mockExporter);
 
         Logger mockLogger = mock(Logger.class);
-        ExportResultAsFile underTest = new ExportResultAsFile(mockResultRepo, mockExecParamRepo, mockLogger);
+        ExportResultAsFile underTest = new ExportResultAsFile(mockResultRepo, mockExecParamRepo, mockLogger,
+                mock(MetricsRepository.class));
 
         underTest.execute();
 
         verify(mockLogger, times(1))
                 .info(ArgumentMatchers.eq("-p provided, exporting results as proto"));
         verify(mockLogger, times(1))
-                .info(ArgumentMatchers.eq("Exporting validation repo content:" + mockResultRepo.getAll()));
+                .info(ArgumentMatchers.eq("Exported notice count by notice id: " +
+                        Map.of("E001", 1L, "E005", 1L)));
         verify(mockNotice0, times(1)).export(ArgumentMatchers.eq(mockExporter));
         verify(mockNotice1, times(1)).export(ArgumentMatchers.eq(mockExporter));
 
@@ -132,10 +144,71 @@ class ExportResultAsFileTest {
 
         verify(mockNotice0, times(1)).export(mockExporter);
         verify(mockNotice1, times(1)).export(mockExporter);
-        verify(mockResultRepo, times(3)).getAll();
+        verify(mockResultRepo, times(1)).getAll();
         verify(mockExecParamRepo, times(2)).getExecParamValue(mockExecParamRepo.PROTO_KEY);
 
+        verify(mockResultRepo, times(1)).getAggregates();
         verify(mockExporter, times(1)).exportEnd();
+        verify(mockResultRepo, times(1)).getNoticeCountById();
+        verify(mockResultRepo, times(1)).isStreaming();
         verifyNoMoreInteractions(mockExporter, mockResultRepo, mockExecParamRepo, mockLogger);
     }
-}
\ No newline at end of file
+
+    @Test
+    void streamingResultRepoShouldOnlyEndExport() throws IOException {
+        final ValidationResultRepository mockResultRepo = mock(ValidationResultRepository.class);
+        final ExecParamRepository mockExecParamRepo = mock(ExecParamRepository.class);
+
+        when(mockResultRepo.isStreaming()).thenReturn(true);
+        when(mockResultRepo.getNoticeCountById()).thenReturn(Map.of("E001", 3L));
+        when(mockExecParamRepo.getExecParamValue(mockExecParamRepo.PROTO_KEY)).thenReturn("false");
+
+        Logger mockLogger = mock(Logger.class);
+        ExportResultAsFile underTest = new ExportResultAsFile(mockResultRepo, mockExecParamRepo, mockLogger,
+                mock(MetricsRepository.class));
+
+        underTest.execute();
+
+        verify(mockExecParamRepo, times(1)).getExecParamValue(mockExecParamRepo.PROTO_KEY);
+        verify(mockLogger, times(1))
+                .info(ArgumentMatchers.eq("Results are exported as JSON by default"));
+        verify(mockLogger, times(1))
+                .info(ArgumentMatchers.eq("Exported notice count by notice id: {E001=3}"));
+
+        final InOrder inOrder = Mockito.inOrder(mockResultRepo);
+        inOrder.verify(mockResultRepo, times(1)).isStreaming();
+        inOrder.verify(mockResultRepo, times(1)).endStreamingExport();
+        inOrder.verify(mockResultRepo, times(1)).getNoticeCountById();
+        verifyNoMoreInteractions(mockResultRepo, mockExecParamRepo, mockLogger);
+    }
+
+    @Test
+    void aggregatesShouldBeExportedAfterNotices() throws IOException {
+        final NoticeExporter mockExporter = mock(NoticeExporter.class);
+        final ValidationResultRepository mockResultRepo = mock(ValidationResultRepository.class);
+        final ExecParamRepository mockExecParamRepo = mock(ExecParamRepository.class);
+        final CannotConstructDataProviderNotice mockNotice = mock(CannotConstructDataProviderNotice.class);
+        final NoticeAggregate mockAggregate0 = mock(NoticeAggregate.class);
+        final NoticeAggregate mockAggregate1 = mock(NoticeAggregate.class);
+
+        when(mockResultRepo.getExporter(ArgumentMatchers.eq(false), anyString())).thenReturn(mockExporter);
+        when(mockResultRepo.getAll()).thenReturn(List.of(mockNotice));
+        when(mockResultRepo.getAggregates()).thenReturn(List.of(mockAggregate0, mockAggregate1));
+        when(mockExecParamRepo.getExecParamValue(mockExecParamRepo.OUTPUT_KEY)).thenReturn(mockExecParamRepo.OUTPUT_KEY);
+        when(mockExecParamRepo.getExecParamValue(mockExecParamRepo.PROTO_KEY)).thenReturn("false");
+
+        Logger mockLogger = mock(Logger.class);
+        ExportResultAsFile underTest = new ExportResultAsFile(mockResultRepo, mockExecParamRepo, mockLogger,
+                mock(MetricsRepository.class));
+
+        underTest.execute();
+
+        final InOrder inOrder = Mockito.inOrder(mockExporter, mockNotice, mockAggregate0, mockAggregate1);
+        inOrder.verify(mockExporter, times(1)).exportBegin();
+        inOrder.verify(mockNotice, times(1)).export(mockExporter);
+        inOrder.verify(mockAggregate0, times(1)).export(mockExporter);
+        inOrder.verify(mockAggregate1, times(1)).export(mockExporter);
+        inOrder.verify(mockExporter, times(1)).exportEnd();
+        verifyNoMoreInteractions(mockExporter, mockNotice, mockAggregate0, mockAggregate1);
+    }
+}
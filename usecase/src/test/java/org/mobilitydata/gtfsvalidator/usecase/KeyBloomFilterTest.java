@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyBloomFilterTest {
+
+    @Test
+    void addedHashShouldAlwaysBeFound() {
+        KeyBloomFilter underTest = new KeyBloomFilter();
+
+        for (int i = 0; i < 100_000; ++i) {
+            underTest.add(KeyHashSet.hash(new String[]{"trip" + i}));
+        }
+
+        for (int i = 0; i < 100_000; ++i) {
+            assertTrue(underTest.mightContain(KeyHashSet.hash(new String[]{"trip" + i})));
+        }
+    }
+
+    @Test
+    void addShouldReturnFalseForHashAddedBefore() {
+        KeyBloomFilter underTest = new KeyBloomFilter();
+
+        assertTrue(underTest.add(KeyHashSet.hash(new String[]{"T1"})));
+        assertFalse(underTest.add(KeyHashSet.hash(new String[]{"T1"})));
+    }
+
+    @Test
+    void falsePositiveRateShouldStayBelowOnePercentAsFilterGrows() {
+        KeyBloomFilter underTest = new KeyBloomFilter();
+        int candidateCount = 0;
+        for (int i = 0; i < 1_000_000; ++i) {
+            if (!underTest.add(KeyHashSet.hash(new String[]{"trip" + i}))) {
+                ++candidateCount;
+            }
+        }
+
+        int falsePositiveCount = 0;
+        for (int i = 0; i < 1_000_000; ++i) {
+            if (underTest.mightContain(KeyHashSet.hash(new String[]{"stop" + i}))) {
+                ++falsePositiveCount;
+            }
+        }
+
+        // the rates of the filters of a grown filter add up to less than 0.8%
+        assertTrue(candidateCount < 10_000);
+        assertTrue(falsePositiveCount < 10_000);
+        // filters being twice as large as needed at worst, with one more probe in each filter
+        assertTrue(underTest.getByteCount() < 1_000_000L * 36 / 8);
+    }
+
+    @Test
+    void filterSizedForExpectedKeysShouldNotGrow() {
+        KeyBloomFilter underTest = new KeyBloomFilter(100_000);
+        long byteCount = underTest.getByteCount();
+        for (int i = 0; i < 100_000; ++i) {
+            underTest.add(KeyHashSet.hash(new String[]{"trip" + i}));
+        }
+
+        int falsePositiveCount = 0;
+        for (int i = 0; i < 100_000; ++i) {
+            if (underTest.mightContain(KeyHashSet.hash(new String[]{"stop" + i}))) {
+                ++falsePositiveCount;
+            }
+        }
+
+        assertEquals(byteCount, underTest.getByteCount());
+        // 8 probes over about 12 bits per key give a false positive rate of about 0.4%
+        assertTrue(falsePositiveCount < 600);
+        assertTrue(byteCount < 100_000 * 12 / 8 + Long.BYTES);
+    }
+}
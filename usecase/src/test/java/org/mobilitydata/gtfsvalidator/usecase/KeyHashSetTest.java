@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyHashSetTest {
+
+    @Test
+    void addedHashShouldBeContained() {
+        KeyHashSet underTest = new KeyHashSet();
+
+        assertTrue(underTest.add(KeyHashSet.hash(new String[]{"T1"})));
+        assertFalse(underTest.add(KeyHashSet.hash(new String[]{"T1"})));
+
+        assertTrue(underTest.contains(KeyHashSet.hash(new String[]{"T1"})));
+        assertFalse(underTest.contains(KeyHashSet.hash(new String[]{"T2"})));
+        assertEquals(1, underTest.size());
+    }
+
+    @Test
+    void setShouldGrowBeyondInitialCapacity() {
+        KeyHashSet underTest = new KeyHashSet();
+
+        for (int i = 0; i < 100_000; ++i) {
+            underTest.add(KeyHashSet.hash(new String[]{"stop" + i}));
+        }
+
+        assertEquals(100_000, underTest.size());
+        for (int i = 0; i < 100_000; ++i) {
+            assertTrue(underTest.contains(KeyHashSet.hash(new String[]{"stop" + i})));
+        }
+        assertFalse(underTest.contains(KeyHashSet.hash(new String[]{"stop100000"})));
+    }
+
+    @Test
+    void hashShouldSeparateValuesOfCompositeKey() {
+        assertNotEquals(KeyHashSet.hash(new String[]{"ab", "c"}), KeyHashSet.hash(new String[]{"a", "bc"}));
+        assertNotEquals(KeyHashSet.hash(new String[]{"abc"}), KeyHashSet.hash(new String[]{"ab", "c"}));
+        assertEquals(KeyHashSet.hash(new String[]{"a", "bc"}), KeyHashSet.hash(new String[]{"a", "bc"}));
+    }
+
+    @Test
+    void addAllShouldMergeSets() {
+        KeyHashSet first = new KeyHashSet();
+        first.add(KeyHashSet.hash(new String[]{"T1"}));
+        first.add(KeyHashSet.hash(new String[]{"T2"}));
+        KeyHashSet second = new KeyHashSet();
+        second.add(KeyHashSet.hash(new String[]{"T2"}));
+        second.add(KeyHashSet.hash(new String[]{"T3"}));
+
+        first.addAll(second);
+
+        assertEquals(3, first.size());
+        assertTrue(first.contains(KeyHashSet.hash(new String[]{"T3"})));
+    }
+}
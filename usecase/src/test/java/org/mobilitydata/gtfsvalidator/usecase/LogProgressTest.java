@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntitySchema;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class LogProgressTest {
+
+    @Test
+    void progressShouldReportFilesRowsEtaAndNotices() {
+        ProgressTracker progressTracker = new ProgressTracker();
+        progressTracker.startFile("agency.txt", 1024 * 1024).finish();
+        ProgressTracker.FileProgress stopTimes = progressTracker.startFile("stop_times.txt", 9 * 4 * 1024 * 1024L);
+        // a row of 9 bytes, for an estimate of 4 Mi rows of which 1 Mi are validated
+        RawEntity row = new RawEntity(new RawEntitySchema(List.of("a", "b", "c")), new String[]{"aa", "bb", "cc"}, 1);
+        for (int i = 0; i < 1024; ++i) {
+            stopTimes.addSample(row);
+        }
+        progressTracker.expectFile("trips.txt", 3 * 1024 * 1024);
+        Notice notice = mock(Notice.class);
+        when(notice.getId()).thenReturn("E010");
+        progressTracker.countNotice(notice);
+
+        LogProgress underTest = new LogProgress(progressTracker, mock(RawFileRepository.class),
+                mock(ExecParamRepository.class), mock(Logger.class));
+
+        // 1 + 9 + 0 MB out of 1 + 36 + 3 MB are validated: a quarter, in 10 seconds
+        assertEquals("Progress: 1/3 files done, 1048576 rows, 25% of 40.0 MB, ETA 30s; " +
+                        "validating stop_times.txt 25% of ~4194304 rows; 1 notices: E010 1",
+                underTest.formatProgress(TimeUnit.SECONDS.toNanos(10)));
+    }
+
+    @Test
+    void zeroIntervalShouldLogNothing() {
+        ExecParamRepository mockExecParamRepo = mock(ExecParamRepository.class);
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.PROGRESS_INTERVAL_KEY)).thenReturn("0");
+        Logger mockLogger = mock(Logger.class);
+
+        LogProgress underTest = new LogProgress(new ProgressTracker(), mock(RawFileRepository.class),
+                mockExecParamRepo, mockLogger);
+        underTest.execute();
+        underTest.close();
+
+        verifyNoInteractions(mockLogger);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class OrderedRangeRunnerTest {
+    private static final int RANGE_COUNT = 6;
+    private static final int NOTICE_COUNT_PER_RANGE = 500;
+
+    private static List<Notice> createNoticeList() {
+        return IntStream.range(0, RANGE_COUNT * NOTICE_COUNT_PER_RANGE)
+                .mapToObj(i -> mock(Notice.class))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Integer> createRangeList() {
+        return IntStream.range(0, RANGE_COUNT).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    void noticesShouldBeConsumedInRangeOrderWithBoundedBuffers() {
+        List<Notice> noticeList = createNoticeList();
+        List<Notice> consumedNoticeList = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> doneRangeList = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            new OrderedRangeRunner(executor, 3, 4).run(createRangeList(),
+                    (range, noticeConsumer) -> {
+                        // later ranges finish first
+                        Thread.yield();
+                        noticeList.subList(range * NOTICE_COUNT_PER_RANGE, (range + 1) * NOTICE_COUNT_PER_RANGE)
+                                .forEach(noticeConsumer);
+                        return range;
+                    },
+                    consumedNoticeList::add,
+                    (range, noticeCount) -> {
+                        assertEquals((range + 1) * NOTICE_COUNT_PER_RANGE, consumedNoticeList.size());
+                        assertEquals(NOTICE_COUNT_PER_RANGE, noticeCount);
+                        doneRangeList.add(range);
+                    });
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(noticeList, consumedNoticeList);
+        assertEquals(createRangeList(), doneRangeList);
+    }
+
+    @Test
+    void singleRangeInFlightShouldRunOnCallingThread() {
+        List<Notice> noticeList = createNoticeList();
+        List<Notice> consumedNoticeList = new ArrayList<>();
+
+        new OrderedRangeRunner(Runnable::run, 1, 4).run(createRangeList(),
+                (range, noticeConsumer) -> {
+                    noticeList.subList(range * NOTICE_COUNT_PER_RANGE, (range + 1) * NOTICE_COUNT_PER_RANGE)
+                            .forEach(noticeConsumer);
+                    return range;
+                },
+                consumedNoticeList::add,
+                (range, noticeCount) -> {
+                });
+
+        assertEquals(noticeList, consumedNoticeList);
+    }
+
+    @Test
+    void rangesNotStartedByBusyExecutorShouldRunOnCallingThread() {
+        List<Notice> noticeList = createNoticeList();
+        List<Notice> consumedNoticeList = new ArrayList<>();
+        List<Thread> rangeThreadList = new ArrayList<>();
+
+        // an executor whose threads are all busy never starts the ranges submitted to it
+        new OrderedRangeRunner(runnable -> {
+        }, 3, 4).run(createRangeList(),
+                (range, noticeConsumer) -> {
+                    rangeThreadList.add(Thread.currentThread());
+                    noticeList.subList(range * NOTICE_COUNT_PER_RANGE, (range + 1) * NOTICE_COUNT_PER_RANGE)
+                            .forEach(noticeConsumer);
+                    return range;
+                },
+                consumedNoticeList::add,
+                (range, noticeCount) -> {
+                });
+
+        assertEquals(noticeList, consumedNoticeList);
+        assertEquals(Collections.nCopies(RANGE_COUNT, Thread.currentThread()), rangeThreadList);
+    }
+
+    @Test
+    void failedRangeShouldReleaseWaitingRangesAndBeThrown() {
+        List<Notice> noticeList = createNoticeList();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            assertThrows(CompletionException.class, () -> new OrderedRangeRunner(executor, 3, 4).run(createRangeList(),
+                    (range, noticeConsumer) -> {
+                        if (range == 0) {
+                            throw new IllegalStateException("range " + range);
+                        }
+                        noticeList.subList(range * NOTICE_COUNT_PER_RANGE, (range + 1) * NOTICE_COUNT_PER_RANGE)
+                                .forEach(noticeConsumer);
+                        return range;
+                    },
+                    notice -> {
+                    },
+                    (range, noticeCount) -> {
+                    }));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -11,6 +11,8 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 class ParseAllExecParamTest {
@@ -97,4 +99,100 @@ class ParseAllExecParamTest {
         inOrder.verify(mockExecParamRepository, times(2))
                 .addExecParam(ArgumentMatchers.isA(ExecParam.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void invalidThreadCountShouldThrowException() throws IOException {
+        for (String threads : new String[]{"0", "-2", "four"}) {
+            final String[] mockString = new String[1];
+            final ExecParamRepository mockExecParamRepository = mock(ExecParamRepository.class);
+            final Logger mockLogger = mock(Logger.class);
+
+            final ParseAllExecParam underTest = new ParseAllExecParam(null, mockExecParamRepository, mockLogger);
+
+            final ExecParamRepository.ExecParamParser mockParser = spy(ExecParamRepository.ExecParamParser.class);
+            when(mockExecParamRepository.getParser(ArgumentMatchers.eq(null),
+                    ArgumentMatchers.eq(mockString), ArgumentMatchers.eq(mockLogger)))
+                    .thenReturn(mockParser);
+            when(mockParser.parse()).thenReturn(
+                    Map.of(ExecParamRepository.THREADS_KEY, new ExecParam(ExecParamRepository.THREADS_KEY, threads)));
+
+            final IllegalArgumentException exception =
+                    assertThrows(IllegalArgumentException.class, () -> underTest.execute(mockString));
+
+            assertEquals("Execution parameter threads must be an integer greater than or equal to 1, found: " +
+                    threads, exception.getMessage());
+            verify(mockExecParamRepository, never()).addExecParam(ArgumentMatchers.isA(ExecParam.class));
+        }
+    }
+
+    @Test
+    public void invalidRangeSizeShouldThrowException() throws IOException {
+        assertInvalidValues(ExecParamRepository.SPLIT_THRESHOLD_KEY, 0, "-1", "128M");
+        assertInvalidValues(ExecParamRepository.CHUNK_SIZE_KEY, 1, "0", "-5", "32M");
+    }
+
+    @Test
+    public void validRangeSizeShouldBeAddedToRepo() throws IOException {
+        verify(executeWithExecParam(new ExecParam(ExecParamRepository.SPLIT_THRESHOLD_KEY, "0")), times(1))
+                .addExecParam(ArgumentMatchers.isA(ExecParam.class));
+        verify(executeWithExecParam(new ExecParam(ExecParamRepository.CHUNK_SIZE_KEY, "33554432")), times(1))
+                .addExecParam(ArgumentMatchers.isA(ExecParam.class));
+    }
+
+    @Test
+    public void invalidSampleSizeShouldThrowException() throws IOException {
+        assertInvalidValues(ExecParamRepository.SAMPLE_CAP_KEY, 0, "-1", "ten", "3000000000");
+        assertInvalidValues(ExecParamRepository.RESERVOIR_SIZE_KEY, 0, "-1", "1.5");
+    }
+
+    @Test
+    public void validSampleSizeShouldBeAddedToRepo() throws IOException {
+        verify(executeWithExecParam(new ExecParam(ExecParamRepository.SAMPLE_CAP_KEY, "0")), times(1))
+                .addExecParam(ArgumentMatchers.isA(ExecParam.class));
+        verify(executeWithExecParam(new ExecParam(ExecParamRepository.RESERVOIR_SIZE_KEY, "100")), times(1))
+                .addExecParam(ArgumentMatchers.isA(ExecParam.class));
+    }
+
+    @Test
+    public void invalidSortMemoryShouldThrowException() throws IOException {
+        assertInvalidValues(ExecParamRepository.SORT_MEMORY_KEY, 1, "0", "-1", "64M");
+    }
+
+    @Test
+    public void invalidProgressIntervalShouldThrowException() throws IOException {
+        assertInvalidValues(ExecParamRepository.PROGRESS_INTERVAL_KEY, 0, "-1", "30s");
+    }
+
+    /**
+     * Checks that each value of an execution parameter is rejected with the minimum value of the parameter
+     */
+    private static void assertInvalidValues(final String key, final long minimum, final String... valueArray) {
+        for (String value : valueArray) {
+            final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> executeWithExecParam(new ExecParam(key, value)));
+
+            assertEquals("Execution parameter " + key + " must be an integer greater than or equal to " + minimum +
+                    ", found: " + value, exception.getMessage());
+        }
+    }
+
+    /**
+     * Parses a single execution parameter from the command line, and returns the repository it is added to
+     */
+    private static ExecParamRepository executeWithExecParam(final ExecParam execParam) throws IOException {
+        final String[] mockString = new String[1];
+        final ExecParamRepository mockExecParamRepository = mock(ExecParamRepository.class);
+        final Logger mockLogger = mock(Logger.class);
+
+        final ParseAllExecParam underTest = new ParseAllExecParam(null, mockExecParamRepository, mockLogger);
+
+        final ExecParamRepository.ExecParamParser mockParser = spy(ExecParamRepository.ExecParamParser.class);
+        when(mockExecParamRepository.getParser(ArgumentMatchers.eq(null),
+                ArgumentMatchers.eq(mockString), ArgumentMatchers.eq(mockLogger)))
+                .thenReturn(mockParser);
+        when(mockParser.parse()).thenReturn(Map.of(execParam.getKey(), execParam));
+
+        underTest.execute(mockString);
+        return mockExecParamRepository;
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.domain.entity.ParsedEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.ErrorNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.WarningNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.CannotConstructDataProviderNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.InvalidRowLengthNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.MissingHeaderNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonStandardHeaderNotice;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.GtfsSpecRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.MetricsRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.RecordSortRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class ParseAndValidateAllRowsForFileTest {
+
+    private static final String TEST_TST = "test.tst";
+    private static final long SPLIT_THRESHOLD = 1000;
+    private static final long CHUNK_SIZE = 100;
+
+    private static ExecParamRepository mockExecParamRepo() {
+        ExecParamRepository mockExecParamRepo = mock(ExecParamRepository.class);
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.SPLIT_THRESHOLD_KEY))
+                .thenReturn(String.valueOf(SPLIT_THRESHOLD));
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.CHUNK_SIZE_KEY))
+                .thenReturn(String.valueOf(CHUNK_SIZE));
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.THREADS_KEY)).thenReturn("2");
+        return mockExecParamRepo;
+    }
+
+    @Test
+    void validFileShouldBeReadOnceAndGenerateNoNotice() {
+        RawEntity testRawEntity = new RawEntity(Map.of("requiredHeader", "testValue"), 2);
+        ParsedEntity testParsedEntity = mock(ParsedEntity.class);
+
+        RawFileRepository.RawEntityProvider mockProvider = mock(RawFileRepository.RawEntityProvider.class);
+        when(mockProvider.hasNext()).thenReturn(true, true, true, false);
+        when(mockProvider.getNext()).thenReturn(testRawEntity);
+        when(mockProvider.getHeaderCount()).thenReturn(1);
+        when(mockProvider.getHeaders()).thenReturn(List.of("requiredHeader"));
+
+        RawFileRepository mockFileRepo = mock(RawFileRepository.class);
+        when(mockFileRepo.getProviderChunkListForFile(any(RawFileInfo.class), anyLong(), anyLong()))
+                .thenReturn(Optional.of(List.of(() -> mockProvider)));
+
+        GtfsSpecRepository.RawEntityParser mockParser = mock(GtfsSpecRepository.RawEntityParser.class);
+        when(mockParser.validateNonStringTypes(any(RawEntity.class))).thenReturn(Collections.emptyList());
+        when(mockParser.parse(any(RawEntity.class))).thenReturn(testParsedEntity);
+
+        GtfsSpecRepository.ParsedEntityTypeValidator mockValidator =
+                mock(GtfsSpecRepository.ParsedEntityTypeValidator.class);
+        when(mockValidator.validate(any(ParsedEntity.class))).thenReturn(Collections.emptyList());
+
+        GtfsSpecRepository mockSpecRepo = mock(GtfsSpecRepository.class);
+        when(mockSpecRepo.getRequiredHeadersForFile(any(RawFileInfo.class))).thenReturn(List.of("requiredHeader"));
+        when(mockSpecRepo.getOptionalHeadersForFile(any(RawFileInfo.class))).thenReturn(Collections.emptyList());
+        when(mockSpecRepo.getParserForFile(any(RawFileInfo.class))).thenReturn(mockParser);
+        when(mockSpecRepo.getValidatorForFile(any(RawFileInfo.class))).thenReturn(mockValidator);
+
+        ValidationResultRepository mockResultRepo = mock(ValidationResultRepository.class);
+
+        ParseAndValidateAllRowsForFile underTest = new ParseAndValidateAllRowsForFile(
+                RawFileInfo.builder().filename(TEST_TST).build(),
+                mockFileRepo,
+                mockSpecRepo,
+                mockResultRepo,
+                mockExecParamRepo(),
+                Runnable::run,
+                mock(RecordSortRepository.class),
+                mock(MetricsRepository.class),
+                new ProgressTracker()
+        );
+
+        underTest.execute();
+
+        verify(mockFileRepo, times(1))
+                .getProviderChunkListForFile(any(RawFileInfo.class), eq(SPLIT_THRESHOLD), eq(CHUNK_SIZE));
+        verify(mockFileRepo, times(1)).getSizeForFile(any(RawFileInfo.class));
+        verify(mockProvider, times(1)).getHeaders();
+        verify(mockProvider, times(1)).getHeaderCount();
+        verify(mockProvider, times(4)).hasNext();
+        verify(mockProvider, times(3)).getNext();
+        verify(mockProvider, times(1)).close();
+        verify(mockSpecRepo, times(1)).getRequiredHeadersForFile(any(RawFileInfo.class));
+        verify(mockSpecRepo, times(1)).getOptionalHeadersForFile(any(RawFileInfo.class));
+        verify(mockSpecRepo, times(1)).getParserForFile(any(RawFileInfo.class));
+        verify(mockSpecRepo, times(1)).getValidatorForFile(any(RawFileInfo.class));
+        verify(mockSpecRepo, times(1)).getRowOrderForFile(any(RawFileInfo.class));
+        verify(mockParser, times(3)).validateNonStringTypes(testRawEntity);
+        verify(mockParser, times(3)).parse(testRawEntity);
+        verify(mockValidator, times(3)).validate(testParsedEntity);
+        verifyNoInteractions(mockResultRepo);
+        verifyNoMoreInteractions(mockFileRepo, mockSpecRepo, mockResultRepo, mockParser, mockValidator,
+                mockProvider);
+    }
+
+    @Test
+    void invalidFileShouldGenerateSameNoticesAsSeparateUseCases() {
+        RawEntity testRawEntity = new RawEntity(Map.of("extraHeader", "testValue"), 2);
+        ParsedEntity testParsedEntity = mock(ParsedEntity.class);
+
+        RawFileRepository.RawEntityProvider mockProvider = mock(RawFileRepository.RawEntityProvider.class);
+        when(mockProvider.hasNext()).thenReturn(true, true, false);
+        when(mockProvider.getNext()).thenReturn(testRawEntity);
+        when(mockProvider.getHeaderCount()).thenReturn(3);
+        when(mockProvider.getHeaders()).thenReturn(List.of("extraHeader"));
+
+        RawFileRepository mockFileRepo = mock(RawFileRepository.class);
+        when(mockFileRepo.getProviderChunkListForFile(any(RawFileInfo.class), anyLong(), anyLong()))
+                .thenReturn(Optional.of(List.of(() -> mockProvider)));
+
+        ErrorNotice parserNotice = mock(ErrorNotice.class);
+        GtfsSpecRepository.RawEntityParser mockParser = mock(GtfsSpecRepository.RawEntityParser.class);
+        when(mockParser.validateNonStringTypes(any(RawEntity.class))).thenReturn(List.of(parserNotice));
+        when(mockParser.parse(any(RawEntity.class))).thenReturn(testParsedEntity);
+
+        WarningNotice validatorNotice = mock(WarningNotice.class);
+        GtfsSpecRepository.ParsedEntityTypeValidator mockValidator =
+                mock(GtfsSpecRepository.ParsedEntityTypeValidator.class);
+        when(mockValidator.validate(any(ParsedEntity.class))).thenReturn(List.of(validatorNotice));
+
+        GtfsSpecRepository mockSpecRepo = mock(GtfsSpecRepository.class);
+        when(mockSpecRepo.getRequiredHeadersForFile(any(RawFileInfo.class))).thenReturn(List.of("requiredHeader"));
+        when(mockSpecRepo.getOptionalHeadersForFile(any(RawFileInfo.class))).thenReturn(Collections.emptyList());
+        when(mockSpecRepo.getParserForFile(any(RawFileInfo.class))).thenReturn(mockParser);
+        when(mockSpecRepo.getValidatorForFile(any(RawFileInfo.class))).thenReturn(mockValidator);
+
+        ValidationResultRepository mockResultRepo = mock(ValidationResultRepository.class);
+
+        ParseAndValidateAllRowsForFile underTest = new ParseAndValidateAllRowsForFile(
+                RawFileInfo.builder().filename(TEST_TST).build(),
+                mockFileRepo,
+                mockSpecRepo,
+                mockResultRepo,
+                mockExecParamRepo(),
+                Runnable::run,
+                mock(RecordSortRepository.class),
+                mock(MetricsRepository.class),
+                new ProgressTracker()
+        );
+
+        underTest.execute();
+
+        verify(mockResultRepo, times(1)).addNotice(any(MissingHeaderNotice.class));
+        verify(mockResultRepo, times(1)).addNotice(any(NonStandardHeaderNotice.class));
+        verify(mockResultRepo, times(2)).addNotice(any(InvalidRowLengthNotice.class));
+        verify(mockResultRepo, times(2)).addNotice(parserNotice);
+        verify(mockResultRepo, times(2)).addNotice(validatorNotice);
+        verify(mockProvider, times(3)).hasNext();
+        verify(mockProvider, times(2)).getNext();
+        verify(mockProvider, times(1)).close();
+        verify(mockFileRepo, times(1))
+                .getProviderChunkListForFile(any(RawFileInfo.class), eq(SPLIT_THRESHOLD), eq(CHUNK_SIZE));
+        verify(mockFileRepo, times(1)).getSizeForFile(any(RawFileInfo.class));
+        verifyNoMoreInteractions(mockFileRepo);
+    }
+
+    @Test
+    void dataProviderConstructionIssueShouldGenerateSingleError() {
+        RawFileRepository mockFileRepo = mock(RawFileRepository.class);
+        when(mockFileRepo.getProviderChunkListForFile(any(RawFileInfo.class), anyLong(), anyLong()))
+                .thenReturn(Optional.empty());
+
+        GtfsSpecRepository mockSpecRepo = mock(GtfsSpecRepository.class);
+        ValidationResultRepository mockResultRepo = mock(ValidationResultRepository.class);
+
+        ParseAndValidateAllRowsForFile underTest = new ParseAndValidateAllRowsForFile(
+                RawFileInfo.builder().filename(TEST_TST).build(),
+                mockFileRepo,
+                mockSpecRepo,
+                mockResultRepo,
+                mockExecParamRepo(),
+                Runnable::run,
+                mock(RecordSortRepository.class),
+                mock(MetricsRepository.class),
+                new ProgressTracker()
+        );
+
+        underTest.execute();
+
+        verify(mockFileRepo, times(1))
+                .getProviderChunkListForFile(any(RawFileInfo.class), eq(SPLIT_THRESHOLD), eq(CHUNK_SIZE));
+        verify(mockResultRepo, times(1)).addNotice(any(CannotConstructDataProviderNotice.class));
+        verifyNoInteractions(mockSpecRepo);
+        verifyNoMoreInteractions(mockFileRepo, mockResultRepo);
+    }
+
+    @Test
+    void splitFileShouldAddNoticesInRowOrder() {
+        RawEntity firstRawEntity = new RawEntity(Map.of("requiredHeader", "first"), 2);
+        RawEntity secondRawEntity = new RawEntity(Map.of("requiredHeader", "second"), 3);
+        ParsedEntity firstParsedEntity = mock(ParsedEntity.class);
+        ParsedEntity secondParsedEntity = mock(ParsedEntity.class);
+
+        RawFileRepository.RawEntityProvider mockFirstProvider = mock(RawFileRepository.RawEntityProvider.class);
+        when(mockFirstProvider.hasNext()).thenReturn(true, false);
+        when(mockFirstProvider.getNext()).thenReturn(firstRawEntity);
+        when(mockFirstProvider.getHeaderCount()).thenReturn(1);
+        when(mockFirstProvider.getHeaders()).thenReturn(List.of("requiredHeader"));
+
+        RawFileRepository.RawEntityProvider mockSecondProvider = mock(RawFileRepository.RawEntityProvider.class);
+        when(mockSecondProvider.hasNext()).thenReturn(true, false);
+        when(mockSecondProvider.getNext()).thenReturn(secondRawEntity);
+        when(mockSecondProvider.getHeaderCount()).thenReturn(1);
+
+        RawFileRepository mockFileRepo = mock(RawFileRepository.class);
+        when(mockFileRepo.getProviderChunkListForFile(any(RawFileInfo.class), anyLong(), anyLong()))
+                .thenReturn(Optional.of(List.of(() -> mockFirstProvider, () -> mockSecondProvider)));
+
+        ErrorNotice firstNotice = mock(ErrorNotice.class);
+        ErrorNotice secondNotice = mock(ErrorNotice.class);
+        GtfsSpecRepository.RawEntityParser mockParser = mock(GtfsSpecRepository.RawEntityParser.class);
+        when(mockParser.validateNonStringTypes(firstRawEntity)).thenReturn(List.of(firstNotice));
+        when(mockParser.validateNonStringTypes(secondRawEntity)).thenReturn(List.of(secondNotice));
+        when(mockParser.parse(firstRawEntity)).thenReturn(firstParsedEntity);
+        when(mockParser.parse(secondRawEntity)).thenReturn(secondParsedEntity);
+
+        GtfsSpecRepository.ParsedEntityTypeValidator mockValidator =
+                mock(GtfsSpecRepository.ParsedEntityTypeValidator.class);
+        when(mockValidator.validate(any(ParsedEntity.class))).thenReturn(Collections.emptyList());
+
+        GtfsSpecRepository mockSpecRepo = mock(GtfsSpecRepository.class);
+        when(mockSpecRepo.getRequiredHeadersForFile(any(RawFileInfo.class))).thenReturn(List.of("requiredHeader"));
+        when(mockSpecRepo.getOptionalHeadersForFile(any(RawFileInfo.class))).thenReturn(Collections.emptyList());
+        when(mockSpecRepo.getParserForFile(any(RawFileInfo.class))).thenReturn(mockParser);
+        when(mockSpecRepo.getValidatorForFile(any(RawFileInfo.class))).thenReturn(mockValidator);
+
+        ValidationResultRepository mockResultRepo = mock(ValidationResultRepository.class);
+
+        // the second range is validated before the first one, notices must still be added in row order
+        List<Runnable> submittedTaskList = new ArrayList<>();
+        ParseAndValidateAllRowsForFile underTest = new ParseAndValidateAllRowsForFile(
+                RawFileInfo.builder().filename(TEST_TST).build(),
+                mockFileRepo,
+                mockSpecRepo,
+                mockResultRepo,
+                mockExecParamRepo(),
+                runnable -> {
+                    submittedTaskList.add(runnable);
+                    if (submittedTaskList.size() == 2) {
+                        submittedTaskList.get(1).run();
+                        submittedTaskList.get(0).run();
+                    }
+                },
+                mock(RecordSortRepository.class),
+                mock(MetricsRepository.class),
+                new ProgressTracker()
+        );
+
+        underTest.execute();
+
+        InOrder inOrder = Mockito.inOrder(mockResultRepo);
+        inOrder.verify(mockResultRepo, times(1)).addNotice(firstNotice);
+        inOrder.verify(mockResultRepo, times(1)).addNotice(secondNotice);
+        verify(mockSpecRepo, times(2)).getParserForFile(any(RawFileInfo.class));
+        verify(mockSpecRepo, times(1)).getValidatorForFile(any(RawFileInfo.class));
+        verify(mockSpecRepo, times(1)).getRowOrderForFile(any(RawFileInfo.class));
+        verify(mockSecondProvider, never()).getHeaders();
+        verify(mockSecondProvider, times(1)).close();
+        verify(mockValidator, times(1)).validate(firstParsedEntity);
+        verify(mockValidator, times(1)).validate(secondParsedEntity);
+        verifyNoMoreInteractions(mockResultRepo);
+    }
+
+    @Test
+    void splitFileShouldOpenRangesWhenValidatedAndCloseThemWhenOneFails() {
+        RawEntity testRawEntity = new RawEntity(Map.of("requiredHeader", "testValue"), 2);
+
+        RawFileRepository.RawEntityProvider mockFirstProvider = mock(RawFileRepository.RawEntityProvider.class);
+        when(mockFirstProvider.hasNext()).thenReturn(true, false);
+        when(mockFirstProvider.getNext()).thenReturn(testRawEntity);
+        when(mockFirstProvider.getHeaderCount()).thenReturn(1);
+        when(mockFirstProvider.getHeaders()).thenReturn(List.of("requiredHeader"));
+
+        RawFileRepository.RawEntityProvider mockFailingProvider = mock(RawFileRepository.RawEntityProvider.class);
+        when(mockFailingProvider.hasNext()).thenReturn(true);
+        when(mockFailingProvider.getNext()).thenThrow(new IllegalStateException("unreadable range"));
+
+        List<RawFileRepository.RawEntityProvider> openedProviderList = new ArrayList<>();
+        List<Supplier<RawFileRepository.RawEntityProvider>> providerSupplierList = new ArrayList<>();
+        providerSupplierList.add(() -> mockFirstProvider);
+        providerSupplierList.add(() -> {
+            openedProviderList.add(mockFailingProvider);
+            return mockFailingProvider;
+        });
+        for (int i = 0; i < 3; ++i) {
+            providerSupplierList.add(() -> {
+                RawFileRepository.RawEntityProvider mockProvider = mock(RawFileRepository.RawEntityProvider.class);
+                openedProviderList.add(mockProvider);
+                return mockProvider;
+            });
+        }
+
+        RawFileRepository mockFileRepo = mock(RawFileRepository.class);
+        when(mockFileRepo.getProviderChunkListForFile(any(RawFileInfo.class), anyLong(), anyLong()))
+                .thenReturn(Optional.of(providerSupplierList));
+
+        GtfsSpecRepository.RawEntityParser mockParser = mock(GtfsSpecRepository.RawEntityParser.class);
+        when(mockParser.validateNonStringTypes(any(RawEntity.class))).thenReturn(Collections.emptyList());
+        when(mockParser.parse(any(RawEntity.class))).thenReturn(mock(ParsedEntity.class));
+
+        GtfsSpecRepository.ParsedEntityTypeValidator mockValidator =
+                mock(GtfsSpecRepository.ParsedEntityTypeValidator.class);
+        when(mockValidator.validate(any(ParsedEntity.class))).thenReturn(Collections.emptyList());
+
+        GtfsSpecRepository mockSpecRepo = mock(GtfsSpecRepository.class);
+        when(mockSpecRepo.getRequiredHeadersForFile(any(RawFileInfo.class))).thenReturn(List.of("requiredHeader"));
+        when(mockSpecRepo.getOptionalHeadersForFile(any(RawFileInfo.class))).thenReturn(Collections.emptyList());
+        when(mockSpecRepo.getParserForFile(any(RawFileInfo.class))).thenReturn(mockParser);
+        when(mockSpecRepo.getValidatorForFile(any(RawFileInfo.class))).thenReturn(mockValidator);
+
+        ParseAndValidateAllRowsForFile underTest = new ParseAndValidateAllRowsForFile(
+                RawFileInfo.builder().filename(TEST_TST).build(),
+                mockFileRepo,
+                mockSpecRepo,
+                mock(ValidationResultRepository.class),
+                mockExecParamRepo(),
+                Runnable::run,
+                mock(RecordSortRepository.class),
+                mock(MetricsRepository.class),
+                new ProgressTracker()
+        );
+
+        assertThrows(CompletionException.class, underTest::execute);
+
+        // two ranges are in flight at once: the range following the failing one is the last one opened
+        assertEquals(2, openedProviderList.size());
+        verify(mockFirstProvider, atLeastOnce()).close();
+        openedProviderList.forEach(provider -> verify(provider, times(1)).close());
+    }
+}
@@ -32,6 +32,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -52,7 +54,7 @@ class ParseSingleRowForFileTest {
         when(mockFileRepo.getProviderForFile(any(RawFileInfo.class))).thenReturn(Optional.of(mockProvider));
 
         GtfsSpecRepository mockSpecRepo = mock(GtfsSpecRepository.class);
-        when(mockSpecRepo.getParserForFile(any(RawFileInfo.class))).thenReturn(mockParser);
+        when(mockSpecRepo.getDeduplicatingParserForFile(any(RawFileInfo.class))).thenReturn(mockParser);
 
         ValidationResultRepository mockResultRepo = mock(ValidationResultRepository.class);
 
@@ -67,11 +69,13 @@ class ParseSingleRowForFileTest {
         underTest.execute();
         underTest.execute();
         underTest.execute();
+        underTest.execute();
 
         InOrder inOrder = Mockito.inOrder(mockFileRepo, mockSpecRepo);
 
         inOrder.verify(mockFileRepo, times(1)).getProviderForFile(any(RawFileInfo.class));
-        inOrder.verify(mockSpecRepo, times(1)).getParserForFile(any(RawFileInfo.class));
+        inOrder.verify(mockSpecRepo, times(1)).getDeduplicatingParserForFile(any(RawFileInfo.class));
+        inOrder.verify(mockSpecRepo, times(1)).releaseColumnDictionariesForFile(any(RawFileInfo.class));
         verify(mockParser, times(3)).validateNonStringTypes(any(RawEntity.class));
         verify(mockParser, times(3)).parse(any(RawEntity.class));
         verify(mockProvider, times(4)).hasNext();
@@ -80,6 +84,45 @@ class ParseSingleRowForFileTest {
         verifyNoMoreInteractions(mockFileRepo, mockSpecRepo, mockResultRepo, mockParser, mockProvider);
     }
 
+    @Test
+    void dictionariesShouldBeReleasedOnceHasNextReturnsFalse() {
+
+        RawFileRepository.RawEntityProvider mockProvider = mock(RawFileRepository.RawEntityProvider.class);
+        // hasNext is called by the loop and by execute for each row
+        when(mockProvider.hasNext()).thenReturn(true, true, true, true, false);
+        RawEntity testRawEntity = new RawEntity(Map.of("testKey","testValue"), 0);
+        when(mockProvider.getNext()).thenReturn(testRawEntity);
+
+        GtfsSpecRepository.RawEntityParser mockParser = mock(GtfsSpecRepository.RawEntityParser.class);
+        when(mockParser.validateNonStringTypes(any(RawEntity.class))).thenReturn(Collections.emptyList());
+
+        RawFileRepository mockFileRepo = mock(RawFileRepository.class);
+        when(mockFileRepo.getProviderForFile(any(RawFileInfo.class))).thenReturn(Optional.of(mockProvider));
+
+        GtfsSpecRepository mockSpecRepo = mock(GtfsSpecRepository.class);
+        when(mockSpecRepo.getDeduplicatingParserForFile(any(RawFileInfo.class))).thenReturn(mockParser);
+
+        ValidationResultRepository mockResultRepo = mock(ValidationResultRepository.class);
+
+        ParseSingleRowForFile underTest = new ParseSingleRowForFile(
+                RawFileInfo.builder().filename("test.tst").build(),
+                mockFileRepo,
+                mockSpecRepo,
+                mockResultRepo
+        );
+
+        int rowCount = 0;
+        while (underTest.hasNext()) {
+            underTest.execute();
+            ++rowCount;
+        }
+
+        assertEquals(2, rowCount);
+        assertFalse(underTest.hasNext());
+        verify(mockSpecRepo, times(1)).releaseColumnDictionariesForFile(any(RawFileInfo.class));
+        verify(mockParser, times(2)).parse(any(RawEntity.class));
+    }
+
     @Test
     void shouldWriteNoticesToRepo() {
 
@@ -96,7 +139,7 @@ class ParseSingleRowForFileTest {
         when(mockFileRepo.getProviderForFile(any(RawFileInfo.class))).thenReturn(Optional.of(mockProvider));
 
         GtfsSpecRepository mockSpecRepo = mock(GtfsSpecRepository.class);
-        when(mockSpecRepo.getParserForFile(any(RawFileInfo.class))).thenReturn(mockParser);
+        when(mockSpecRepo.getDeduplicatingParserForFile(any(RawFileInfo.class))).thenReturn(mockParser);
 
         ValidationResultRepository mockResultRepo = mock(ValidationResultRepository.class);
 
@@ -114,7 +157,7 @@ class ParseSingleRowForFileTest {
         InOrder inOrder = Mockito.inOrder(mockFileRepo, mockSpecRepo);
 
         inOrder.verify(mockFileRepo, times(1)).getProviderForFile(any(RawFileInfo.class));
-        inOrder.verify(mockSpecRepo, times(1)).getParserForFile(any(RawFileInfo.class));
+        inOrder.verify(mockSpecRepo, times(1)).getDeduplicatingParserForFile(any(RawFileInfo.class));
         verify(mockParser, times(3)).validateNonStringTypes(any(RawEntity.class));
         verify(mockParser, times(3)).parse(any(RawEntity.class));
         verify(mockProvider, times(3)).hasNext();
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntitySchema;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProgressTrackerTest {
+    private static final String FILENAME = "test.tst";
+
+    // a row of 3 values of 2 characters: 6 characters, 2 separators and a line end
+    private static RawEntity createRow() {
+        return new RawEntity(new RawEntitySchema(List.of("a", "b", "c")), new String[]{"aa", "bb", "cc"}, 1);
+    }
+
+    @Test
+    void rowCountShouldBeEstimatedFromSizeAndSampledRowLength() {
+        ProgressTracker underTest = new ProgressTracker();
+        ProgressTracker.FileProgress fileProgress = underTest.startFile(FILENAME, 9 * 10_000);
+
+        assertEquals(-1, fileProgress.getEstimatedRowCount());
+        assertEquals(0, fileProgress.getDoneFraction());
+
+        fileProgress.addSample(createRow());
+        fileProgress.addSample(createRow());
+
+        assertEquals(2 * ProgressTracker.SAMPLE_INTERVAL, fileProgress.getRowCount());
+        assertEquals(10_000, fileProgress.getEstimatedRowCount());
+        assertEquals(2 * ProgressTracker.SAMPLE_INTERVAL / 10_000.0, fileProgress.getDoneFraction(), 1e-9);
+    }
+
+    @Test
+    void doneFileShouldReportItsExactRowCount() {
+        ProgressTracker underTest = new ProgressTracker();
+        ProgressTracker.FileProgress fileProgress = underTest.startFile(FILENAME, 9 * 10_000);
+
+        fileProgress.addSample(createRow());
+        fileProgress.addRows(3);
+        fileProgress.finish();
+
+        assertTrue(fileProgress.isDone());
+        assertEquals(ProgressTracker.SAMPLE_INTERVAL + 3, fileProgress.getEstimatedRowCount());
+        assertEquals(1, fileProgress.getDoneFraction());
+    }
+
+    @Test
+    void expectedFileShouldBeStartedOnce() {
+        ProgressTracker underTest = new ProgressTracker();
+        ProgressTracker.FileProgress expected = underTest.expectFile(FILENAME, -1);
+
+        assertFalse(expected.isStarted());
+
+        ProgressTracker.FileProgress started = underTest.startFile(FILENAME, 100);
+
+        assertEquals(expected, started);
+        assertTrue(started.isStarted());
+        assertEquals(100, started.getByteCount());
+        assertEquals(List.of(FILENAME), underTest.getFileProgressList().stream()
+                .map(ProgressTracker.FileProgress::getFilename)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void noticesShouldBeCountedById() {
+        Notice firstNotice = mock(Notice.class);
+        when(firstNotice.getId()).thenReturn("E001");
+        Notice secondNotice = mock(Notice.class);
+        when(secondNotice.getId()).thenReturn("W002");
+        ProgressTracker underTest = new ProgressTracker();
+
+        underTest.countNotice(firstNotice);
+        underTest.countNotice(secondNotice);
+        underTest.countNotice(firstNotice);
+
+        assertEquals(Map.of("E001", 2L, "W002", 1L), underTest.getNoticeCountById());
+    }
+}
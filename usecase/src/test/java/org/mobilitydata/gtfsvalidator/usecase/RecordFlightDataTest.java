@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class RecordFlightDataTest {
+
+    @Test
+    void noDestinationShouldRecordNothing() {
+        ExecParamRepository mockExecParamRepo = mock(ExecParamRepository.class);
+        Logger mockLogger = mock(Logger.class);
+
+        RecordFlightData underTest = new RecordFlightData(mockExecParamRepo, mockLogger);
+        underTest.execute();
+        underTest.close();
+
+        verify(mockExecParamRepo, times(1)).getExecParamValue(ExecParamRepository.JFR_KEY);
+        verifyNoInteractions(mockLogger);
+    }
+
+    @Test
+    void recordingShouldBeWrittenToDestinationOnClose() throws IOException {
+        Path destination = Files.createTempDirectory("jfr").resolve("validation.jfr");
+        ExecParamRepository mockExecParamRepo = mock(ExecParamRepository.class);
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.JFR_KEY)).thenReturn(destination.toString());
+
+        try {
+            RecordFlightData underTest = new RecordFlightData(mockExecParamRepo, mock(Logger.class));
+            underTest.execute();
+            StageTimer.start("test", null).stop();
+            underTest.close();
+
+            assertTrue(Files.size(destination) > 0);
+        } finally {
+            Files.deleteIfExists(destination);
+            Files.deleteIfExists(destination.getParent());
+        }
+    }
+}
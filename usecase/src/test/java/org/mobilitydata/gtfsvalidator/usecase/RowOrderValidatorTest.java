@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.domain.entity.ParsedEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.domain.entity.RowOrder;
+import org.mobilitydata.gtfsvalidator.domain.entity.SortedRecord;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.UnsortedKeyNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.NonContiguousKeyNotice;
+import org.mobilitydata.gtfsvalidator.usecase.port.RecordSortRepository;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowOrderValidatorTest {
+
+    private static final String STOP_TIMES_TXT = "stop_times.txt";
+    private static final RowOrder STOP_TIMES_ORDER = new RowOrder(STOP_TIMES_TXT,
+            List.of("trip_id", "stop_sequence"), List.of("arrival_time", "shape_dist_traveled"));
+
+    private static ParsedEntity stopTime(final String tripId,
+                                         final int stopSequence,
+                                         final String arrivalTime,
+                                         final Float shapeDistTraveled) {
+        final Map<String, Object> contentByHeaderMap = new HashMap<>();
+        contentByHeaderMap.put("trip_id", tripId);
+        contentByHeaderMap.put("stop_sequence", stopSequence);
+        contentByHeaderMap.put("arrival_time", arrivalTime);
+        contentByHeaderMap.put("shape_dist_traveled", shapeDistTraveled);
+        return new ParsedEntity(null, contentByHeaderMap, RawFileInfo.builder().filename(STOP_TIMES_TXT).build());
+    }
+
+    private static List<Notice> validate(final RowOrderValidator underTest,
+                                         final int firstLineNumber,
+                                         final ParsedEntity... parsedEntities) {
+        final List<Notice> noticeList = new ArrayList<>();
+        for (int i = 0; i < parsedEntities.length; ++i) {
+            underTest.validate(parsedEntities[i], firstLineNumber + i, noticeList::add);
+        }
+        return noticeList;
+    }
+
+    @Test
+    void sortedRowsShouldGenerateNoNotice() {
+        RowOrderValidator underTest = new RowOrderValidator(STOP_TIMES_TXT, STOP_TIMES_ORDER, false);
+
+        assertTrue(validate(underTest, 2,
+                stopTime("T1", 1, "08:00:00", 0f),
+                stopTime("T1", 2, null, null),
+                stopTime("T1", 3, "08:10:00", 1.5f),
+                stopTime("T2", 1, "7:00:00", 0f),
+                stopTime("T2", 5, "07:05:00", 0f)).isEmpty());
+    }
+
+    @Test
+    void decreasingValueShouldGenerateUnsortedKeyNotice() {
+        RowOrderValidator underTest = new RowOrderValidator(STOP_TIMES_TXT, STOP_TIMES_ORDER, false);
+
+        List<Notice> noticeList = validate(underTest, 2,
+                stopTime("T1", 1, "08:00:00", 0f),
+                stopTime("T1", 2, null, 1f),
+                stopTime("T1", 3, "07:59:00", 2f));
+
+        assertEquals(1, noticeList.size());
+        UnsortedKeyNotice notice = (UnsortedKeyNotice) noticeList.get(0);
+        assertEquals("arrival_time", notice.getFieldName());
+        assertEquals(4, notice.getLineNumber());
+        assertEquals("07:59:00", notice.getRawValue());
+        assertEquals("08:00:00", notice.getPreviousValue());
+        assertEquals("trip_id", notice.getGroupFieldName());
+        assertEquals("T1", notice.getGroupValue());
+    }
+
+    @Test
+    void groupFoundAgainShouldGenerateNonContiguousKeyNoticeOnce() {
+        RowOrderValidator underTest = new RowOrderValidator(STOP_TIMES_TXT, STOP_TIMES_ORDER, false);
+
+        List<Notice> noticeList = validate(underTest, 2,
+                stopTime("T1", 1, "08:00:00", 0f),
+                stopTime("T2", 1, "09:00:00", 0f),
+                stopTime("T1", 2, "07:00:00", 1f),
+                stopTime("T2", 2, "09:10:00", 1f),
+                stopTime("T1", 3, "06:00:00", 2f));
+
+        assertEquals(2, noticeList.size());
+        NonContiguousKeyNotice notice = (NonContiguousKeyNotice) noticeList.get(0);
+        assertEquals("trip_id", notice.getFieldName());
+        assertEquals(4, notice.getLineNumber());
+        assertEquals("T1", notice.getRawValue());
+        assertEquals("T2", ((NonContiguousKeyNotice) noticeList.get(1)).getRawValue());
+    }
+
+    @Test
+    void decreasingSequenceShouldGenerateNonContiguousKeyNoticeAndStopChecks() {
+        RowOrderValidator underTest = new RowOrderValidator(STOP_TIMES_TXT, STOP_TIMES_ORDER, false);
+
+        List<Notice> noticeList = validate(underTest, 2,
+                stopTime("T1", 2, "08:10:00", 0f),
+                stopTime("T1", 1, "08:00:00", 0f),
+                stopTime("T1", 3, "07:00:00", 0f));
+
+        assertEquals(1, noticeList.size());
+        NonContiguousKeyNotice notice = (NonContiguousKeyNotice) noticeList.get(0);
+        assertEquals("trip_id,stop_sequence", notice.getFieldName());
+        assertEquals(3, notice.getLineNumber());
+        assertEquals("T1,1", notice.getRawValue());
+    }
+
+    @Test
+    void groupSpanningRangesShouldBeCheckedWhenMerged() {
+        RowOrderValidator firstRange = new RowOrderValidator(STOP_TIMES_TXT, STOP_TIMES_ORDER, true);
+        RowOrderValidator secondRange = new RowOrderValidator(STOP_TIMES_TXT, STOP_TIMES_ORDER, true);
+        assertTrue(validate(firstRange, 2,
+                stopTime("T1", 1, "08:00:00", 0f),
+                stopTime("T2", 1, "09:00:00", 0f)).isEmpty());
+        assertTrue(validate(secondRange, 4,
+                stopTime("T2", 2, "08:50:00", 1f),
+                stopTime("T3", 1, "10:00:00", 0f)).isEmpty());
+
+        List<Notice> noticeList = new ArrayList<>();
+        RowOrderValidator.Merger underTest = new RowOrderValidator.Merger();
+        underTest.merge(firstRange, noticeList::add);
+        underTest.merge(secondRange, noticeList::add);
+
+        assertEquals(1, noticeList.size());
+        UnsortedKeyNotice notice = (UnsortedKeyNotice) noticeList.get(0);
+        assertEquals("arrival_time", notice.getFieldName());
+        assertEquals(4, notice.getLineNumber());
+        assertEquals("08:50:00", notice.getRawValue());
+        assertEquals("09:00:00", notice.getPreviousValue());
+    }
+
+    @Test
+    void groupFoundAgainInLaterRangeShouldGenerateNonContiguousKeyNoticeWhenMerged() {
+        RowOrderValidator firstRange = new RowOrderValidator(STOP_TIMES_TXT, STOP_TIMES_ORDER, true);
+        RowOrderValidator secondRange = new RowOrderValidator(STOP_TIMES_TXT, STOP_TIMES_ORDER, true);
+        validate(firstRange, 2,
+                stopTime("T1", 1, "08:00:00", 0f),
+                stopTime("T2", 1, "09:00:00", 0f));
+        validate(secondRange, 4,
+                stopTime("T3", 1, "10:00:00", 0f),
+                stopTime("T1", 2, "08:10:00", 1f));
+
+        List<Notice> noticeList = new ArrayList<>();
+        RowOrderValidator.Merger underTest = new RowOrderValidator.Merger();
+        underTest.merge(firstRange, noticeList::add);
+        underTest.merge(secondRange, noticeList::add);
+
+        assertEquals(1, noticeList.size());
+        NonContiguousKeyNotice notice = (NonContiguousKeyNotice) noticeList.get(0);
+        assertEquals("trip_id", notice.getFieldName());
+        assertEquals(5, notice.getLineNumber());
+        assertEquals("T1", notice.getRawValue());
+    }
+
+    @Test
+    void timeShouldBeParsedAsSeconds() {
+        assertEquals(8 * 3600 + 5 * 60 + 3, RowOrderValidator.parseTime("8:05:03"));
+        assertEquals(25 * 3600, RowOrderValidator.parseTime("25:00:00"));
+        assertTrue(Double.isNaN(RowOrderValidator.parseTime("08:60:00")));
+        assertTrue(Double.isNaN(RowOrderValidator.parseTime("8h05")));
+        assertTrue(Double.isNaN(RowOrderValidator.parseTime("")));
+    }
+
+    @Test
+    void groupsOutOfOrderShouldBeCheckedOnceSorted() {
+        ParsedEntity[] parsedEntities = {
+                stopTime("T1", 1, "08:00:00", 0f),
+                stopTime("T1", 2, "07:00:00", 1f),
+                stopTime("T2", 1, "09:00:00", 0f),
+                stopTime("T1", 4, "06:00:00", 3f),
+                stopTime("T1", 3, "08:30:00", 2f)};
+        RowOrderValidator streamingValidator = new RowOrderValidator(STOP_TIMES_TXT, STOP_TIMES_ORDER, false);
+        List<Notice> noticeList = validate(streamingValidator, 2, parsedEntities);
+        assertEquals(2, noticeList.size());
+        assertEquals(3, ((UnsortedKeyNotice) noticeList.get(0)).getLineNumber());
+        assertEquals("T1", ((NonContiguousKeyNotice) noticeList.get(1)).getRawValue());
+
+        List<SortedRecord> recordList = new ArrayList<>();
+        RecordSortRepository.RecordSorter mockSorter = new RecordSortRepository.RecordSorter() {
+            @Override
+            public void add(final SortedRecord record) {
+                recordList.add(record);
+            }
+
+            @Override
+            public Iterator<List<SortedRecord>> getGroupIterator() {
+                return recordList.stream()
+                        .sorted(Comparator.comparingDouble(SortedRecord::getSortValue))
+                        .collect(Collectors.groupingBy(SortedRecord::getGroupKey, TreeMap::new, Collectors.toList()))
+                        .values().iterator();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        RowOrderValidator underTest = new RowOrderValidator(STOP_TIMES_TXT, STOP_TIMES_ORDER, false);
+        for (int i = 0; i < parsedEntities.length; ++i) {
+            underTest.collect(parsedEntities[i], 2 + i, streamingValidator.getOutOfOrderGroupHashes(), mockSorter);
+        }
+        assertEquals(4, recordList.size());
+
+        noticeList.clear();
+        underTest.validateSortedGroups(mockSorter.getGroupIterator(), streamingValidator.getUnsortedRowKeys(),
+                noticeList::add);
+
+        // 07:00:00 at line 3 was already reported, 06:00:00 follows 08:30:00 once sorted
+        assertEquals(1, noticeList.size());
+        UnsortedKeyNotice notice = (UnsortedKeyNotice) noticeList.get(0);
+        assertEquals("arrival_time", notice.getFieldName());
+        assertEquals(5, notice.getLineNumber());
+        assertEquals("06:00:00", notice.getRawValue());
+        assertEquals("08:30:00", notice.getPreviousValue());
+        assertEquals("T1", notice.getGroupValue());
+    }
+}
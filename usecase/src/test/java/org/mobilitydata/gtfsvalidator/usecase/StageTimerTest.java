@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.domain.entity.metrics.StageMetrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageTimerTest {
+    private static final String FILENAME = "test.tst";
+
+    @Test
+    void stopShouldReturnStageFileRowsAndBytes() {
+        StageTimer underTest = StageTimer.start(StageMetrics.ROWS, FILENAME);
+        underTest.addRows(3);
+        underTest.addRows(4);
+        underTest.addBytes(100);
+
+        StageMetrics toCheck = underTest.stop();
+
+        assertEquals(StageMetrics.ROWS, toCheck.getStage());
+        assertEquals(FILENAME, toCheck.getFilename());
+        assertEquals(7, toCheck.getRowCount());
+        assertEquals(100, toCheck.getByteCount());
+        assertTrue(toCheck.getWallTimeNanos() >= 0);
+    }
+
+    @Test
+    void measureShouldAddWorkOfOtherThreads() {
+        StageTimer underTest = StageTimer.start(StageMetrics.ROWS, FILENAME);
+
+        byte[][] allocated = CompletableFuture.supplyAsync(() -> underTest.measure(() -> {
+            underTest.addRows(1);
+            return new byte[4][1 << 20];
+        })).join();
+
+        StageMetrics toCheck = underTest.stop();
+
+        assertEquals(4, allocated.length);
+        assertEquals(1, toCheck.getRowCount());
+        if (toCheck.getAllocatedBytes() >= 0) {
+            assertTrue(toCheck.getAllocatedBytes() >= 4 << 20);
+        }
+    }
+
+    @Test
+    void measureOnOwnerThreadShouldNotCountWorkTwice() {
+        StageTimer underTest = StageTimer.start(StageMetrics.ROWS, FILENAME);
+
+        byte[] allocated = underTest.measure(() -> new byte[8 << 20]);
+
+        StageMetrics toCheck = underTest.stop();
+
+        assertEquals(8 << 20, allocated.length);
+        if (toCheck.getAllocatedBytes() >= 0) {
+            assertTrue(toCheck.getAllocatedBytes() >= 8 << 20);
+            assertTrue(toCheck.getAllocatedBytes() < 16 << 20);
+        }
+    }
+
+    @Test
+    void stopShouldEmitStageEventToFlightRecording() throws IOException {
+        Path recordingPath = Files.createTempFile("stage", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(StageEvent.class);
+            recording.start();
+            StageTimer underTest = StageTimer.start(StageMetrics.UNZIP, FILENAME);
+            underTest.addRows(2);
+            underTest.addBytes(10);
+            underTest.stop();
+            recording.stop();
+            recording.dump(recordingPath);
+
+            List<RecordedEvent> eventList = RecordingFile.readAllEvents(recordingPath);
+
+            assertEquals(1, eventList.size());
+            assertEquals(StageMetrics.UNZIP, eventList.get(0).getString("stage"));
+            assertEquals(FILENAME, eventList.get(0).getString("filename"));
+            assertEquals(2, eventList.get(0).getLong("rowCount"));
+            assertEquals(10, eventList.get(0).getLong("byteCount"));
+        } finally {
+            Files.deleteIfExists(recordingPath);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.CannotUnzipInputArchiveNotice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.warning.InputZipContainsFolderNotice;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.MetricsRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UnzipInputArchiveTest {
+
+    private static final String STOP_CONTENT = "stop_id,stop_name\ns0,stop 0\n";
+    private static final String STOP_TIME_CONTENT = "trip_id,stop_id,stop_sequence\n" + "t0,s0,0\n".repeat(100);
+
+    @Test
+    void entriesShouldBeExtractedByDefault(@TempDir Path tempDir) throws IOException {
+        final Path zipPath = writeTestArchive(tempDir);
+        final Path extractPath = Files.createDirectory(tempDir.resolve("extract"));
+        final RawFileRepository mockFileRepo = mock(RawFileRepository.class);
+        final ValidationResultRepository mockResultRepo = mock(ValidationResultRepository.class);
+
+        new UnzipInputArchive(mockFileRepo, extractPath, mockResultRepo, mockExecParamRepo(zipPath, false),
+                mock(Logger.class), mock(MetricsRepository.class)).execute();
+
+        final ArgumentCaptor<RawFileInfo> captor = ArgumentCaptor.forClass(RawFileInfo.class);
+        verify(mockFileRepo, times(2)).create(captor.capture());
+        // the largest entry is extracted first
+        assertEquals("stop_times.txt", captor.getAllValues().get(0).getFilename());
+        assertEquals("stops.txt", captor.getValue().getFilename());
+        assertEquals(extractPath.toAbsolutePath().toString(), captor.getValue().getPath());
+        assertFalse(captor.getValue().isArchiveEntry());
+        assertEquals(STOP_CONTENT, Files.readString(extractPath.resolve("stops.txt")));
+        assertEquals(STOP_TIME_CONTENT, Files.readString(extractPath.resolve("stop_times.txt")));
+        verifyNotices(mockResultRepo);
+    }
+
+    @Test
+    void entriesShouldBeRegisteredWithoutExtractionInNoExtractMode(@TempDir Path tempDir) throws IOException {
+        final Path zipPath = writeTestArchive(tempDir);
+        final RawFileRepository mockFileRepo = mock(RawFileRepository.class);
+        final ValidationResultRepository mockResultRepo = mock(ValidationResultRepository.class);
+
+        new UnzipInputArchive(mockFileRepo, null, mockResultRepo, mockExecParamRepo(zipPath, true),
+                mock(Logger.class), mock(MetricsRepository.class)).execute();
+
+        final ArgumentCaptor<RawFileInfo> captor = ArgumentCaptor.forClass(RawFileInfo.class);
+        verify(mockFileRepo, times(2)).create(captor.capture());
+        assertEquals("stops.txt", captor.getValue().getFilename());
+        assertEquals(zipPath.toAbsolutePath().toString(), captor.getValue().getPath());
+        assertTrue(captor.getValue().isArchiveEntry());
+        try (Stream<Path> fileStream = Files.list(tempDir)) {
+            assertEquals(1, fileStream.count());
+        }
+        verifyNotices(mockResultRepo);
+    }
+
+    @Test
+    void concurrentExtractionShouldRegisterEachFileOnceAndKeepNoticeOrder(@TempDir Path tempDir) throws IOException {
+        final Path zipPath = writeTestArchive(tempDir);
+        final Path extractPath = Files.createDirectory(tempDir.resolve("extract"));
+        final RawFileRepository mockFileRepo = mock(RawFileRepository.class);
+        final ValidationResultRepository mockResultRepo = mock(ValidationResultRepository.class);
+        final Set<String> registeredFilenameSet = ConcurrentHashMap.newKeySet();
+        final ExecutorService extractExecutor = Executors.newFixedThreadPool(4);
+
+        try {
+            new UnzipInputArchive(mockFileRepo, extractPath, mockResultRepo, mockExecParamRepo(zipPath, false),
+                    mock(Logger.class), mock(MetricsRepository.class), extractExecutor)
+                    .execute(fileInfo -> assertTrue(registeredFilenameSet.add(fileInfo.getFilename())));
+        } finally {
+            extractExecutor.shutdown();
+        }
+
+        assertEquals(Set.of("stops.txt", "stop_times.txt"), registeredFilenameSet);
+        verify(mockFileRepo, times(2)).create(any(RawFileInfo.class));
+        assertEquals(STOP_TIME_CONTENT, Files.readString(extractPath.resolve("stop_times.txt")));
+        verifyNotices(mockResultRepo);
+    }
+
+    private static ExecParamRepository mockExecParamRepo(final Path zipPath, final boolean isNoExtract) {
+        final ExecParamRepository mockExecParamRepo = mock(ExecParamRepository.class);
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.ZIP_KEY)).thenReturn(zipPath.toString());
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.NO_EXTRACT_KEY))
+                .thenReturn(String.valueOf(isNoExtract));
+        return mockExecParamRepo;
+    }
+
+    private static void verifyNotices(final ValidationResultRepository mockResultRepo) {
+        final ArgumentCaptor<Notice> captor = ArgumentCaptor.forClass(Notice.class);
+        verify(mockResultRepo, times(2)).addNotice(captor.capture());
+        final List<Notice> noticeList = captor.getAllValues();
+        assertTrue(noticeList.get(0) instanceof InputZipContainsFolderNotice);
+        // entries nested in a folder cannot be extracted, and are not registered without extraction either
+        assertTrue(noticeList.get(1) instanceof CannotUnzipInputArchiveNotice);
+    }
+
+    private static Path writeTestArchive(final Path tempDir) throws IOException {
+        final Path zipPath = tempDir.resolve("input.zip");
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(zipPath))) {
+            zipOutputStream.putNextEntry(new ZipEntry("folder/"));
+            zipOutputStream.closeEntry();
+            zipOutputStream.putNextEntry(new ZipEntry("folder/nested.txt"));
+            zipOutputStream.write("nested".getBytes(StandardCharsets.UTF_8));
+            zipOutputStream.closeEntry();
+            zipOutputStream.putNextEntry(new ZipEntry("stops.txt"));
+            zipOutputStream.write(STOP_CONTENT.getBytes(StandardCharsets.UTF_8));
+            zipOutputStream.closeEntry();
+            zipOutputStream.putNextEntry(new ZipEntry("stop_times.txt"));
+            zipOutputStream.write(STOP_TIME_CONTENT.getBytes(StandardCharsets.UTF_8));
+            zipOutputStream.closeEntry();
+        }
+        return zipPath;
+    }
+}
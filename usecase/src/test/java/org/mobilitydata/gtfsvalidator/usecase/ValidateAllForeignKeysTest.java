@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.domain.entity.ForeignKey;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntitySchema;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.MissingForeignKeyValueNotice;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.GtfsSpecRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.MetricsRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
+import org.mockito.ArgumentCaptor;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ValidateAllForeignKeysTest {
+
+    private static final ForeignKey STOP_TIMES_TRIP_ID = new ForeignKey("stop_times.txt", List.of("trip_id"),
+            List.of(new ForeignKey.ReferencedKey("trips.txt", List.of("trip_id"))));
+    private static final ForeignKey TRIPS_SERVICE_ID = new ForeignKey("trips.txt", List.of("service_id"),
+            List.of(new ForeignKey.ReferencedKey("calendar.txt", List.of("service_id")),
+                    new ForeignKey.ReferencedKey("calendar_dates.txt", List.of("service_id"))));
+
+    private static ExecParamRepository mockExecParamRepo() {
+        ExecParamRepository mockExecParamRepo = mock(ExecParamRepository.class);
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.SPLIT_THRESHOLD_KEY)).thenReturn("1000");
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.CHUNK_SIZE_KEY)).thenReturn("100");
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.THREADS_KEY)).thenReturn("1");
+        return mockExecParamRepo;
+    }
+
+    private static RawFileRepository.RawEntityProvider createProvider(final List<String> headerList,
+                                                                      final String[]... rowList) {
+        final RawEntitySchema schema = new RawEntitySchema(headerList);
+        final Iterator<String[]> rowIterator = Arrays.asList(rowList).iterator();
+        return new RawFileRepository.RawEntityProvider() {
+            private int index = 1;
+
+            @Override
+            public boolean hasNext() {
+                return rowIterator.hasNext();
+            }
+
+            @Override
+            public RawEntity getNext() {
+                return new RawEntity(schema, rowIterator.next(), ++index);
+            }
+
+            @Override
+            public int getHeaderCount() {
+                return headerList.size();
+            }
+
+            @Override
+            public Collection<String> getHeaders() {
+                return headerList;
+            }
+
+            @Override
+            public RawEntitySchema getSchema() {
+                return schema;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static RawFileRepository mockFileRepo(
+            final Map<String, List<RawFileRepository.RawEntityProvider>> providerListByFilename) {
+        RawFileRepository mockFileRepo = mock(RawFileRepository.class);
+        when(mockFileRepo.getFilenameAll()).thenReturn(providerListByFilename.keySet());
+        when(mockFileRepo.findByName(anyString())).thenAnswer(invocation -> Optional.of(
+                RawFileInfo.builder().filename(invocation.getArgument(0)).build()));
+        when(mockFileRepo.getProviderChunkListForFile(any(RawFileInfo.class), anyLong(), anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(providerListByFilename.get(
+                        ((RawFileInfo) invocation.getArgument(0)).getFilename()))
+                        .map(providerList -> providerList.stream()
+                                .map(provider -> (Supplier<RawFileRepository.RawEntityProvider>) () -> provider)
+                                .collect(Collectors.toList())));
+        return mockFileRepo;
+    }
+
+    private static List<Notice> execute(final RawFileRepository fileRepo,
+                                        final List<ForeignKey> foreignKeyList,
+                                        final List<String> requiredFilenameList) {
+        GtfsSpecRepository mockSpecRepo = mock(GtfsSpecRepository.class);
+        when(mockSpecRepo.getForeignKeyList()).thenReturn(foreignKeyList);
+        when(mockSpecRepo.getRequiredFilenameList()).thenReturn(requiredFilenameList);
+
+        ValidationResultRepository mockResultRepo = mock(ValidationResultRepository.class);
+
+        new ValidateAllForeignKeys(fileRepo, mockSpecRepo, mockResultRepo, mockExecParamRepo(), Runnable::run,
+                mock(MetricsRepository.class))
+                .execute();
+
+        ArgumentCaptor<Notice> captor = ArgumentCaptor.forClass(Notice.class);
+        verify(mockResultRepo, atLeast(0)).addNotice(captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Test
+    void missingReferenceShouldGenerateNotice() {
+        RawFileRepository mockFileRepo = mockFileRepo(Map.of(
+                "trips.txt", List.of(createProvider(List.of("trip_id"), new String[]{"T1"}, new String[]{"T2"})),
+                "stop_times.txt", List.of(createProvider(List.of("stop_id", "trip_id"),
+                        new String[]{"S1", "T1"}, new String[]{"S1", "T3"}, new String[]{"S1", ""}))));
+
+        List<Notice> noticeList = execute(mockFileRepo, List.of(STOP_TIMES_TRIP_ID), List.of("trips.txt"));
+
+        assertEquals(1, noticeList.size());
+        MissingForeignKeyValueNotice notice = (MissingForeignKeyValueNotice) noticeList.get(0);
+        assertEquals("stop_times.txt", notice.getFilename());
+        assertEquals("trip_id", notice.getFieldName());
+        assertEquals(3, notice.getLineNumber());
+        assertEquals("T3", notice.getRawValue());
+        assertEquals("trips.txt", notice.getReferencedFilename());
+        assertEquals("trip_id", notice.getReferencedFieldName());
+    }
+
+    @Test
+    void referenceFoundInAnyReferencedFileShouldGenerateNoNotice() {
+        RawFileRepository mockFileRepo = mockFileRepo(Map.of(
+                "calendar.txt", List.of(createProvider(List.of("service_id"), new String[]{"WEEK"})),
+                "calendar_dates.txt", List.of(createProvider(List.of("service_id", "date"),
+                        new String[]{"HOLIDAY", "20201225"})),
+                "trips.txt", List.of(createProvider(List.of("service_id"),
+                        new String[]{"WEEK"}, new String[]{"HOLIDAY"}, new String[]{"SUNDAY"}))));
+
+        List<Notice> noticeList = execute(mockFileRepo, List.of(TRIPS_SERVICE_ID), List.of("trips.txt"));
+
+        assertEquals(1, noticeList.size());
+        MissingForeignKeyValueNotice notice = (MissingForeignKeyValueNotice) noticeList.get(0);
+        assertEquals("SUNDAY", notice.getRawValue());
+        assertEquals(4, notice.getLineNumber());
+        assertEquals("calendar.txt,calendar_dates.txt", notice.getReferencedFilename());
+        assertEquals("service_id", notice.getReferencedFieldName());
+    }
+
+    @Test
+    void referencesToMissingRequiredFileShouldNotBeChecked() {
+        RawFileRepository mockFileRepo = mockFileRepo(Map.of(
+                "stop_times.txt", List.of(createProvider(List.of("trip_id"), new String[]{"T1"}))));
+
+        assertEquals(0, execute(mockFileRepo, List.of(STOP_TIMES_TRIP_ID), List.of("trips.txt")).size());
+    }
+
+    @Test
+    void referencesToMissingOptionalFilesShouldGenerateNotice() {
+        RawFileRepository mockFileRepo = mockFileRepo(Map.of(
+                "trips.txt", List.of(createProvider(List.of("service_id"), new String[]{"WEEK"}))));
+
+        List<Notice> noticeList = execute(mockFileRepo, List.of(TRIPS_SERVICE_ID), List.of("trips.txt"));
+
+        assertEquals(1, noticeList.size());
+        assertEquals("WEEK", ((MissingForeignKeyValueNotice) noticeList.get(0)).getRawValue());
+    }
+
+    @Test
+    void referencesToFileLackingKeyColumnShouldNotBeChecked() {
+        RawFileRepository mockFileRepo = mockFileRepo(Map.of(
+                "trips.txt", List.of(createProvider(List.of("route_id"), new String[]{"R1"})),
+                "stop_times.txt", List.of(createProvider(List.of("trip_id"), new String[]{"T1"}))));
+
+        assertEquals(0, execute(mockFileRepo, List.of(STOP_TIMES_TRIP_ID), List.of("trips.txt")).size());
+    }
+
+    @Test
+    void chunksShouldBeIndexedTogetherAndNoticesKeptInRowOrder() {
+        RawFileRepository mockFileRepo = mockFileRepo(Map.of(
+                "trips.txt", List.of(
+                        createProvider(List.of("trip_id"), new String[]{"T1"}),
+                        createProvider(List.of("trip_id"), new String[]{"T2"})),
+                "stop_times.txt", List.of(
+                        createProvider(List.of("trip_id"), new String[]{"T2"}, new String[]{"T4"}),
+                        createProvider(List.of("trip_id"), new String[]{"T1"}, new String[]{"T5"}))));
+
+        List<Notice> noticeList = execute(mockFileRepo, List.of(STOP_TIMES_TRIP_ID), List.of("trips.txt"));
+
+        assertEquals(2, noticeList.size());
+        assertEquals("T4", ((MissingForeignKeyValueNotice) noticeList.get(0)).getRawValue());
+        assertEquals("T5", ((MissingForeignKeyValueNotice) noticeList.get(1)).getRawValue());
+    }
+}
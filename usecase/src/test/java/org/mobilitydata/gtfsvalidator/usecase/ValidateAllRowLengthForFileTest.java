@@ -57,7 +57,7 @@ class ValidateAllRowLengthForFileTest {
         verify(mockFileRepo, times(1)).getProviderForFile(any(RawFileInfo.class));
         verify(mockProvider, times(5)).hasNext();
         verify(mockProvider, times(4)).getNext();
-        verify(mockProvider, times(4)).getHeaderCount();
+        verify(mockProvider, times(1)).getHeaderCount();
         verifyNoInteractions(mockResultRepo);
         verifyNoMoreInteractions(mockFileRepo, mockResultRepo, mockProvider);
     }
@@ -68,9 +68,10 @@ class ValidateAllRowLengthForFileTest {
         RawFileRepository.RawEntityProvider mockProvider = mock(RawFileRepository.RawEntityProvider.class);
         when(mockProvider.hasNext()).thenReturn(true,  true, true, false);
         RawEntity testRawEntity = new RawEntity(Map.of("testKey","testValue"), 0);
-        when(mockProvider.getNext()).thenReturn(testRawEntity);
-        int testFakeSize = testRawEntity.size() + 2;
-        when(mockProvider.getHeaderCount()).thenReturn(testRawEntity.size(), testFakeSize, testFakeSize);
+        RawEntity testInvalidRawEntity = new RawEntity(Map.of("testKey","testValue",
+                "otherKey", "otherValue", "thirdKey", "thirdValue"), 0);
+        when(mockProvider.getNext()).thenReturn(testRawEntity, testInvalidRawEntity, testInvalidRawEntity);
+        when(mockProvider.getHeaderCount()).thenReturn(testRawEntity.size());
 
         RawFileRepository mockFileRepo = mock(RawFileRepository.class);
         when(mockFileRepo.getProviderForFile(any(RawFileInfo.class))).thenReturn(Optional.of(mockProvider));
@@ -90,7 +91,7 @@ class ValidateAllRowLengthForFileTest {
         verify(mockFileRepo, times(1)).getProviderForFile(any(RawFileInfo.class));
         verify(mockProvider, times(4)).hasNext();
         verify(mockProvider, times(3)).getNext();
-        verify(mockProvider, times(5)).getHeaderCount();
+        verify(mockProvider, times(1)).getHeaderCount();
         verify(mockResultRepo, times(2)).addNotice(any(ErrorNotice.class));
         verifyNoMoreInteractions(mockFileRepo, mockResultRepo, mockProvider);
     }
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2020. MobilityData IO.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mobilitydata.gtfsvalidator.usecase;
+
+import org.junit.jupiter.api.Test;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntity;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawEntitySchema;
+import org.mobilitydata.gtfsvalidator.domain.entity.RawFileInfo;
+import org.mobilitydata.gtfsvalidator.domain.entity.UniqueKey;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.base.Notice;
+import org.mobilitydata.gtfsvalidator.domain.entity.notice.error.DuplicatedEntityNotice;
+import org.mobilitydata.gtfsvalidator.usecase.port.ExecParamRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.GtfsSpecRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.MetricsRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.RawFileRepository;
+import org.mobilitydata.gtfsvalidator.usecase.port.ValidationResultRepository;
+import org.mockito.ArgumentCaptor;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ValidateAllUniqueValuesTest {
+
+    private static final UniqueKey STOPS_STOP_ID = new UniqueKey("stops.txt", List.of("stop_id"));
+    private static final UniqueKey STOP_TIMES_RESORTKEY =
+            new UniqueKey("stop_times.txt", List.of("trip_id", "stop_sequence"));
+
+    private static Supplier<RawFileRepository.RawEntityProvider> providerSupplier(final List<String> headerList,
+                                                                                  final String[]... rowList) {
+        final RawEntitySchema schema = new RawEntitySchema(headerList);
+        return () -> new RawFileRepository.RawEntityProvider() {
+            private int index = 1;
+            private final Iterator<String[]> rowIterator = Arrays.asList(rowList).iterator();
+
+            @Override
+            public boolean hasNext() {
+                return rowIterator.hasNext();
+            }
+
+            @Override
+            public RawEntity getNext() {
+                return new RawEntity(schema, rowIterator.next(), ++index);
+            }
+
+            @Override
+            public int getHeaderCount() {
+                return headerList.size();
+            }
+
+            @Override
+            public Collection<String> getHeaders() {
+                return headerList;
+            }
+
+            @Override
+            public RawEntitySchema getSchema() {
+                return schema;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * Returns a repository holding a single file, read in as many ranges as suppliers of providers passed as parameter
+     */
+    @SafeVarargs
+    private static RawFileRepository mockFileRepo(final String filename,
+                                                  final Supplier<RawFileRepository.RawEntityProvider>... suppliers) {
+        RawFileRepository mockFileRepo = mock(RawFileRepository.class);
+        when(mockFileRepo.getFilenameAll()).thenReturn(Set.of(filename));
+        when(mockFileRepo.findByName(filename))
+                .thenReturn(Optional.of(RawFileInfo.builder().filename(filename).build()));
+        when(mockFileRepo.getProviderChunkListForFile(any(RawFileInfo.class), anyLong(), anyLong()))
+                .thenAnswer(invocation -> Optional.of(Arrays.stream(suppliers)
+                        .map(supplier -> {
+                            // each pass opens the ranges anew
+                            final RawFileRepository.RawEntityProvider provider = supplier.get();
+                            return (Supplier<RawFileRepository.RawEntityProvider>) () -> provider;
+                        })
+                        .collect(Collectors.toList())));
+        return mockFileRepo;
+    }
+
+    private static ExecParamRepository mockExecParamRepo() {
+        ExecParamRepository mockExecParamRepo = mock(ExecParamRepository.class);
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.SPLIT_THRESHOLD_KEY)).thenReturn("1000");
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.CHUNK_SIZE_KEY)).thenReturn("100");
+        when(mockExecParamRepo.getExecParamValue(ExecParamRepository.THREADS_KEY)).thenReturn("2");
+        return mockExecParamRepo;
+    }
+
+    private static List<Notice> execute(final RawFileRepository fileRepo, final List<UniqueKey> uniqueKeyList) {
+        GtfsSpecRepository mockSpecRepo = mock(GtfsSpecRepository.class);
+        when(mockSpecRepo.getUniqueKeyList()).thenReturn(uniqueKeyList);
+
+        ValidationResultRepository mockResultRepo = mock(ValidationResultRepository.class);
+
+        new ValidateAllUniqueValues(fileRepo, mockSpecRepo, mockResultRepo, mockExecParamRepo(), Runnable::run,
+                mock(MetricsRepository.class)).execute();
+
+        ArgumentCaptor<Notice> captor = ArgumentCaptor.forClass(Notice.class);
+        verify(mockResultRepo, atLeast(0)).addNotice(captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Test
+    void uniqueValuesShouldGenerateNoNoticeAndBeReadOnce() {
+        RawFileRepository mockFileRepo = mockFileRepo("stops.txt", providerSupplier(List.of("stop_id"),
+                new String[]{"S1"}, new String[]{"S2"}, new String[]{""}, new String[]{""}));
+
+        assertEquals(0, execute(mockFileRepo, List.of(STOPS_STOP_ID)).size());
+        verify(mockFileRepo, times(1)).getProviderChunkListForFile(any(RawFileInfo.class), anyLong(), anyLong());
+    }
+
+    @Test
+    void duplicatedValueShouldGenerateNoticeForEachRepetition() {
+        RawFileRepository mockFileRepo = mockFileRepo("stops.txt", providerSupplier(List.of("stop_id"),
+                new String[]{"S1"}, new String[]{"S2"}, new String[]{"S1"}, new String[]{"S1"}));
+
+        List<Notice> noticeList = execute(mockFileRepo, List.of(STOPS_STOP_ID));
+
+        assertEquals(2, noticeList.size());
+        DuplicatedEntityNotice notice = (DuplicatedEntityNotice) noticeList.get(0);
+        assertEquals("stops.txt", notice.getFilename());
+        assertEquals("stop_id", notice.getFieldName());
+        assertEquals("S1", notice.getEntityId());
+        verify(mockFileRepo, times(2)).getProviderChunkListForFile(any(RawFileInfo.class), anyLong(), anyLong());
+    }
+
+    @Test
+    void duplicatedValuesOfSplitFileShouldGenerateNoticesInOrderOfRows() {
+        RawFileRepository mockFileRepo = mockFileRepo("stops.txt",
+                providerSupplier(List.of("stop_id"), new String[]{"S1"}, new String[]{"S2"}, new String[]{"S2"}),
+                providerSupplier(List.of("stop_id"), new String[]{"S3"}, new String[]{"S1"}),
+                providerSupplier(List.of("stop_id"), new String[]{"S3"}, new String[]{"S4"}));
+
+        List<Notice> noticeList = execute(mockFileRepo, List.of(STOPS_STOP_ID));
+
+        assertEquals(List.of("S2", "S1", "S3"), noticeList.stream()
+                .map(notice -> ((DuplicatedEntityNotice) notice).getEntityId())
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void multiColumnKeyShouldBeUniqueAsTuple() {
+        RawFileRepository mockFileRepo = mockFileRepo("stop_times.txt",
+                providerSupplier(List.of("trip_id", "stop_sequence"),
+                        new String[]{"T1", "1"}, new String[]{"T1", "2"}, new String[]{"T2", "1"},
+                        new String[]{"T1", "2"}));
+
+        List<Notice> noticeList = execute(mockFileRepo, List.of(STOP_TIMES_RESORTKEY));
+
+        assertEquals(1, noticeList.size());
+        DuplicatedEntityNotice notice = (DuplicatedEntityNotice) noticeList.get(0);
+        assertEquals("trip_id,stop_sequence", notice.getFieldName());
+        assertEquals("T1,2", notice.getEntityId());
+    }
+
+    @Test
+    void keyWithMissingColumnShouldNotBeChecked() {
+        RawFileRepository mockFileRepo = mockFileRepo("stop_times.txt",
+                providerSupplier(List.of("trip_id"), new String[]{"T1"}, new String[]{"T1"}));
+
+        assertEquals(0, execute(mockFileRepo, List.of(STOP_TIMES_RESORTKEY)).size());
+    }
+
+    @Test
+    void keysOfMissingFileShouldNotBeChecked() {
+        RawFileRepository mockFileRepo = mockFileRepo("stops.txt",
+                providerSupplier(List.of("stop_id"), new String[]{"S1"}));
+
+        assertEquals(0, execute(mockFileRepo, List.of(STOP_TIMES_RESORTKEY)).size());
+        verify(mockFileRepo, never()).getProviderChunkListForFile(any(RawFileInfo.class), anyLong(), anyLong());
+    }
+}